@@ -5,12 +5,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import it.cnr.saks.hyperion.discovery.DiscoveryConfiguration;
 import it.cnr.saks.hyperion.discovery.MethodDescriptor;
 import it.cnr.saks.hyperion.discovery.MethodEnumerator;
+import it.cnr.saks.hyperion.similarity.FactWriter;
 import it.cnr.saks.hyperion.similarity.InformationLogger;
 import it.cnr.saks.hyperion.symbolic.Analyzer;
 import it.cnr.saks.hyperion.symbolic.AnalyzerException;
-import it.cnr.saks.hyperion.symbolic.MaydayThread;
+import it.cnr.saks.hyperion.symbolic.GuidanceVmPool;
+import it.cnr.saks.hyperion.symbolic.MemoryGovernor;
 import it.cnr.saks.hyperion.symbolic.ShutdownHook;
+import it.cnr.saks.hyperion.symbolic.SymbolicApplyMemo;
+import jbse.algo.BootstrapSnapshot;
+import jbse.bc.ClassFileCache;
+import jbse.bc.ClasspathIndex;
 import jbse.bc.Signature;
+import jbse.dec.SatCache;
+import jbse.dec.SolverProcessPool;
+import jbse.mem.DelegationChainStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,11 +31,26 @@ import java.net.MalformedURLException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AnalyzerRunnerHelper {
     private static MethodEnumerator methodEnumerator;
     private static DiscoveryConfiguration discoveryConfiguration;
+    private static BootstrapSnapshot bootstrapSnapshot;
+    private static SolverProcessPool solverProcessPool;
+    private static SatCache satCache;
+    private static GuidanceVmPool guidanceVmPool;
+    private static SymbolicApplyMemo symbolicApplyMemo;
+    private static MemoryGovernor memoryGovernor;
+    private static final AtomicInteger failed = new AtomicInteger();
     private static final Logger log = LoggerFactory.getLogger(AnalyzerRunnerHelper.class);
 
     public static int runAnalyzer(File configJsonFile) {
@@ -70,15 +94,84 @@ public class AnalyzerRunnerHelper {
             facts = discoveryConfiguration.getOutputFile();
         }
 
-        InformationLogger inspector = new InformationLogger(discoveryConfiguration);
-        inspector.setDatalogOutputFile(facts);
+        final FactWriter factWriter;
+        try {
+            factWriter = new FactWriter(facts, discoveryConfiguration.getFactStoreFile());
+        } catch (IOException e) {
+            log.error("Unable to open output file {}: {}", facts, e.getMessage());
+            return 73; // EX_CANTCREAT
+        }
+        factWriter.start();
 
-        int analyzed = 0;
+        ShutdownHook.setupShutdownHook(factWriter);
+        // On memory pressure the offending test program is given up, rather than the whole run
+        memoryGovernor = new MemoryGovernor();
+
+        // All test programs share the same classpath, so they can start from the same bootstrapped JVM state
+        if(discoveryConfiguration.getShareBootstrap())
+            bootstrapSnapshot = new BootstrapSnapshot();
+
+        // z3 processes are reused across test programs, one per worker
+        solverProcessPool = new SolverProcessPool(discoveryConfiguration.getParallelism());
+
+        // Test programs exercising the same code issue the same queries, so z3 answers are cached across them
+        if(discoveryConfiguration.getSatCacheSize() > 0)
+            satCache = new SatCache(discoveryConfiguration.getSatCacheSize());
+
+        // Guidance JVMs are kept warm and receive the next test program, rather than being launched for each one
+        if(discoveryConfiguration.getGuidanceVmPool() > 0)
+            guidanceVmPool = new GuidanceVmPool(discoveryConfiguration.getGuidanceVmPool());
+
+        // If the uninterpreted functions are pure, their concrete results can be reused across test programs
+        if(discoveryConfiguration.getMemoizeUninterpreted())
+            symbolicApplyMemo = new SymbolicApplyMemo();
+
+        int analyzed;
+        failed.set(0);
         long startTime = System.nanoTime();
 
-        ShutdownHook.setupShutdownHook(inspector);
-        MaydayThread maydayThread = new MaydayThread(inspector);
-        maydayThread.start();
+        if(discoveryConfiguration.getParallelism() > 1)
+            analyzed = runParallel(factWriter);
+        else
+            analyzed = runSequential(factWriter);
+
+        memoryGovernor.close();
+        factWriter.close();
+        solverProcessPool.close();
+        if(guidanceVmPool != null)
+            guidanceVmPool.close();
+        ClasspathIndex.instance().close();
+
+        long endTime = System.nanoTime();
+        double duration = (double)(endTime - startTime) / 1000000000;
+        log.info("Analyzed " + analyzed + " method" + (analyzed > 1 ? "s" : "") + " in " + duration + " seconds.");
+        if(failed.get() > 0)
+            log.error("The analysis of {} test program{} failed", failed.get(), failed.get() > 1 ? "s" : "");
+
+        ClassFileCache classFileCache = ClassFileCache.instance();
+        log.info("Class file cache: {} classes, {} hits, {} misses", classFileCache.size(), classFileCache.getHits(), classFileCache.getMisses());
+        DelegationChainStats delegationChainStats = DelegationChainStats.instance();
+        log.info("Static method area chains: max depth {}, {} compactions, {} layers dropped, {} classes flattened", delegationChainStats.getMaxDepth(), delegationChainStats.getCompactions(), delegationChainStats.getLayersDropped(), delegationChainStats.getKlassesFlattened());
+        log.info("Solver processes: {} launched, {} reused, {} discarded", solverProcessPool.getLaunched(), solverProcessPool.getReused(), solverProcessPool.getDiscarded());
+        if(guidanceVmPool != null)
+            log.info("Guidance VMs: {} launched, {} reused, {} discarded", guidanceVmPool.getLaunched(), guidanceVmPool.getReused(), guidanceVmPool.getDiscarded());
+        if(symbolicApplyMemo != null)
+            log.info("Uninterpreted function results: {} memoized, {} hits, {} misses", symbolicApplyMemo.size(), symbolicApplyMemo.getHits(), symbolicApplyMemo.getMisses());
+        if(satCache != null)
+            log.info("Solver answers cache: {} answers, {} hits, {} misses", satCache.size(), satCache.getHits(), satCache.getMisses());
+        if(memoryGovernor.getNotifications() > 0)
+            log.info("Memory governor: {} notifications, {} paths stopped, {} pending states dropped, {} test programs skipped", memoryGovernor.getNotifications(), memoryGovernor.getPathsStopped(), memoryGovernor.getStatesDropped(), memoryGovernor.getTestsSkipped());
+        if(bootstrapSnapshot != null)
+            log.info("Bootstrap snapshot: {} steps, forked {} times, {} steps saved", bootstrapSnapshot.getBootstrapSteps(), bootstrapSnapshot.getForks(), bootstrapSnapshot.getStepsSaved());
+
+        return failed.get() > 0 ? 70 : 0; // EX_SOFTWARE
+    }
+
+    private static int runSequential(FactWriter factWriter) {
+        InformationLogger inspector = new InformationLogger(discoveryConfiguration, factWriter);
+
+        int analyzed = 0;
+        int scheduled = 0;
 
         for(MethodDescriptor method: methodEnumerator) {
             analyzed++;
@@ -86,36 +179,115 @@ public class AnalyzerRunnerHelper {
             if(discoveryConfiguration.getSkip() != null && analyzed <= discoveryConfiguration.getSkip())
                 continue;
 
-            inspector.prepareForNewTestProgram(method.getClassName(), method.getMethodName());
-            log.info("[{}/{}] Analysing: {}.{}:{}", analyzed, methodEnumerator.getMethodsCount(), method.getClassName(), method.getMethodName(), method.getMethodDescriptor());
+            analyzeTestProgram(method, analyzed, scheduled++, inspector);
+        }
+
+        return analyzed;
+    }
+
+    /*
+     * Each test program is analyzed by a worker owning its own InformationLogger, which in turn
+     * owns its own Engine, z3 process and JDI target VM. All loggers share the same FactWriter,
+     * which writes facts in scheduling order, so that the output does not depend on which
+     * worker completes first.
+     *
+     * Everything else the workers share is thread-safe: the process-wide ClassFileCache,
+     * ClasspathIndex and DelegationChainStats, whose cached class files are never modified;
+     * the pools, the caches and the memo table created above; and the MemoryGovernor, which
+     * reaches the running Analyzers only through their atomic pressure counter and volatile
+     * pending states count. The guidance keeps no static state: each Analyzer owns its
+     * decision procedures and target JVMs. The shutdown hook only reads the FactWriter,
+     * which is set before the workers start, and the loggers attached to it.
+     */
+    private static int runParallel(FactWriter factWriter) {
+        final int parallelism = discoveryConfiguration.getParallelism();
+        log.info("Running the analysis with {} workers", parallelism);
 
-            Signature testProgramSignature = new Signature(method.getClassName().replace(".", File.separator), method.getMethodDescriptor(), method.getMethodName());
+        final ExecutorService workers = Executors.newFixedThreadPool(parallelism, new AnalyzerThreadFactory());
+        final Map<Future<?>, MethodDescriptor> results = new LinkedHashMap<>();
 
+        int analyzed = 0;
+        int scheduled = 0;
+        for(MethodDescriptor method: methodEnumerator) {
+            analyzed++;
+
+            if(discoveryConfiguration.getSkip() != null && analyzed <= discoveryConfiguration.getSkip())
+                continue;
+
+            final int testNumber = analyzed;
+            final int ordinal = scheduled++;
+            results.put(workers.submit(() -> {
+                final InformationLogger inspector = new InformationLogger(discoveryConfiguration, factWriter);
+                analyzeTestProgram(method, testNumber, ordinal, inspector);
+            }), method);
+        }
+        workers.shutdown();
+
+        for(Map.Entry<Future<?>, MethodDescriptor> result: results.entrySet()) {
             try {
-                Analyzer a = new Analyzer(inspector)
-                        .withUserClasspath(discoveryConfiguration.getClassPath())
-                        .withTimeout(discoveryConfiguration.getTimeout())
-                        .withDepthScope(discoveryConfiguration.getDepth())
-                        .withJbseEntryPoint(testProgramSignature)
-                        .withTestProgram(testProgramSignature);
-
-                a.setupStatic();
-                a.run();
-            } catch (AnalyzerException | OutOfMemoryError | StackOverflowError e) {
-                e.printStackTrace();
-            } finally {
-                try {
-                    inspector.emitDatalog();
-                } catch (AnalyzerException e) {
-                    e.printStackTrace();
-                }
+                result.getKey().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                final MethodDescriptor method = result.getValue();
+                log.error("Error while analysing {}.{}:{}", method.getClassName(), method.getMethodName(), method.getMethodDescriptor(), e.getCause());
+                failed.incrementAndGet();
             }
         }
 
-        long endTime = System.nanoTime();
-        double duration = (double)(endTime - startTime) / 1000000000;
-        log.info("Analyzed " + analyzed + " method" + (analyzed > 1 ? "s" : "") + " in " + duration + " seconds.");
+        return analyzed;
+    }
+
+    private static void analyzeTestProgram(MethodDescriptor method, int testNumber, int ordinal, InformationLogger inspector) {
+        inspector.prepareForNewTestProgram(ordinal, method.getClassName(), method.getMethodName());
+        log.info("[{}/{}] Analysing: {}.{}:{}", testNumber, methodEnumerator.getMethodsCount(), method.getClassName(), method.getMethodName(), method.getMethodDescriptor());
+
+        Signature testProgramSignature = new Signature(method.getClassName().replace(".", File.separator), method.getMethodDescriptor(), method.getMethodName());
+
+        try {
+            Analyzer a = new Analyzer(inspector)
+                    .withUserClasspath(discoveryConfiguration.getClassPath())
+                    .withTimeout(discoveryConfiguration.getTimeout())
+                    .withDepthScope(discoveryConfiguration.getDepth())
+                    .withGcInterval(discoveryConfiguration.getGcInterval())
+                    .withMaxStatesInMemory(discoveryConfiguration.getMaxStatesInMemory())
+                    .withBootstrapSnapshot(bootstrapSnapshot)
+                    .withSolverProcessPool(solverProcessPool)
+                    .withSatCache(satCache)
+                    .withGuidanceVmPool(guidanceVmPool)
+                    .withSymbolicApplyMemo(symbolicApplyMemo)
+                    .withMemoryGovernor(memoryGovernor)
+                    .withJbseEntryPoint(testProgramSignature)
+                    .withTestProgram(testProgramSignature);
+
+            a.setupStatic();
+            a.run();
+        } catch (OutOfMemoryError e) {
+            log.error("Out of memory while analysing {}.{}: skipping it", method.getClassName(), method.getMethodName());
+            inspector.markSkipped("memory");
+            memoryGovernor.testSkipped();
+        } catch (AnalyzerException | StackOverflowError e) {
+            log.error("Error while analysing {}.{}:{}", method.getClassName(), method.getMethodName(), method.getMethodDescriptor(), e);
+            failed.incrementAndGet();
+        } finally {
+            try {
+                inspector.emitDatalog();
+            } catch (AnalyzerException e) {
+                log.error("Unable to emit the facts of {}.{}:{}", method.getClassName(), method.getMethodName(), method.getMethodDescriptor(), e);
+                failed.incrementAndGet();
+            }
+        }
+    }
+
+    private static class AnalyzerThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger(0);
 
-        return 0;
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "hyperion-analyzer-" + this.threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
     }
 }
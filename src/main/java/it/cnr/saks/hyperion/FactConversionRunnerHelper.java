@@ -0,0 +1,33 @@
+package it.cnr.saks.hyperion;
+
+import it.cnr.saks.hyperion.similarity.store.FactStore;
+import it.cnr.saks.hyperion.similarity.store.FactStoreConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+public class FactConversionRunnerHelper {
+    private static final Logger log = LoggerFactory.getLogger(FactConversionRunnerHelper.class);
+
+    public static int runFactConversion(File in, File out) {
+        if(!in.canRead()) {
+            log.error("Unable to read {}", in);
+            return 66; // EX_NOINPUT
+        }
+
+        final boolean toProlog = FactStore.isFactStore(in);
+        log.info("Converting {} to {} ({})", in, out, toProlog ? "Prolog" : "fact store");
+        long startTime = System.nanoTime();
+        try {
+            FactStoreConverter.convert(in, out);
+        } catch (IOException e) {
+            log.error("Error while converting facts: " + e.getMessage());
+            return 65; // EX_DATAERR
+        }
+        log.info("Converted {} bytes to {} bytes in {} ms", in.length(), out.length(), (System.nanoTime() - startTime) / 1000000);
+
+        return 0;
+    }
+}
@@ -20,6 +20,9 @@ public class Hyperion implements Callable<Integer> {
     @Option(names = { "-g", "--group-similar-tests" }, paramLabel = "CONF_FILE", description = "The JSON file to configure the test grouping activity")
     File groupingJson;
 
+    @Option(names = { "-c", "--convert-facts" }, arity = "2", paramLabel = "FILE", description = "Convert the facts in the first file between the Prolog and the binary formats, writing them to the second file")
+    File[] convertFacts;
+
     @Override
     public Integer call() throws Exception {
         int ret = 64; // EX_USAGE
@@ -31,6 +34,8 @@ public class Hyperion implements Callable<Integer> {
             ret = SimilarityExtractionRunnerHelper.runSimilarityExtraction(this.similarityExtractionJson);
         if(this.groupingJson != null)
             ret = GroupingRunnerHelper.runGrouping(this.groupingJson);
+        if(this.convertFacts != null)
+            ret = FactConversionRunnerHelper.runFactConversion(this.convertFacts[0], this.convertFacts[1]);
 
         return ret;
     }
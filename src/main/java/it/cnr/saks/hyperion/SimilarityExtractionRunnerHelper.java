@@ -5,6 +5,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import it.cnr.saks.hyperion.similarity.SimilarTests;
 import it.cnr.saks.hyperion.similarity.SimilarityConfiguration;
 import it.cnr.saks.hyperion.similarity.SimilarityException;
+import it.cnr.saks.hyperion.similarity.engine.FactBase;
+import it.cnr.saks.hyperion.similarity.engine.SimilarityEngine;
 import it.cnr.saks.hyperion.similarity.prolog.SimilarityAnalysis;
 import it.cnr.saks.hyperion.symbolic.AnalyzerException;
 import org.slf4j.Logger;
@@ -33,9 +35,13 @@ public class SimilarityExtractionRunnerHelper {
 
         try {
             // Perform the similarity analysis
-            SimilarityAnalysis analysis = new SimilarityAnalysis();
-            analysis.loadPrologDataset(configurationSimilarity.getRegex(), configurationSimilarity.getInvokes());
-            results = analysis.computeSimilarity(configurationSimilarity.getMetric(), configurationSimilarity.getDomain(), configurationSimilarity.getInvokesBlackList());
+            if("java".equals(configurationSimilarity.getEngine())) {
+                results = computeSimilarityInJava(configurationSimilarity);
+            } else {
+                SimilarityAnalysis analysis = new SimilarityAnalysis();
+                analysis.loadPrologDataset(configurationSimilarity.getRegex(), configurationSimilarity.getInvokes());
+                results = analysis.computeSimilarity(configurationSimilarity.getMetric(), configurationSimilarity.getDomain(), configurationSimilarity.getSource(), configurationSimilarity.getInvokesBlackList());
+            }
 
         } catch (SimilarityException e) {
             e.printStackTrace();
@@ -61,4 +67,19 @@ public class SimilarityExtractionRunnerHelper {
 
         return 0;
     }
+
+    private static SimilarTests[] computeSimilarityInJava(SimilarityConfiguration configurationSimilarity) throws IOException, SimilarityException {
+        FactBase factBase = new FactBase();
+        if(configurationSimilarity.getRegex() != null) {
+            log.info("Loading REGEX file for endpoint generation: " + configurationSimilarity.getRegex());
+            factBase.loadRestApiRegexes(new File(configurationSimilarity.getRegex()));
+        }
+        for(String invokes: configurationSimilarity.getInvokes()) {
+            log.info("Loading " + invokes);
+            factBase.load(new File(invokes));
+        }
+
+        SimilarityEngine engine = new SimilarityEngine(factBase, configurationSimilarity.getParallelism());
+        return engine.computeSimilarity(configurationSimilarity.getMetric(), configurationSimilarity.getDomain(), configurationSimilarity.getSource(), configurationSimilarity.getInvokesBlackList());
+    }
 }
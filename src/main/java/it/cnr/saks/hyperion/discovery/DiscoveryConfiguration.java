@@ -24,8 +24,18 @@ public class DiscoveryConfiguration {
     private Integer depth;
     private Integer timeout;
     private Integer skip;
+    private Integer parallelism;
+    private Boolean shareBootstrap;
+    private Integer satCacheSize;
+    private Integer guidanceVmPool;
+    private Boolean memoizeUninterpreted;
+    private Integer gcInterval;
+    private Integer maxStatesInMemory;
+    private Integer factBatchSize;
+    private Boolean normalizePathConditions;
     private URL[] classPath;
     private String outputFile;
+    private String factStoreFile;
     private String testProgramsList;
 
     private DiscoveryConfiguration() {}
@@ -50,6 +60,24 @@ public class DiscoveryConfiguration {
             discoveryConfiguration.setTimeout(0);
         if(discoveryConfiguration.getSkip() == null)
             discoveryConfiguration.setSkip(0);
+        if(discoveryConfiguration.getParallelism() == null || discoveryConfiguration.getParallelism() < 1)
+            discoveryConfiguration.setParallelism(1);
+        if(discoveryConfiguration.getShareBootstrap() == null)
+            discoveryConfiguration.setShareBootstrap(true);
+        if(discoveryConfiguration.getSatCacheSize() == null || discoveryConfiguration.getSatCacheSize() < 0)
+            discoveryConfiguration.setSatCacheSize(100000);
+        if(discoveryConfiguration.getGuidanceVmPool() == null || discoveryConfiguration.getGuidanceVmPool() < 0)
+            discoveryConfiguration.setGuidanceVmPool(0);
+        if(discoveryConfiguration.getMemoizeUninterpreted() == null)
+            discoveryConfiguration.setMemoizeUninterpreted(false);
+        if(discoveryConfiguration.getGcInterval() == null || discoveryConfiguration.getGcInterval() < 0)
+            discoveryConfiguration.setGcInterval(0);
+        if(discoveryConfiguration.getMaxStatesInMemory() == null || discoveryConfiguration.getMaxStatesInMemory() < 0)
+            discoveryConfiguration.setMaxStatesInMemory(0);
+        if(discoveryConfiguration.getFactBatchSize() == null || discoveryConfiguration.getFactBatchSize() < 0)
+            discoveryConfiguration.setFactBatchSize(1000);
+        if(discoveryConfiguration.getNormalizePathConditions() == null)
+            discoveryConfiguration.setNormalizePathConditions(false);
 
         return discoveryConfiguration;
     }
@@ -156,6 +184,78 @@ public class DiscoveryConfiguration {
         this.skip = skip;
     }
 
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public Boolean getShareBootstrap() {
+        return shareBootstrap;
+    }
+
+    public void setShareBootstrap(Boolean shareBootstrap) {
+        this.shareBootstrap = shareBootstrap;
+    }
+
+    public Integer getSatCacheSize() {
+        return satCacheSize;
+    }
+
+    public void setSatCacheSize(Integer satCacheSize) {
+        this.satCacheSize = satCacheSize;
+    }
+
+    public Integer getGuidanceVmPool() {
+        return guidanceVmPool;
+    }
+
+    public void setGuidanceVmPool(Integer guidanceVmPool) {
+        this.guidanceVmPool = guidanceVmPool;
+    }
+
+    public Boolean getMemoizeUninterpreted() {
+        return memoizeUninterpreted;
+    }
+
+    public void setMemoizeUninterpreted(Boolean memoizeUninterpreted) {
+        this.memoizeUninterpreted = memoizeUninterpreted;
+    }
+
+    public Integer getGcInterval() {
+        return gcInterval;
+    }
+
+    public void setGcInterval(Integer gcInterval) {
+        this.gcInterval = gcInterval;
+    }
+
+    public Integer getMaxStatesInMemory() {
+        return maxStatesInMemory;
+    }
+
+    public void setMaxStatesInMemory(Integer maxStatesInMemory) {
+        this.maxStatesInMemory = maxStatesInMemory;
+    }
+
+    public Integer getFactBatchSize() {
+        return factBatchSize;
+    }
+
+    public void setFactBatchSize(Integer factBatchSize) {
+        this.factBatchSize = factBatchSize;
+    }
+
+    public Boolean getNormalizePathConditions() {
+        return normalizePathConditions;
+    }
+
+    public void setNormalizePathConditions(Boolean normalizePathConditions) {
+        this.normalizePathConditions = normalizePathConditions;
+    }
+
     public String getOutputFile() {
         return outputFile;
     }
@@ -164,6 +264,14 @@ public class DiscoveryConfiguration {
         this.outputFile = outputFile;
     }
 
+    public String getFactStoreFile() {
+        return factStoreFile;
+    }
+
+    public void setFactStoreFile(String factStoreFile) {
+        this.factStoreFile = factStoreFile;
+    }
+
     public String getTestProgramsList() {
         return testProgramsList;
     }
@@ -0,0 +1,427 @@
+package it.cnr.saks.hyperion.similarity;
+
+import it.cnr.saks.hyperion.similarity.store.FactSink;
+import it.cnr.saks.hyperion.similarity.store.FactStoreReader;
+import it.cnr.saks.hyperion.similarity.store.FactStoreWriter;
+import it.cnr.saks.hyperion.similarity.store.PrologFactPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single writer of the Prolog facts generated by any number of {@link InformationLogger}s.
+ * {@link TestInformation} batches are handed off through a bounded queue and rendered by a
+ * dedicated thread, so that symbolic execution never waits for the output file. Batches are
+ * written in ordinal order, regardless of the order in which they are submitted. The facts
+ * of a test program may be submitted in several batches while it is being analyzed: the
+ * batches of the test program being written go straight to the output file, while the
+ * batches of the following ones are staged in temporary files, so that the memory taken
+ * by the facts does not depend on the length of the traces. The facts can also be written, in
+ * the same order, to a binary {@link it.cnr.saks.hyperion.similarity.store.FactStore}.
+ * If the writer thread is not running, e.g., because it failed, the batches are written by
+ * the threads that submit them.
+ */
+public class FactWriter extends Thread {
+    private static final Logger log = LoggerFactory.getLogger(FactWriter.class);
+    private static final int QUEUE_CAPACITY = 64;
+    private static final long OFFER_TIMEOUT_SECONDS = 1;
+    private static final Batch POISON_PILL = new Batch(-1, null, true);
+
+    private final PrintStream datalogOut;
+    private final PrologFactPrinter printer;
+    private FactStoreWriter store;
+    private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Map<Integer, Staged> pending = new TreeMap<>();
+    private final Set<InformationLogger> attachedLoggers = ConcurrentHashMap.newKeySet();
+    private int nextOrdinal = 0;
+    private volatile boolean closed = false;
+    private volatile Throwable failure = null;
+
+    public FactWriter(String outputFile) throws IOException {
+        this(outputFile, null);
+    }
+
+    /**
+     * @param outputFile the Prolog file to write.
+     * @param storeFile the binary fact store to write alongside {@code outputFile}, or {@code null}.
+     */
+    public FactWriter(String outputFile, String storeFile) throws IOException {
+        super("hyperion-fact-writer");
+        this.datalogOut = new PrintStream(new BufferedOutputStream(new FileOutputStream(outputFile)), false, StandardCharsets.UTF_8.name());
+        this.printer = new PrologFactPrinter(this.datalogOut);
+        if(storeFile != null)
+            this.store = new FactStoreWriter(new File(storeFile));
+        setDaemon(true);
+    }
+
+    /**
+     * Hands off the last facts of a completed test program. Blocks only if the writer is
+     * {@link #QUEUE_CAPACITY} batches behind the analyzers, or while the batches are written
+     * by the calling thread if the writer is not running.
+     *
+     * @param ordinal the position of the test program in the analysis order, starting from 0.
+     * @param testInformation the facts collected while analyzing the test program, since the
+     *        last batch submitted with {@link #submitPartial(int, TestInformation)}.
+     */
+    public void submit(int ordinal, TestInformation testInformation) {
+        submit(ordinal, testInformation, true);
+    }
+
+    /**
+     * Hands off some facts of a test program that is still being analyzed. Blocks only if
+     * the writer is {@link #QUEUE_CAPACITY} batches behind the analyzers.
+     *
+     * @param ordinal the position of the test program in the analysis order, starting from 0.
+     * @param testInformation the facts collected while analyzing the test program, since the
+     *        last batch submitted.
+     */
+    public void submitPartial(int ordinal, TestInformation testInformation) {
+        submit(ordinal, testInformation, false);
+    }
+
+    private void submit(int ordinal, TestInformation testInformation, boolean last) {
+        if(this.closed) {
+            log.warn("Dropping facts of {}:{}: the fact writer has been closed", testInformation.getTestClass(), testInformation.getTestMethod());
+            return;
+        }
+
+        final Batch batch = new Batch(ordinal, testInformation, last);
+        try {
+            while(!this.queue.offer(batch, OFFER_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                if(!isAlive())
+                    drain();
+                if(this.closed) {
+                    log.warn("Dropping facts of {}:{}: the fact writer has been closed", testInformation.getTestClass(), testInformation.getTestMethod());
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if(!isAlive())
+            drain();
+    }
+
+    /**
+     * Writes the queued batches in the calling thread. Only invoked when the writer thread
+     * is not running, so that it cannot race with it.
+     */
+    private synchronized void drain() {
+        final ArrayList<Batch> batches = new ArrayList<>();
+        this.queue.drainTo(batches);
+        for(Batch batch: batches) {
+            if(batch == POISON_PILL)
+                continue;
+            try {
+                write(batch);
+                this.datalogOut.flush();
+            } catch (RuntimeException e) {
+                log.error("Dropping facts of {}:{}: unable to write them", batch.testInformation.getTestClass(), batch.testInformation.getTestMethod(), e);
+            }
+        }
+    }
+
+    void attach(InformationLogger informationLogger) {
+        this.attachedLoggers.add(informationLogger);
+    }
+
+    void detach(InformationLogger informationLogger) {
+        this.attachedLoggers.remove(informationLogger);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while(true) {
+                final Batch batch;
+                try {
+                    batch = this.queue.take();
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if(batch == POISON_PILL)
+                    break;
+
+                write(batch);
+                this.datalogOut.flush();
+            }
+        } catch (Throwable t) {
+            // The following batches are written by the threads that submit them
+            this.failure = t;
+            log.error("The fact writer failed", t);
+        }
+    }
+
+    private void write(Batch batch) {
+        if(batch.ordinal != this.nextOrdinal) {
+            stage(batch);
+            return;
+        }
+
+        emit(batch.testInformation);
+        if(!batch.last)
+            return;
+
+        // The test program is complete: catch up with the ones staged after it
+        this.nextOrdinal++;
+        while(this.pending.containsKey(this.nextOrdinal)) {
+            final Staged staged = this.pending.remove(this.nextOrdinal);
+            copy(staged);
+            if(!staged.complete)
+                break;
+            this.nextOrdinal++;
+        }
+    }
+
+    private void emit(TestInformation testInformation) {
+        try {
+            // The printer never fails, so any error comes from the store
+            writeTestInformation(this.printer, testInformation);
+            if(this.store != null)
+                writeTestInformation(this.store, testInformation);
+        } catch (IOException e) {
+            abandonStore(e);
+        }
+    }
+
+    private void copy(Staged staged) {
+        try {
+            staged.copyTo(this.datalogOut, this.store);
+        } catch (IOException e) {
+            abandonStore(e);
+        }
+    }
+
+    private void abandonStore(IOException e) {
+        log.error("Unable to write the fact store, the facts are written to the Prolog file only: {}", e.getMessage());
+        try {
+            this.store.close();
+        } catch (IOException ignored) {}
+        this.store = null;
+    }
+
+    private void stage(Batch batch) {
+        Staged staged = this.pending.get(batch.ordinal);
+        if(staged == null) {
+            staged = new Staged();
+            this.pending.put(batch.ordinal, staged);
+        }
+        staged.add(batch.testInformation);
+        if(batch.last)
+            staged.complete();
+    }
+
+    /**
+     * Waits for all submitted batches to be written, then closes the output file. Batches missing
+     * from the ordinal sequence (e.g., test programs that never completed) are skipped.
+     */
+    public synchronized void close() {
+        if(this.closed)
+            return;
+        // From now on the submitted batches are dropped
+        this.closed = true;
+
+        try {
+            while(isAlive() && !this.queue.offer(POISON_PILL, OFFER_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                // The writer is still running: wait until it makes room for the pill
+            }
+            join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if(this.failure != null)
+            log.warn("The fact writer failed, the facts may be incomplete: {}", this.failure.toString());
+
+        // Anything still in the queue was submitted after the writer stopped
+        drain();
+        for(Staged staged: this.pending.values())
+            copy(staged);
+        this.pending.clear();
+
+        this.datalogOut.close();
+        if(this.store != null) {
+            log.info("Fact store: {} facts, {} distinct strings", this.store.getFacts(), this.store.getStrings());
+            try {
+                this.store.close();
+            } catch (IOException e) {
+                log.error("Unable to close the fact store: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Emits whatever the attached loggers have collected so far for the test programs
+     * they are analyzing, then closes the writer. Used when the analysis is aborted.
+     */
+    public void emergencyClose() {
+        for(InformationLogger informationLogger: this.attachedLoggers) {
+            try {
+                informationLogger.emitDatalog();
+            } catch (Exception e) {
+                log.error("Unable to emit the facts collected so far", e);
+            }
+        }
+        close();
+    }
+
+    private static void writeTestInformation(FactSink sink, TestInformation testInformation) throws IOException {
+        final String testProgram = testInformation.getTestClass() + ":" + testInformation.getTestMethod();
+
+        // Path conditions come first, as the invokes of the same batch may refer to them
+        for(TestInformation.PathCondition pathCondition: testInformation.getPathConditions())
+            sink.pathCondition(pathCondition.getId(), pathCondition.getClauses());
+
+        for(TestInformation.MethodCall methodCall: testInformation.getMethodCalls()) {
+            sink.invokes(testProgram, methodCall.getBranchPoints(), methodCall.getSequenceNumber(), methodCall.getProgramPoint(),
+                         methodCall.getCallerPC(), methodCall.getCallerEpoch(), methodCall.getPathCondition(),
+                         methodCall.getClassName() + ":" + methodCall.getMethodName() + ":" + methodCall.getMethodDescriptor(),
+                         methodCall.getParameterSet().getParameterList());
+        }
+
+        for(TestInformation.ExceptionThrown ex: testInformation.getExceptionsThrown())
+            sink.exception(testProgram, ex.getExceptionClass());
+
+        if(testInformation.getSkipReason() != null)
+            sink.skipped(testProgram, testInformation.getSkipReason());
+    }
+
+    private static class Batch {
+        private final int ordinal;
+        private final TestInformation testInformation;
+        private final boolean last;
+
+        Batch(int ordinal, TestInformation testInformation, boolean last) {
+            this.ordinal = ordinal;
+            this.testInformation = testInformation;
+            this.last = last;
+        }
+    }
+
+    /**
+     * The facts of a test program that cannot be written yet, kept as records in a temporary
+     * {@link it.cnr.saks.hyperion.similarity.store.FactStore}, so that they are copied to the
+     * Prolog file and to the fact store without being parsed back from text. If the file cannot
+     * be created, the facts are kept in memory.
+     */
+    private static class Staged {
+        private File file;
+        private FactStoreWriter out;
+        private final ArrayList<TestInformation> inMemory = new ArrayList<>();
+        private boolean complete = false;
+
+        void add(TestInformation testInformation) {
+            if(this.file == null && this.inMemory.isEmpty()) {
+                try {
+                    this.file = File.createTempFile("hyperion-facts", ".hypf");
+                    this.file.deleteOnExit();
+                    this.out = new FactStoreWriter(this.file);
+                } catch (IOException e) {
+                    log.warn("Unable to stage facts on disk, keeping them in memory: {}", e.getMessage());
+                    discardFile();
+                }
+            }
+
+            if(this.out != null) {
+                try {
+                    writeTestInformation(this.out, testInformation);
+                    return;
+                } catch (IOException e) {
+                    // The facts staged so far are copied as far as the file can be read back
+                    log.warn("Unable to stage facts on disk, keeping them in memory: {}", e.getMessage());
+                    closeFile();
+                }
+            }
+            this.inMemory.add(testInformation);
+        }
+
+        /**
+         * Records that all the facts of the test program were staged, and releases the
+         * temporary file until it is copied.
+         */
+        void complete() {
+            this.complete = true;
+            closeFile();
+        }
+
+        /**
+         * Copies the staged facts to the Prolog file and, if not {@code null}, to the fact store.
+         *
+         * @throws IOException if the fact store cannot be written. The facts are copied
+         *         to the Prolog file anyway.
+         */
+        void copyTo(PrintStream datalogOut, FactStoreWriter store) throws IOException {
+            closeFile();
+            try {
+                // The staged file comes first, as facts are kept in memory only after it fails
+                final PrologFactPrinter printer = new PrologFactPrinter(datalogOut);
+                try {
+                    copyFile(printer);
+                } catch (IOException e) {
+                    log.error("Unable to copy staged facts from {}: {}", this.file, e.getMessage());
+                }
+                for(TestInformation testInformation: this.inMemory)
+                    printTestInformation(printer, testInformation);
+
+                if(store != null) {
+                    copyFile(store);
+                    for(TestInformation testInformation: this.inMemory)
+                        writeTestInformation(store, testInformation);
+                }
+            } finally {
+                this.inMemory.clear();
+                discardFile();
+            }
+        }
+
+        private void copyFile(FactSink sink) throws IOException {
+            if(this.file == null)
+                return;
+            try(FactStoreReader reader = new FactStoreReader(this.file)) {
+                reader.read(sink);
+            }
+        }
+
+        private void closeFile() {
+            if(this.out != null) {
+                try {
+                    this.out.close();
+                } catch (IOException e) {
+                    log.error("Unable to stage facts to {}: {}", this.file, e.getMessage());
+                }
+                this.out = null;
+            }
+        }
+
+        private void discardFile() {
+            if(this.file != null) {
+                this.file.delete();
+                this.file = null;
+            }
+        }
+
+        private static void printTestInformation(PrologFactPrinter printer, TestInformation testInformation) {
+            try {
+                writeTestInformation(printer, testInformation);
+            } catch (IOException e) {
+                // A printer never fails
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package it.cnr.saks.hyperion.similarity;
 
 import it.cnr.saks.hyperion.discovery.DiscoveryConfiguration;
+import it.cnr.saks.hyperion.similarity.store.PrologFactPrinter;
 import it.cnr.saks.hyperion.symbolic.AnalyzerException;
 import jbse.bc.ClassFile;
 import jbse.bc.Signature;
@@ -11,41 +12,63 @@ import jbse.mem.exc.InvalidNumberOfOperandsException;
 import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.val.*;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.PrintStream;
 import java.util.*;
 
 import static jbse.bc.Signatures.*;
 import static jbse.common.Type.splitParametersDescriptors;
 
+/**
+ * Collects the facts of the test program being analyzed by a single {@link it.cnr.saks.hyperion.symbolic.Analyzer}.
+ * Each analysis owns its own logger; facts are handed off to a {@link FactWriter}
+ * which can be shared by any number of loggers, in batches of the configured size
+ * while the test program is analyzed, and at its end.
+ */
 public class InformationLogger {
-    private PrintStream datalogOut = null;
+    private final FactWriter factWriter;
     private final Stack<Integer> callerFrame = new Stack<>();
     private Integer invocationEpoch = 0;
     private final List<String> excludePackages;
+    private final int factBatchSize;
+    private final boolean normalizePathConditions;
     private TestInformation testInformation;
+    private int ordinal;
 
-    public InformationLogger(DiscoveryConfiguration discoveryConfiguration) {
+    // The last formatted path condition, which is extended rather than formatted
+    // again as long as the next path conditions have the same clauses as a prefix
+    private final StringBuilder formattedPathCondition = new StringBuilder();
+    private HashSet<String> formattedPathConditionSymbols = new HashSet<>();
+    private int formattedClauses = 0;
+    private Clause formattedLastClause = null;
+
+    // The identifiers of the path conditions already emitted for the current test program, by
+    // branch identifier and number of clauses, when path conditions are normalized
+    private final HashMap<String, String> pathConditionIds = new HashMap<>();
+
+    public InformationLogger(DiscoveryConfiguration discoveryConfiguration, FactWriter factWriter) {
         this.callerFrame.push(this.invocationEpoch++);
         this.excludePackages = discoveryConfiguration.getExcludeTracedPackages();
+        this.factBatchSize = discoveryConfiguration.getFactBatchSize();
+        this.normalizePathConditions = discoveryConfiguration.getNormalizePathConditions();
+        this.factWriter = factWriter;
     }
 
     public void onThrow(State currentState) throws AnalyzerException {
-        if(this.testInformation == null)
-            throw new AnalyzerException("InformationLogger has not been correctly initialized: what test are you running?");
-
         final Objekt myException;
         try {
             final Frame frame = currentState.getCurrentFrame();
-            final Value[] operands = frame.operands(1); // athrow has one operand
-            myException = currentState.getObject((Reference) operands[0]);
+            final Value operand = frame.operand(0); // athrow has one operand
+            myException = currentState.getObject((Reference) operand);
         } catch (ThreadStackEmptyException | FrozenStateException | InvalidNumberOfOperandsException e) {
             e.printStackTrace();
             return;
         }
 
-        this.testInformation.addExceptionThrown(myException.getType().getClassName());
+        synchronized(this) {
+            if(this.testInformation == null)
+                throw new AnalyzerException("InformationLogger has not been correctly initialized: what test are you running?");
+            this.testInformation.addExceptionThrown(myException.getType().getClassName());
+        }
+        submitIfFull();
     }
 
     public void onMethodReturn() {
@@ -93,79 +116,80 @@ public class InformationLogger {
         }
 
         String branchId = s.getBranchIdentifier().substring(1);
-        String pathId = "[" + branchId.replaceAll("\\.", ", ") + "], " + s.getSequenceNumber();
+        int[] branchPoints = branchId.isEmpty() ? new int[0] : Arrays.stream(branchId.split("\\.")).mapToInt(Integer::parseInt).toArray();
         String programPoint = caller.getClassName() + ":" + caller.getName() + ":" + caller.getDescriptor();
 
-        this.inspectMethodCall(s, name, callee, classFile, pathId, programPoint, callerPC);
+        this.inspectMethodCall(s, name, callee, classFile, branchPoints, s.getSequenceNumber(), programPoint, callerPC);
+        submitIfFull();
     }
 
-    public void setDatalogOutputFile(String f) {
-        final File file = new File(f);
-        try {
-            this.datalogOut = new PrintStream(file);
-        } catch (FileNotFoundException e) {
-            this.datalogOut = null;
-        }
+    /**
+     * Hands off the facts collected so far for the current test program to the {@link FactWriter}
+     * if they are at least as many as the batch size, so they do not pile up in memory.
+     */
+    private synchronized void submitIfFull() {
+        if(this.factBatchSize <= 0 || this.testInformation == null)
+            return;
+        if(this.testInformation.getMethodCalls().size() + this.testInformation.getExceptionsThrown().size() + this.testInformation.getPathConditions().size() < this.factBatchSize)
+            return;
+
+        this.factWriter.submitPartial(this.ordinal, this.testInformation);
+        this.testInformation = new TestInformation(this.testInformation.getTestClass(), this.testInformation.getTestMethod());
     }
 
-    public void prepareForNewTestProgram(String currClass, String currMethod) {
-        this.callerFrame.empty();
+    public synchronized void prepareForNewTestProgram(int ordinal, String currClass, String currMethod) {
+        this.callerFrame.clear();
         this.invocationEpoch = 0;
         this.callerFrame.push(this.invocationEpoch++);
+        this.ordinal = ordinal;
         this.testInformation = new TestInformation(currClass, currMethod);
+        resetFormattedPathCondition();
+        this.pathConditionIds.clear();
+        this.factWriter.attach(this);
     }
 
-    public void emitDatalog() throws AnalyzerException {
-        if(this.datalogOut == null)
-            throw new AnalyzerException("InformationLogger has not been correctly initialized: output file not specified.");
+    /**
+     * Records that the analysis of the current test program was given up.
+     *
+     * @param reason why the test program was skipped, e.g., {@code memory}.
+     */
+    public synchronized void markSkipped(String reason) {
+        if(this.testInformation != null)
+            this.testInformation.setSkipped(reason);
+    }
+
+    /**
+     * Hands off the facts collected for the current test program to the {@link FactWriter}.
+     * The logger can then be prepared for a new test program.
+     */
+    public synchronized void emitDatalog() throws AnalyzerException {
         if(this.testInformation == null)
             throw new AnalyzerException("InformationLogger has not been correctly initialized: what test are you running?");
 
-        ArrayList<TestInformation.MethodCall> methodCalls = this.testInformation.getMethodCalls();
-        for (TestInformation.MethodCall methodCall : methodCalls) {
-            StringBuilder invokes = new StringBuilder();
-            invokes.append("invokes(").append("'")
-                    .append(this.testInformation.getTestClass()).append(":").append(this.testInformation.getTestMethod()).append("', ")
-                    .append(methodCall.getPathId()).append(", ")
-                    .append("'").append(methodCall.getProgramPoint()).append("', ")
-                    .append(methodCall.getCallerPC()).append(", ")
-                    .append(methodCall.getCallerEpoch()).append(", ")
-                    .append(methodCall.getPathCondition()).append(", ")
-                    .append("'").append(methodCall.getClassName()).append(":").append(methodCall.getMethodName()).append(":").append(methodCall.getMethodDescriptor()).append("', ")
-                    .append(methodCall.getParameterSet().getParameters())
-                    .append(").");
-
-            this.datalogOut.println(invokes);
-        }
-
-        ArrayList<TestInformation.ExceptionThrown> exceptionsThrown = this.testInformation.getExceptionsThrown();
-        for(TestInformation.ExceptionThrown ex : exceptionsThrown) {
-            StringBuilder exception = new StringBuilder();
-            exception.append("exception('")
-                    .append(this.testInformation.getTestClass()).append(":").append(this.testInformation.getTestMethod()).append("', ")
-                    .append("'").append(ex.getExceptionClass()).append("'")
-                    .append(").");
-
-            this.datalogOut.println(exception);
-        }
+        this.factWriter.detach(this);
+        this.factWriter.submit(this.ordinal, this.testInformation);
+        this.testInformation = null;
     }
 
-    private void inspectMethodCall(State s, String name, Signature callee, ClassFile classFile, String pathId, String programPoint, int callerPC) throws AnalyzerException {
-        if(this.testInformation == null)
-            throw new AnalyzerException("InformationLogger has not been correctly initialized: what test are you running?");
+    private void inspectMethodCall(State s, String name, Signature callee, ClassFile classFile, int[] branchPoints, int sequenceNumber, String programPoint, int callerPC) throws AnalyzerException {
+        int numOperands = splitParametersDescriptors(callee.getDescriptor()).length;
+        TestInformation.ParameterSet pSet = numOperands == 0 ? null : inspectParameters(s, numOperands);
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("[");
-        formatPathCondition(s, sb);
-        sb.append("]");
+        // The facts might be emitted at any time by the shutdown hook
+        synchronized(this) {
+            if(this.testInformation == null)
+                throw new AnalyzerException("InformationLogger has not been correctly initialized: what test are you running?");
 
-        int callerEpoch = this.callerFrame.peek();
-        TestInformation.MethodCall md = this.testInformation.addMethodCall(name, callerEpoch, callee.getDescriptor(), classFile.getClassName(), pathId, programPoint, callerPC, sb.toString());
+            String pathCondition = this.normalizePathConditions ? pathConditionId(s) : renderPathCondition(s);
 
-        int numOperands = splitParametersDescriptors(callee.getDescriptor()).length;
-        if(numOperands == 0)
-            return;
+            int callerEpoch = this.callerFrame.peek();
+            TestInformation.MethodCall md = this.testInformation.addMethodCall(name, callerEpoch, callee.getDescriptor(), classFile.getClassName(), branchPoints, sequenceNumber, programPoint, callerPC, pathCondition);
+            if(pSet != null)
+                md.setParameterSet(pSet);
+        }
+    }
 
+    private TestInformation.ParameterSet inspectParameters(State s, int numOperands) throws AnalyzerException {
         SortedMap<Integer, Variable> localVariablesTreeMap = null;
         try {
             localVariablesTreeMap = s.getCurrentFrame().localVariables();
@@ -192,9 +216,8 @@ public class InformationLogger {
             if(op instanceof DefaultValue)
                 continue;
 
-            sb = new StringBuilder();
+            StringBuilder sb = new StringBuilder();
 
-            sb.append("'");
             if (op instanceof Null) {
                 sb.append("null");
             } else if(op instanceof ReferenceSymbolicMemberField) {
@@ -219,7 +242,7 @@ public class InformationLogger {
                             case JAVA_STRING:
                                 final Reference valueRef = (Reference) obj.getFieldValue(JAVA_STRING_VALUE);
                                 final Array value = (Array) s.getObject(valueRef);
-                                sb.append(value.valueString().replaceAll("'", "''")); // Make Prolog happy about ' in strings
+                                sb.append(value.valueString());
                                 break;
                             case JAVA_BYTE:
                                 sb.append(renderSimplex((Simplex) obj.getFieldValue(JAVA_BYTE_VALUE)));
@@ -254,13 +277,13 @@ public class InformationLogger {
                 }
             } else
                 throw new AnalyzerException("WIP: might have missed some cases...");
-            sb.append("'");
 
-            String parm = sb.toString();
+            // Make Prolog happy about quotes and line breaks in strings
+            String parm = PrologFactPrinter.quote(sb.toString());
             pSet.addParameter(parm);
         }
 
-        md.setParameterSet(pSet);
+        return pSet;
     }
 
     private String renderSimplex(Simplex op) {
@@ -279,11 +302,50 @@ public class InformationLogger {
         return representation;
     }
 
-    private static void formatPathCondition(State s, StringBuilder sb) {
-        final StringBuilder expression = new StringBuilder();
-        boolean doneFirstExpression = false;
-        HashSet<String> doneSymbols = new HashSet<>();
-        for (Clause c : s.getPathCondition()) {
+    private String renderPathCondition(State s) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        formatPathCondition(s, sb);
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Returns the identifier of the path condition of a state. The path condition is rendered,
+     * and recorded as a new fact, only the first time it is met in the current test program.
+     * Clauses are only added along a branch, so a path condition is identified by the branch
+     * identifier and the number of clauses.
+     */
+    private String pathConditionId(State s) {
+        final String key = s.getBranchIdentifier() + "#" + s.getPathCondition().size();
+        String id = this.pathConditionIds.get(key);
+        if(id == null) {
+            id = "pc(" + PrologFactPrinter.quote(this.testInformation.getTestClass() + ":" + this.testInformation.getTestMethod()) + ", " + this.pathConditionIds.size() + ")";
+            this.pathConditionIds.put(key, id);
+            this.testInformation.addPathCondition(id, renderPathCondition(s));
+        }
+        return id;
+    }
+
+    private void resetFormattedPathCondition() {
+        this.formattedPathCondition.setLength(0);
+        this.formattedPathConditionSymbols = new HashSet<>();
+        this.formattedClauses = 0;
+        this.formattedLastClause = null;
+    }
+
+    private void formatPathCondition(State s, StringBuilder sb) {
+        // Clauses are shared, never copied, by the states of a same path, so a state
+        // extends the last formatted path condition iff it has its last clause at the same position
+        final List<Clause> pathCondition = s.getPathCondition();
+        if(this.formattedClauses > pathCondition.size() ||
+           (this.formattedClauses > 0 && pathCondition.get(this.formattedClauses - 1) != this.formattedLastClause))
+            resetFormattedPathCondition();
+
+        final StringBuilder expression = this.formattedPathCondition;
+        boolean doneFirstExpression = (expression.length() > 0);
+        final HashSet<String> doneSymbols = this.formattedPathConditionSymbols;
+        for (Clause c : s.getPathCondition(this.formattedClauses)) {
             if (c instanceof ClauseAssume) {
                 expression.append(doneFirstExpression ? ", " : "");
                 doneFirstExpression = true;
@@ -315,6 +377,8 @@ public class InformationLogger {
                 }
             }
         }
+        this.formattedClauses = pathCondition.size();
+        this.formattedLastClause = (pathCondition.isEmpty() ? null : pathCondition.get(pathCondition.size() - 1));
         if (expression.length() > 0) {
             sb.append(expression);
         }
@@ -18,6 +18,9 @@ public class SimilarityConfiguration {
     private String metric;
     private String domain;
     private String invokesBlackList;
+    private String engine;
+    private String source;
+    private Integer parallelism;
 
     private SimilarityConfiguration() {}
 
@@ -32,6 +35,12 @@ public class SimilarityConfiguration {
             throw new AnalyzerException("Error parsing JSON configuration file " + jsonFile.getPath() + ": " + e.getMessage());
         }
 
+        if(similarityConfiguration.getEngine() == null)
+            similarityConfiguration.setEngine("prolog");
+        if(similarityConfiguration.getSource() == null)
+            similarityConfiguration.setSource("trace");
+        if(similarityConfiguration.getParallelism() == null)
+            similarityConfiguration.setParallelism(0);
 
         return similarityConfiguration;
     }
@@ -83,4 +92,28 @@ public class SimilarityConfiguration {
     public void setInvokesBlackList(String invokesBlackList) {
         this.invokesBlackList = invokesBlackList;
     }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(Integer parallelism) {
+        this.parallelism = parallelism;
+    }
 }
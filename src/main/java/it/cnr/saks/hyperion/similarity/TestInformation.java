@@ -1,20 +1,23 @@
 package it.cnr.saks.hyperion.similarity;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class TestInformation {
     private final ArrayList<MethodCall> methodCalls = new ArrayList<>();
     private final ArrayList<ExceptionThrown> exceptionsThrown = new ArrayList<>();
+    private final ArrayList<PathCondition> pathConditions = new ArrayList<>();
     private final String testClass;
     private final String testMethod;
+    private String skipReason;
 
     public TestInformation(String className, String methodName) {
         this.testClass = className;
         this.testMethod = methodName;
     }
 
-    protected MethodCall addMethodCall(String methodName, int callerEpoch, String methodDescriptor, String className, String pathId, String programPoint, int callerPC, String pathCondition) {
-        MethodCall md = new MethodCall(methodName, callerEpoch, methodDescriptor, className, pathId, programPoint, callerPC, pathCondition);
+    protected MethodCall addMethodCall(String methodName, int callerEpoch, String methodDescriptor, String className, int[] branchPoints, int sequenceNumber, String programPoint, int callerPC, String pathCondition) {
+        MethodCall md = new MethodCall(methodName, callerEpoch, methodDescriptor, className, branchPoints, sequenceNumber, programPoint, callerPC, pathCondition);
         this.methodCalls.add(md);
         return md;
     }
@@ -33,6 +36,16 @@ public class TestInformation {
         return this.exceptionsThrown;
     }
 
+    protected PathCondition addPathCondition(String id, String clauses) {
+        PathCondition pc = new PathCondition(id, clauses);
+        this.pathConditions.add(pc);
+        return pc;
+    }
+
+    public ArrayList<PathCondition> getPathConditions() {
+        return this.pathConditions;
+    }
+
     protected static class ExceptionThrown {
         private final String exceptionClass;
 
@@ -45,6 +58,42 @@ public class TestInformation {
         }
     }
 
+    /**
+     * A distinct path condition of the test program, which the method calls
+     * refer to by its identifier when path conditions are normalized.
+     */
+    protected static class PathCondition {
+        private final String id;
+        private final String clauses;
+
+        public PathCondition(String id, String clauses) {
+            this.id = id;
+            this.clauses = clauses;
+        }
+
+        public String getId() {
+            return this.id;
+        }
+
+        public String getClauses() {
+            return this.clauses;
+        }
+    }
+
+    /**
+     * Records that the analysis of the test program was given up, so
+     * the facts collected so far do not cover all its paths.
+     *
+     * @param reason why the test program was skipped, e.g., {@code memory}.
+     */
+    protected void setSkipped(String reason) {
+        this.skipReason = reason;
+    }
+
+    public String getSkipReason() {
+        return this.skipReason;
+    }
+
     public String getTestClass() {
         return testClass;
     }
@@ -58,19 +107,21 @@ public class TestInformation {
         private final int callerEpoch;
         private final String methodDescriptor;
         private final String className;
-        private final String pathId;
+        private final int[] branchPoints;
+        private final int sequenceNumber;
         private final String programPoint;
         private final String pathCondition;
         private final int callerPC;
         private ParameterSet parameters = new ParameterSet();
 
 
-        public MethodCall(String methodName, int callerEpoch, String methodDescriptor, String className, String pathId, String programPoint, int callerPC, String pathCondition) {
+        public MethodCall(String methodName, int callerEpoch, String methodDescriptor, String className, int[] branchPoints, int sequenceNumber, String programPoint, int callerPC, String pathCondition) {
             this.methodName = methodName;
             this.callerEpoch = callerEpoch;
             this.methodDescriptor = methodDescriptor;
             this.className = className;
-            this.pathId = pathId;
+            this.branchPoints = branchPoints;
+            this.sequenceNumber = sequenceNumber;
             this.programPoint = programPoint;
             this.callerPC = callerPC;
             this.pathCondition = pathCondition;
@@ -92,8 +143,12 @@ public class TestInformation {
             return methodName;
         }
 
-        public String getPathId() {
-            return pathId;
+        public int[] getBranchPoints() {
+            return branchPoints;
+        }
+
+        public int getSequenceNumber() {
+            return sequenceNumber;
         }
 
         public String getProgramPoint() {
@@ -124,6 +179,10 @@ public class TestInformation {
             this.parameters.add(s);
         }
 
+        public List<String> getParameterList() {
+            return this.parameters;
+        }
+
         public String getParameters() {
             StringBuilder ret = new StringBuilder();
             ret.append("[");
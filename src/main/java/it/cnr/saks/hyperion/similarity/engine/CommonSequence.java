@@ -0,0 +1,70 @@
+package it.cnr.saks.hyperion.similarity.engine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Computes the length of the longest common subsequence of two element lists, as
+ * {@code common_seq_length/3}, with the bit-parallel algorithm by Hyyrö. The columns of
+ * the dynamic programming table are packed in the bits of {@code long} words, so that
+ * a row is computed with a few word operations per 64 elements of the second list.
+ * Only the match masks of the elements need the {@link Domain}, thus elements may
+ * match without being equal.
+ */
+final class CommonSequence {
+    private CommonSequence() {}
+
+    /**
+     * Returns the length of the longest common subsequence of two element lists.
+     *
+     * @return an {@code int} between {@code 0} and the length of the shorter list.
+     */
+    static int length(Domain domain, ElementList list1, ElementList list2) {
+        final int[] elements1 = list1.elements;
+        final int[] elements2 = list2.elements;
+        final int n = elements2.length;
+        final int words = (n + 63) >>> 6;
+        final HashMap<Integer, long[]> masks = (domain.isIdentity() ? list2.positions() : matchMasks(domain, list1, elements2, words));
+        final long[] noMatches = new long[words];
+
+        // A bit of v is 0 iff the column of the table steps up at that position
+        final long[] v = new long[words];
+        Arrays.fill(v, -1L);
+        for(int element: elements1) {
+            final long[] mask = masks.getOrDefault(element, noMatches);
+            long carry = 0;
+            for(int k = 0; k < words; k++) {
+                final long x = v[k];
+                final long u = x & mask[k];
+                final long sum = x + u + carry;
+                carry = ((x & u) | ((x | u) & ~sum)) >>> 63;
+                v[k] = sum | (x & ~mask[k]);
+            }
+        }
+
+        int length = 0;
+        for(int k = 0; k < words; k++) {
+            final long bits = (k < words - 1 || (n & 63) == 0 ? v[k] : v[k] | (-1L << (n & 63)));
+            length += Long.bitCount(~bits);
+        }
+        return length;
+    }
+
+    /**
+     * Returns, for each distinct element of the first list, the bits of the positions of
+     * the second list it matches. If elements match iff they are equal, these are just the
+     * positions of the elements in the second list.
+     */
+    private static HashMap<Integer, long[]> matchMasks(Domain domain, ElementList list1, int[] elements2, int words) {
+        final HashMap<Integer, long[]> masks = new HashMap<>();
+        for(int element1: list1.distinctElements) {
+            final long[] mask = new long[words];
+            for(int j = 0; j < elements2.length; j++) {
+                if(domain.matches(element1, elements2[j]))
+                    mask[j >>> 6] |= 1L << j;
+            }
+            masks.put(element1, mask);
+        }
+        return masks;
+    }
+}
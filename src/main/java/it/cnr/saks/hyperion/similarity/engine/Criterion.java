@@ -0,0 +1,178 @@
+package it.cnr.saks.hyperion.similarity.engine;
+
+import it.cnr.saks.hyperion.similarity.SimilarityException;
+
+/**
+ * The similarity criteria of {@code similar_elems/4}, with the scores of {@code similarity_score/4}.
+ */
+enum Criterion {
+    NONEMPTY_EQ_SET("nonemptyEqSet") {
+        @Override
+        boolean holds(Domain domain, ElementList list1, ElementList list2) {
+            return isSubSet(domain, list1, list2) && isSubSet(domain, list2, list1);
+        }
+
+        @Override
+        double score(Domain domain, ElementList list1, ElementList list2) {
+            return 1;
+        }
+    },
+
+    NONEMPTY_SUB_SET("nonemptySubSet") {
+        @Override
+        boolean holds(Domain domain, ElementList list1, ElementList list2) {
+            return isSubSet(domain, list1, list2);
+        }
+
+        @Override
+        double score(Domain domain, ElementList list1, ElementList list2) {
+            return (double) list1.distinctKeys.length / list2.distinctKeys.length;
+        }
+    },
+
+    NONEMPTY_INTERSECTION("nonemptyIntersection") {
+        @Override
+        boolean holds(Domain domain, ElementList list1, ElementList list2) {
+            return intersects(domain, list1, list2);
+        }
+
+        @Override
+        double score(Domain domain, ElementList list1, ElementList list2) {
+            final int common = countCommon(list1.distinctKeys, list2.distinctKeys);
+            return (double) common / Math.min(list1.distinctKeys.length, list2.distinctKeys.length);
+        }
+    },
+
+    NONEMPTY_EQ_SEQ("nonemptyEqSeq") {
+        @Override
+        boolean holds(Domain domain, ElementList list1, ElementList list2) {
+            if(list1.length() != list2.length())
+                return false;
+            for(int i = 0; i < list1.length(); i++) {
+                if(!domain.matches(list1.elements[i], list2.elements[i]))
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        double score(Domain domain, ElementList list1, ElementList list2) {
+            return 1;
+        }
+    },
+
+    NONEMPTY_SUB_SEQ("nonemptySubSeq") {
+        @Override
+        boolean holds(Domain domain, ElementList list1, ElementList list2) {
+            // Matching each element with the leftmost candidate never misses a subsequence
+            int j = 0;
+            for(int element: list1.elements) {
+                while(j < list2.length() && !domain.matches(element, list2.elements[j]))
+                    j++;
+                if(j == list2.length())
+                    return false;
+                j++;
+            }
+            return true;
+        }
+
+        @Override
+        double score(Domain domain, ElementList list1, ElementList list2) {
+            return (double) list1.length() / list2.length();
+        }
+    },
+
+    NONEMPTY_COMMON_SEQ("nonemptyCommonSeq") {
+        @Override
+        boolean holds(Domain domain, ElementList list1, ElementList list2) {
+            return intersects(domain, list1, list2);
+        }
+
+        @Override
+        double score(Domain domain, ElementList list1, ElementList list2) {
+            final int common = CommonSequence.length(domain, list1, list2);
+            return (double) common / Math.min(list1.length(), list2.length());
+        }
+    };
+
+    private final String name;
+
+    Criterion(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the criterion with a given name.
+     *
+     * @param name the name of the criterion in {@code similarity_relations.pl}.
+     * @throws SimilarityException if {@code name} is not a known criterion.
+     */
+    static Criterion of(String name) throws SimilarityException {
+        for(Criterion criterion: values()) {
+            if(criterion.name.equals(name))
+                return criterion;
+        }
+        throw new SimilarityException("Unknown similarity criterion: " + name);
+    }
+
+    /**
+     * Checks whether two element lists are similar, as {@code similar_elems/4}.
+     */
+    abstract boolean holds(Domain domain, ElementList list1, ElementList list2);
+
+    /**
+     * Returns the similarity score of two similar element lists, as {@code similarity_score/4}.
+     */
+    abstract double score(Domain domain, ElementList list1, ElementList list2);
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+    private static boolean isSubSet(Domain domain, ElementList list1, ElementList list2) {
+        if(domain.isIdentity())
+            return countCommon(list1.distinctElements, list2.distinctElements) == list1.distinctElements.length;
+
+        for(int element1: list1.distinctElements) {
+            boolean found = false;
+            for(int i = 0; i < list2.distinctElements.length && !found; i++)
+                found = domain.matches(element1, list2.distinctElements[i]);
+            if(!found)
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean intersects(Domain domain, ElementList list1, ElementList list2) {
+        if(domain.isIdentity())
+            return countCommon(list1.distinctElements, list2.distinctElements) > 0;
+
+        for(int element1: list1.distinctElements) {
+            for(int element2: list2.distinctElements) {
+                if(domain.matches(element1, element2))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the elements two sorted arrays without duplicates have in common.
+     */
+    private static int countCommon(int[] sorted1, int[] sorted2) {
+        int common = 0;
+        for(int i = 0, j = 0; i < sorted1.length && j < sorted2.length; ) {
+            if(sorted1[i] < sorted2[j]) {
+                i++;
+            } else if(sorted1[i] > sorted2[j]) {
+                j++;
+            } else {
+                common++;
+                i++;
+                j++;
+            }
+        }
+        return common;
+    }
+}
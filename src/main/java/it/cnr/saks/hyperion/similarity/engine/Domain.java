@@ -0,0 +1,76 @@
+package it.cnr.saks.hyperion.similarity.engine;
+
+import it.cnr.saks.hyperion.similarity.SimilarityException;
+
+import java.util.List;
+
+/**
+ * The type of the elements a similarity criterion compares, i.e., the {@code T} argument
+ * of {@code similar_tp/7}. Every invocation is mapped to an element identifier once, when
+ * the domain is created, so that the criteria only compare integers. Immutable, thus it
+ * can be shared by the tasks that compute the similarity.
+ */
+abstract class Domain {
+    /** The element of an invocation that does not contribute to the element lists. */
+    static final int SKIP = -1;
+
+    /** The element of an invocation that prevents the generation of the whole element list. */
+    static final int FAIL = -2;
+
+    private int[] elementOf;
+
+    /**
+     * Maps every invocation of a {@link FactBase} to its element. Invoked by the
+     * constructors of the subclasses, once they are initialized.
+     */
+    final void mapInvokes(FactBase factBase) {
+        this.elementOf = new int[factBase.numInvokes()];
+        for(List<Invoke> invokes: factBase.invokesByTestProgram().values()) {
+            for(Invoke invoke: invokes)
+                this.elementOf[invoke.index] = computeElement(invoke);
+        }
+    }
+
+    /**
+     * Returns the domain with a given name.
+     *
+     * @param name either {@code invokes} or {@code endpoint}.
+     * @param factBase the {@link FactBase} whose invocations are mapped to elements.
+     * @param invokesBlackList the prefix of the callers and callees of the invocations
+     *        that the {@code invokes} domain ignores, or {@code null}.
+     * @throws SimilarityException if {@code name} is not a known domain.
+     */
+    static Domain of(String name, FactBase factBase, String invokesBlackList) throws SimilarityException {
+        if("invokes".equals(name))
+            return new InvokesDomain(factBase, invokesBlackList);
+        if("endpoint".equals(name))
+            return new EndpointDomain(factBase);
+        throw new SimilarityException("Unknown similarity domain: " + name);
+    }
+
+    abstract int computeElement(Invoke invoke);
+
+    /**
+     * Returns the element of an invocation.
+     *
+     * @return the identifier of the element, {@link #SKIP} or {@link #FAIL}.
+     */
+    final int element(Invoke invoke) {
+        return this.elementOf[invoke.index];
+    }
+
+    /**
+     * Checks whether two elements are similar, as {@code matching/3}.
+     */
+    abstract boolean matches(int element1, int element2);
+
+    /**
+     * Returns the key of an element in the sets that {@code setOf/2} builds to compute the scores.
+     */
+    abstract int key(int element);
+
+    /**
+     * Checks whether elements match iff they are equal, and each element is its own key.
+     */
+    abstract boolean isIdentity();
+}
@@ -0,0 +1,67 @@
+package it.cnr.saks.hyperion.similarity.engine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A list of elements generated from a trace or an invoke sequence of a test program,
+ * as the {@code endpointLst_fact/3} and {@code invokesLst_fact/3} facts.
+ */
+final class ElementList {
+    final String testProgram;
+    final int[] elements;
+    final int[] distinctElements;
+    final int[] distinctKeys;
+    // Computed on demand, possibly more than once by concurrent tasks, as it is always the same
+    private volatile HashMap<Integer, long[]> positions;
+
+    private ElementList(String testProgram, int[] elements, Domain domain) {
+        this.testProgram = testProgram;
+        this.elements = elements;
+        this.distinctElements = Arrays.stream(elements).sorted().distinct().toArray();
+        this.distinctKeys = (domain.isIdentity() ? this.distinctElements :
+                             Arrays.stream(this.distinctElements).map(domain::key).sorted().distinct().toArray());
+    }
+
+    /**
+     * Maps a sequence of invocations to the list of their elements.
+     *
+     * @return the {@link ElementList}, or {@code null} if it is empty or if an invocation
+     *         prevents its generation.
+     */
+    static ElementList of(String testProgram, Invoke[] sequence, Domain domain) {
+        final int[] elements = new int[sequence.length];
+        int length = 0;
+        for(Invoke invoke: sequence) {
+            final int element = domain.element(invoke);
+            if(element == Domain.FAIL)
+                return null;
+            if(element != Domain.SKIP)
+                elements[length++] = element;
+        }
+        if(length == 0)
+            return null;
+        return new ElementList(testProgram, Arrays.copyOf(elements, length), domain);
+    }
+
+    int length() {
+        return this.elements.length;
+    }
+
+    /**
+     * Returns the positions of each element in the list, as bits of {@code long} words.
+     *
+     * @return a {@link HashMap} from the distinct elements to their positions. It must not be modified.
+     */
+    HashMap<Integer, long[]> positions() {
+        HashMap<Integer, long[]> ret = this.positions;
+        if(ret == null) {
+            final int words = (this.elements.length + 63) >>> 6;
+            ret = new HashMap<>();
+            for(int j = 0; j < this.elements.length; j++)
+                ret.computeIfAbsent(this.elements[j], e -> new long[words])[j >>> 6] |= 1L << j;
+            this.positions = ret;
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,120 @@
+package it.cnr.saks.hyperion.similarity.engine;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The {@code endpoint} domain: the element of an invocation that performs an HTTP request
+ * is the pair of its HTTP method and URI, as computed by {@code endpoints/2}. Two endpoints
+ * match if they have the same HTTP method, and either the same URI or a URI matching the
+ * same {@code rest_api_regex/1}.
+ */
+final class EndpointDomain extends Domain {
+    private static final String[] MOCK_MVC_METHODS = { "get", "post", "put", "delete" };
+    private static final String[] HTTP_METHODS = { "DELETE", "GET", "HEAD", "OPTIONS", "PATCH", "POST", "PUT", "TRACE" };
+    private static final String REST_TEMPLATE_EXCHANGE = "org/springframework/web/client/RestTemplate:exchange:";
+    // What head/2 yields for an invocation without parameters
+    private static final String NO_URI = "domain_error(empty_list)";
+
+    private final FactBase factBase;
+    private final List<Pattern> restApiRegexes;
+    private final HashMap<String, Integer> endpointIds = new HashMap<>();
+    private final HashMap<String, Integer> keyIds = new HashMap<>();
+    private final ArrayList<String> methods = new ArrayList<>();
+    private final ArrayList<String> uris = new ArrayList<>();
+    private final ArrayList<BitSet> matchingRegexes = new ArrayList<>();
+    private final ArrayList<Integer> keys = new ArrayList<>();
+    private final HashMap<Integer, Boolean> isHttpRequest = new HashMap<>();
+
+    EndpointDomain(FactBase factBase) {
+        this.factBase = factBase;
+        this.restApiRegexes = factBase.restApiRegexes();
+        mapInvokes(factBase);
+    }
+
+    @Override
+    int computeElement(Invoke invoke) {
+        if(!this.isHttpRequest.computeIfAbsent(invoke.callee, this::isHttpRequest))
+            return SKIP;
+
+        final String method = httpMethod(this.factBase.name(invoke.callee), invoke.secondParameter);
+        if(method == null)
+            return FAIL;
+        final String uri = (invoke.firstParameter == null ? NO_URI : invoke.firstParameter);
+
+        final String endpoint = method + " " + uri;
+        Integer id = this.endpointIds.get(endpoint);
+        if(id == null) {
+            id = this.methods.size();
+            this.endpointIds.put(endpoint, id);
+            this.methods.add(method);
+            this.uris.add(uri);
+
+            final BitSet regexes = new BitSet();
+            for(int i = 0; i < this.restApiRegexes.size(); i++) {
+                if(this.restApiRegexes.get(i).matcher(uri).find())
+                    regexes.set(i);
+            }
+            this.matchingRegexes.add(regexes);
+
+            // Endpoints are grouped by the first regex their URI matches, if any
+            final String key = method + (regexes.isEmpty() ? " uri " + uri : " regex " + regexes.nextSetBit(0));
+            this.keys.add(this.keyIds.computeIfAbsent(key, k -> this.keyIds.size()));
+        }
+        return id;
+    }
+
+    /**
+     * Checks whether a callee performs an HTTP request, as {@code isHttpMethod/1}.
+     */
+    private boolean isHttpRequest(int callee) {
+        final String name = this.factBase.name(callee);
+        if(name.startsWith(REST_TEMPLATE_EXCHANGE))
+            return true;
+        for(String method: MOCK_MVC_METHODS) {
+            if(name.contains("MockMvcRequestBuilders:" + method))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the HTTP method of a request, as {@code httpMethod/3}.
+     *
+     * @return the HTTP method, or {@code null} if it cannot be determined.
+     */
+    private static String httpMethod(String callee, String secondParameter) {
+        for(String method: MOCK_MVC_METHODS) {
+            if(callee.contains("MockMvcRequestBuilders:" + method))
+                return method;
+        }
+        if(secondParameter != null) {
+            for(String method: HTTP_METHODS) {
+                if(secondParameter.contains("org/springframework/http/HttpMethod." + method))
+                    return method;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    boolean matches(int element1, int element2) {
+        if(!this.methods.get(element1).equals(this.methods.get(element2)))
+            return false;
+        return this.uris.get(element1).equals(this.uris.get(element2)) ||
+               this.matchingRegexes.get(element1).intersects(this.matchingRegexes.get(element2));
+    }
+
+    @Override
+    int key(int element) {
+        return this.keys.get(element);
+    }
+
+    @Override
+    boolean isIdentity() {
+        return false;
+    }
+}
@@ -0,0 +1,137 @@
+package it.cnr.saks.hyperion.similarity.engine;
+
+import it.cnr.saks.hyperion.similarity.store.FactSink;
+import it.cnr.saks.hyperion.similarity.store.FactStore;
+import it.cnr.saks.hyperion.similarity.store.FactStoreReader;
+import it.cnr.saks.hyperion.similarity.store.PrologFactParser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The {@code invokes/9} and {@code rest_api_regex/1} facts the similarity relations are computed on.
+ * Test programs, callers and callees are interned, so that they are compared as integers.
+ */
+public class FactBase implements FactSink {
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private final ArrayList<String> names = new ArrayList<>();
+    // Sorted by name, as the test programs are enumerated by setof/3 in Prolog
+    private final TreeMap<String, List<Invoke>> invokes = new TreeMap<>();
+    private final ArrayList<Pattern> restApiRegexes = new ArrayList<>();
+    private int numInvokes = 0;
+
+    /**
+     * Loads the facts of a Prolog file, or of a {@link FactStore}.
+     *
+     * @param file the {@link File} to load.
+     * @throws IOException if {@code file} cannot be read or is malformed.
+     */
+    public void load(File file) throws IOException {
+        if(FactStore.isFactStore(file)) {
+            try(FactStoreReader reader = new FactStoreReader(file)) {
+                reader.read(this);
+            }
+        } else {
+            PrologFactParser.parse(file, this);
+        }
+    }
+
+    /**
+     * Loads the {@code rest_api_regex/1} facts of a Prolog file, one per line. The other
+     * lines are ignored.
+     *
+     * @param file the Prolog {@link File} to load.
+     * @throws IOException if {@code file} cannot be read, or if a regular expression is malformed.
+     */
+    public void loadRestApiRegexes(File file) throws IOException {
+        try(BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while((line = in.readLine()) != null) {
+                line = line.trim();
+                if(!line.startsWith("rest_api_regex(\"") || !line.endsWith("\")."))
+                    continue;
+                final String regex = line.substring("rest_api_regex(\"".length(), line.length() - "\").".length()).replace("\"\"", "\"");
+                try {
+                    this.restApiRegexes.add(Pattern.compile(regex));
+                } catch (PatternSyntaxException e) {
+                    throw new IOException("Malformed REST API regular expression in " + file + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private int intern(String name) {
+        Integer id = this.ids.get(name);
+        if(id == null) {
+            id = this.names.size();
+            this.ids.put(name, id);
+            this.names.add(name);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the identifier of a string, if it occurs in the facts.
+     *
+     * @return the identifier, or {@code -1} if {@code name} does not occur in the facts.
+     */
+    int id(String name) {
+        final Integer id = this.ids.get(name);
+        return (id == null ? -1 : id);
+    }
+
+    String name(int id) {
+        return this.names.get(id);
+    }
+
+    int numNames() {
+        return this.names.size();
+    }
+
+    int numInvokes() {
+        return this.numInvokes;
+    }
+
+    Map<String, List<Invoke>> invokesByTestProgram() {
+        return Collections.unmodifiableMap(this.invokes);
+    }
+
+    List<Pattern> restApiRegexes() {
+        return this.restApiRegexes;
+    }
+
+    @Override
+    public void invokes(String testProgram, int[] branchPoints, int sequenceNumber, String caller, int callerPC, int frameEpoch,
+                        String pathCondition, String callee, List<String> parameters) {
+        final Invoke invoke = new Invoke(this.numInvokes++, branchPoints, sequenceNumber, intern(caller), intern(callee),
+                                         parameters.size() > 0 ? PrologFactParser.unquote(parameters.get(0)) : null,
+                                         parameters.size() > 1 ? PrologFactParser.unquote(parameters.get(1)) : null);
+        this.invokes.computeIfAbsent(testProgram, tp -> new ArrayList<>()).add(invoke);
+    }
+
+    @Override
+    public void exception(String testProgram, String exceptionClass) {
+        // Not used by the similarity relations
+    }
+
+    @Override
+    public void pathCondition(String id, String clauses) {
+        // Not used by the similarity relations
+    }
+
+    @Override
+    public void skipped(String testProgram, String reason) {
+        // Not used by the similarity relations
+    }
+}
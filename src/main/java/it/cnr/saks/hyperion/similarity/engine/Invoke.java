@@ -0,0 +1,25 @@
+package it.cnr.saks.hyperion.similarity.engine;
+
+/**
+ * An {@code invokes/9} fact, with the strings that the similarity relations compare
+ * interned by the {@link FactBase}. Path conditions and frame epochs are not kept.
+ */
+final class Invoke {
+    final int index;
+    final int[] branchPoints;
+    final int sequenceNumber;
+    final int caller;
+    final int callee;
+    final String firstParameter;
+    final String secondParameter;
+
+    Invoke(int index, int[] branchPoints, int sequenceNumber, int caller, int callee, String firstParameter, String secondParameter) {
+        this.index = index;
+        this.branchPoints = branchPoints;
+        this.sequenceNumber = sequenceNumber;
+        this.caller = caller;
+        this.callee = callee;
+        this.firstParameter = firstParameter;
+        this.secondParameter = secondParameter;
+    }
+}
@@ -0,0 +1,41 @@
+package it.cnr.saks.hyperion.similarity.engine;
+
+/**
+ * The {@code invokes} domain: the element of an invocation is its callee. As in
+ * {@code filtered_invokes/4}, the invocations whose caller or callee starts with
+ * the black list prefix are ignored.
+ */
+final class InvokesDomain extends Domain {
+    private final boolean[] blackListed;
+
+    InvokesDomain(FactBase factBase, String blackList) {
+        this.blackListed = new boolean[factBase.numNames()];
+        if(blackList != null && !blackList.isEmpty()) {
+            for(int id = 0; id < factBase.numNames(); id++)
+                this.blackListed[id] = factBase.name(id).startsWith(blackList);
+        }
+        mapInvokes(factBase);
+    }
+
+    @Override
+    int computeElement(Invoke invoke) {
+        if(this.blackListed[invoke.caller] || this.blackListed[invoke.callee])
+            return SKIP;
+        return invoke.callee;
+    }
+
+    @Override
+    boolean matches(int element1, int element2) {
+        return element1 == element2;
+    }
+
+    @Override
+    int key(int element) {
+        return element;
+    }
+
+    @Override
+    boolean isIdentity() {
+        return true;
+    }
+}
@@ -0,0 +1,136 @@
+package it.cnr.saks.hyperion.similarity.engine;
+
+import it.cnr.saks.hyperion.similarity.SimilarTests;
+import it.cnr.saks.hyperion.similarity.SimilarityException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+/**
+ * Computes the similarity of the test programs of a {@link FactBase} without Prolog.
+ * The answers are the same as those of {@code compute_similarity_from_java/7}, in the same
+ * order, up to the duplicate answers Prolog gives for {@code nonemptySubSeq}. The element
+ * lists of the test programs, and then the similarity of each pair of lists, are computed in
+ * parallel in a {@link ForkJoinPool}.
+ */
+public class SimilarityEngine {
+    private static final Logger log = LoggerFactory.getLogger(SimilarityEngine.class);
+
+    private final FactBase factBase;
+    private final int parallelism;
+
+    /**
+     * @param factBase the facts to analyze.
+     * @param parallelism the number of worker threads, or {@code 0} to use all the available processors.
+     */
+    public SimilarityEngine(FactBase factBase, int parallelism) {
+        this.factBase = factBase;
+        this.parallelism = (parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes the pairs of similar test programs.
+     *
+     * @param metric the similarity criterion, e.g., {@code nonemptySubSet}.
+     * @param domain the elements compared, either {@code invokes} or {@code endpoint}.
+     * @param source where the elements come from, either {@code trace} or {@code iseq}.
+     * @param invokesBlackList the prefix of the callers and callees ignored by the
+     *        {@code invokes} domain, or {@code null}.
+     * @return the similar test programs, with their scores.
+     * @throws SimilarityException if {@code metric}, {@code domain} or {@code source} are unknown.
+     */
+    public SimilarTests[] computeSimilarity(String metric, String domain, String source, String invokesBlackList) throws SimilarityException {
+        final Criterion criterion = Criterion.of(metric);
+        final Domain elementDomain = Domain.of(domain, this.factBase, invokesBlackList);
+        final boolean fromTraces;
+        if("trace".equals(source))
+            fromTraces = true;
+        else if("iseq".equals(source))
+            fromTraces = false;
+        else
+            throw new SimilarityException("Unknown similarity source: " + source);
+
+        log.info("Running similarity analysis on {} threads...", this.parallelism);
+        final long start = System.currentTimeMillis();
+        final ArrayList<String> testPrograms = new ArrayList<>(this.factBase.invokesByTestProgram().keySet());
+        final ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            final List<ElementList> lists = pool.invoke(new RangeTask<>(0, testPrograms.size(),
+                    i -> elementLists(testPrograms.get(i), elementDomain, fromTraces)));
+            log.info("Generated {} element lists from {} test programs", lists.size(), testPrograms.size());
+
+            final List<SimilarTests> similarTests = pool.invoke(new RangeTask<>(0, lists.size(),
+                    row -> similarTests(lists, row, criterion, elementDomain)));
+            log.info("Found {} similar pairs in {} ms", similarTests.size(), System.currentTimeMillis() - start);
+            return similarTests.toArray(new SimilarTests[0]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<ElementList> elementLists(String testProgram, Domain domain, boolean fromTraces) {
+        final List<Invoke> invokes = this.factBase.invokesByTestProgram().get(testProgram);
+        // The caller of the first invocation of a test program, as testProgram_entry_point_caller/2
+        final int entryPoint = this.factBase.id(testProgram.replace('.', '/') + ":()V");
+        if(entryPoint < 0)
+            return Collections.emptyList();
+
+        final List<Invoke[]> sequences = (fromTraces ? Traces.traces(invokes, entryPoint) : Traces.invokeSequences(invokes, entryPoint));
+        final ArrayList<ElementList> ret = new ArrayList<>();
+        for(Invoke[] sequence: sequences) {
+            final ElementList list = ElementList.of(testProgram, sequence, domain);
+            if(list != null)
+                ret.add(list);
+        }
+        return ret;
+    }
+
+    private static List<SimilarTests> similarTests(List<ElementList> lists, int row, Criterion criterion, Domain domain) {
+        final ElementList list1 = lists.get(row);
+        final ArrayList<SimilarTests> ret = new ArrayList<>();
+        for(ElementList list2: lists) {
+            if(list1.testProgram.equals(list2.testProgram) || !criterion.holds(domain, list1, list2))
+                continue;
+            ret.add(new SimilarTests(list1.testProgram, list2.testProgram, criterion.score(domain, list1, list2)));
+        }
+        return ret;
+    }
+
+    /**
+     * Computes the results for a range of indices, splitting it in halves down to single
+     * indices. The results are concatenated in the order of the indices.
+     */
+    private static class RangeTask<T> extends RecursiveTask<List<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntFunction<List<T>> compute;
+
+        RangeTask(int from, int to, IntFunction<List<T>> compute) {
+            this.from = from;
+            this.to = to;
+            this.compute = compute;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if(this.to - this.from <= 1)
+                return (this.from < this.to ? this.compute.apply(this.from) : new ArrayList<>());
+
+            final int middle = (this.from + this.to) >>> 1;
+            final RangeTask<T> left = new RangeTask<>(this.from, middle, this.compute);
+            final RangeTask<T> right = new RangeTask<>(middle, this.to, this.compute);
+            right.fork();
+            final List<T> ret = new ArrayList<>(left.compute());
+            ret.addAll(right.join());
+            return ret;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package it.cnr.saks.hyperion.similarity.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The sequences of invocations of a test program, as defined by {@code trace/2} and
+ * {@code invoke_sequence/3} in {@code similarity_relations.pl}. An invocation is followed by
+ * the next invocation in its branch, if any, or else by the first invocation of each nearest
+ * descendant branch with invocations. The sequences are enumerated in the same order as the
+ * Prolog predicates do.
+ */
+final class Traces {
+    private final List<Invoke> invokes;
+    private final int[][] next;
+    private final boolean[] hasPrevious;
+
+    /**
+     * @param invokes the invocations among which the sequences are computed, in the order
+     *        of the facts.
+     */
+    private Traces(List<Invoke> invokes) {
+        this.invokes = invokes;
+        this.next = new int[invokes.size()][];
+        this.hasPrevious = new boolean[invokes.size()];
+
+        // The invocations of each branch, by sequence number
+        final HashMap<String, List<Integer>> branches = new HashMap<>();
+        for(int i = 0; i < invokes.size(); i++)
+            branches.computeIfAbsent(key(invokes.get(i).branchPoints, invokes.get(i).branchPoints.length), k -> new ArrayList<>()).add(i);
+        final Comparator<Integer> bySequenceNumber = Comparator.comparingInt(i -> invokes.get(i).sequenceNumber);
+        for(List<Integer> branch: branches.values())
+            branch.sort(bySequenceNumber); // Stable, so invocations with the same number stay in the order of the facts
+
+        // The nearest descendant branches with invocations, by branch
+        final HashMap<String, List<List<Integer>>> children = new HashMap<>();
+        for(List<Integer> branch: branches.values()) {
+            final int[] branchPoints = invokes.get(branch.get(0)).branchPoints;
+            for(int length = branchPoints.length - 1; length >= 0; length--) {
+                final String ancestor = key(branchPoints, length);
+                if(branches.containsKey(ancestor)) {
+                    children.computeIfAbsent(ancestor, k -> new ArrayList<>()).add(branch);
+                    break;
+                }
+            }
+        }
+
+        final int[] none = new int[0];
+        for(List<Integer> branch: branches.values()) {
+            final List<List<Integer>> branchChildren = children.get(key(invokes.get(branch.get(0)).branchPoints, invokes.get(branch.get(0)).branchPoints.length));
+            for(int k = 0; k < branch.size(); k++) {
+                final int i = branch.get(k);
+                final int sequenceNumber = invokes.get(i).sequenceNumber;
+
+                // The next invocation in the branch is the first one with a greater sequence number
+                int successor = -1;
+                for(int h = k + 1; h < branch.size() && successor < 0; h++) {
+                    if(invokes.get(branch.get(h)).sequenceNumber > sequenceNumber)
+                        successor = branch.get(h);
+                }
+                if(successor >= 0) {
+                    this.next[i] = new int[] { successor };
+                } else if(branchChildren == null) {
+                    this.next[i] = none;
+                } else {
+                    // The first invocations (there may be ties) of the nearest descendant branches
+                    final ArrayList<Integer> successors = new ArrayList<>();
+                    for(List<Integer> child: branchChildren) {
+                        final int childFirstSequenceNumber = invokes.get(child.get(0)).sequenceNumber;
+                        for(int j: child) {
+                            if(invokes.get(j).sequenceNumber != childFirstSequenceNumber)
+                                break;
+                            successors.add(j);
+                        }
+                    }
+                    this.next[i] = successors.stream().mapToInt(Integer::intValue).sorted().toArray();
+                }
+            }
+        }
+
+        // Invocations with the same sequence number as their predecessor may have none
+        for(int[] successors: this.next) {
+            for(int j: successors)
+                this.hasPrevious[j] = true;
+        }
+    }
+
+    private static String key(int[] branchPoints, int length) {
+        return Arrays.toString(Arrays.copyOf(branchPoints, length));
+    }
+
+    /**
+     * Returns the traces of a test program, i.e., the maximal sequences of invocations
+     * starting from an invocation performed by its entry point.
+     *
+     * @param invokes the invocations of the test program, in the order of the facts.
+     * @param entryPoint the identifier of the entry point of the test program.
+     * @return a {@link List} of sequences of invocations.
+     */
+    static List<Invoke[]> traces(List<Invoke> invokes, int entryPoint) {
+        final Traces traces = new Traces(invokes);
+        final ArrayList<Invoke[]> ret = new ArrayList<>();
+        for(int i = 0; i < invokes.size(); i++) {
+            if(invokes.get(i).caller == entryPoint && !traces.hasPrevious[i])
+                traces.paths(i, path -> ret.add(traces.toInvokes(path)));
+        }
+        return ret;
+    }
+
+    /**
+     * Returns the maximal sequences of direct invocations performed by a caller in a test
+     * program. As in {@code invoke_sequence/3}, sequences of a single invocation are not returned.
+     *
+     * @param invokes the invocations of the test program, in the order of the facts.
+     * @param caller the identifier of the caller.
+     * @return a {@link List} of sequences of invocations.
+     */
+    static List<Invoke[]> invokeSequences(List<Invoke> invokes, int caller) {
+        final ArrayList<Invoke> callerInvokes = new ArrayList<>();
+        for(Invoke invoke: invokes) {
+            if(invoke.caller == caller)
+                callerInvokes.add(invoke);
+        }
+
+        final Traces traces = new Traces(callerInvokes);
+        final ArrayList<Invoke[]> ret = new ArrayList<>();
+        for(int first = 0; first < callerInvokes.size(); first++) {
+            if(traces.hasPrevious[first])
+                continue;
+
+            // Prolog enumerates the last invocation before the paths reaching it
+            final ArrayList<int[]> paths = new ArrayList<>();
+            traces.paths(first, paths::add);
+            for(int last = 0; last < callerInvokes.size(); last++) {
+                if(traces.next[last].length > 0)
+                    continue;
+                for(int[] path: paths) {
+                    if(path.length > 1 && path[path.length - 1] == last)
+                        ret.add(traces.toInvokes(path));
+                }
+            }
+        }
+        return ret;
+    }
+
+    private interface PathConsumer {
+        void accept(int[] path);
+    }
+
+    /**
+     * Enumerates the maximal paths from an invocation, depth-first.
+     */
+    private void paths(int root, PathConsumer consumer) {
+        int[] path = new int[16];
+        final int[] choice = new int[this.invokes.size() + 1];
+        int depth = 0;
+        path[0] = root;
+        choice[0] = 0;
+        while(depth >= 0) {
+            final int[] successors = this.next[path[depth]];
+            if(successors.length == 0) {
+                consumer.accept(Arrays.copyOf(path, depth + 1));
+                depth--;
+            } else if(choice[depth] < successors.length) {
+                final int successor = successors[choice[depth]++];
+                if(++depth == path.length)
+                    path = Arrays.copyOf(path, path.length * 2);
+                path[depth] = successor;
+                choice[depth] = 0;
+            } else {
+                depth--;
+            }
+        }
+    }
+
+    private Invoke[] toInvokes(int[] path) {
+        final Invoke[] ret = new Invoke[path.length];
+        for(int i = 0; i < path.length; i++)
+            ret[i] = this.invokes.get(path[i]);
+        return ret;
+    }
+}
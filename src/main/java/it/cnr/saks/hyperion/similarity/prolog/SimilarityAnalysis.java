@@ -2,6 +2,8 @@ package it.cnr.saks.hyperion.similarity.prolog;
 
 import it.cnr.saks.hyperion.similarity.SimilarTests;
 import it.cnr.saks.hyperion.similarity.SimilarityException;
+import it.cnr.saks.hyperion.similarity.store.FactStore;
+import it.cnr.saks.hyperion.similarity.store.FactStoreConverter;
 import org.jpl7.Term;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,15 +66,28 @@ public class SimilarityAnalysis {
 
         for(String invokes: invokesList) {
             log.info("Loading " + invokes);
+            if(FactStore.isFactStore(new File(invokes)))
+                invokes = factStoreToTempFile(invokes);
             PrologQueryHelper.load(invokes);
         }
     }
 
-    public SimilarTests[] computeSimilarity(String metric, String domain, String invokesBlackList) {
+    private String factStoreToTempFile(String factStore) throws SimilarityException {
+        try {
+            File temp = Files.createTempFile("", ".hyperion").toFile();
+            temp.deleteOnExit();
+            FactStoreConverter.toProlog(new File(factStore), temp);
+            return temp.getPath();
+        } catch (IOException e) {
+            throw new SimilarityException(e.getMessage());
+        }
+    }
+
+    public SimilarTests[] computeSimilarity(String metric, String domain, String source, String invokesBlackList) {
         log.info("Running similarity analysis...");
         String[] variables = {"TP1", "TP2", "Score"};
 
-        Map<String, Term>[] queryResults = PrologQueryHelper.query("compute_similarity_from_java", variables, domain, "trace", metric, "");
+        Map<String, Term>[] queryResults = PrologQueryHelper.query("compute_similarity_from_java", variables, domain, source, metric, invokesBlackList == null ? "" : invokesBlackList);
         System.out.println("");
 
         // Converto to a JSON-able object
@@ -0,0 +1,20 @@
+package it.cnr.saks.hyperion.similarity.store;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the facts generated by the analysis of the test programs, one at a time, regardless
+ * of the format they are stored in. Atoms (test programs, signatures, class names) are passed
+ * unquoted, while path conditions and parameters are passed as Prolog terms, verbatim.
+ */
+public interface FactSink {
+    void invokes(String testProgram, int[] branchPoints, int sequenceNumber, String caller, int callerPC, int frameEpoch,
+                 String pathCondition, String callee, List<String> parameters) throws IOException;
+
+    void exception(String testProgram, String exceptionClass) throws IOException;
+
+    void pathCondition(String id, String clauses) throws IOException;
+
+    void skipped(String testProgram, String reason) throws IOException;
+}
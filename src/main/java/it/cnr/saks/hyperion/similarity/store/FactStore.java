@@ -0,0 +1,86 @@
+package it.cnr.saks.hyperion.similarity.store;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The binary format of the facts, an alternative to the Prolog text that is much smaller and
+ * does not need to be parsed. A fact store starts with {@link #MAGIC} and {@link #VERSION},
+ * followed by a sequence of records, each one starting with its tag:
+ * <ul>
+ * <li>{@link #TAG_STRING} defines the next string of the dictionary, whose identifiers are
+ * assigned in order starting from 0: it is followed by the length of the string in bytes and
+ * by its UTF-8 encoding. A string is defined before the first record referring to it;</li>
+ * <li>{@link #TAG_INVOKES}, {@link #TAG_EXCEPTION}, {@link #TAG_PATH_CONDITION} and
+ * {@link #TAG_SKIPPED} are the {@code invokes/9}, {@code exception/2}, {@code path_condition/2}
+ * and {@code skipped/2} facts, whose strings are referred to by their identifier in the
+ * dictionary, and whose lists are preceded by their length.</li>
+ * </ul>
+ * All the integers are varints, the signed ones being zigzag-encoded first, so that the small
+ * numbers that make up most of the facts take a single byte.
+ */
+public final class FactStore {
+    static final byte[] MAGIC = { 'H', 'Y', 'P', 'F' };
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = MAGIC.length + 1;
+
+    static final int TAG_STRING = 0;
+    static final int TAG_INVOKES = 1;
+    static final int TAG_EXCEPTION = 2;
+    static final int TAG_PATH_CONDITION = 3;
+    static final int TAG_SKIPPED = 4;
+
+    private FactStore() {}
+
+    /**
+     * Checks whether a file is a fact store rather than a Prolog file.
+     *
+     * @param file the {@link File} to check.
+     * @return {@code true} iff {@code file} starts with {@link #MAGIC}.
+     */
+    public static boolean isFactStore(File file) {
+        final byte[] magic = new byte[MAGIC.length];
+        try(DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readFully(magic);
+        } catch (IOException e) {
+            return false;
+        }
+        return Arrays.equals(magic, MAGIC);
+    }
+
+    static void writeUnsigned(OutputStream out, int value) throws IOException {
+        while((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static void writeSigned(OutputStream out, int value) throws IOException {
+        writeUnsigned(out, (value << 1) ^ (value >> 31));
+    }
+
+    static int readUnsigned(ByteBuffer in) throws IOException {
+        int value = 0;
+        for(int shift = 0; shift < 35; shift += 7) {
+            if(!in.hasRemaining())
+                throw new EOFException("Truncated fact store");
+            final int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed varint at offset " + in.position() + " of the fact store");
+    }
+
+    static int readSigned(ByteBuffer in) throws IOException {
+        final int value = readUnsigned(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,44 @@
+package it.cnr.saks.hyperion.similarity.store;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Converts facts between the Prolog text and the {@link FactStore} formats.
+ */
+public final class FactStoreConverter {
+    private FactStoreConverter() {}
+
+    /**
+     * Converts a file to the other format: a {@link FactStore} to Prolog text, and Prolog
+     * text to a {@link FactStore}.
+     *
+     * @param in the {@link File} to convert.
+     * @param out the {@link File} to write.
+     * @throws IOException if {@code in} is malformed, or if either file cannot be accessed.
+     */
+    public static void convert(File in, File out) throws IOException {
+        if(FactStore.isFactStore(in))
+            toProlog(in, out);
+        else
+            toFactStore(in, out);
+    }
+
+    public static void toProlog(File store, File prolog) throws IOException {
+        try(FactStoreReader reader = new FactStoreReader(store);
+            PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(prolog)), false, "UTF-8")) {
+            reader.read(new PrologFactPrinter(out));
+            if(out.checkError())
+                throw new IOException("Unable to write " + prolog);
+        }
+    }
+
+    public static void toFactStore(File prolog, File store) throws IOException {
+        try(FactStoreWriter writer = new FactStoreWriter(store)) {
+            PrologFactParser.parse(prolog, writer);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package it.cnr.saks.hyperion.similarity.store;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static it.cnr.saks.hyperion.similarity.store.FactStore.*;
+
+/**
+ * Reads the facts of a {@link FactStore}. The file is memory-mapped, so it is paged in by the
+ * operating system as it is scanned, and the strings of the dictionary are decoded only when a
+ * fact refers to them.
+ */
+public class FactStoreReader implements Closeable {
+    private final File file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    public FactStoreReader(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        final long size = this.channel.size();
+        if(size > Integer.MAX_VALUE) {
+            this.channel.close();
+            throw new IOException("Fact store " + file + " is too large to be mapped: " + size + " bytes");
+        }
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+        final byte[] magic = new byte[MAGIC.length];
+        if(size >= HEADER_LENGTH)
+            this.buffer.duplicate().get(magic);
+        if(!Arrays.equals(magic, MAGIC) || this.buffer.get(MAGIC.length) != VERSION) {
+            this.channel.close();
+            throw new IOException(file + " is not a fact store, or has an unsupported version");
+        }
+    }
+
+    /**
+     * Hands off all the facts of the store, in the order they were written, to a {@link FactSink}.
+     *
+     * @param sink the {@link FactSink} receiving the facts.
+     * @throws IOException if the store is corrupted, or if {@code sink} fails.
+     */
+    public void read(FactSink sink) throws IOException {
+        final ByteBuffer in = this.buffer.duplicate();
+        in.position(HEADER_LENGTH);
+        final Dictionary dictionary = new Dictionary(in);
+
+        while(in.hasRemaining()) {
+            final int tag = in.get();
+            switch(tag) {
+                case TAG_STRING:
+                    dictionary.define();
+                    break;
+                case TAG_INVOKES: {
+                    final String testProgram = dictionary.get(readUnsigned(in));
+                    final int[] branchPoints = new int[readUnsigned(in)];
+                    for(int i = 0; i < branchPoints.length; i++)
+                        branchPoints[i] = readSigned(in);
+                    final int sequenceNumber = readSigned(in);
+                    final String caller = dictionary.get(readUnsigned(in));
+                    final int callerPC = readSigned(in);
+                    final int frameEpoch = readSigned(in);
+                    final String pathCondition = dictionary.get(readUnsigned(in));
+                    final String callee = dictionary.get(readUnsigned(in));
+                    final int numParameters = readUnsigned(in);
+                    final List<String> parameters = new ArrayList<>(numParameters);
+                    for(int i = 0; i < numParameters; i++)
+                        parameters.add(dictionary.get(readUnsigned(in)));
+                    sink.invokes(testProgram, branchPoints, sequenceNumber, caller, callerPC, frameEpoch, pathCondition, callee, parameters);
+                    break;
+                }
+                case TAG_EXCEPTION:
+                    sink.exception(dictionary.get(readUnsigned(in)), dictionary.get(readUnsigned(in)));
+                    break;
+                case TAG_PATH_CONDITION:
+                    sink.pathCondition(dictionary.get(readUnsigned(in)), dictionary.get(readUnsigned(in)));
+                    break;
+                case TAG_SKIPPED:
+                    sink.skipped(dictionary.get(readUnsigned(in)), dictionary.get(readUnsigned(in)));
+                    break;
+                default:
+                    throw new IOException("Unknown tag " + tag + " at offset " + (in.position() - 1) + " of " + this.file);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * The strings defined so far, by the position of their encoding in the mapped file.
+     * Short strings are cached once decoded, as they are the ones that repeat.
+     */
+    private static class Dictionary {
+        private static final int MAX_CACHED_LENGTH = 1024;
+
+        private final ByteBuffer in;
+        private int[] offsets = new int[1024];
+        private int[] lengths = new int[1024];
+        private String[] cache = new String[1024];
+        private int size = 0;
+
+        Dictionary(ByteBuffer in) {
+            this.in = in;
+        }
+
+        void define() throws IOException {
+            final int length = readUnsigned(this.in);
+            if(length > this.in.remaining())
+                throw new IOException("Truncated fact store");
+            if(this.size == this.offsets.length) {
+                this.offsets = Arrays.copyOf(this.offsets, this.size * 2);
+                this.lengths = Arrays.copyOf(this.lengths, this.size * 2);
+                this.cache = Arrays.copyOf(this.cache, this.size * 2);
+            }
+            this.offsets[this.size] = this.in.position();
+            this.lengths[this.size] = length;
+            this.size++;
+            this.in.position(this.in.position() + length);
+        }
+
+        String get(int id) throws IOException {
+            if(id < 0 || id >= this.size)
+                throw new IOException("Reference to undefined string " + id + " at offset " + this.in.position() + " of the fact store");
+            if(this.cache[id] != null)
+                return this.cache[id];
+
+            final byte[] bytes = new byte[this.lengths[id]];
+            final ByteBuffer string = this.in.duplicate();
+            string.position(this.offsets[id]);
+            string.get(bytes);
+            final String s = new String(bytes, StandardCharsets.UTF_8);
+            if(bytes.length <= MAX_CACHED_LENGTH)
+                this.cache[id] = s;
+            return s;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package it.cnr.saks.hyperion.similarity.store;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+
+import static it.cnr.saks.hyperion.similarity.store.FactStore.*;
+
+/**
+ * Writes facts to a {@link FactStore}. Program points, signatures, test programs and parameters are
+ * repeated in most facts, so each string is written once and then referred to by its identifier.
+ */
+public class FactStoreWriter implements FactSink, Closeable {
+    // Longer strings, typically path conditions, seldom repeat: they are written every time
+    // they occur rather than remembered, so the dictionary does not grow with the trace
+    private static final int MAX_REMEMBERED_LENGTH = 1024;
+
+    private final OutputStream out;
+    private final HashMap<String, Integer> dictionary = new HashMap<>();
+    private int nextId = 0;
+    private long facts = 0;
+
+    public FactStoreWriter(File file) throws IOException {
+        this.out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16);
+        this.out.write(MAGIC);
+        this.out.write(VERSION);
+    }
+
+    private int string(String s) throws IOException {
+        final Integer id = this.dictionary.get(s);
+        if(id != null)
+            return id;
+
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        this.out.write(TAG_STRING);
+        writeUnsigned(this.out, bytes.length);
+        this.out.write(bytes);
+        if(s.length() <= MAX_REMEMBERED_LENGTH)
+            this.dictionary.put(s, this.nextId);
+        return this.nextId++;
+    }
+
+    @Override
+    public void invokes(String testProgram, int[] branchPoints, int sequenceNumber, String caller, int callerPC, int frameEpoch,
+                        String pathCondition, String callee, List<String> parameters) throws IOException {
+        // Strings are defined before the record that refers to them
+        final int testProgramId = string(testProgram);
+        final int callerId = string(caller);
+        final int pathConditionId = string(pathCondition);
+        final int calleeId = string(callee);
+        final int[] parameterIds = new int[parameters.size()];
+        for(int i = 0; i < parameterIds.length; i++)
+            parameterIds[i] = string(parameters.get(i));
+
+        this.out.write(TAG_INVOKES);
+        writeUnsigned(this.out, testProgramId);
+        writeUnsigned(this.out, branchPoints.length);
+        for(int branchPoint: branchPoints)
+            writeSigned(this.out, branchPoint);
+        writeSigned(this.out, sequenceNumber);
+        writeUnsigned(this.out, callerId);
+        writeSigned(this.out, callerPC);
+        writeSigned(this.out, frameEpoch);
+        writeUnsigned(this.out, pathConditionId);
+        writeUnsigned(this.out, calleeId);
+        writeUnsigned(this.out, parameterIds.length);
+        for(int parameterId: parameterIds)
+            writeUnsigned(this.out, parameterId);
+        this.facts++;
+    }
+
+    @Override
+    public void exception(String testProgram, String exceptionClass) throws IOException {
+        writePair(TAG_EXCEPTION, testProgram, exceptionClass);
+    }
+
+    @Override
+    public void pathCondition(String id, String clauses) throws IOException {
+        writePair(TAG_PATH_CONDITION, id, clauses);
+    }
+
+    @Override
+    public void skipped(String testProgram, String reason) throws IOException {
+        writePair(TAG_SKIPPED, testProgram, reason);
+    }
+
+    private void writePair(int tag, String first, String second) throws IOException {
+        final int firstId = string(first);
+        final int secondId = string(second);
+        this.out.write(tag);
+        writeUnsigned(this.out, firstId);
+        writeUnsigned(this.out, secondId);
+        this.facts++;
+    }
+
+    public long getFacts() {
+        return this.facts;
+    }
+
+    public int getStrings() {
+        return this.nextId;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+}
@@ -0,0 +1,261 @@
+package it.cnr.saks.hyperion.similarity.store;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the facts written as Prolog text by a {@link PrologFactPrinter}, i.e., one fact per line.
+ * A fact spans more lines only if a quoted atom contains a line break. Directives, comments and
+ * empty lines are skipped. In quoted atoms, a quote is either doubled or escaped, and a backslash
+ * starts an escape sequence, as in {@link PrologFactPrinter#quote(String)}.
+ */
+public final class PrologFactParser {
+    private PrologFactParser() {}
+
+    /**
+     * Hands off all the facts of a Prolog file to a {@link FactSink}.
+     *
+     * @param file the Prolog {@link File} to read.
+     * @param sink the {@link FactSink} receiving the facts.
+     * @throws IOException if {@code file} cannot be read or contains a malformed fact,
+     *         or if {@code sink} fails.
+     */
+    public static void parse(File file, FactSink sink) throws IOException {
+        try(BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            int factLineNumber = 0;
+            StringBuilder fact = null;
+            while((line = in.readLine()) != null) {
+                lineNumber++;
+                if(fact == null) {
+                    fact = new StringBuilder(line);
+                    factLineNumber = lineNumber;
+                } else {
+                    fact.append('\n').append(line);
+                }
+                // A quoted atom with a line break continues on the next line
+                if(isInsideQuotes(fact))
+                    continue;
+
+                try {
+                    parseLine(fact.toString(), sink);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(file + ":" + factLineNumber + ": " + e.getMessage());
+                }
+                fact = null;
+            }
+            if(fact != null)
+                throw new IOException(file + ":" + factLineNumber + ": unterminated quoted atom");
+        }
+    }
+
+    /**
+     * Hands off the fact on a line to a {@link FactSink}.
+     *
+     * @param line a {@link String}, a line of Prolog text.
+     * @param sink the {@link FactSink} receiving the fact.
+     * @return {@code true} iff {@code line} is a fact, {@code false} if it is a directive,
+     *         a comment or empty.
+     * @throws IllegalArgumentException if {@code line} is a malformed or unknown fact.
+     * @throws IOException if {@code sink} fails.
+     */
+    public static boolean parseLine(String line, FactSink sink) throws IOException {
+        line = line.trim();
+        if(line.isEmpty() || line.startsWith("%") || line.startsWith(":-"))
+            return false;
+
+        final int open = line.indexOf('(');
+        if(open < 0 || !line.endsWith(")."))
+            throw new IllegalArgumentException("not a fact: " + line);
+        final String functor = line.substring(0, open);
+        final List<String> args = split(line.substring(open + 1, line.length() - 2));
+
+        switch(functor + "/" + args.size()) {
+            case "invokes/9":
+                final List<String> branchPoints = split(list(args.get(1)));
+                final int[] branchPointsArray = new int[branchPoints.size()];
+                for(int i = 0; i < branchPointsArray.length; i++)
+                    branchPointsArray[i] = integer(branchPoints.get(i));
+                sink.invokes(atom(args.get(0)), branchPointsArray, integer(args.get(2)), atom(args.get(3)), integer(args.get(4)),
+                             integer(args.get(5)), args.get(6), atom(args.get(7)), split(list(args.get(8))));
+                return true;
+            case "exception/2":
+                sink.exception(atom(args.get(0)), atom(args.get(1)));
+                return true;
+            case "path_condition/2":
+                sink.pathCondition(args.get(0), args.get(1));
+                return true;
+            case "skipped/2":
+                sink.skipped(atom(args.get(0)), atom(args.get(1)));
+                return true;
+            default:
+                throw new IllegalArgumentException("unknown fact " + functor + "/" + args.size());
+        }
+    }
+
+    /**
+     * Splits a sequence of comma-separated terms, ignoring the commas nested in
+     * compound terms, lists and quoted atoms or strings.
+     */
+    private static List<String> split(String terms) {
+        final List<String> ret = new ArrayList<>();
+        if(terms.trim().isEmpty())
+            return ret;
+
+        int depth = 0;
+        int start = 0;
+        for(int i = 0; i < terms.length(); i++) {
+            final char c = terms.charAt(i);
+            if(c == '\'' || c == '"') {
+                i = closingQuote(terms, i);
+            } else if(c == '(' || c == '[' || c == '{') {
+                depth++;
+            } else if(c == ')' || c == ']' || c == '}') {
+                depth--;
+            } else if(c == ',' && depth == 0) {
+                ret.add(terms.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        if(depth != 0)
+            throw new IllegalArgumentException("unbalanced brackets in " + terms);
+        ret.add(terms.substring(start).trim());
+        return ret;
+    }
+
+    private static boolean isInsideQuotes(CharSequence text) {
+        char quote = 0;
+        for(int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if(quote == 0) {
+                if(c == '%')
+                    return false; // The rest of the line is a comment
+                if(c == '\'' || c == '"')
+                    quote = c;
+            } else if(c == '\\') {
+                i++;
+            } else if(c == quote) {
+                // A doubled quote is part of the atom
+                if(i + 1 < text.length() && text.charAt(i + 1) == quote)
+                    i++;
+                else
+                    quote = 0;
+            }
+        }
+        return quote != 0;
+    }
+
+    private static int closingQuote(String terms, int open) {
+        final char quote = terms.charAt(open);
+        for(int i = open + 1; i < terms.length(); i++) {
+            if(terms.charAt(i) == '\\') {
+                i++; // The escaped character is part of the atom
+                continue;
+            }
+            if(terms.charAt(i) != quote)
+                continue;
+            if(i + 1 < terms.length() && terms.charAt(i + 1) == quote) {
+                i++; // A doubled quote is part of the atom
+                continue;
+            }
+            return i;
+        }
+        throw new IllegalArgumentException("unterminated quoted atom in " + terms);
+    }
+
+    private static String list(String term) {
+        if(!term.startsWith("[") || !term.endsWith("]"))
+            throw new IllegalArgumentException("not a list: " + term);
+        return term.substring(1, term.length() - 1);
+    }
+
+    private static String atom(String term) {
+        return unquote(term);
+    }
+
+    /**
+     * Returns the text of an atom.
+     *
+     * @param term an atom, either quoted or not.
+     * @return the text of {@code term}, without quotes and escape sequences.
+     * @throws IllegalArgumentException if {@code term} contains a malformed escape sequence.
+     */
+    public static String unquote(String term) {
+        if(term.length() < 2 || !term.startsWith("'") || !term.endsWith("'"))
+            return term;
+
+        final String text = term.substring(1, term.length() - 1);
+        if(text.indexOf('\\') < 0)
+            return text.replace("''", "'");
+
+        final StringBuilder sb = new StringBuilder(text.length());
+        for(int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if(c == '\'' && i + 1 < text.length() && text.charAt(i + 1) == '\'') {
+                sb.append('\'');
+                i++;
+            } else if(c != '\\') {
+                sb.append(c);
+            } else if(++i == text.length()) {
+                throw new IllegalArgumentException("malformed escape sequence in " + term);
+            } else {
+                final char e = text.charAt(i);
+                switch(e) {
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'a':
+                        sb.append('\u0007');
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'v':
+                        sb.append('\u000b');
+                        break;
+                    case '0': case '1': case '2': case '3': case '4': case '5': case '6': case '7':
+                    case 'x': {
+                        // \xHH..\ or \OOO..\
+                        final int end = text.indexOf('\\', i + 1);
+                        if(end < 0)
+                            throw new IllegalArgumentException("malformed escape sequence in " + term);
+                        try {
+                            sb.append((char) (e == 'x' ? Integer.parseInt(text.substring(i + 1, end), 16) : Integer.parseInt(text.substring(i, end), 8)));
+                        } catch (NumberFormatException ex) {
+                            throw new IllegalArgumentException("malformed escape sequence in " + term);
+                        }
+                        i = end;
+                        break;
+                    }
+                    default:
+                        // \\, \', \" and \`
+                        sb.append(e);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int integer(String term) {
+        try {
+            return Integer.parseInt(term);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not an integer: " + term);
+        }
+    }
+}
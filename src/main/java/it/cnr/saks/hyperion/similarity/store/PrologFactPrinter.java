@@ -0,0 +1,103 @@
+package it.cnr.saks.hyperion.similarity.store;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Writes facts as Prolog text, one fact per line. Atoms are quoted with {@link #quote(String)}.
+ */
+public class PrologFactPrinter implements FactSink {
+    private final PrintStream out;
+
+    public PrologFactPrinter(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void invokes(String testProgram, int[] branchPoints, int sequenceNumber, String caller, int callerPC, int frameEpoch,
+                        String pathCondition, String callee, List<String> parameters) {
+        StringBuilder invokes = new StringBuilder();
+        invokes.append("invokes(");
+        appendAtom(invokes, testProgram).append(", ");
+        invokes.append("[");
+        for(int i = 0; i < branchPoints.length; i++)
+            invokes.append(i > 0 ? ", " : "").append(branchPoints[i]);
+        invokes.append("], ").append(sequenceNumber).append(", ");
+        appendAtom(invokes, caller).append(", ");
+        invokes.append(callerPC).append(", ")
+                .append(frameEpoch).append(", ")
+                .append(pathCondition).append(", ");
+        appendAtom(invokes, callee).append(", ");
+        invokes.append("[");
+        for(int i = 0; i < parameters.size(); i++)
+            invokes.append(i > 0 ? ", " : "").append(parameters.get(i));
+        invokes.append("]).");
+
+        this.out.println(invokes);
+    }
+
+    @Override
+    public void exception(String testProgram, String exceptionClass) {
+        StringBuilder exception = new StringBuilder();
+        exception.append("exception(");
+        appendAtom(exception, testProgram).append(", ");
+        appendAtom(exception, exceptionClass).append(").");
+        this.out.println(exception);
+    }
+
+    @Override
+    public void pathCondition(String id, String clauses) {
+        this.out.println("path_condition(" + id + ", " + clauses + ").");
+    }
+
+    @Override
+    public void skipped(String testProgram, String reason) {
+        StringBuilder skipped = new StringBuilder();
+        skipped.append("skipped(");
+        appendAtom(skipped, testProgram).append(", ");
+        appendAtom(skipped, reason).append(").");
+        this.out.println(skipped);
+    }
+
+    private static StringBuilder appendAtom(StringBuilder sb, String atom) {
+        return sb.append(quote(atom));
+    }
+
+    /**
+     * Renders an atom as a quoted Prolog atom: quotes are doubled, and backslashes and
+     * control characters are escaped, so that the atom never spans more than one line.
+     *
+     * @param atom the text of the atom.
+     * @return the quoted atom.
+     */
+    public static String quote(String atom) {
+        final StringBuilder sb = new StringBuilder(atom.length() + 2);
+        sb.append('\'');
+        for(int i = 0; i < atom.length(); i++) {
+            final char c = atom.charAt(i);
+            switch(c) {
+                case '\'':
+                    sb.append("''");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if(Character.isISOControl(c))
+                        sb.append("\\x").append(Integer.toHexString(c)).append('\\');
+                    else
+                        sb.append(c);
+            }
+        }
+        return sb.append('\'').toString();
+    }
+}
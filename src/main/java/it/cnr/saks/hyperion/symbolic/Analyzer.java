@@ -2,6 +2,7 @@ package it.cnr.saks.hyperion.symbolic;
 
 import it.cnr.saks.hyperion.AnalyzerRunnerHelper;
 import it.cnr.saks.hyperion.similarity.InformationLogger;
+import jbse.algo.BootstrapSnapshot;
 import jbse.algo.exc.CannotManageStateException;
 import jbse.bc.Signature;
 import jbse.bc.exc.InvalidClassFileFactoryClassException;
@@ -15,26 +16,46 @@ import jbse.jvm.Runner;
 import jbse.jvm.RunnerBuilder;
 import jbse.jvm.exc.*;
 import jbse.mem.State;
+import jbse.mem.StateFootprint;
 import jbse.mem.exc.ContradictionException;
 import jbse.mem.exc.FrozenStateException;
 import jbse.mem.exc.ThreadStackEmptyException;
 import jbse.rewr.*;
 import jbse.rules.ClassInitRulesRepo;
 import jbse.rules.LICSRulesRepo;
+import jbse.tree.StateTree;
+import jbse.tree.StateTree.BranchPoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static jbse.bc.Opcodes.*;
 
 public final class Analyzer {
     private static final Logger log = LoggerFactory.getLogger(Analyzer.class);
+    private static final int FOOTPRINT_SAMPLING_INTERVAL = 1000;
+    private static final int PRESSURE_POLLING_INTERVAL = 1000;
     private boolean trackingEnabled = false;
 
     private Engine engine;
+    private SolverProcessPool solverProcessPool;
+    private SatCache satCache;
+    private DecisionProcedureSMTLIB2_AUFNIRA solver;
+    private MemoryGovernor memoryGovernor;
+    private final AtomicInteger memoryPressure = new AtomicInteger();
+    private int memoryPressureHandled = 0;
+    private boolean memoryPressureRelieved = false;
+    private long memoryPressureCollections = 0;
+    private int stepsSincePressurePoll = 0;
+    private volatile int pendingStates = 0;
+    private boolean skipped = false;
+    private StateFootprint peakFootprint;
+    private String peakFootprintMethod;
+    private int stepsSinceFootprint = 0;
     public final AnalyzerParameters analyzerParameters;
 
     private final InformationLogger informationLogger;
@@ -160,6 +181,93 @@ public final class Analyzer {
             }
             return super.atStepPre();
         }
+
+        @Override
+        public boolean atBranch(BranchPoint bp) {
+            // The pending states created at a branch point are copies of the current one
+            if(Analyzer.this.trackingEnabled)
+                trackFootprint(Analyzer.this.engine);
+            return super.atBranch(bp);
+        }
+
+        @Override
+        public boolean atStepPost() {
+            final Engine engine = Analyzer.this.engine;
+            Analyzer.this.pendingStates = engine.getNumOfPendingStates();
+            if(Analyzer.this.trackingEnabled && ++Analyzer.this.stepsSinceFootprint >= FOOTPRINT_SAMPLING_INTERVAL)
+                trackFootprint(engine);
+
+            // The governor may signal more than once for the same pressure, e.g., when both of its
+            // thresholds are crossed: all the signals received so far are served by a single relief
+            final int pressure = Analyzer.this.memoryPressure.get();
+            if(pressure > Analyzer.this.memoryPressureHandled) {
+                Analyzer.this.memoryPressureHandled = pressure;
+                if(!Analyzer.this.memoryPressureRelieved) {
+                    // First, give up the current path and the shallowest half of the pending ones
+                    Analyzer.this.memoryPressureRelieved = true;
+                    Analyzer.this.memoryPressureCollections = Analyzer.this.memoryGovernor.getCollectionCount();
+                    Analyzer.this.stepsSincePressurePoll = 0;
+                    engine.stopCurrentPath();
+                    final int dropped = engine.dropPendingStates(Analyzer.this.pendingStates / 2);
+                    Analyzer.this.pendingStates -= dropped;
+                    Analyzer.this.memoryGovernor.pathStopped(dropped);
+                    log.warn("Memory pressure: stopped the current path and dropped {} pending states", dropped);
+                } else {
+                    // The pressure returned after the relief: give up the test program
+                    return abortForMemoryPressure();
+                }
+            } else if(Analyzer.this.memoryPressureRelieved && ++Analyzer.this.stepsSincePressurePoll >= PRESSURE_POLLING_INTERVAL) {
+                // The pools notify only when the threshold is crossed, so a pressure that never went
+                // away sends nothing more: once a collection has run after the relief, its outcome
+                // tells whether the relief was enough
+                Analyzer.this.stepsSincePressurePoll = 0;
+                final MemoryGovernor governor = Analyzer.this.memoryGovernor;
+                if(governor.getCollectionCount() > Analyzer.this.memoryPressureCollections) {
+                    if(governor.isUnderPressure())
+                        return abortForMemoryPressure();
+                    Analyzer.this.memoryPressureRelieved = false;
+                    log.info("Memory pressure relieved");
+                }
+            }
+            return super.atStepPost();
+        }
+    }
+
+    private boolean abortForMemoryPressure() {
+        log.warn("Memory pressure: aborting the analysis of the test program");
+        this.skipped = true;
+        return true;
+    }
+
+    /**
+     * Records the footprint of the current state if it is the largest seen so far, together with
+     * the method being executed, so the methods of the SUT that blow up the state can be identified.
+     * Measuring the footprint flushes the heap estimates, so it is sampled every
+     * {@link #FOOTPRINT_SAMPLING_INTERVAL} steps and at the branch points.
+     */
+    private void trackFootprint(Engine engine) {
+        this.stepsSinceFootprint = 0;
+        final StateFootprint footprint = engine.getCurrentStateFootprint();
+        if(this.peakFootprint != null && footprint.getBytes() <= this.peakFootprint.getBytes())
+            return;
+        this.peakFootprint = footprint;
+        try {
+            this.peakFootprintMethod = engine.getCurrentState().getCurrentMethodSignature().toString();
+        } catch (ThreadStackEmptyException e) {
+            this.peakFootprintMethod = "<no method>";
+        }
+    }
+
+    /**
+     * Asks this analyzer to free memory. Invoked by the {@link MemoryGovernor} from any thread:
+     * the request is served by the analyzer's own thread after the current step.
+     */
+    void relieveMemoryPressure() {
+        this.memoryPressure.incrementAndGet();
+    }
+
+    int getPendingStates() {
+        return this.pendingStates;
     }
 
     public void run() throws AnalyzerException {
@@ -172,9 +280,27 @@ public final class Analyzer {
             final RunnerBuilder rb = new RunnerBuilder();
             final Runner runner = rb.build(this.analyzerParameters.getRunnerParameters());
             this.engine = rb.getEngine();
-            runner.run();
+            if(this.memoryGovernor != null)
+                this.memoryGovernor.register(this);
+            try {
+                runner.run();
+            } finally {
+                if(this.memoryGovernor != null)
+                    this.memoryGovernor.unregister(this);
+            }
+            final StateTree stateTree = this.engine.getExecutionContext().stateTree;
+            log.info("Pending states: {} at most, {} spilled to disk ({} bytes), {} reloaded, {} not serializable",
+                    stateTree.getMaxNumOfStates(), stateTree.getTotalStatesSpilled(), stateTree.getTotalBytesSpilled(),
+                    stateTree.getTotalStatesReloaded(), stateTree.getTotalSpillFailures());
             this.engine.close();
             this.engine = null;
+            log.info("Solver clauses: {} sent, {} reused", this.solver.getClausesSent(), this.solver.getClausesReused());
+            if(this.peakFootprint != null)
+                log.info("State footprint: peak of {} in {}", this.peakFootprint, this.peakFootprintMethod);
+            if(this.skipped) {
+                this.informationLogger.markSkipped("memory");
+                this.memoryGovernor.testSkipped();
+            }
         } catch (ClasspathException | DecisionException | CannotManageStateException | EngineStuckException | CannotBacktrackException | NonexistingObservedVariablesException | ThreadStackEmptyException | ContradictionException | FailureException | UnexpectedInternalException | CannotBuildEngineException | InitializationException | InvalidClassFileFactoryClassException e) {
             System.err.println(e.getStackTrace());
             throw new AnalyzerException(e.getMessage());
@@ -198,11 +324,51 @@ public final class Analyzer {
         return this;
     }
 
+    public Analyzer withBootstrapSnapshot(BootstrapSnapshot bootstrapSnapshot) {
+        this.analyzerParameters.setBootstrapSnapshot(bootstrapSnapshot);
+        return this;
+    }
+
+    public Analyzer withSolverProcessPool(SolverProcessPool solverProcessPool) {
+        this.solverProcessPool = solverProcessPool;
+        return this;
+    }
+
+    public Analyzer withSatCache(SatCache satCache) {
+        this.satCache = satCache;
+        return this;
+    }
+
+    public Analyzer withGuidanceVmPool(GuidanceVmPool guidanceVmPool) {
+        this.analyzerParameters.setGuidanceVmPool(guidanceVmPool);
+        return this;
+    }
+
+    public Analyzer withSymbolicApplyMemo(SymbolicApplyMemo symbolicApplyMemo) {
+        this.analyzerParameters.setSymbolicApplyMemo(symbolicApplyMemo);
+        return this;
+    }
+
     public Analyzer withDepthScope(int depthScope) {
         this.analyzerParameters.setDepthScope(depthScope);
         return this;
     }
 
+    public Analyzer withMemoryGovernor(MemoryGovernor memoryGovernor) {
+        this.memoryGovernor = memoryGovernor;
+        return this;
+    }
+
+    public Analyzer withGcInterval(int gcInterval) {
+        this.analyzerParameters.setGcInterval(gcInterval);
+        return this;
+    }
+
+    public Analyzer withMaxStatesInMemory(int maxStatesInMemory) {
+        this.analyzerParameters.setMaxStatesInMemory(maxStatesInMemory);
+        return this;
+    }
+
     public Analyzer withTimeout(long time) {
         this.analyzerParameters.setTimeout(time, TimeUnit.MINUTES);
         return this;
@@ -231,7 +397,10 @@ public final class Analyzer {
             z3CommandLine.add(switchChar + "smt2");
             z3CommandLine.add(switchChar + "in");
             z3CommandLine.add(switchChar + "t:10");
-            core = new DecisionProcedureSMTLIB2_AUFNIRA(core, z3CommandLine);
+            this.solver = new DecisionProcedureSMTLIB2_AUFNIRA(core, z3CommandLine, this.solverProcessPool);
+            this.solver.setIncremental(true); // on backtrack only pop/push the clauses that differ
+            this.solver.setSatCache(this.satCache);
+            core = this.solver;
             core = new DecisionProcedureLICS(core, new LICSRulesRepo());
             core = new DecisionProcedureClassInit(core, new ClassInitRulesRepo());
 
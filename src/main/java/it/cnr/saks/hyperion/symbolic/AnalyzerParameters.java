@@ -1,5 +1,6 @@
 package it.cnr.saks.hyperion.symbolic;
 
+import jbse.algo.BootstrapSnapshot;
 import jbse.bc.Signature;
 import jbse.dec.DecisionProcedureAlgorithms;
 import jbse.jvm.RunnerParameters;
@@ -10,6 +11,8 @@ import java.util.concurrent.TimeUnit;
 public class AnalyzerParameters implements Cloneable {
     private final RunnerParameters runnerParameters;
     private Signature testProgramSignature;
+    private GuidanceVmPool guidanceVmPool;
+    private SymbolicApplyMemo symbolicApplyMemo;
 
     public AnalyzerParameters() {
         this.runnerParameters = new RunnerParameters();
@@ -49,10 +52,38 @@ public class AnalyzerParameters implements Cloneable {
         this.runnerParameters.setMethodSignature(method);
     }
 
+    public void setBootstrapSnapshot(BootstrapSnapshot bootstrapSnapshot) {
+        this.runnerParameters.setBootstrapSnapshot(bootstrapSnapshot);
+    }
+
+    public GuidanceVmPool getGuidanceVmPool() {
+        return guidanceVmPool;
+    }
+
+    public void setGuidanceVmPool(GuidanceVmPool guidanceVmPool) {
+        this.guidanceVmPool = guidanceVmPool;
+    }
+
+    public SymbolicApplyMemo getSymbolicApplyMemo() {
+        return symbolicApplyMemo;
+    }
+
+    public void setSymbolicApplyMemo(SymbolicApplyMemo symbolicApplyMemo) {
+        this.symbolicApplyMemo = symbolicApplyMemo;
+    }
+
     public void setDepthScope(int depthScope) {
         this.runnerParameters.setDepthScope(depthScope);
     }
 
+    public void setGcInterval(int gcInterval) {
+        this.runnerParameters.setGcInterval(gcInterval);
+    }
+
+    public void setMaxStatesInMemory(int maxStatesInMemory) {
+        this.runnerParameters.setMaxStatesInMemory(maxStatesInMemory);
+    }
+
     public void setTimeout(long time, TimeUnit minutes) {
         this.runnerParameters.setTimeout(time, minutes);
     }
@@ -65,6 +65,8 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 		StreamRedirectThread errThread;
 
 		protected VirtualMachine vm;
+		private GuidanceVm guidanceVm;
+		private boolean testStarted;
 		private BreakpointRequest breakpoint;
 		private  boolean valueDependsOnSymbolicApply;
 		private final int numOfFramesAtMethodEntry;
@@ -75,6 +77,7 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 
 		// Handling of uninterpreted functions
 		private final Map<SymbolicApply, SymbolicApplyJVMJDI> symbolicApplyCache = new HashMap<>();
+		private final Map<SymbolicApply, Value> symbolicApplyMemoized = new HashMap<>();
 		private final Map<String, List<String>> symbolicApplyOperatorOccurrences = new HashMap<>();
 		private String currentHashMapModelMethod;
 
@@ -96,8 +99,10 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 			} catch (IncompatibleThreadStateException e) {
 				throw new UnexpectedInternalException(e);
 			}
-			this.outThread = redirect("Subproc stdout", this.vm.process().getInputStream(), System.out);
-			this.errThread = redirect("Subproc stderr", this.vm.process().getErrorStream(), System.err);
+			if (this.guidanceVm == null) {
+				this.outThread = redirect("Subproc stdout", this.vm.process().getInputStream(), System.out);
+				this.errThread = redirect("Subproc stderr", this.vm.process().getErrorStream(), System.err);
+			}
 		}
 
 		private StreamRedirectThread redirect(String name, InputStream in, OutputStream out) {
@@ -171,6 +176,13 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 				final String mainClass = TestLauncher.class.getName();
 				final String testProgramClass = binaryClassName(this.analyzerParameters.getTestProgramSignature().getClassName());
 				final String testProgramName = this.analyzerParameters.getTestProgramSignature().getName();
+				final GuidanceVmPool pool = this.analyzerParameters.getGuidanceVmPool();
+				if (pool != null) {
+					//the test program is sent to the warm VM by goToBreakpoint
+					this.launchArguments = "-classpath \"" + stringClassPath + "\" " + mainClass + " " + TestLauncher.SERVE;
+					this.guidanceVm = leaseOrLaunchVM(pool);
+					return this.guidanceVm.vm;
+				}
 				this.launchArguments = "-classpath \"" + stringClassPath + "\" " + mainClass + " " + testProgramClass + " " + testProgramName;
 //				System.out.println(this.launchArguments);
 				return launchTarget(this.launchArguments);
@@ -179,6 +191,20 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 			}
 		}
 
+		private GuidanceVm leaseOrLaunchVM(GuidanceVmPool pool) throws GuidanceException {
+			final GuidanceVm leased = pool.lease(this.launchArguments);
+			if (leased != null) {
+				this.outThread = (StreamRedirectThread) leased.outThread;
+				this.errThread = (StreamRedirectThread) leased.errThread;
+				return leased;
+			}
+			final VirtualMachine launched = launchTarget(this.launchArguments);
+			pool.notifyLaunched();
+			this.outThread = redirect("Subproc stdout", launched.process().getInputStream(), System.out);
+			this.errThread = redirect("Subproc stderr", launched.process().getErrorStream(), System.err);
+			return new GuidanceVm(this.launchArguments, launched, this.outThread, this.errThread);
+		}
+
 		private VirtualMachine launchTarget(String mainArgs) throws GuidanceException {
 			final LaunchingConnector connector = findLaunchingConnector();
 			final Map<String, Connector.Argument> arguments = connectorArguments(connector, mainArgs);
@@ -214,6 +240,12 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 			trySetBreakPoint(sig, offset);
 
 			//executes
+			if (this.guidanceVm != null && !this.testStarted) {
+				//the breakpoints are armed, the warm VM can run the test program
+				final Signature testProgramSignature = this.analyzerParameters.getTestProgramSignature();
+				this.guidanceVm.startTest(binaryClassName(testProgramSignature.getClassName()), testProgramSignature.getName());
+				this.testStarted = true;
+			}
 			this.vm.resume();
 
 			final EventQueue queue = this.vm.eventQueue();
@@ -492,9 +524,27 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 				} else if (origin instanceof SymbolicApply) {
 					//Implicit invariant: when we see a ReferenceSymbolicApply for the first time, JDI is at the call point of the corresponding function
 					final SymbolicApply symbolicApply = (SymbolicApply) origin;
+					if (this.symbolicApplyMemoized.containsKey(symbolicApply)) {
+						//later occurrences must not look up the memo again, since the
+						//arguments can be evaluated only at the call point
+						this.valueDependsOnSymbolicApply = true;
+						return this.symbolicApplyMemoized.get(symbolicApply);
+					}
 					if (!this.symbolicApplyCache.containsKey(symbolicApply)) {
+						final SymbolicApplyMemo memo = this.analyzerParameters.getSymbolicApplyMemo();
+						final String memoKey = (memo == null ? null : symbolicApplyMemoKey(symbolicApply));
+						final PrimitiveValue memoized = (memoKey == null ? null : memo.get(memoKey));
+						if (memoized != null) {
+							final Value val = mirrorOf(memoized);
+							this.symbolicApplyMemoized.put(symbolicApply, val);
+							this.valueDependsOnSymbolicApply = true;
+							return val;
+						}
 						final SymbolicApplyJVMJDI symbolicApplyVm = startSymbolicApplyVm(symbolicApply);
 						this.symbolicApplyCache.put(symbolicApply, symbolicApplyVm);
+						if (memoKey != null && symbolicApplyVm.getRetValue() instanceof PrimitiveValue) {
+							memo.put(memoKey, (PrimitiveValue) symbolicApplyVm.getRetValue());
+						}
 					}
 					final SymbolicApplyJVMJDI symbolicApplyVm = this.symbolicApplyCache.get(symbolicApply);
 					this.valueDependsOnSymbolicApply = true;
@@ -507,6 +557,64 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 			}
 		}
 
+		/**
+		 * Returns the key of a {@link SymbolicApply} in the {@link SymbolicApplyMemo}: its
+		 * operator and calling context, without the frame of the test program that differs
+		 * among test programs, followed by its concrete arguments.
+		 *
+		 * @param symbolicApply a {@link SymbolicApply}.
+		 * @return a {@link String}, or {@code null} if the result of {@code symbolicApply}
+		 *         cannot be memoized.
+		 */
+		private String symbolicApplyMemoKey(SymbolicApply symbolicApply) {
+			if (!(symbolicApply instanceof PrimitiveSymbolicApply) || this.currentStateSupplier == null) {
+				return null;
+			}
+			final String opWithContext = SymbolicApplyJVMJDI.formatContextualSymbolicApplyOperatorOccurrence(symbolicApply.getOperator(), this.currentStateSupplier.get());
+			if (opWithContext == null) {
+				return null;
+			}
+			final String separator = SymbolicApplyJVMJDI.callContextSeparator;
+			final StringBuilder key = new StringBuilder(opWithContext.substring(opWithContext.indexOf(separator) + separator.length()));
+			key.append('(');
+			for (jbse.val.Value arg : symbolicApply.getArgs()) {
+				if (!(arg instanceof Primitive)) {
+					return null;
+				}
+				final Primitive argConcrete;
+				try {
+					argConcrete = eval((Primitive) arg);
+				} catch (GuidanceException | ImpureMethodException | RuntimeException e) {
+					return null;
+				}
+				if (!(argConcrete instanceof Simplex)) {
+					return null;
+				}
+				key.append(argConcrete.getType()).append(argConcrete.toString()).append(',');
+			}
+			return key.append(')').toString();
+		}
+
+		private Value mirrorOf(PrimitiveValue val) {
+			if (val instanceof BooleanValue) {
+				return this.vm.mirrorOf(((BooleanValue) val).value());
+			} else if (val instanceof ByteValue) {
+				return this.vm.mirrorOf(((ByteValue) val).value());
+			} else if (val instanceof CharValue) {
+				return this.vm.mirrorOf(((CharValue) val).value());
+			} else if (val instanceof ShortValue) {
+				return this.vm.mirrorOf(((ShortValue) val).value());
+			} else if (val instanceof IntegerValue) {
+				return this.vm.mirrorOf(((IntegerValue) val).value());
+			} else if (val instanceof LongValue) {
+				return this.vm.mirrorOf(((LongValue) val).value());
+			} else if (val instanceof FloatValue) {
+				return this.vm.mirrorOf(((FloatValue) val).value());
+			} else { //val instanceof DoubleValue
+				return this.vm.mirrorOf(((DoubleValue) val).value());
+			}
+		}
+
 		private SymbolicApplyJVMJDI startSymbolicApplyVm(SymbolicApply symbolicApply) throws GuidanceException, ImpureMethodException {
 			/* TODO: Add a strategy to limit the maximum number of SymbolicApplyJVMJDI that we might allocate
 			 * to execute uninterpreted functions.
@@ -702,7 +810,13 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 
 		@Override
 		protected void close() {
-			if (this.vm != null) {
+			if (this.guidanceVm != null) {
+				if (!this.analyzerParameters.getGuidanceVmPool().release(this.guidanceVm)) {
+					this.guidanceVm.destroy();
+				}
+				this.guidanceVm = null;
+				this.vm = null;
+			} else if (this.vm != null) {
 				this.vm.exit(0);
 
 				//obviates to inferior process leak
@@ -816,7 +930,7 @@ public final class DecisionProcedureGuidanceJDI extends DecisionProcedureGuidanc
 			mexr.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
 			mexr.enable();
 			final ReferenceType classType = this.vm.classesByName("it.cnr.saks.hyperion.symbolic.TestLauncher").get(0);
-			final Method method = classType.methodsByName("main").get(0);
+			final Method method = classType.methodsByName("runTest").get(0);
 			final ArrayList<BreakpointRequest> bkprs = new ArrayList<>();
 			try {
 				for (Location l : method.allLineLocations()) {
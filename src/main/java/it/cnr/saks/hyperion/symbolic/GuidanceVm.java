@@ -0,0 +1,123 @@
+package it.cnr.saks.hyperion.symbolic;
+
+import com.sun.jdi.BooleanValue;
+import com.sun.jdi.Field;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.VMDisconnectedException;
+import com.sun.jdi.VirtualMachine;
+import com.sun.jdi.event.EventQueue;
+import com.sun.jdi.event.EventSet;
+import com.sun.jdi.request.EventRequestManager;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A target JVM running {@link TestLauncher} in server mode, that runs
+ * the test programs it receives on its standard input. It can be
+ * given back to a {@link GuidanceVmPool} after the guidance of a test
+ * program ends, and reused for the guidance of the next one.
+ */
+final class GuidanceVm {
+    private static final long DRAIN_TIMEOUT_MILLIS = 10;
+
+    final String launchArguments;
+    final VirtualMachine vm;
+    final Thread outThread;
+    final Thread errThread;
+    private final Writer commands;
+    private long releasedAt;
+
+    GuidanceVm(String launchArguments, VirtualMachine vm, Thread outThread, Thread errThread) {
+        this.launchArguments = launchArguments;
+        this.vm = vm;
+        this.outThread = outThread;
+        this.errThread = errThread;
+        this.commands = new OutputStreamWriter(vm.process().getOutputStream());
+    }
+
+    /**
+     * Tells the target JVM to run a test program. The breakpoints
+     * must be set before, since the target JVM might be running.
+     */
+    void startTest(String testProgramClass, String testProgramName) throws GuidanceException {
+        try {
+            this.commands.write(testProgramClass + " " + testProgramName + "\n");
+            this.commands.flush();
+        } catch (IOException e) {
+            throw new GuidanceException(e);
+        }
+    }
+
+    boolean isAlive() {
+        return this.vm.process().isAlive();
+    }
+
+    /**
+     * Checks whether the target JVM completed the last test program
+     * and is waiting for the next one.
+     */
+    boolean isIdle() {
+        try {
+            final List<ReferenceType> launcherClasses = this.vm.classesByName(TestLauncher.class.getName());
+            if(launcherClasses.isEmpty())
+                return false;
+            final ReferenceType launcherClass = launcherClasses.get(0);
+            final Field idle = launcherClass.fieldByName("idle");
+            return ((BooleanValue) launcherClass.getValue(idle)).value();
+        } catch (VMDisconnectedException e) {
+            return false;
+        }
+    }
+
+    long getReleasedAt() {
+        return this.releasedAt;
+    }
+
+    /**
+     * Drops all the event requests of the last guidance and lets the
+     * target JVM run the current test program to completion.
+     *
+     * @return {@code true} iff the target JVM can be reused.
+     */
+    boolean detach() {
+        try {
+            final EventRequestManager mgr = this.vm.eventRequestManager();
+            mgr.deleteAllBreakpoints();
+            mgr.deleteEventRequests(new ArrayList<>(mgr.classPrepareRequests()));
+            mgr.deleteEventRequests(new ArrayList<>(mgr.stepRequests()));
+            mgr.deleteEventRequests(new ArrayList<>(mgr.methodEntryRequests()));
+            mgr.deleteEventRequests(new ArrayList<>(mgr.methodExitRequests()));
+            mgr.deleteEventRequests(new ArrayList<>(mgr.exceptionRequests()));
+
+            // Resumes the threads suspended by the events that were not handled
+            final EventQueue queue = this.vm.eventQueue();
+            EventSet eventSet;
+            while((eventSet = queue.remove(DRAIN_TIMEOUT_MILLIS)) != null)
+                eventSet.resume();
+
+            this.vm.resume();
+            this.releasedAt = System.currentTimeMillis();
+            return true;
+        } catch (VMDisconnectedException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    void destroy() {
+        try {
+            this.vm.exit(0);
+        } catch (VMDisconnectedException e) {
+            // Already gone
+        }
+
+        //obviates to inferior process leak
+        this.vm.process().destroyForcibly();
+    }
+}
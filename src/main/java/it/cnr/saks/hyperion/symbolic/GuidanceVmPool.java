@@ -0,0 +1,145 @@
+package it.cnr.saks.hyperion.symbolic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * A pool of warm target JVMs for the concrete guidance. Rather than
+ * launching a new JVM for each test program (and for each uninterpreted
+ * function), {@link DecisionProcedureGuidanceJDI} leases a JVM running
+ * {@link TestLauncher} in server mode and sends it the next test program,
+ * so that the JVM startup and the initialization of the SUT (e.g., a
+ * Spring context) are paid only once. A JVM is given back once the
+ * guidance ends, and can be leased again as soon as it completes the
+ * test program it was running. This class is thread-safe.
+ */
+public final class GuidanceVmPool implements AutoCloseable {
+    // A JVM which does not complete its test program within this time is considered stuck
+    private static final long BUSY_TIMEOUT_MILLIS = 60000;
+
+    private final int maxIdle;
+    private final HashMap<String, ArrayDeque<GuidanceVm>> idle = new HashMap<>();
+    private boolean closed = false;
+    private long launched = 0L;
+    private long reused = 0L;
+    private long discarded = 0L;
+
+    public GuidanceVmPool(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Leases a JVM which completed its last test program.
+     *
+     * @return a {@link GuidanceVm} launched with {@code launchArguments},
+     *         or {@code null} if there is none, in which case the caller
+     *         must launch a new one.
+     */
+    GuidanceVm lease(String launchArguments) {
+        // The JVMs are probed outside the lock, since probing is a round-trip
+        // to the target JVM, and are taken only if they are still in the pool
+        final ArrayList<GuidanceVm> candidates;
+        synchronized (this) {
+            final ArrayDeque<GuidanceVm> vms = this.idle.get(launchArguments);
+            if(vms == null || vms.isEmpty())
+                return null;
+            candidates = new ArrayList<>(vms);
+        }
+        final long now = System.currentTimeMillis();
+        for(GuidanceVm vm: candidates) {
+            final boolean alive = vm.isAlive();
+            final boolean idle = alive && vm.isIdle();
+            if(!alive || (!idle && now - vm.getReleasedAt() > BUSY_TIMEOUT_MILLIS)) {
+                if(take(vm)) {
+                    synchronized (this) {
+                        ++this.discarded;
+                    }
+                    vm.destroy();
+                }
+            } else if(idle && take(vm)) {
+                synchronized (this) {
+                    ++this.reused;
+                }
+                return vm;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes a JVM from the pool.
+     *
+     * @return {@code true} iff the JVM was in the pool, i.e.,
+     *         it was not taken by a concurrent lease.
+     */
+    private synchronized boolean take(GuidanceVm vm) {
+        final ArrayDeque<GuidanceVm> vms = this.idle.get(vm.launchArguments);
+        return vms != null && vms.remove(vm);
+    }
+
+    synchronized void notifyLaunched() {
+        ++this.launched;
+    }
+
+    /**
+     * Gives back a JVM to the pool.
+     *
+     * @return {@code true} iff the JVM was taken back by the pool;
+     *         otherwise the caller must destroy it.
+     */
+    boolean release(GuidanceVm vm) {
+        synchronized (this) {
+            if(this.closed)
+                return false;
+            final ArrayDeque<GuidanceVm> vms = this.idle.computeIfAbsent(vm.launchArguments, k -> new ArrayDeque<>());
+            if(vms.size() >= this.maxIdle)
+                return false;
+        }
+        if(!vm.detach()) {
+            synchronized (this) {
+                ++this.discarded;
+            }
+            return false;
+        }
+        synchronized (this) {
+            // Concurrent releases might have filled the pool while detaching
+            if(this.closed)
+                return false;
+            final ArrayDeque<GuidanceVm> vms = this.idle.computeIfAbsent(vm.launchArguments, k -> new ArrayDeque<>());
+            if(vms.size() >= this.maxIdle)
+                return false;
+            vms.push(vm);
+            return true;
+        }
+    }
+
+    public synchronized long getLaunched() {
+        return this.launched;
+    }
+
+    public synchronized long getReused() {
+        return this.reused;
+    }
+
+    public synchronized long getDiscarded() {
+        return this.discarded;
+    }
+
+    /**
+     * Closes the pool and terminates all the idle JVMs.
+     * The JVMs given back afterwards are not taken.
+     */
+    @Override
+    public void close() {
+        final ArrayList<GuidanceVm> toDestroy = new ArrayList<>();
+        synchronized (this) {
+            this.closed = true;
+            for(ArrayDeque<GuidanceVm> vms: this.idle.values())
+                toDestroy.addAll(vms);
+            this.idle.clear();
+        }
+        for(GuidanceVm vm: toDestroy)
+            vm.destroy();
+    }
+}
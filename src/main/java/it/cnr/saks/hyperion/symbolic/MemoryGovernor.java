@@ -0,0 +1,156 @@
+package it.cnr.saks.hyperion.symbolic;
+
+import jbse.bc.ClassFileCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reacts to memory pressure by relieving the running {@link Analyzer}s, rather than aborting the
+ * whole run. The heap memory pools notify when their usage crosses a threshold, either after a
+ * collection (i.e., memory that cannot be reclaimed) or at any time (i.e., an allocation spike).
+ * On each notification the {@link ClassFileCache} is emptied, and the analyzer with the most pending
+ * states is asked to stop its current path and to drop part of its pending states. The pools notify
+ * only when their usage crosses the threshold, so the relieved analyzer then polls
+ * {@link #isUnderPressure()}: if the pressure persists after a collection, the analyzer aborts its
+ * test program, which is recorded as skipped, and the run goes on with the next one. The previous
+ * thresholds of the pools are restored on {@link #close()}. This class is thread-safe.
+ */
+public final class MemoryGovernor implements NotificationListener, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(MemoryGovernor.class);
+
+    /** Fraction of a pool that, still in use after a collection, signals memory pressure. */
+    private static final double COLLECTION_USAGE_THRESHOLD = 0.85;
+
+    /** Fraction of a pool that, in use at any time, signals memory pressure. */
+    private static final double USAGE_THRESHOLD = 0.95;
+
+    /** The thresholds of the pools before they were set by this governor. */
+    private final Map<MemoryPoolMXBean, Long> previousCollectionUsageThresholds = new HashMap<>();
+    private final Map<MemoryPoolMXBean, Long> previousUsageThresholds = new HashMap<>();
+
+    private final Set<Analyzer> running = ConcurrentHashMap.newKeySet();
+    private final AtomicLong notifications = new AtomicLong();
+    private final AtomicLong pathsStopped = new AtomicLong();
+    private final AtomicLong statesDropped = new AtomicLong();
+    private final AtomicLong testsSkipped = new AtomicLong();
+
+    public MemoryGovernor() {
+        for(MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()) {
+            final long max = pool.getUsage().getMax();
+            if(pool.getType() != MemoryType.HEAP || max <= 0)
+                continue;
+            if(pool.isCollectionUsageThresholdSupported()) {
+                this.previousCollectionUsageThresholds.put(pool, pool.getCollectionUsageThreshold());
+                pool.setCollectionUsageThreshold((long) (max * COLLECTION_USAGE_THRESHOLD));
+            }
+            if(pool.isUsageThresholdSupported()) {
+                this.previousUsageThresholds.put(pool, pool.getUsageThreshold());
+                pool.setUsageThreshold((long) (max * USAGE_THRESHOLD));
+            }
+        }
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(this, null, null);
+    }
+
+    void register(Analyzer analyzer) {
+        this.running.add(analyzer);
+    }
+
+    void unregister(Analyzer analyzer) {
+        this.running.remove(analyzer);
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        final String type = notification.getType();
+        if(!MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(type) && !MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(type))
+            return;
+
+        this.notifications.incrementAndGet();
+        final MemoryNotificationInfo info = MemoryNotificationInfo.from((CompositeData) notification.getUserData());
+        final MemoryUsage usage = info.getUsage();
+        log.warn("Memory pressure on {}: {} of {} bytes used", info.getPoolName(), usage.getUsed(), usage.getMax());
+
+        // The class files that no analyzer uses anymore can be reclaimed right away
+        ClassFileCache.instance().clear();
+
+        // The analyzer with the most pending states is the one most likely to free memory
+        final Analyzer offending = this.running.stream().max(Comparator.comparingInt(Analyzer::getPendingStates)).orElse(null);
+        if(offending != null)
+            offending.relieveMemoryPressure();
+    }
+
+    /**
+     * Returns the total number of garbage collections performed so far, so a caller can tell whether
+     * {@link #isUnderPressure()} reflects a collection that happened after some point in time.
+     */
+    long getCollectionCount() {
+        long count = 0;
+        for(GarbageCollectorMXBean gc: ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(0, gc.getCollectionCount());
+        return count;
+    }
+
+    /**
+     * Checks whether some heap pool is still above its threshold after the last collection, i.e.,
+     * whether the memory in use cannot be reclaimed.
+     */
+    boolean isUnderPressure() {
+        for(MemoryPoolMXBean pool: this.previousCollectionUsageThresholds.keySet()) {
+            if(pool.isCollectionUsageThresholdExceeded())
+                return true;
+        }
+        return false;
+    }
+
+    void pathStopped(int statesDropped) {
+        this.pathsStopped.incrementAndGet();
+        this.statesDropped.addAndGet(statesDropped);
+    }
+
+    public void testSkipped() {
+        this.testsSkipped.incrementAndGet();
+    }
+
+    public long getNotifications() {
+        return this.notifications.get();
+    }
+
+    public long getPathsStopped() {
+        return this.pathsStopped.get();
+    }
+
+    public long getStatesDropped() {
+        return this.statesDropped.get();
+    }
+
+    public long getTestsSkipped() {
+        return this.testsSkipped.get();
+    }
+
+    @Override
+    public void close() {
+        try {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(this);
+        } catch (ListenerNotFoundException ignored) {}
+        this.previousCollectionUsageThresholds.forEach(MemoryPoolMXBean::setCollectionUsageThreshold);
+        this.previousUsageThresholds.forEach(MemoryPoolMXBean::setUsageThreshold);
+    }
+}
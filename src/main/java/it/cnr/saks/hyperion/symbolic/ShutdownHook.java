@@ -1,30 +1,26 @@
 package it.cnr.saks.hyperion.symbolic;
 
-import it.cnr.saks.hyperion.similarity.InformationLogger;
+import it.cnr.saks.hyperion.similarity.FactWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class ShutdownHook extends Thread {
     private static final Logger log = LoggerFactory.getLogger(ShutdownHook.class);
-    private static InformationLogger informationLogger;
+    private static FactWriter factWriter;
 
     private ShutdownHook() {}
 
-    private ShutdownHook(InformationLogger informationLogger) {
-        ShutdownHook.informationLogger = informationLogger;
+    private ShutdownHook(FactWriter factWriter) {
+        ShutdownHook.factWriter = factWriter;
     }
 
     @Override
     public void run() {
         log.info("Shutdown hook activated. Saving generated facts...");
-        try {
-            informationLogger.emitDatalog();
-        } catch (AnalyzerException e) {
-            e.printStackTrace();
-        }
+        factWriter.emergencyClose();
     }
 
-    public static void setupShutdownHook(InformationLogger informationLogger) {
-        Runtime.getRuntime().addShutdownHook(new ShutdownHook(informationLogger));
+    public static void setupShutdownHook(FactWriter factWriter) {
+        Runtime.getRuntime().addShutdownHook(new ShutdownHook(factWriter));
     }
 }
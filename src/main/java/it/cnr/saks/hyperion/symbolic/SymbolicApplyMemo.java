@@ -0,0 +1,53 @@
+package it.cnr.saks.hyperion.symbolic;
+
+import com.sun.jdi.PrimitiveValue;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A suite-wide memo table of the concrete results of the uninterpreted
+ * functions. The guidance evaluates an uninterpreted function by running
+ * the test program up to the function call in a new target JVM: If the
+ * uninterpreted functions are pure, a result can be reused by any test
+ * program that invokes the same function, from the same calling context,
+ * with the same concrete arguments. Purity is not checked, so the memo
+ * table is used only if the configuration asks for it. Only primitive results of
+ * functions with primitive arguments are memoized, since objects can be
+ * neither compared nor shared across target JVMs. This class is thread-safe.
+ */
+public final class SymbolicApplyMemo {
+    private final ConcurrentHashMap<String, PrimitiveValue> results = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param key the key of an evaluation, made of the function operator,
+     *        the calling context and the concrete arguments.
+     * @return the memoized result, or {@code null} if there is none.
+     */
+    PrimitiveValue get(String key) {
+        final PrimitiveValue retVal = this.results.get(key);
+        if(retVal == null)
+            this.misses.incrementAndGet();
+        else
+            this.hits.incrementAndGet();
+        return retVal;
+    }
+
+    void put(String key, PrimitiveValue result) {
+        this.results.putIfAbsent(key, result);
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    public int size() {
+        return this.results.size();
+    }
+}
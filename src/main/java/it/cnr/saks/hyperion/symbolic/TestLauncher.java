@@ -4,10 +4,20 @@ import org.junit.runner.JUnitCore;
 import org.junit.runner.Request;
 import org.junit.runner.Result;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+
 /* invoked as:
  * java -classpath "..." it.cnr.saks.hyperion.symbolic.HyperionTestLauncher testProgramClass testProgramName
+ * or, to keep the JVM warm across test programs, as:
+ * java -classpath "..." it.cnr.saks.hyperion.symbolic.HyperionTestLauncher --serve
+ * in which case each line read from the standard input is a "testProgramClass testProgramName" pair.
  */
 public class TestLauncher {
+    public static final String SERVE = "--serve";
+
+    // Read via JDI to know whether a warm JVM is waiting for the next test program
+    public static volatile boolean idle = false;
 
     public static void main(String[] args) throws Exception {
 //        System.out.print("[HyperionTestLauncher] Running: " + args[1] + " from class " + args[0] + "...: ");
@@ -22,13 +32,12 @@ public class TestLauncher {
         Class.forName("java.lang.CharacterData00");
         Class.forName("org.apache.http.client.utils.URLEncodedUtils");
 
+        if(args.length == 1 && SERVE.equals(args[0])) {
+            serve();
+            return;
+        }
 
-        final Class<?> testClass = Class.forName(args[0]);
-
-        JUnitCore junit = new JUnitCore();
-//        junit.addListener(new TextListener(new PrintStream(baos, true, utf8)));
-        Request request = Request.method(testClass, args[1]);
-        Result result = junit.run(request);
+        final boolean passed = runTest(args[0], args[1]);
 
 //        if(result.wasSuccessful()) {
 //            System.out.println("passed.");
@@ -37,6 +46,36 @@ public class TestLauncher {
 //            System.out.println(baos.toString(utf8));
 //        }
 
-        System.exit(result.wasSuccessful() ? 0 : 1);
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static void serve() throws Exception {
+        final BufferedReader commands = new BufferedReader(new InputStreamReader(System.in));
+        while(true) {
+            idle = true;
+            final String command = commands.readLine();
+            if(command == null)
+                break;
+            idle = false;
+
+            final String[] testProgram = command.trim().split(" ");
+            if(testProgram.length != 2)
+                continue;
+            try {
+                runTest(testProgram[0], testProgram[1]);
+            } catch (ClassNotFoundException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static boolean runTest(String testProgramClass, String testProgramName) throws ClassNotFoundException {
+        final Class<?> testClass = Class.forName(testProgramClass);
+
+        JUnitCore junit = new JUnitCore();
+//        junit.addListener(new TextListener(new PrintStream(baos, true, utf8)));
+        Request request = Request.method(testClass, testProgramName);
+        Result result = junit.run(request);
+        return result.wasSuccessful();
     }
 }
@@ -119,6 +119,12 @@ public final class Action_START {
      * List of the classes in the root method signature.
      */
     private final ArrayList<String> rootMethodClasses = new ArrayList<>();
+    
+    /**
+     * Whether the starting state only bootstraps the JVM, 
+     * without initializing the root method classes.
+     */
+    private boolean bootstrapOnly = false;
 
     /**
      * Constructor.
@@ -135,7 +141,21 @@ public final class Action_START {
         State state = ctx.getStateStart();
         boolean userProvidedStartState = true;
         if (state == null) {
-            state = createStateStart(ctx);
+            final BootstrapSnapshot bootstrapSnapshot = ctx.getBootstrapSnapshot();
+            if (bootstrapSnapshot == null) {
+                state = createStateStart(ctx, true);
+            } else {
+                state = bootstrapSnapshot.fork();
+                if (state == null) {
+                    //the snapshot was not captured yet: only bootstraps, 
+                    //the engine will capture the snapshot at the end of 
+                    //the bootstrap and then initialize the root method classes
+                    state = createStateStart(ctx, false);
+                    this.bootstrapOnly = true;
+                } else {
+                    initializeRootMethodClasses(state, ctx);
+                }
+            }
             userProvidedStartState = false;
         }
         state.setStutters(false);
@@ -144,14 +164,51 @@ public final class Action_START {
         ctx.stateTree.addStateStart(state, userProvidedStartState);
     }
 
-    private State createStateStart(ExecutionContext ctx) 
+    /**
+     * Checks whether the starting state created by
+     * {@link #exec(ExecutionContext) exec} only bootstraps 
+     * the JVM. In this case the root method classes must 
+     * be initialized by invoking {@link #initializeRootMethodClasses(State, ExecutionContext)
+     * initializeRootMethodClasses} at the end of the bootstrap.
+     * 
+     * @return a {@code boolean}.
+     */
+    public boolean bootstrapOnly() {
+        return this.bootstrapOnly;
+    }
+
+    /**
+     * Loads the classes in the signature of the root method 
+     * and pushes the frames for their initialization. 
+     * 
+     * @param state a bootstrapped pre-initial {@link State}.
+     * @param ctx an {@link ExecutionContext}.
+     * @throws DecisionException if the decision procedure fails.
+     * @throws ClasspathException if some root method class 
+     *         is missing from the classpath, or is ill-formed.
+     * @throws InitializationException if the initialization 
+     *         of some root method class fails.
+     * @throws ContradictionException if some initialization 
+     *         assumption is contradicted.
+     */
+    public void initializeRootMethodClasses(State state, ExecutionContext ctx) 
+    throws DecisionException, ClasspathException, InitializationException, ContradictionException {
+        this.bootstrapOnly = false;
+        enumerateRootMethodClasses(ctx);
+        loadCreateRootMethodClasses(state);
+        pushRootMethodClassesInitialization(state, ctx);
+    }
+
+    private State createStateStart(ExecutionContext ctx, boolean withRootMethodClasses) 
     throws InvalidClassFileFactoryClassException, InitializationException, 
     DecisionException, ClasspathException, ContradictionException {
         final State state = ctx.createStateVirginPreInitial();
         
         //some initial bookkeeping
         enumerateExplicitlyInitializedClasses();
-        enumerateRootMethodClasses(ctx);
+        if (withRootMethodClasses) {
+            enumerateRootMethodClasses(ctx);
+        }
 
         //(loads and) creates the essential classes that
         //will be initialized afterwards
@@ -159,7 +216,7 @@ public final class Action_START {
 
         //now starts pushing frames (in inverse order of execution)
         //first the root method classes
-        initializeRootMethodClasses(state, ctx);
+        pushRootMethodClassesInitialization(state, ctx);
 
         //this part of the initialization mirrors stuff in sun.launcher.LauncherHelper
         //pushes frames to initialize classes for dynamic classloading
@@ -323,6 +380,19 @@ public final class Action_START {
 
             //loads application classes
             classHierarchy.loadCreateClass(CLASSLOADER_APP, JBSE_BASE, true);
+        } catch (ClassFileNotFoundException | ClassFileIllFormedException | BadClassFileVersionException |
+                 WrongClassNameException | IncompatibleClassFileException | ClassFileNotAccessibleException e) {
+            throw new ClasspathException(e);
+        } catch (RenameUnsupportedException | InvalidInputException | PleaseLoadClassException e) {
+            //this should never happen
+            failExecution(e);
+        }
+        loadCreateRootMethodClasses(state);
+    }
+    
+    private void loadCreateRootMethodClasses(State state) throws ClasspathException {
+        try {
+            final ClassHierarchy classHierarchy = state.getClassHierarchy();
             for (String className : this.rootMethodClasses) {
                 classHierarchy.loadCreateClass(CLASSLOADER_APP, className, true);
             }
@@ -335,7 +405,7 @@ public final class Action_START {
         }
     }
     
-    private void initializeRootMethodClasses(State state, ExecutionContext ctx) 
+    private void pushRootMethodClassesInitialization(State state, ExecutionContext ctx) 
     throws DecisionException, ClasspathException, InitializationException, ContradictionException {
         try {
             for (String className : this.rootMethodClasses) {
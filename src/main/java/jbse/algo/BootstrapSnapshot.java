@@ -0,0 +1,110 @@
+package jbse.algo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import jbse.mem.State;
+
+/**
+ * A snapshot of the pre-initial {@link State} reached at the end
+ * of the bootstrap of the JVM, i.e., after the initialization of
+ * the standard classes and before the initialization of the classes
+ * of the root method. The bootstrap does not depend on the root
+ * method, thus the symbolic executions that share the same
+ * classpath and the same engine parameters can start from a fork
+ * of the same snapshot, rather than repeating the bootstrap.
+ * A {@link BootstrapSnapshot} is captured by the first symbolic
+ * execution that reaches the end of the bootstrap, and is thereafter
+ * immutable. This class is thread-safe.
+ */
+public final class BootstrapSnapshot {
+    /** The bootstrapped {@link State}, or {@code null} if not yet captured. */
+    private volatile State state = null;
+
+    /** The number of steps it took to bootstrap {@code this.state}. */
+    private volatile long bootstrapSteps = 0L;
+
+    /** The number of forks of {@code this.state}. */
+    private final AtomicLong forks = new AtomicLong();
+
+    /** The number of steps saved by forking {@code this.state}. */
+    private final AtomicLong stepsSaved = new AtomicLong();
+
+    /**
+     * Checks whether the snapshot has been captured.
+     *
+     * @return {@code true} iff {@link #capture(State, long) capture}
+     *         was invoked.
+     */
+    public boolean isCaptured() {
+        return this.state != null;
+    }
+
+    /**
+     * Captures the snapshot. Has no effect if the
+     * snapshot was already captured.
+     *
+     * @param state the bootstrapped {@link State}. The
+     *        method stores a safety copy of it.
+     * @param bootstrapSteps a {@code long}, the number of
+     *        steps it took to bootstrap {@code state}.
+     */
+    public synchronized void capture(State state, long bootstrapSteps) {
+        if (this.state == null) {
+            this.bootstrapSteps = bootstrapSteps;
+            this.state = state.clone();
+        }
+    }
+
+    /**
+     * Forks the snapshot.
+     *
+     * @return a {@link State}, a deep copy of the captured
+     *         bootstrapped state, or {@code null} if the
+     *         snapshot was not captured yet.
+     */
+    synchronized State fork() {
+        final State snapshot = this.state;
+        if (snapshot == null) {
+            return null;
+        }
+
+        //a deep copy, as lazy clones would share the snapshot's
+        //heap among the threads that fork it; cloning updates 
+        //the bookkeeping of the snapshot on the structures it
+        //shares with the copy, so the forks are serialized
+        final State retVal = snapshot.clone();
+        this.forks.incrementAndGet();
+        this.stepsSaved.addAndGet(this.bootstrapSteps);
+        return retVal;
+    }
+
+    /**
+     * Returns the number of steps of the bootstrap.
+     *
+     * @return a {@code long}, the number of steps it took
+     *         to bootstrap the captured state, or {@code 0}
+     *         if the snapshot was not captured yet.
+     */
+    public long getBootstrapSteps() {
+        return this.bootstrapSteps;
+    }
+
+    /**
+     * Returns the number of forks of the snapshot.
+     *
+     * @return a {@code long}.
+     */
+    public long getForks() {
+        return this.forks.get();
+    }
+
+    /**
+     * Returns the number of steps saved by forking the
+     * snapshot instead of bootstrapping.
+     *
+     * @return a {@code long}.
+     */
+    public long getStepsSaved() {
+        return this.stepsSaved.get();
+    }
+}
@@ -470,7 +470,9 @@ public abstract class BytecodeData {
     throws ThreadStackEmptyException, InterruptException, ClasspathException, FrozenStateException {
         final Frame frame = state.getCurrentFrame();
         try {
-            this.operands = frame.operands(numOperands);
+            //reuses the operands array of the previous read, 
+            //since operands() only hands out copies of it
+            this.operands = frame.operands(numOperands, this.operands);
         } catch (InvalidNumberOfOperandsException e) {
             throwVerifyError(state, calc);
             exitFromAlgorithm();
@@ -605,6 +605,13 @@ public final class ExecutionContext {
      */
     private final State stateStart;
     
+    /**
+     * The {@link BootstrapSnapshot} the starting state is 
+     * forked from, or {@code null} if the bootstrap is not
+     * shared with other symbolic executions.
+     */
+    private final BootstrapSnapshot bootstrapSnapshot;
+    
     /** 
      * {@code true} iff the bootstrap classloader should also load the classes defined by the
      * extensions and application classloaders. 
@@ -732,6 +739,9 @@ public final class ExecutionContext {
      *        pre-init phase up to the first post-init moment they are accessed, and 
      *        therefore their static initializer will be executed upon first post-init
      *        access. 
+     * @param bootstrapSnapshot a {@link BootstrapSnapshot}, or {@code null} if the 
+     *        symbolic execution must not share its bootstrap with other symbolic 
+     *        executions. Ignored when {@code stateStart != null}.
      */
     public ExecutionContext(State stateStart,
                             boolean bypassStandardLoading,
@@ -749,8 +759,10 @@ public final class ExecutionContext {
                             StateIdentificationMode stateIdentificationMode,
                             BreadthMode breadthMode,
                             TriggerRulesRepo rulesTrigger, 
-                            List<String> postInitInvariantClassPatterns) {
+                            List<String> postInitInvariantClassPatterns, 
+                            BootstrapSnapshot bootstrapSnapshot) {
         this.stateStart = stateStart;
+        this.bootstrapSnapshot = bootstrapSnapshot;
         this.bypassStandardLoading = bypassStandardLoading;
         this.maxSimpleArrayLength = maxSimpleArrayLength;
         this.maxHeapSize = maxHeapSize;
@@ -1082,6 +1094,16 @@ public final class ExecutionContext {
         return (this.stateStart == null ? null : this.stateStart.clone());
     }
 
+    /**
+     * Returns the bootstrap snapshot.
+     * 
+     * @return the {@link BootstrapSnapshot} shared with other
+     *         symbolic executions, or {@code null} if there is none.
+     */
+    public BootstrapSnapshot getBootstrapSnapshot() {
+        return this.bootstrapSnapshot;
+    }
+
     /**
      * Returns the {@link Calculator}.
      * 
@@ -775,6 +775,25 @@ public abstract class ClassFile implements Comparable<ClassFile> {
     public abstract int getLocalVariableTableLength(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException;
     
+    /**
+     * Returns the maximum depth of the operand stack of a method.
+     * 
+     * @param methodSignature a method's {@link Signature}.
+     * @return a {@code int}, the maximum number of words on the
+     *         operand stack during the execution of the method 
+     *         with signature {@code methodSignature}, in the case 
+     *         such method exists in the class and has code.
+     *         If {@code methodSignature}'s name is signature polymorphic in this 
+     *         class the method must succeed for all the polymorphic variants of the
+     *         signature and return the same result as for the 
+     *         {@code (Object...)Object} declared variant.
+     * @throws MethodNotFoundException iff the method does not exist in the class.
+     * @throws MethodCodeNotFoundException iff the method has not the 
+     *         Code attribute.
+     */
+    public abstract int getMaxStack(Signature methodSignature) 
+    throws MethodNotFoundException, MethodCodeNotFoundException;
+    
     public static class ParameterInfo {
     	public final String name;
     	public final int accessFlags;
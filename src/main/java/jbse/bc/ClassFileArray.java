@@ -243,6 +243,12 @@ public final class ClassFileArray extends ClassFile {
         throw new MethodNotFoundException(methodSignature.toString());
     }
 
+    @Override
+    public int getMaxStack(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        throw new MethodNotFoundException(methodSignature.toString());
+    }
+
     @Override
     public LineNumberTable getLineNumberTable(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException {
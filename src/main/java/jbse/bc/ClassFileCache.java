@@ -0,0 +1,279 @@
+package jbse.bc;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A process-wide cache of the {@link ClassFile}s created from
+ * the classpath. It allows different {@link ClassHierarchy}s
+ * (e.g., the ones of different symbolic executions within the
+ * same JVM) to share the {@link ClassFile}s for the classes
+ * they load from the same classpath entry, so these are parsed
+ * only once. Entries are keyed by {@link ClassFileFactory} class,
+ * classpath entry, defining classloader, class name and content
+ * of the classfile. The cached {@link ClassFile}s are never
+ * modified after they are put in the cache: Dummy
+ * {@link ClassFile}s that need renaming, and anonymous
+ * classes, must not be cached. The {@link ClassFile}s are
+ * softly referenced, so the ones that no {@link ClassHierarchy}
+ * uses anymore are reclaimed by the garbage collector when memory
+ * is short, and the cache can be explicitly emptied with {@link #clear()}.
+ * This class is thread-safe.
+ */
+public final class ClassFileCache {
+    /** The only instance of this class. */
+    private static final ClassFileCache INSTANCE = new ClassFileCache();
+
+    /**
+     * Returns the (only) instance of this class.
+     *
+     * @return a {@link ClassFileCache}.
+     */
+    public static ClassFileCache instance() {
+        return INSTANCE;
+    }
+
+    /** The cache. */
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    /** The queue of the entries whose {@link ClassFile}s were reclaimed. */
+    private final ReferenceQueue<ClassFiles> reclaimed = new ReferenceQueue<>();
+
+    /** Number of cache hits. */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** Number of cache misses. */
+    private final AtomicLong misses = new AtomicLong();
+
+    /** Do not instantiate! */
+    private ClassFileCache() {
+        //nothing to do
+    }
+
+    /**
+     * Returns a cached dummy {@link ClassFile}.
+     *
+     * @param f the {@link ClassFileFactory} that would create the {@link ClassFile}.
+     * @param loadedFrom the {@link Path} of the classpath entry {@code bytecode} was loaded from.
+     * @param definingClassLoader an {@code int}, the defining classloader.
+     * @param className a {@link String}, the name of the class.
+     * @param bytecode a {@code byte[]}, the content of the classfile.
+     * @return the cached dummy {@link ClassFile} for the parameters, or {@code null}
+     *         if there is none.
+     */
+    ClassFile getDummy(ClassFileFactory f, Path loadedFrom, int definingClassLoader, String className, byte[] bytecode) {
+        final ClassFiles classFiles = get(new Key(f, loadedFrom, definingClassLoader, className, bytecode));
+        return (classFiles == null ? null : classFiles.dummy);
+    }
+
+    /**
+     * Caches a dummy {@link ClassFile}.
+     *
+     * @param f the {@link ClassFileFactory} that created {@code classDummy}.
+     * @param loadedFrom the {@link Path} of the classpath entry {@code bytecode} was loaded from.
+     * @param definingClassLoader an {@code int}, the defining classloader.
+     * @param className a {@link String}, the name of the class.
+     * @param bytecode a {@code byte[]}, the content of the classfile.
+     *        It must not be modified afterwards.
+     * @param classDummy the dummy {@link ClassFile} created from {@code bytecode}.
+     *        It must not be modified afterwards.
+     * @return the cached dummy {@link ClassFile}, that is {@code classDummy} unless
+     *         another thread cached a dummy for the same parameters before.
+     */
+    ClassFile putDummy(ClassFileFactory f, Path loadedFrom, int definingClassLoader, String className, byte[] bytecode, ClassFile classDummy) {
+        expunge();
+        final Key key = new Key(f, loadedFrom, definingClassLoader, className, bytecode);
+        while (true) {
+            final Entry entry = this.entries.computeIfAbsent(key, k -> new Entry(k, new ClassFiles(classDummy), this.reclaimed));
+            final ClassFiles classFiles = entry.get();
+            if (classFiles != null) {
+                return classFiles.dummy;
+            }
+            //reclaimed meanwhile, replaces it
+            this.entries.remove(key, entry);
+        }
+    }
+
+    /**
+     * Returns a cached complete {@link ClassFile}.
+     *
+     * @param f the {@link ClassFileFactory} that would create the {@link ClassFile}.
+     * @param loadedFrom the {@link Path} of the classpath entry {@code bytecode} was loaded from.
+     * @param definingClassLoader an {@code int}, the defining classloader.
+     * @param className a {@link String}, the name of the class.
+     * @param bytecode a {@code byte[]}, the content of the classfile.
+     * @param superClass the {@link ClassFile} for the superclass.
+     * @param superInterfaces the {@link ClassFile}{@code []} for the superinterfaces.
+     * @return the cached complete {@link ClassFile} for the parameters, or {@code null}
+     *         if there is none, or if the cached one has a different superclass or
+     *         different superinterfaces than {@code superClass} and {@code superInterfaces}.
+     */
+    ClassFile getComplete(ClassFileFactory f, Path loadedFrom, int definingClassLoader, String className, byte[] bytecode, 
+                          ClassFile superClass, ClassFile[] superInterfaces) {
+        final ClassFiles classFiles = get(new Key(f, loadedFrom, definingClassLoader, className, bytecode));
+        final ClassFile retVal = (classFiles == null ? null : classFiles.complete);
+        if (retVal == null || !sameAncestors(retVal, superClass, superInterfaces)) {
+            this.misses.incrementAndGet();
+            return null;
+        }
+        this.hits.incrementAndGet();
+        return retVal;
+    }
+
+    /**
+     * Caches a complete {@link ClassFile}. Does nothing if
+     * no dummy {@link ClassFile} was cached for the same parameters,
+     * or if a complete {@link ClassFile} was already cached.
+     *
+     * @param f the {@link ClassFileFactory} that created {@code classFile}.
+     * @param loadedFrom the {@link Path} of the classpath entry {@code bytecode} was loaded from.
+     * @param definingClassLoader an {@code int}, the defining classloader.
+     * @param className a {@link String}, the name of the class.
+     * @param bytecode a {@code byte[]}, the content of the classfile.
+     * @param classFile the complete {@link ClassFile} created from {@code bytecode}.
+     */
+    void putComplete(ClassFileFactory f, Path loadedFrom, int definingClassLoader, String className, byte[] bytecode, ClassFile classFile) {
+        final ClassFiles classFiles = get(new Key(f, loadedFrom, definingClassLoader, className, bytecode));
+        if (classFiles != null) {
+            synchronized (classFiles) {
+                if (classFiles.complete == null) {
+                    classFiles.complete = classFile;
+                }
+            }
+        }
+    }
+
+    /**
+     * Empties the cache. The {@link ClassHierarchy}s that 
+     * use the cached {@link ClassFile}s keep using them.
+     */
+    public void clear() {
+        this.entries.clear();
+        expunge();
+    }
+
+    private ClassFiles get(Key key) {
+        final Entry entry = this.entries.get(key);
+        return (entry == null ? null : entry.get());
+    }
+
+    /**
+     * Removes the entries whose {@link ClassFile}s were reclaimed, 
+     * together with their keys, which hold the bytecode.
+     */
+    private void expunge() {
+        Entry entry;
+        while ((entry = (Entry) this.reclaimed.poll()) != null) {
+            this.entries.remove(entry.key, entry);
+        }
+    }
+
+    private static boolean sameAncestors(ClassFile classFile, ClassFile superClass, ClassFile[] superInterfaces) {
+        if (classFile.getSuperclass() != superClass) {
+            return false;
+        }
+        final ClassFile[] cachedSuperInterfaces = classFile.getSuperInterfaces().toArray(new ClassFile[0]);
+        if (cachedSuperInterfaces.length != superInterfaces.length) {
+            return false;
+        }
+        for (int i = 0; i < superInterfaces.length; ++i) {
+            if (cachedSuperInterfaces[i] != superInterfaces[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of cache hits.
+     *
+     * @return a {@code long}, the number of times a complete
+     *         {@link ClassFile} was found in the cache.
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns the number of cache misses.
+     *
+     * @return a {@code long}, the number of times a complete
+     *         {@link ClassFile} had to be created.
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Returns the number of cached classes.
+     *
+     * @return an {@code int}.
+     */
+    public int size() {
+        expunge();
+        return this.entries.size();
+    }
+
+    private static final class Key {
+        private final Class<?> factoryClass;
+        private final Path loadedFrom;
+        private final int definingClassLoader;
+        private final String className;
+        private final byte[] bytecode;
+        private final int hashCode;
+
+        Key(ClassFileFactory f, Path loadedFrom, int definingClassLoader, String className, byte[] bytecode) {
+            this.factoryClass = f.getClass();
+            this.loadedFrom = loadedFrom;
+            this.definingClassLoader = definingClassLoader;
+            this.className = className;
+            this.bytecode = bytecode;
+            this.hashCode = Objects.hash(this.factoryClass, this.loadedFrom, this.definingClassLoader, this.className, Arrays.hashCode(this.bytecode));
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return this.hashCode == other.hashCode &&
+                   this.definingClassLoader == other.definingClassLoader &&
+                   this.factoryClass == other.factoryClass &&
+                   Objects.equals(this.loadedFrom, other.loadedFrom) &&
+                   Objects.equals(this.className, other.className) &&
+                   Arrays.equals(this.bytecode, other.bytecode);
+        }
+    }
+
+    private static final class ClassFiles {
+        private final ClassFile dummy;
+        private volatile ClassFile complete;
+
+        ClassFiles(ClassFile dummy) {
+            this.dummy = dummy;
+        }
+    }
+
+    private static final class Entry extends SoftReference<ClassFiles> {
+        private final Key key;
+
+        Entry(Key key, ClassFiles classFiles, ReferenceQueue<ClassFiles> reclaimed) {
+            super(classFiles, reclaimed);
+            this.key = key;
+        }
+    }
+}
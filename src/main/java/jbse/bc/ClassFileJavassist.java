@@ -87,10 +87,10 @@ public class ClassFileJavassist extends ClassFile {
     private final ClassFile hostClass;
     private String className; //nonfinal because of classfile renaming
     private byte[] bytecode; //only for dummy classes, nonfinal because of classfile renaming
-    private ArrayList<Signature> fieldsStatic; //lazily initialized, but actually final
-    private ArrayList<Signature> fieldsObject; //lazily initialized, but actually final
-    private ArrayList<Signature> methods; //lazily initialized, but actually final
-    private ArrayList<Signature> constructors; //lazily initialized, but actually final
+    private volatile ArrayList<Signature> fieldsStatic; //lazily initialized, but actually final
+    private volatile ArrayList<Signature> fieldsObject; //lazily initialized, but actually final
+    private volatile ArrayList<Signature> methods; //lazily initialized, but actually final
+    private volatile ArrayList<Signature> constructors; //lazily initialized, but actually final
     
     /**
      * Constructor for nonanonymous classes.
@@ -1217,6 +1217,12 @@ public class ClassFileJavassist extends ClassFile {
         return getMethodCodeAttribute(methodSignature).getMaxLocals();
     }
     
+    @Override
+    public int getMaxStack(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        return getMethodCodeAttribute(methodSignature).getMaxStack();
+    }
+    
     @Override
     public int getCodeLength(Signature methodSignature) throws MethodNotFoundException, MethodCodeNotFoundException {
         return getMethodCodeAttribute(methodSignature).getCodeLength();
@@ -1324,16 +1330,20 @@ public class ClassFileJavassist extends ClassFile {
     }
     
     private void fillMethodsAndConstructors() {
-        this.methods = new ArrayList<>();
-        this.constructors = new ArrayList<>();
+        //fills local lists and publishes them only when complete, 
+        //as the ClassFile may be shared among threads (see ClassFileCache)
+        final ArrayList<Signature> methods = new ArrayList<>();
+        final ArrayList<Signature> constructors = new ArrayList<>();
         final List<MethodInfo> ms = this.cf.getMethods();
         for (MethodInfo m : ms) {
             final Signature sig = new Signature(getClassName(), m.getDescriptor(), m.getName());
-            this.methods.add(sig);
+            methods.add(sig);
             if (m.isConstructor()) {
-                this.constructors.add(sig);
+                constructors.add(sig);
             }
         }
+        this.constructors = constructors;
+        this.methods = methods;
     }
 
     @Override
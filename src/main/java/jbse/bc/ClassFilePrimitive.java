@@ -536,6 +536,12 @@ abstract class ClassFilePrimitive extends ClassFile {
         throw new MethodNotFoundException(methodSignature.toString());
     }
 
+    @Override
+    public int getMaxStack(Signature methodSignature)
+    throws MethodNotFoundException {
+        throw new MethodNotFoundException(methodSignature.toString());
+    }
+
     @Override
     public int getCodeLength(Signature methodSignature)
     throws MethodNotFoundException {
@@ -505,6 +505,12 @@ public class ClassFileSnippetNoWrap extends ClassFile {
         throw new MethodNotFoundException(methodSignature.toString());
     }
 
+    @Override
+    public int getMaxStack(Signature methodSignature)
+    throws MethodNotFoundException, MethodCodeNotFoundException {
+        throw new MethodNotFoundException(methodSignature.toString());
+    }
+
     @Override
     public int getCodeLength(Signature methodSignature) 
     throws MethodNotFoundException, MethodCodeNotFoundException {
@@ -23,13 +23,9 @@ import static jbse.common.Type.toPrimitiveOrVoidCanonicalName;
 import static jbse.common.Type.toPrimitiveOrVoidInternalName;
 import static jbse.common.Type.TYPEEND;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -38,8 +34,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -59,7 +53,6 @@ import jbse.bc.exc.MethodNotFoundException;
 import jbse.bc.exc.PleaseLoadClassException;
 import jbse.bc.exc.RenameUnsupportedException;
 import jbse.bc.exc.WrongClassNameException;
-import jbse.common.Util;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
 
@@ -670,7 +663,7 @@ public final class ClassHierarchy implements Cloneable {
                         //creates a ClassFile for the class and puts it in the 
                         //loaded class cache, registering it with all the compatible 
                         //initiating loaders through the delegation chain
-                        accessed = defineClass(definingClassLoader, classSignature, findBytecodeResult.bytecode, bypassStandardLoading, true);
+                        accessed = defineClass(definingClassLoader, classSignature, findBytecodeResult.bytecode, findBytecodeResult.loadedFrom, bypassStandardLoading, true);
                         for (int i = definingClassLoader; i <= initiatingLoader; ++i) {
                             addClassFileClassArray(i, accessed);
                         }
@@ -750,6 +743,23 @@ public final class ClassHierarchy implements Cloneable {
     public ClassFile defineClass(int definingClassLoader, String classSignature, byte[] bytecode, boolean bypassStandardLoading, boolean rename) 
     throws InvalidInputException, AlreadyDefinedClassException, BadClassFileVersionException, RenameUnsupportedException, 
     WrongClassNameException, ClassFileIllFormedException, ClassFileNotFoundException, 
+    ClassFileNotAccessibleException, IncompatibleClassFileException, PleaseLoadClassException {
+        return defineClass(definingClassLoader, classSignature, bytecode, null, bypassStandardLoading, rename);
+    }
+    
+    /**
+     * Defines a class from a bytecode array according to the JVMS v8 section 5.3.5, 
+     * possibly reusing the {@link ClassFile}s in the {@link ClassFileCache}.
+     * 
+     * @param loadedFrom the {@link Path} of the classpath entry {@code bytecode} was 
+     *        loaded from, or {@code null} if {@code bytecode} does not come from the 
+     *        classpath, in which case the {@link ClassFileCache} is not used.
+     * @see #defineClass(int, String, byte[], boolean, boolean) for the other parameters,
+     *      the return value and the exceptions.
+     */
+    private ClassFile defineClass(int definingClassLoader, String classSignature, byte[] bytecode, Path loadedFrom, boolean bypassStandardLoading, boolean rename) 
+    throws InvalidInputException, AlreadyDefinedClassException, BadClassFileVersionException, RenameUnsupportedException, 
+    WrongClassNameException, ClassFileIllFormedException, ClassFileNotFoundException, 
     ClassFileNotAccessibleException, IncompatibleClassFileException, PleaseLoadClassException {
         //checks parameters
         if (definingClassLoader < CLASSLOADER_BOOT) {
@@ -764,8 +774,19 @@ public final class ClassHierarchy implements Cloneable {
             throw new AlreadyDefinedClassException("Tried to redefine (" + definingClassLoader + ", " + classSignature + ").");
         }
         
-        //makes a dummy ClassFile
-        final ClassFile classDummy = createClassFileClassDummy(definingClassLoader, classSignature, bytecode);
+        //makes a dummy ClassFile, or gets it from the process-wide cache
+        final ClassFileCache cache = ClassFileCache.instance();
+        ClassFile classDummy = (loadedFrom == null ? null : cache.getDummy(this.f, loadedFrom, definingClassLoader, classSignature, bytecode));
+        boolean cacheable = (loadedFrom != null);
+        if (classDummy == null) {
+            classDummy = createClassFileClassDummy(definingClassLoader, classSignature, bytecode);
+            
+            //dummies that must be renamed are modified, thus they cannot be shared
+            cacheable = cacheable && (classSignature == null || classDummy.getClassName().equals(classSignature));
+            if (cacheable) {
+                classDummy = cache.putDummy(this.f, loadedFrom, definingClassLoader, classSignature, bytecode, classDummy);
+            }
+        }
         
         //checks (again) if a ClassFile exists, now for the dummy ClassFile's name
         if (getClassFileClassArray(definingClassLoader, classDummy.getClassName()) != null) {
@@ -792,8 +813,15 @@ public final class ClassHierarchy implements Cloneable {
         final ClassFile superClass = resolveSuperclass(classDummy, bypassStandardLoading);
         final ClassFile[] superInterfaces = resolveSuperinterfaces(classDummy, bypassStandardLoading);
 
-        //creates a complete ClassFile for the class, registers it and returns it
-        final ClassFile retVal = createClassFileClass(classDummy, superClass, superInterfaces);
+        //creates a complete ClassFile for the class (unless it is cached), 
+        //registers it and returns it
+        ClassFile retVal = (cacheable ? cache.getComplete(this.f, loadedFrom, definingClassLoader, classSignature, bytecode, superClass, superInterfaces) : null);
+        if (retVal == null) {
+            retVal = createClassFileClass(classDummy, superClass, superInterfaces);
+            if (cacheable) {
+                cache.putComplete(this.f, loadedFrom, definingClassLoader, classSignature, bytecode, retVal);
+            }
+        }
         addClassFileClassArray(definingClassLoader, retVal);
         return retVal;
     }
@@ -888,37 +916,14 @@ public final class ClassHierarchy implements Cloneable {
                                       initiatingLoader == CLASSLOADER_EXT ? this.cp.extClassPath() :
                                       this.cp.userClassPath());
         for (Path path : paths) {
-            try {
-                if (Files.isDirectory(path)) {
-                    final Path pathOfClass = path.resolve(targetClassName + ".class");
-                    return new FindBytecodeResult(Files.readAllBytes(pathOfClass), path);
-                } else if (Util.isJarFile(path)) {
-                    try (final JarFile f = new JarFile(path.toFile())) {
-                        final JarEntry e = f.getJarEntry(targetClassName + ".class");
-                        if (e == null) {
-                            continue;
-                        }
-                        return new FindBytecodeResult(jarEntryBytes(f, e), path);
-                    }
-                } //else do nothing
-            } catch (IOException e) {
-                continue;
+            final byte[] bytecode = ClasspathIndex.instance().findClassFile(path, targetClassName);
+            if (bytecode != null) {
+                return new FindBytecodeResult(bytecode, path);
             }
         }
         return null;
     }
     
-    private static byte[] jarEntryBytes(JarFile f, JarEntry e) throws IOException {
-        final InputStream inStr = f.getInputStream(e);
-        final ByteArrayOutputStream outStr = new ByteArrayOutputStream();
-        final byte[] buf = new byte[2048];
-        int nbytes;
-        while ((nbytes = inStr.read(buf)) != -1) {
-            outStr.write(buf, 0, nbytes);
-        }
-        return outStr.toByteArray();
-    }
-    
     /**
      * Performs class (including array class) and interface resolution 
      * (see JVMS v8, section 5.4.3.1).
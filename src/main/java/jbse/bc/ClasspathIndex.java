@@ -0,0 +1,228 @@
+package jbse.bc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import jbse.common.Util;
+
+/**
+ * A process-wide index of the classfiles in the classpath entries.
+ * Every jar file is opened only once, the first time it is
+ * searched, and its classfile entries are indexed by name, so
+ * that a lookup does not need to open the jar file and parse its
+ * central directory again. Every directory is listed only once, 
+ * the first time it is searched, so that a lookup of a class that
+ * is not in the directory does not access the filesystem. The 
+ * classpath entries are assumed not to change until the index is 
+ * closed, which closes the jar files and drops the index: The
+ * entries searched afterwards are indexed again. This class is
+ * thread-safe.
+ */
+public final class ClasspathIndex implements Closeable {
+    /** The only instance of this class. */
+    private static final ClasspathIndex INSTANCE = new ClasspathIndex();
+
+    /**
+     * Returns the (only) instance of this class.
+     *
+     * @return a {@link ClasspathIndex}.
+     */
+    public static ClasspathIndex instance() {
+        return INSTANCE;
+    }
+
+    /** The suffix of the names of the classfiles. */
+    private static final String CLASSFILE_SUFFIX = ".class";
+
+    /** The size of the buffer used to read entries whose size is unknown. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Maps the classpath entries to their indices. */
+    private final ConcurrentHashMap<Path, ClasspathEntry> entries = new ConcurrentHashMap<>();
+
+    /** Do not instantiate! */
+    private ClasspathIndex() {
+        //nothing to do
+    }
+
+    /**
+     * Returns the content of a classfile in a classpath entry.
+     *
+     * @param path the {@link Path} of a classpath entry, either a
+     *        directory or a jar file.
+     * @param className a {@link String}, the name of a class in
+     *        internal format.
+     * @return a {@code byte[]}, the content of the classfile for
+     *         {@code className}, or {@code null} if {@code path}
+     *         does not contain it or cannot be read.
+     */
+    public byte[] findClassFile(Path path, String className) {
+        final ClasspathEntry entry = this.entries.computeIfAbsent(path, ClasspathIndex::indexClasspathEntry);
+        try {
+            return entry.read(className + CLASSFILE_SUFFIX);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Closes all the jar files and empties the index. It must
+     * not be invoked while classfiles are being looked up. 
+     */
+    @Override
+    public void close() {
+        for (Iterator<ClasspathEntry> it = this.entries.values().iterator(); it.hasNext(); ) {
+            final ClasspathEntry entry = it.next();
+            it.remove();
+            try {
+                entry.close();
+            } catch (IOException e) {
+                //nothing to do
+            }
+        }
+    }
+
+    private static ClasspathEntry indexClasspathEntry(Path path) {
+        if (Files.isDirectory(path)) {
+            return new ClasspathEntryDirectory(path);
+        } else if (Util.isJarFile(path)) {
+            try {
+                return new ClasspathEntryJar(new ZipFile(path.toFile()));
+            } catch (IOException e) {
+                return ClasspathEntryNone.INSTANCE;
+            }
+        } else {
+            return ClasspathEntryNone.INSTANCE;
+        }
+    }
+
+    private interface ClasspathEntry extends Closeable {
+        byte[] read(String entryName) throws IOException;
+
+        @Override
+        default void close() throws IOException {
+            //nothing to do
+        }
+    }
+
+    private static final class ClasspathEntryNone implements ClasspathEntry {
+        static final ClasspathEntryNone INSTANCE = new ClasspathEntryNone();
+
+        @Override
+        public byte[] read(String entryName) {
+            return null;
+        }
+    }
+
+    private static final class ClasspathEntryDirectory implements ClasspathEntry {
+        private final Path path;
+
+        /** 
+         * Maps the names of the classfiles to their paths in the directory,
+         * or {@code null} if the directory cannot be listed, in which case
+         * it is searched on the filesystem at every lookup. 
+         */
+        private final HashMap<String, Path> classFiles;
+
+        ClasspathEntryDirectory(Path path) {
+            this.path = path;
+            this.classFiles = list(path);
+        }
+
+        private static HashMap<String, Path> list(Path path) {
+            final HashMap<String, Path> retVal = new HashMap<>();
+            try (final Stream<Path> paths = Files.walk(path)) {
+                for (Iterator<Path> it = paths.iterator(); it.hasNext(); ) {
+                    final Path pathOfClass = it.next();
+                    if (pathOfClass.getFileName().toString().endsWith(CLASSFILE_SUFFIX) && Files.isRegularFile(pathOfClass)) {
+                        //entry names are separated by slashes, as in jar files
+                        retVal.put(path.relativize(pathOfClass).toString().replace(pathOfClass.getFileSystem().getSeparator(), "/"), pathOfClass);
+                    }
+                }
+            } catch (IOException | UncheckedIOException e) {
+                return null;
+            }
+            return retVal;
+        }
+
+        @Override
+        public byte[] read(String entryName) throws IOException {
+            final Path pathOfClass = (this.classFiles == null ? this.path.resolve(entryName) : this.classFiles.get(entryName));
+            if (pathOfClass == null || !Files.isRegularFile(pathOfClass)) {
+                return null;
+            }
+            return Files.readAllBytes(pathOfClass);
+        }
+    }
+
+    private static final class ClasspathEntryJar implements ClasspathEntry {
+        /** The jar file, kept open until the index is closed. */
+        private final ZipFile jarFile;
+
+        /** Maps the names of the classfiles to their entries in {@code jarFile}. */
+        private final HashMap<String, ZipEntry> classFiles = new HashMap<>();
+
+        ClasspathEntryJar(ZipFile jarFile) {
+            this.jarFile = jarFile;
+            final Enumeration<? extends ZipEntry> zipEntries = jarFile.entries();
+            while (zipEntries.hasMoreElements()) {
+                final ZipEntry zipEntry = zipEntries.nextElement();
+                if (!zipEntry.isDirectory() && zipEntry.getName().endsWith(CLASSFILE_SUFFIX)) {
+                    this.classFiles.put(zipEntry.getName(), zipEntry);
+                }
+            }
+        }
+
+        @Override
+        public byte[] read(String entryName) throws IOException {
+            final ZipEntry zipEntry = this.classFiles.get(entryName);
+            if (zipEntry == null) {
+                return null;
+            }
+            try (final InputStream inStr = this.jarFile.getInputStream(zipEntry)) {
+                final long size = zipEntry.getSize();
+                return (size < 0 || size > Integer.MAX_VALUE ? readUnknownSize(inStr) : readKnownSize(inStr, (int) size));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.jarFile.close();
+        }
+
+        private static byte[] readKnownSize(InputStream inStr, int size) throws IOException {
+            final byte[] retVal = new byte[size];
+            int offset = 0;
+            while (offset < size) {
+                final int nbytes = inStr.read(retVal, offset, size - offset);
+                if (nbytes == -1) {
+                    throw new IOException("Unexpected end of jar file entry.");
+                }
+                offset += nbytes;
+            }
+            return retVal;
+        }
+
+        private static byte[] readUnknownSize(InputStream inStr) throws IOException {
+            final ByteArrayOutputStream outStr = new ByteArrayOutputStream();
+            final byte[] buf = new byte[BUFFER_SIZE];
+            int nbytes;
+            while ((nbytes = inStr.read(buf)) != -1) {
+                outStr.write(buf, 0, nbytes);
+            }
+            return outStr.toByteArray();
+        }
+    }
+}
@@ -113,7 +113,13 @@ public class LocalVariableTable implements Iterable<LocalVariableTable.Row> {
      *         such row exists.
      */
     public Row row(int slot, int curPC) {
-        for (Row r : this.rows(slot)) {
+        //does not use rows(slot) to avoid allocating 
+        //an empty set on each access to a slot without rows
+        final Set<Row> rows = this.entries.get(slot);
+        if (rows == null) {
+            return null;
+        }
+        for (Row r : rows) {
             if (r.start <= curPC && curPC < r.start + r.length) {
                 return r;
             }
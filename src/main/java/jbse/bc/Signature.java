@@ -1,10 +1,14 @@
 package jbse.bc;
 
+import java.io.Serializable;
+
 /**
  * Class that represents the signature of a method or a field.
  * It is immutable.
  */
-public class Signature {
+public class Signature implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     public final static String SIGNATURE_SEPARATOR = ":";
 
     private final String containerClass;
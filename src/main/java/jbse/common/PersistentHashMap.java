@@ -0,0 +1,124 @@
+package jbse.common;
+
+import java.io.Serializable;
+
+/**
+ * A persistent hash map, implemented as a {@link PersistentLongMap}
+ * from the hash codes of the keys to buckets of colliding entries.
+ * The updates share all the unchanged nodes and buckets with the
+ * original map, so a map and the maps derived from it only store
+ * their differences.
+ *
+ * @param <K> the type of the keys. The keys may not be {@code null}.
+ * @param <V> the type of the values. The values may not be {@code null}.
+ */
+public final class PersistentHashMap<K, V> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentHashMap EMPTY = new PersistentHashMap<>(PersistentLongMap.empty(), 0);
+
+    /**
+     * The buckets; each bucket is an immutable {@link Object}{@code []}
+     * storing a key at each even position, followed by its value.
+     */
+    private final PersistentLongMap<Object[]> buckets;
+
+    /** The number of entries. */
+    private final int size;
+
+    private PersistentHashMap(PersistentLongMap<Object[]> buckets, int size) {
+        this.buckets = buckets;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <K> the type of the keys.
+     * @param <V> the type of the values.
+     * @return an empty {@link PersistentHashMap}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns the number of entries in this map.
+     *
+     * @return a nonnegative {@code int}.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether this map has an entry for a key.
+     *
+     * @param key an {@link Object}.
+     * @return {@code true} iff {@link #get(Object) get}{@code (key) != null}.
+     */
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns the value associated to a key.
+     *
+     * @param key an {@link Object}.
+     * @return the value associated to {@code key}, or {@code null}
+     *         if this map has no entry for {@code key}.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        final Object[] bucket = this.buckets.get(hash(key));
+        if (bucket != null) {
+            for (int i = 0; i < bucket.length; i += 2) {
+                if (bucket[i].equals(key)) {
+                    return (V) bucket[i + 1];
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a map with an entry added or replaced.
+     *
+     * @param key a {@code K}, not {@code null}.
+     * @param value a {@code V}, not {@code null}.
+     * @return a {@link PersistentHashMap} that is equal to this
+     *         map, but for the fact that {@code key} is associated
+     *         to {@code value}.
+     */
+    public PersistentHashMap<K, V> put(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        final long hash = hash(key);
+        final Object[] bucket = this.buckets.get(hash);
+        if (bucket == null) {
+            return new PersistentHashMap<>(this.buckets.put(hash, new Object[] { key, value }), this.size + 1);
+        }
+        for (int i = 0; i < bucket.length; i += 2) {
+            if (bucket[i].equals(key)) {
+                if (bucket[i + 1] == value) {
+                    return this;
+                }
+                final Object[] newBucket = bucket.clone();
+                newBucket[i + 1] = value;
+                return new PersistentHashMap<>(this.buckets.put(hash, newBucket), this.size);
+            }
+        }
+        final Object[] newBucket = new Object[bucket.length + 2];
+        System.arraycopy(bucket, 0, newBucket, 0, bucket.length);
+        newBucket[bucket.length] = key;
+        newBucket[bucket.length + 1] = value;
+        return new PersistentHashMap<>(this.buckets.put(hash, newBucket), this.size + 1);
+    }
+
+    private static long hash(Object key) {
+        return key.hashCode() & 0xFFFFFFFFL;
+    }
+}
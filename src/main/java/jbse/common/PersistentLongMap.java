@@ -0,0 +1,348 @@
+package jbse.common;
+
+import java.io.Serializable;
+
+/**
+ * A persistent map from {@code long} keys to values, implemented
+ * as a bitmapped radix trie with path copying. The keys are not
+ * boxed, the updates share all the unchanged nodes with the
+ * original map, and the lookups cost at most one step per 6 bits
+ * of the key, so they are independent of how many times the map
+ * was derived from other maps. The entries are visited in ascending
+ * order of key, the keys being compared as unsigned values.<p>
+ *
+ * The update methods may be passed an edit token: The nodes created
+ * by an update are stamped with its token, and the subsequent
+ * updates with the same token modify them in place rather than
+ * copying them. This is safe as long as the maps sharing the
+ * nodes stamped with a token are not observed after an update
+ * with that token, so an owner of a map must drop its token as
+ * soon as it shares the map.
+ *
+ * @param <V> the type of the values. The values may not be {@code null}.
+ */
+public final class PersistentLongMap<V> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** The number of bits of the key consumed at each level. */
+    private static final int BITS = 6;
+
+    /** Mask for the index at a level. */
+    private static final int MASK = (1 << BITS) - 1;
+
+    /** The shift of the deepest possible root, whose children cover all the 64 bits of a key. */
+    private static final int MAX_SHIFT = 60;
+
+    private static final Object[] NO_SLOTS = new Object[0];
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentLongMap EMPTY = new PersistentLongMap<>(null, 0, 0);
+
+    /**
+     * A node of the trie. The slots are compressed, i.e., there are
+     * as many slots as bits set in the bitmap. The slots of the nodes
+     * at shift 0 store the values, the slots of the other nodes store
+     * the child nodes.
+     */
+    private static final class Node implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final Object edit;
+        long bitmap;
+        Object[] slots;
+
+        Node(Object edit, long bitmap, Object[] slots) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        Node editable(Object edit) {
+            if (edit != null && this.edit == edit) {
+                return this;
+            }
+            return new Node(edit, this.bitmap, this.slots.clone());
+        }
+    }
+
+    /**
+     * Visitor of the entries of a {@link PersistentLongMap}.
+     *
+     * @param <V> the type of the values.
+     */
+    @FunctionalInterface
+    public interface EntryVisitor<V> {
+        void visit(long key, V value);
+    }
+
+    /** The root of the trie, or {@code null} iff the map is empty. */
+    private final Node root;
+
+    /** The shift of the root. */
+    private final int shift;
+
+    /** The number of entries. */
+    private final int size;
+
+    private PersistentLongMap(Node root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <V> the type of the values.
+     * @return an empty {@link PersistentLongMap}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentLongMap<V> empty() {
+        return (PersistentLongMap<V>) EMPTY;
+    }
+
+    /**
+     * Returns the number of entries in this map.
+     *
+     * @return a nonnegative {@code int}.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether this map is empty.
+     *
+     * @return {@code true} iff {@link #size()}{@code == 0}.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Checks whether this map has an entry for a key.
+     *
+     * @param key a {@code long}.
+     * @return {@code true} iff {@link #get(long) get}{@code (key) != null}.
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns the value associated to a key.
+     *
+     * @param key a {@code long}.
+     * @return the value associated to {@code key}, or {@code null}
+     *         if this map has no entry for {@code key}.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (this.root == null || !fits(key, this.shift)) {
+            return null;
+        }
+        Node n = this.root;
+        int s = this.shift;
+        while (true) {
+            final long bit = 1L << ((int) (key >>> s) & MASK);
+            if ((n.bitmap & bit) == 0) {
+                return null;
+            }
+            final Object o = n.slots[Long.bitCount(n.bitmap & (bit - 1))];
+            if (s == 0) {
+                return (V) o;
+            }
+            n = (Node) o;
+            s -= BITS;
+        }
+    }
+
+    /**
+     * Returns a map with an entry added or replaced, copying
+     * all the nodes on the path to the entry.
+     *
+     * @param key a {@code long}.
+     * @param value a {@code V}, not {@code null}.
+     * @return a {@link PersistentLongMap} that is equal to this
+     *         map, but for the fact that {@code key} is associated
+     *         to {@code value}.
+     */
+    public PersistentLongMap<V> put(long key, V value) {
+        return put(key, value, null);
+    }
+
+    /**
+     * Returns a map with an entry added or replaced, modifying in
+     * place the nodes on the path to the entry that are stamped
+     * with an edit token.
+     *
+     * @param key a {@code long}.
+     * @param value a {@code V}, not {@code null}.
+     * @param edit an {@link Object}, the edit token, or {@code null}
+     *        for no token.
+     * @return a {@link PersistentLongMap} that is equal to this
+     *         map, but for the fact that {@code key} is associated
+     *         to {@code value}.
+     */
+    public PersistentLongMap<V> put(long key, V value, Object edit) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        final V old = get(key);
+        if (old == value) {
+            return this;
+        }
+        Node r = this.root;
+        int s = this.shift;
+        if (r == null) {
+            s = 0;
+            while (!fits(key, s)) {
+                s += BITS;
+            }
+            r = new Node(edit, 0L, NO_SLOTS);
+        } else {
+            while (!fits(key, s)) {
+                r = new Node(edit, 1L, new Object[] { r });
+                s += BITS;
+            }
+        }
+        final Node newRoot = put(r, s, key, value, edit);
+        return new PersistentLongMap<>(newRoot, s, (old == null ? this.size + 1 : this.size));
+    }
+
+    private static Node put(Node n, int s, long key, Object value, Object edit) {
+        final long bit = 1L << ((int) (key >>> s) & MASK);
+        final int pos = Long.bitCount(n.bitmap & (bit - 1));
+        if ((n.bitmap & bit) != 0) {
+            final Object old = n.slots[pos];
+            final Object nu = (s == 0 ? value : put((Node) old, s - BITS, key, value, edit));
+            if (nu == old) {
+                return n;
+            }
+            final Node e = n.editable(edit);
+            e.slots[pos] = nu;
+            return e;
+        } else {
+            final Object nu = (s == 0 ? value : put(new Node(edit, 0L, NO_SLOTS), s - BITS, key, value, edit));
+            final Object[] slots = new Object[n.slots.length + 1];
+            System.arraycopy(n.slots, 0, slots, 0, pos);
+            slots[pos] = nu;
+            System.arraycopy(n.slots, pos, slots, pos + 1, n.slots.length - pos);
+            if (edit != null && n.edit == edit) {
+                n.bitmap |= bit;
+                n.slots = slots;
+                return n;
+            }
+            return new Node(edit, n.bitmap | bit, slots);
+        }
+    }
+
+    /**
+     * Returns a map with an entry removed, copying all the
+     * nodes on the path to the entry.
+     *
+     * @param key a {@code long}.
+     * @return a {@link PersistentLongMap} that is equal to this
+     *         map, but for the fact that it has no entry for {@code key}.
+     */
+    public PersistentLongMap<V> remove(long key) {
+        return remove(key, null);
+    }
+
+    /**
+     * Returns a map with an entry removed, modifying in place
+     * the nodes on the path to the entry that are stamped with
+     * an edit token.
+     *
+     * @param key a {@code long}.
+     * @param edit an {@link Object}, the edit token, or {@code null}
+     *        for no token.
+     * @return a {@link PersistentLongMap} that is equal to this
+     *         map, but for the fact that it has no entry for {@code key}.
+     */
+    public PersistentLongMap<V> remove(long key, Object edit) {
+        if (get(key) == null) {
+            return this;
+        }
+        final Node newRoot = remove(this.root, this.shift, key, edit);
+        if (newRoot == null) {
+            return empty();
+        }
+        return new PersistentLongMap<>(newRoot, this.shift, this.size - 1);
+    }
+
+    private static Node remove(Node n, int s, long key, Object edit) {
+        final long bit = 1L << ((int) (key >>> s) & MASK);
+        final int pos = Long.bitCount(n.bitmap & (bit - 1));
+        if (s > 0) {
+            final Node child = remove((Node) n.slots[pos], s - BITS, key, edit);
+            if (child != null) {
+                final Node e = n.editable(edit);
+                e.slots[pos] = child;
+                return e;
+            }
+        }
+
+        //the slot must be dropped
+        if (n.bitmap == bit) {
+            return null;
+        }
+        final Object[] slots = new Object[n.slots.length - 1];
+        System.arraycopy(n.slots, 0, slots, 0, pos);
+        System.arraycopy(n.slots, pos + 1, slots, pos, slots.length - pos);
+        if (edit != null && n.edit == edit) {
+            n.bitmap &= ~bit;
+            n.slots = slots;
+            return n;
+        }
+        return new Node(edit, n.bitmap & ~bit, slots);
+    }
+
+    /**
+     * Visits all the entries of this map in ascending order of key.
+     * The visitor must not update this map with an edit token.
+     *
+     * @param visitor an {@link EntryVisitor}.
+     */
+    public void forEach(EntryVisitor<? super V> visitor) {
+        if (this.root != null) {
+            forEach(this.root, this.shift, 0L, visitor);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(Node n, int s, long prefix, EntryVisitor<? super V> visitor) {
+        long bitmap = n.bitmap;
+        for (int pos = 0; bitmap != 0; ++pos) {
+            final int index = Long.numberOfTrailingZeros(bitmap);
+            bitmap &= bitmap - 1;
+            final long key = (prefix << BITS) | index;
+            if (s == 0) {
+                visitor.visit(key, (V) n.slots[pos]);
+            } else {
+                forEach((Node) n.slots[pos], s - BITS, key, visitor);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys of this map.
+     *
+     * @return a {@code long[]} containing the keys of this map
+     *         in ascending order.
+     */
+    public long[] keys() {
+        final long[] retVal = new long[this.size];
+        final int[] next = { 0 };
+        forEach((key, value) -> retVal[next[0]++] = key);
+        return retVal;
+    }
+
+    /**
+     * Checks whether a key can be stored in a trie whose
+     * root has a given shift.
+     */
+    private static boolean fits(long key, int shift) {
+        return shift >= MAX_SHIFT || (key >>> (shift + BITS)) == 0;
+    }
+}
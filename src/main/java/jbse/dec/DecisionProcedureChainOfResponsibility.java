@@ -347,9 +347,11 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
         final int common = numCommonAssumptions(currentAssumptions, newAssumptions);
         final int toPop = currentAssumptions.size() - common;
         final int toPush = newAssumptions.size() - common;
-        if (canPopAssumptions() && toPop < common) { //TODO toPop < common is a guess! Implement better heuristics
+        if (canPopAssumptions() && (isIncremental() || toPop < common)) { //TODO toPop < common is a guess! Implement better heuristics
+            notifyKeptAssumptions(common);
             setAssumptionsLocalConservatively(newAssumptions, toPop, toPush);
         } else {
+            notifyKeptAssumptions(0);
             setAssumptionsLocalDestructively(newAssumptions);
         }
         if (hasNext()) {
@@ -425,6 +427,36 @@ public abstract class DecisionProcedureChainOfResponsibility implements Decision
         }
     }
 
+    /**
+     * Must be overridden by subclasses that implement {@link #popAssumptionLocal()}
+     * and want {@link #setAssumptions(Collection)} to always locally pop/push 
+     * just the clauses that differ between the current and the new assumptions, 
+     * rather than clearing the current assumptions when they have few clauses 
+     * in common with the new ones. This is convenient when pushing a clause 
+     * is expensive and popping one is cheap, e.g., when the clauses must be 
+     * sent to an external process.
+     * 
+     * @return {@code false} in the default implementation.
+     */
+    protected boolean isIncremental() {
+        //default implementation
+        return false;
+    }
+
+    /**
+     * Invoked by {@link #setAssumptions(Collection)} right before locally
+     * setting the new assumptions. Must be overridden by subclasses that
+     * want to keep track of the assumptions that are not locally pushed
+     * again. The default implementation does nothing.
+     * 
+     * @param kept an {@code int}, the number of current local assumptions
+     *        that are kept because they are a prefix of the new assumptions,
+     *        or {@code 0} if the current local assumptions are cleared.
+     */
+    protected void notifyKeptAssumptions(int kept) {
+        //default implementation
+    }
+
     /**
      * Must be overridden by subclasses that implement {@link #popAssumptionLocal()}
      * to return {@code true}.
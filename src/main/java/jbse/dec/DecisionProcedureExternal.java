@@ -2,6 +2,9 @@ package jbse.dec;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import jbse.bc.ClassFile;
@@ -57,6 +60,33 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
     /** true iff the external decision procedure has not yet received the current assumption. */
     private boolean notInSynch = false;
 
+    /** 
+     * true iff on backtrack we want to pop/push just the clauses that
+     * differ from the ones sent to the external decision procedure. 
+     */
+    private boolean incremental = false;
+
+    /** The number of clauses sent to the external decision procedure. */
+    private long clausesSent = 0L;
+
+    /** 
+     * The number of clauses that were not sent again to the external 
+     * decision procedure because they were already on its assertion stack. 
+     */
+    private long clausesReused = 0L;
+
+    /** 
+     * The cache of the answers of the external decision procedure, 
+     * or {@code null} if the answers are not cached. 
+     */
+    private SatCache satCache = null;
+
+    /** 
+     * Builds the keys of the queries in {@code this.satCache}; 
+     * {@code null} iff {@code this.satCache == null}. 
+     */
+    private SatCacheKeyBuilder satCacheKeyBuilder = null;
+
     protected DecisionProcedureExternal(DecisionProcedure next, Rewriter... rewriters) 
     throws InvalidInputException {
         super(next, rewriters);
@@ -82,12 +112,97 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
             for (Clause c : i) {
                 super.pushAssumptionLocal(c); //redispatches
             }
+            this.clausesSent += this.clauses.size();
             this.notInSynch = false;
         } catch (ExternalProtocolInterfaceException | IOException e) {
             throw new DecisionException(e);
         }
     }
 
+    /**
+     * Sets whether this decision procedure works in incremental mode.
+     * In incremental mode, when the current assumptions are replaced
+     * (e.g., on backtrack) only the clauses after the longest common 
+     * prefix of the current and the new assumptions are popped from, 
+     * and pushed on, the assertion stack of the external decision 
+     * procedure, while the clauses in the common prefix are kept.
+     * Otherwise, the external decision procedure is reset when the 
+     * current and the new assumptions have few clauses in common.
+     * Incremental mode has effect only if {@link #canPopAssumptions()}.
+     * 
+     * @param incremental a {@code boolean}, {@code true} to 
+     *        work in incremental mode. The default is {@code false}.
+     */
+    public final void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * Returns the number of clauses sent to the external decision 
+     * procedure.
+     * 
+     * @return a {@code long}.
+     */
+    public final long getClausesSent() {
+        return this.clausesSent;
+    }
+
+    /**
+     * Returns the number of clauses that, when the current assumptions 
+     * were replaced, were kept on the assertion stack of the external 
+     * decision procedure rather than being sent again.
+     * 
+     * @return a {@code long}.
+     */
+    public final long getClausesReused() {
+        return this.clausesReused;
+    }
+
+    /**
+     * Sets the cache of the answers of the external decision procedure.
+     * The queries whose answers are found in the cache are not sent to
+     * the external decision procedure. A cache can be shared by the 
+     * decision procedures that use the same external decision procedure
+     * with the same options.
+     * 
+     * @param satCache a {@link SatCache}, or {@code null} not to cache
+     *        the answers (the default).
+     */
+    public final void setSatCache(SatCache satCache) {
+        this.satCache = satCache;
+        if (satCache == null) {
+            this.satCacheKeyBuilder = null;
+        } else {
+            this.satCacheKeyBuilder = new SatCacheKeyBuilder();
+            final Iterable<Clause> i = () -> this.clauses.descendingIterator();
+            for (Clause c : i) {
+                this.satCacheKeyBuilder.push(c);
+            }
+        }
+    }
+
+    @Override
+    protected final boolean isIncremental() {
+        return this.incremental;
+    }
+
+    @Override
+    protected final void notifyKeptAssumptions(int kept) {
+        if (!this.fast && !this.notInSynch) {
+            this.clausesReused += kept;
+        }
+    }
+
+    @Override
+    protected final List<Clause> getAssumptionsLocal() {
+        final ArrayList<Clause> retVal = new ArrayList<>(this.clauses.size());
+        final Iterable<Clause> i = () -> this.clauses.descendingIterator();
+        for (Clause c : i) {
+            retVal.add(c);
+        }
+        return Collections.unmodifiableList(retVal);
+    }
+
     @Override
     protected final void goFastAndImpreciseLocal() {
         this.fast = true;
@@ -102,13 +217,18 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
     protected final void pushAssumptionLocal(Clause cSimpl) 
     throws DecisionException, ContradictionException {
         this.clauses.push(cSimpl);
+        if (this.satCacheKeyBuilder != null) {
+            this.satCacheKeyBuilder.push(cSimpl);
+        }
         if (this.fast) {
             this.notInSynch = true;
         } else if (this.extIf.isWorking()) {
         	if (this.notInSynch) {
-        		resynch();
+        		resynch(); //also sends cSimpl
+        	} else {
+        		super.pushAssumptionLocal(cSimpl); //redispatches
+        		++this.clausesSent;
         	}
-        	super.pushAssumptionLocal(cSimpl); //redispatches
         } else {
         	throw new DecisionException(NOT_WORKING);
         }
@@ -184,6 +304,9 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
     protected final void clearAssumptionsLocal() 
     throws DecisionException {
         this.clauses.clear();
+        if (this.satCacheKeyBuilder != null) {
+            this.satCacheKeyBuilder.clear();
+        }
         if (this.fast) {
             this.notInSynch = true;
         } else {
@@ -205,6 +328,9 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
     protected final void popAssumptionLocal() 
     throws DecisionException {
         this.clauses.pop();
+        if (this.satCacheKeyBuilder != null) {
+            this.satCacheKeyBuilder.pop();
+        }
         if (this.fast) {
             this.notInSynch = true;
         } else {
@@ -225,12 +351,22 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
     throws DecisionException {
         try {
             if (this.extIf.isWorking()) {
+                final byte[] key = (this.satCacheKeyBuilder == null ? null : this.satCacheKeyBuilder.key(expSimpl));
+                if (key != null) {
+                    final Boolean cached = this.satCache.get(key);
+                    if (cached != null) {
+                        return cached.booleanValue();
+                    }
+                }
                 if (this.notInSynch) {
                     resynch();
                 }
                 this.extIf.sendClauseAssume(expSimpl);
                 final boolean retVal = this.extIf.checkSat(true); 
                 this.extIf.retractClause();
+                if (key != null) {
+                    this.satCache.put(key, retVal);
+                }
                 return retVal;
             } else {
                 throw new DecisionException(NOT_WORKING);
@@ -328,6 +464,8 @@ public abstract class DecisionProcedureExternal extends DecisionProcedureChainOf
                 throw new DecisionException(e);
             }
         } else {
+            //kills the external process, which is not given back to a pool
+            this.extIf.fail();
             throw new DecisionException(NOT_WORKING);
         }
     }
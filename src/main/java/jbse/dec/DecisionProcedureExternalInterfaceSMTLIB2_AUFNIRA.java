@@ -3,8 +3,6 @@ package jbse.dec;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
@@ -71,7 +69,9 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
 
     private final Calculator calc;
     private final ExpressionMangler m;
+    private final SolverProcessPool pool;
     private boolean working;
+    private SolverProcess solverProcess;
     private Process solver;
     private BufferedReader solverIn;
     private BufferedWriter solverOut;
@@ -90,21 +90,62 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
      * @param calc a {@link Calculator}.
      * @param solverCommandLine a {@link List}{@code <}{@link String}{@code >}, the
      *        command line to launch the external process for the decision procedure.
+     * @param pool a {@link SolverProcessPool} to lease the external process from, 
+     *        or {@code null} if the external process must be launched anew and
+     *        terminated upon {@link #quit()}.
      */
-    public DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(Calculator calc, List<String> solverCommandLine) 
+    public DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(Calculator calc, List<String> solverCommandLine, SolverProcessPool pool) 
     throws ExternalProtocolInterfaceException, IOException {
         this.calc = calc;
         this.m = new ExpressionMangler("X", "", calc);
+        this.pool = pool;
         this.working = true;
-        final ProcessBuilder pb = new ProcessBuilder(solverCommandLine);
-        pb.redirectErrorStream(true);
-        this.solver = pb.start();
-        this.solverIn = new BufferedReader(new InputStreamReader(this.solver.getInputStream()));
-        this.solverOut = new BufferedWriter(new OutputStreamWriter(this.solver.getOutputStream()));
-        
+        if (!leaseSolver(solverCommandLine)) {
+            launchSolver(solverCommandLine);
+        }
+        clear();
+    }
+    
+    private void useSolver(SolverProcess solverProcess) {
+        this.solverProcess = solverProcess;
+        this.solver = solverProcess.process;
+        this.solverIn = solverProcess.in;
+        this.solverOut = solverProcess.out;
+    }
+    
+    private void launchSolver(List<String> solverCommandLine) 
+    throws ExternalProtocolInterfaceException, IOException {
+        useSolver(new SolverProcess(solverCommandLine));
+        if (this.pool != null) {
+            this.pool.notifyLaunched();
+        }
         final String query = PROLOGUE + PUSH_1;
         sendAndCheckAnswer(query);
-        clear();
+    }
+    
+    private boolean leaseSolver(List<String> solverCommandLine) {
+        if (this.pool == null) {
+            return false;
+        }
+        SolverProcess solverProcess;
+        while ((solverProcess = this.pool.lease(solverCommandLine)) != null) {
+            useSolver(solverProcess);
+            try {
+                //drops everything above the prologue, and checks
+                //with a round-trip that the solver answers queries
+                sendAndCheckAnswer(POP_1 + PUSH_1);
+                if (sendAndCheckAnswerChecksat()) {
+                    this.pool.notifyReused();
+                    return true;
+                }
+            } catch (ExternalProtocolInterfaceException | IOException e) {
+                //falls through
+            }
+            solverProcess.destroy();
+            this.pool.notifyDiscarded();
+            this.working = true;
+        }
+        return false;
     }
 
     @Override
@@ -913,17 +954,31 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
     @Override
     public void quit() 
     throws ExternalProtocolInterfaceException, IOException {
+        if (this.pool != null) {
+            //gives back the process if it can be reused, i.e., if
+            //no query failed, which might leave the solver with an
+            //inconsistent assertion stack, and if it can be cleared
+            boolean reusable = this.working;
+            if (reusable) {
+                try {
+                    clear();
+                } catch (ExternalProtocolInterfaceException | IOException e) {
+                    reusable = false;
+                }
+            }
+            if (!reusable) {
+                fail();
+                return;
+            }
+            this.working = false;
+            if (this.pool.release(this.solverProcess)) {
+                return;
+            }
+        }
         this.working = false;
         send(EXIT);
-        while (this.solverIn.readLine() != null) {
-            //do nothing
-        }
-        this.solverIn.close();
-        this.solverOut.close();
         try {
-            //we don't check the exit code because Z3 seems to 
-            //always exit with code 1 when invoked from Java
-            this.solver.waitFor();
+            this.solverProcess.waitForExit();
         } catch (InterruptedException e) {
             throw new ExternalProtocolInterfaceException(e);
         }
@@ -935,38 +990,9 @@ final class DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA extends DecisionPr
     @Override
     public void fail() {
         this.working = false;
-        try {
-			while (this.solverIn.readLine() != null) {
-			    //do nothing
-			}
-		} catch (IOException e) {
-			//do nothing
-		}
-        try {
-			this.solverIn.close();
-		} catch (IOException e) {
-			//do nothing
-		}
-        try {
-			this.solverOut.close();
-		} catch (IOException e) {
-			//do nothing
-		}
-        try {
-			this.solver.getInputStream().close();
-		} catch (IOException e) {
-			//do nothing
-		}
-        try {
-			this.solver.getOutputStream().close();
-		} catch (IOException e) {
-			//do nothing
-		}
-        try {
-			this.solver.getErrorStream().close();
-		} catch (IOException e) {
-			//do nothing
-		}
-        this.solver.destroyForcibly();
+        this.solverProcess.destroy();
+        if (this.pool != null) {
+            this.pool.notifyDiscarded();
+        }
     }
 }
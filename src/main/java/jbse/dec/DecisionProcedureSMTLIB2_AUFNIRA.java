@@ -19,10 +19,27 @@ import java.util.List;
  */
 public final class DecisionProcedureSMTLIB2_AUFNIRA extends DecisionProcedureExternal {
 	public DecisionProcedureSMTLIB2_AUFNIRA(DecisionProcedure next, List<String> solverCommandLine) 
+	throws InvalidInputException, DecisionException {
+		this(next, solverCommandLine, null);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param next the next {@link DecisionProcedure} in the chain.
+	 * @param solverCommandLine the command line of the solver.
+	 * @param pool a {@link SolverProcessPool} the solver process is 
+	 *        leased from and given back to upon {@link #close()}, 
+	 *        or {@code null} for a dedicated solver process.
+	 * @throws InvalidInputException if {@code next == null}.
+	 * @throws DecisionException if launching or reusing the solver
+	 *         process fails.
+	 */
+	public DecisionProcedureSMTLIB2_AUFNIRA(DecisionProcedure next, List<String> solverCommandLine, SolverProcessPool pool) 
 	throws InvalidInputException, DecisionException {
 		super(next);
 		try {
-			this.extIf = new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(getCalculator(), solverCommandLine);
+			this.extIf = new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(getCalculator(), solverCommandLine, pool);
 		} catch (ExternalProtocolInterfaceException | IOException e) {
 			throw new DecisionException(e);
 		}
@@ -32,7 +49,7 @@ public final class DecisionProcedureSMTLIB2_AUFNIRA extends DecisionProcedureExt
 	throws InvalidInputException, DecisionException {
 		super(calc);
 		try {
-			this.extIf = new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(getCalculator(), solverCommandLine);
+			this.extIf = new DecisionProcedureExternalInterfaceSMTLIB2_AUFNIRA(getCalculator(), solverCommandLine, null);
 		} catch (ExternalProtocolInterfaceException | IOException e) {
 			throw new DecisionException(e);
 		}
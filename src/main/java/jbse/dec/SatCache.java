@@ -0,0 +1,133 @@
+package jbse.dec;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the answers of an external decision procedure
+ * to satisfiability queries. The queries are identified by a digest
+ * of the canonical form of the current assumptions and of the queried
+ * expression, where the symbols are renamed in order of appearance, so
+ * that the same query issued by different symbolic executions (e.g.,
+ * by different tests running the same code) hits the cache even if
+ * the symbols have different names. The least recently used answers
+ * are evicted first. A {@link SatCache} can be shared by all the
+ * {@link DecisionProcedureExternal}s that use the same external
+ * decision procedure, with the same options. This class is thread-safe.
+ */
+public final class SatCache {
+    /** The maximum number of cached answers. */
+    private final int capacity;
+
+    /** The cache, in access order. */
+    private final LinkedHashMap<Key, Boolean> answers;
+
+    /** The number of cache hits. */
+    private long hits = 0L;
+
+    /** The number of cache misses. */
+    private long misses = 0L;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity a positive {@code int}, the maximum
+     *        number of cached answers.
+     */
+    public SatCache(int capacity) {
+        this.capacity = capacity;
+        this.answers = new LinkedHashMap<Key, Boolean>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+                return size() > SatCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns a cached answer.
+     *
+     * @param digest a {@code byte[]}, the digest of a query.
+     * @return the cached answer to the query as a {@link Boolean},
+     *         or {@code null} if the answer is not cached.
+     */
+    synchronized Boolean get(byte[] digest) {
+        final Boolean retVal = this.answers.get(new Key(digest));
+        if (retVal == null) {
+            ++this.misses;
+        } else {
+            ++this.hits;
+        }
+        return retVal;
+    }
+
+    /**
+     * Caches an answer.
+     *
+     * @param digest a {@code byte[]}, the digest of a query.
+     *        It must not be modified afterwards.
+     * @param isSat a {@code boolean}, the answer to the query.
+     */
+    synchronized void put(byte[] digest, boolean isSat) {
+        this.answers.put(new Key(digest), isSat);
+    }
+
+    /**
+     * Returns the number of cache hits.
+     *
+     * @return a {@code long}, the number of queries whose
+     *         answer was found in the cache.
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of cache misses.
+     *
+     * @return a {@code long}, the number of queries whose
+     *         answer was not found in the cache.
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of cached answers.
+     *
+     * @return an {@code int}.
+     */
+    public synchronized int size() {
+        return this.answers.size();
+    }
+
+    private static final class Key {
+        private final byte[] digest;
+        private final int hashCode;
+
+        Key(byte[] digest) {
+            this.digest = digest;
+            this.hashCode = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return this.hashCode == other.hashCode && Arrays.equals(this.digest, other.digest);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package jbse.dec;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.val.Any;
+import jbse.val.Expression;
+import jbse.val.NarrowingConversion;
+import jbse.val.Primitive;
+import jbse.val.PrimitiveSymbolicApply;
+import jbse.val.PrimitiveSymbolicAtomic;
+import jbse.val.PrimitiveVisitor;
+import jbse.val.Simplex;
+import jbse.val.Term;
+import jbse.val.Value;
+import jbse.val.WideningConversion;
+
+/**
+ * Builds the digests that identify the satisfiability queries in
+ * a {@link SatCache}. It mirrors the stack of the assumptions of a
+ * {@link DecisionProcedureExternal}, and keeps the digest of the
+ * canonical form of every prefix of the stack, so that the digest
+ * of a query can be calculated by canonicalizing just the queried
+ * expression. Only the {@link ClauseAssume}s contribute to the
+ * canonical form, since the other clauses are outside the theory
+ * of the external decision procedure. In the canonical form the
+ * symbols are renamed after the order of their first appearance.
+ */
+final class SatCacheKeyBuilder {
+    /** The algorithm for the digests. */
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * The digests of the prefixes of the assumptions: The
+     * element at position {@code i} is the digest of the
+     * first {@code i} assumptions. The digests are never
+     * updated, only their clones are.
+     */
+    private final ArrayList<MessageDigest> digests = new ArrayList<>();
+
+    /**
+     * The number of symbols in each prefix of the assumptions: The
+     * element at position {@code i} is the number of symbols in the
+     * first {@code i} assumptions.
+     */
+    private final ArrayList<Integer> nSymbols = new ArrayList<>();
+
+    /** Maps the symbols in the assumptions to their canonical index. */
+    private final HashMap<Object, Integer> symbols = new HashMap<>();
+
+    /** The symbols in the assumptions, in order of canonical index. */
+    private final ArrayList<Object> symbolsOrdered = new ArrayList<>();
+
+    /**
+     * The number of assumptions that can be canonicalized,
+     * after which the queries are not cacheable.
+     */
+    private int nCacheable = Integer.MAX_VALUE;
+
+    SatCacheKeyBuilder() {
+        try {
+            this.digests.add(MessageDigest.getInstance(DIGEST_ALGORITHM));
+        } catch (NoSuchAlgorithmException e) {
+            //this should never happen, all Java platforms support SHA-256
+            throw new UnexpectedInternalException(e);
+        }
+        this.nSymbols.add(0);
+    }
+
+    /**
+     * Pushes an assumption.
+     *
+     * @param c the pushed {@link Clause}.
+     */
+    void push(Clause c) {
+        final MessageDigest top = top();
+        final int nAssumptions = this.digests.size() - 1;
+        if (c instanceof ClauseAssume && nAssumptions < this.nCacheable) {
+            final String canonical = canonicalize(((ClauseAssume) c).getCondition());
+            if (canonical == null) {
+                this.nCacheable = nAssumptions;
+                this.digests.add(top);
+            } else {
+                final MessageDigest d = cloneDigest(top);
+                d.update(canonical.getBytes(StandardCharsets.UTF_8));
+                this.digests.add(d);
+            }
+        } else {
+            this.digests.add(top);
+        }
+        this.nSymbols.add(this.symbolsOrdered.size());
+    }
+
+    /**
+     * Pops the last pushed assumption.
+     */
+    void pop() {
+        this.digests.remove(this.digests.size() - 1);
+        this.nSymbols.remove(this.nSymbols.size() - 1);
+        forgetSymbols(this.nSymbols.get(this.nSymbols.size() - 1));
+        if (this.digests.size() - 1 <= this.nCacheable) {
+            this.nCacheable = Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Pops all the assumptions.
+     */
+    void clear() {
+        while (this.digests.size() > 1) {
+            this.digests.remove(this.digests.size() - 1);
+            this.nSymbols.remove(this.nSymbols.size() - 1);
+        }
+        forgetSymbols(0);
+        this.nCacheable = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Calculates the digest of a satisfiability query.
+     *
+     * @param query the queried {@link Primitive}.
+     * @return a {@code byte[]}, the digest of the canonical
+     *         form of the current assumptions and of {@code query},
+     *         or {@code null} if the query is not cacheable.
+     */
+    byte[] key(Primitive query) {
+        if (this.digests.size() - 1 > this.nCacheable) {
+            return null;
+        }
+        final int nSymbolsBefore = this.symbolsOrdered.size();
+        final String canonical = canonicalize(query);
+        forgetSymbols(nSymbolsBefore);
+        if (canonical == null) {
+            return null;
+        }
+        return cloneDigest(top()).digest(canonical.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private MessageDigest top() {
+        return this.digests.get(this.digests.size() - 1);
+    }
+
+    private static MessageDigest cloneDigest(MessageDigest d) {
+        try {
+            return (MessageDigest) d.clone();
+        } catch (CloneNotSupportedException e) {
+            //this should never happen, SHA-256 digests are cloneable
+            throw new UnexpectedInternalException(e);
+        }
+    }
+
+    private void forgetSymbols(int nSymbolsToKeep) {
+        while (this.symbolsOrdered.size() > nSymbolsToKeep) {
+            this.symbols.remove(this.symbolsOrdered.remove(this.symbolsOrdered.size() - 1));
+        }
+    }
+
+    private String canonicalize(Primitive p) {
+        final CanonicalFormVisitor v = new CanonicalFormVisitor();
+        try {
+            p.accept(v);
+        } catch (Exception e) {
+            return null;
+        }
+        return v.canonical.append(';').toString();
+    }
+
+    /**
+     * Builds the canonical form of a {@link Primitive}.
+     */
+    private final class CanonicalFormVisitor implements PrimitiveVisitor {
+        private final StringBuilder canonical = new StringBuilder();
+
+        @Override
+        public void visitAny(Any x) throws Exception {
+            throw new Exception("Values of type Any are not cacheable.");
+        }
+
+        @Override
+        public void visitExpression(Expression e) throws Exception {
+            this.canonical.append('(').append(e.getOperator().toString());
+            if (e.isUnary()) {
+                this.canonical.append(' ');
+                e.getOperand().accept(this);
+            } else {
+                this.canonical.append(' ');
+                e.getFirstOperand().accept(this);
+                this.canonical.append(' ');
+                e.getSecondOperand().accept(this);
+            }
+            this.canonical.append(')');
+        }
+
+        @Override
+        public void visitPrimitiveSymbolicApply(PrimitiveSymbolicApply x) throws Exception {
+            for (Value arg : x.getArgs()) {
+                if (!(arg instanceof Primitive)) {
+                    //the external decision procedure abstracts
+                    //it as a symbol
+                    appendSymbol(x, x.getType());
+                    return;
+                }
+            }
+            this.canonical.append('(').append(x.getOperator()).append(':').append(x.getType());
+            for (Value arg : x.getArgs()) {
+                this.canonical.append(' ');
+                ((Primitive) arg).accept(this);
+            }
+            this.canonical.append(')');
+        }
+
+        @Override
+        public void visitPrimitiveSymbolicAtomic(PrimitiveSymbolicAtomic s) {
+            appendSymbol(s.toString(), s.getType());
+        }
+
+        @Override
+        public void visitSimplex(Simplex x) {
+            this.canonical.append(x.getType()).append(x.getActualValue().toString());
+        }
+
+        @Override
+        public void visitTerm(Term x) {
+            appendSymbol(x.toString(), x.getType());
+        }
+
+        @Override
+        public void visitNarrowingConversion(NarrowingConversion x) throws Exception {
+            this.canonical.append("(N").append(x.getType()).append(' ');
+            x.getArg().accept(this);
+            this.canonical.append(')');
+        }
+
+        @Override
+        public void visitWideningConversion(WideningConversion x) throws Exception {
+            this.canonical.append("(W").append(x.getType()).append(' ');
+            x.getArg().accept(this);
+            this.canonical.append(')');
+        }
+
+        private void appendSymbol(Object symbol, char type) {
+            Integer index = SatCacheKeyBuilder.this.symbols.get(symbol);
+            if (index == null) {
+                index = SatCacheKeyBuilder.this.symbolsOrdered.size();
+                SatCacheKeyBuilder.this.symbols.put(symbol, index);
+                SatCacheKeyBuilder.this.symbolsOrdered.add(symbol);
+            }
+            this.canonical.append('$').append(index).append(':').append(type);
+        }
+    }
+}
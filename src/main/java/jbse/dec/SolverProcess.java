@@ -0,0 +1,116 @@
+package jbse.dec;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An external solver process, together with the streams
+ * to communicate with it.
+ */
+final class SolverProcess {
+    /** How long {@link #destroy()} waits for the process to terminate. */
+    private static final long DESTROY_TIMEOUT_MILLIS = 1000L;
+
+    /** The command line that launched the process. */
+    final List<String> commandLine;
+
+    /** The process. */
+    final Process process;
+
+    /** The reader for the solver answers. */
+    final BufferedReader in;
+
+    /** The writer for the solver queries. */
+    final BufferedWriter out;
+
+    /**
+     * Launches a solver process.
+     *
+     * @param commandLine a {@link List}{@code <}{@link String}{@code >}, the
+     *        command line to launch the process.
+     * @throws IOException if the process cannot be launched.
+     */
+    SolverProcess(List<String> commandLine) throws IOException {
+        this.commandLine = Collections.unmodifiableList(new ArrayList<>(commandLine)); //safety copy
+        final ProcessBuilder pb = new ProcessBuilder(commandLine);
+        pb.redirectErrorStream(true);
+        this.process = pb.start();
+        this.in = new BufferedReader(new InputStreamReader(this.process.getInputStream()));
+        this.out = new BufferedWriter(new OutputStreamWriter(this.process.getOutputStream()));
+    }
+
+    /**
+     * Checks whether the process is alive.
+     *
+     * @return {@code true} iff the process has not terminated.
+     */
+    boolean isAlive() {
+        return this.process.isAlive();
+    }
+
+    /**
+     * Waits for the process to exit, after it has been
+     * sent an exit command.
+     *
+     * @throws IOException if closing the streams fails.
+     * @throws InterruptedException if the current thread
+     *         is interrupted while waiting.
+     */
+    void waitForExit() throws IOException, InterruptedException {
+        while (this.in.readLine() != null) {
+            //do nothing
+        }
+        this.in.close();
+        this.out.close();
+        //we don't check the exit code because Z3 seems to
+        //always exit with code 1 when invoked from Java
+        this.process.waitFor();
+    }
+
+    /**
+     * Kills the process and closes all the streams. It does
+     * not read the pending output of the process, that might
+     * end with an incomplete line, and waits for the process 
+     * to terminate at most {@link #DESTROY_TIMEOUT_MILLIS}.
+     */
+    void destroy() {
+        this.process.destroyForcibly();
+        try {
+            this.in.close();
+        } catch (IOException e) {
+            //do nothing
+        }
+        try {
+            this.out.close();
+        } catch (IOException e) {
+            //do nothing
+        }
+        try {
+            this.process.getInputStream().close();
+        } catch (IOException e) {
+            //do nothing
+        }
+        try {
+            this.process.getOutputStream().close();
+        } catch (IOException e) {
+            //do nothing
+        }
+        try {
+            this.process.getErrorStream().close();
+        } catch (IOException e) {
+            //do nothing
+        }
+        try {
+            this.process.waitFor(DESTROY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
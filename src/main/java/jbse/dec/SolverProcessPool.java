@@ -0,0 +1,167 @@
+package jbse.dec;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A pool of long-lived external solver processes. A
+ * {@link DecisionProcedureSMTLIB2_AUFNIRA} built with a pool
+ * leases a process when it is created and gives it back when
+ * it is closed, so that the following decision procedures with the
+ * same solver command line do not need to launch a new process and
+ * to send it the prologue again. The processes are reset and checked
+ * with a trivial query when leased, and discarded if they are found not
+ * to be working or if their decision procedure failed. This class is
+ * thread-safe.
+ */
+public final class SolverProcessPool implements AutoCloseable {
+    /** The maximum number of idle processes for each command line. */
+    private final int maxIdle;
+
+    /** Maps the command lines to the idle processes launched with them. */
+    private final HashMap<List<String>, ArrayDeque<SolverProcess>> idle = new HashMap<>();
+
+    /** Set when the pool is closed. */
+    private boolean closed = false;
+
+    /** The number of launched processes. */
+    private long launched = 0L;
+
+    /** The number of times an idle process was reused. */
+    private long reused = 0L;
+
+    /** The number of processes discarded because not working. */
+    private long discarded = 0L;
+
+    /**
+     * Constructor.
+     *
+     * @param maxIdle an {@code int}, the maximum number of idle processes
+     *        kept for each solver command line. Processes given back to a
+     *        pool with {@code maxIdle} idle processes are terminated.
+     */
+    public SolverProcessPool(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Leases an idle process.
+     *
+     * @param commandLine a {@link List}{@code <}{@link String}{@code >}, the
+     *        solver command line.
+     * @return an idle {@link SolverProcess} launched with {@code commandLine}
+     *         and still alive, or {@code null} if there is none, in which case
+     *         the caller must launch a new one.
+     */
+    SolverProcess lease(List<String> commandLine) {
+        final ArrayList<SolverProcess> toDestroy = new ArrayList<>();
+        SolverProcess leased = null;
+        synchronized (this) {
+            final ArrayDeque<SolverProcess> processes = this.idle.get(commandLine);
+            while (processes != null && !processes.isEmpty()) {
+                final SolverProcess process = processes.pop();
+                if (process.isAlive()) {
+                    leased = process;
+                    break;
+                }
+                toDestroy.add(process);
+                ++this.discarded;
+            }
+        }
+        for (SolverProcess process : toDestroy) {
+            process.destroy();
+        }
+        return leased;
+    }
+
+    /**
+     * Records the launch of a process.
+     */
+    synchronized void notifyLaunched() {
+        ++this.launched;
+    }
+
+    /**
+     * Records that a leased process was reset and reused.
+     */
+    synchronized void notifyReused() {
+        ++this.reused;
+    }
+
+    /**
+     * Records that a leased process was discarded because
+     * not working.
+     */
+    synchronized void notifyDiscarded() {
+        ++this.discarded;
+    }
+
+    /**
+     * Gives back a process to the pool.
+     *
+     * @param process a working {@link SolverProcess}, with all
+     *        the assertions popped.
+     * @return {@code true} iff the process was taken back by the
+     *         pool; otherwise the caller must terminate it.
+     */
+    synchronized boolean release(SolverProcess process) {
+        if (this.closed || !process.isAlive()) {
+            return false;
+        }
+        final ArrayDeque<SolverProcess> processes = this.idle.computeIfAbsent(process.commandLine, k -> new ArrayDeque<>());
+        if (processes.size() >= this.maxIdle) {
+            return false;
+        }
+        processes.push(process);
+        return true;
+    }
+
+    /**
+     * Returns the number of launched processes.
+     *
+     * @return a {@code long}.
+     */
+    public synchronized long getLaunched() {
+        return this.launched;
+    }
+
+    /**
+     * Returns the number of times an idle process was reused.
+     *
+     * @return a {@code long}.
+     */
+    public synchronized long getReused() {
+        return this.reused;
+    }
+
+    /**
+     * Returns the number of processes discarded because
+     * not working.
+     *
+     * @return a {@code long}.
+     */
+    public synchronized long getDiscarded() {
+        return this.discarded;
+    }
+
+    /**
+     * Closes the pool and terminates all the idle processes.
+     * The processes given back afterwards are not taken.
+     */
+    @Override
+    public void close() {
+        final ArrayList<SolverProcess> toDestroy = new ArrayList<>();
+        synchronized (this) {
+            this.closed = true;
+            for (ArrayDeque<SolverProcess> processes : this.idle.values()) {
+                toDestroy.addAll(processes);
+            }
+            this.idle.clear();
+        }
+        for (SolverProcess process : toDestroy) {
+            process.destroy();
+        }
+    }
+}
@@ -34,6 +34,7 @@ import jbse.jvm.exc.InitializationException;
 import jbse.jvm.exc.NonexistingObservedVariablesException;
 import jbse.mem.Clause;
 import jbse.mem.State;
+import jbse.mem.StateFootprint;
 import jbse.mem.State.Phase;
 import jbse.mem.exc.ContradictionException;
 import jbse.mem.exc.FrozenStateException;
@@ -70,6 +71,19 @@ public final class Engine implements AutoCloseable {
 
     /** The {@link VariableObserverManager}. */
     private final VariableObserverManager vom;
+    
+    /** 
+     * The number of steps between two incremental garbage 
+     * collections, or {@code 0} for no periodic collection. 
+     */
+    private final int gcInterval;
+    
+    /** 
+     * The {@link Action_START} that created a starting state 
+     * that only bootstraps the JVM, or {@code null} if the 
+     * starting state is complete. 
+     */
+    private Action_START actionStartBootstrapOnly = null;
 
     //State of the execution
 
@@ -112,10 +126,15 @@ public final class Engine implements AutoCloseable {
      * Constructor. Used by the builder.
      * 
      * @param ctx an {@link ExecutionContext}.
+     * @param vom a {@link VariableObserverManager}.
+     * @param gcInterval an {@code int}, the number of steps 
+     *        between two incremental garbage collections, or 
+     *        {@code 0} for no periodic collection.
      */
-    Engine(ExecutionContext ctx, VariableObserverManager vom) {
+    Engine(ExecutionContext ctx, VariableObserverManager vom, int gcInterval) {
         this.ctx = ctx;
         this.vom = vom;
+        this.gcInterval = gcInterval;
     }
 
     /**
@@ -165,6 +184,9 @@ public final class Engine implements AutoCloseable {
     		//steps
     		final Action_START algo = this.ctx.dispatcher.selectStart();
     		algo.exec(this.ctx);
+    		if (algo.bootstrapOnly()) {
+    			this.actionStartBootstrapOnly = algo;
+    		}
     		
     		//updates the current state
     		if (this.ctx.stateTree.createdBranch()) { //Action_START always creates a branch, but we need the side effect of invoking createBranch
@@ -289,6 +311,12 @@ public final class Engine implements AutoCloseable {
         	if (!canStep()) {
         		throw new EngineStuckException();
         	}
+        	
+        	//at the end of the bootstrap, possibly captures the 
+        	//bootstrap snapshot and completes the starting state
+        	if (this.actionStartBootstrapOnly != null && atLastPreInitialState()) {
+        		captureBootstrapSnapshot();
+        	}
 
         	//sets the next phase of the state
         	final boolean atLastPreInitialState = atLastPreInitialState(); //safety copy
@@ -334,7 +362,11 @@ public final class Engine implements AutoCloseable {
         	
         	//cleans, stores and creates a branch for the initial state
     	    if (atInitialState()) {
-    			this.currentState.gc();
+    	    	if (this.gcInterval > 0) {
+    	    		this.currentState.gcIncremental();
+    	    	} else {
+    	    		this.currentState.gc();
+    	    	}
     			this.ctx.switchInitial(this.currentState);
         		this.vom.init(this);
     	    	this.ctx.stateTree.addStateInitial(this.currentState);
@@ -372,6 +404,12 @@ public final class Engine implements AutoCloseable {
         	if (this.analyzedStates < Long.MAX_VALUE) { 
         		++this.analyzedStates;
         	}
+        	
+        	//possibly collects the garbage, once the bootstrap is over
+        	if (this.gcInterval > 0 && this.analyzedStates % this.gcInterval == 0 && 
+        	    this.currentState.phase() == Phase.POST_INITIAL && !this.currentState.isStuck()) {
+        		this.currentState.gcIncremental();
+        	}
 
         	//returns
         	return retVal;
@@ -381,6 +419,19 @@ public final class Engine implements AutoCloseable {
         }
     }
 
+    private void captureBootstrapSnapshot() 
+    throws DecisionException, ClasspathException, ContradictionException {
+    	this.ctx.getBootstrapSnapshot().capture(this.currentState, this.analyzedStates);
+    	try {
+    		this.actionStartBootstrapOnly.initializeRootMethodClasses(this.currentState, this.ctx);
+    	} catch (InitializationException e) {
+    		//this should never happen, as the bootstrap 
+    		//completed successfully
+    		throw new UnexpectedInternalException(e);
+    	}
+    	this.actionStartBootstrapOnly = null;
+    }
+
     /**
      * Returns the engine's current JVM state 
      * (<em>not</em> a copy).
@@ -449,6 +500,40 @@ public final class Engine implements AutoCloseable {
 			throw new UnexpectedInternalException(e);
 		}
     }
+    
+    /**
+     * Returns an estimate of the memory occupied by 
+     * the engine's current state.
+     * 
+     * @return a {@link StateFootprint}.
+     * @see State#getFootprint()
+     */
+    public StateFootprint getCurrentStateFootprint() {
+        return this.currentState.getFootprint();
+    }
+    
+    /**
+     * Returns the number of pending states, i.e., of the 
+     * states the engine may backtrack to.
+     * 
+     * @return a nonnegative {@code int}.
+     */
+    public int getNumOfPendingStates() {
+    	return this.ctx.stateTree.getNumOfStates();
+    }
+    
+    /**
+     * Drops pending states, so that the engine will not 
+     * backtrack to them. The states that are dropped are 
+     * the ones the engine would backtrack to last.
+     * 
+     * @param keep an {@code int}, the number of pending 
+     *        states to keep.
+     * @return the number of dropped states.
+     */
+    public int dropPendingStates(int keep) {
+    	return this.ctx.stateTree.dropStates(keep);
+    }
 
     /**
      * Checks whether the engine can backtrack to some state.
@@ -597,12 +682,14 @@ public final class Engine implements AutoCloseable {
     }
 
     /**
-     * Cleans up the decision procedure after the usage of the engine.
+     * Cleans up the decision procedure and the state tree after
+     * the usage of the engine.
      * 
      * @throws DecisionException when clean-up of decision procedure fails.
      */
     @Override
     public void close() throws DecisionException {
+        this.ctx.stateTree.close();
         this.ctx.decisionProcedure.close();
     }
 }
\ No newline at end of file
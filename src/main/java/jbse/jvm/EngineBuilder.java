@@ -92,25 +92,29 @@ public class EngineBuilder {
 	                               parameters.getStateIdentificationMode().toInternal(), 
 	                               parameters.getBreadthMode().toInternal(),
 	                               parameters.getTriggerRulesRepo(),
-	                               parameters.getClassInvariantAfterInitialization());
+	                               parameters.getClassInvariantAfterInitialization(),
+	                               parameters.getBootstrapSnapshot());
 	
 	        //sets the meta-level directives
 	        setOverrides(ctx, parameters);
 	        setUninterpreted(ctx, parameters);
+	        
+	        //bounds the pending states in memory
+	        ctx.stateTree.setMaxStatesInMemory(parameters.getMaxStatesInMemory());
 		
 	        //sets the observers
 	        final VariableObserverManager vom = new VariableObserverManager(parameters.getMethodSignature().getClassName());
 	        setObservers(vom, parameters);
 	
 	        //creates the engine
-	        final Engine retVal = new Engine(ctx, vom);
+	        final Engine retVal = new Engine(ctx, vom, parameters.getGcInterval());
 	        
 	        //sets the state suppliers for the decision procedure
 	        parameters.getDecisionProcedure().setInitialStateSupplier(retVal::getInitialState);
 	        parameters.getDecisionProcedure().setCurrentStateSupplier(retVal::getCurrentState);
 	        
 	        return retVal;
-    	} catch (IOException e) {
+    	} catch (IOException | InvalidInputException e) {
     		throw new CannotBuildEngineException(e);
     	}
     }
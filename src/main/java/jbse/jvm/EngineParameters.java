@@ -15,6 +15,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import jbse.algo.BootstrapSnapshot;
 import jbse.bc.Classpath;
 import jbse.bc.Signature;
 import jbse.dec.DecisionProcedureAlgorithms;
@@ -159,6 +160,13 @@ public final class EngineParameters implements Cloneable {
      */
     private State startingState = null;
     
+    /**
+     * The {@link BootstrapSnapshot} shared with other symbolic
+     * executions, or {@code null} iff the bootstrap must not be
+     * shared; by default it is {@code null}.
+     */
+    private BootstrapSnapshot bootstrapSnapshot = null;
+    
     /** 
      * {@code true} iff the bootstrap classloader should also load the classes defined by the
      * extensions and application classloaders; overridden by 
@@ -242,6 +250,18 @@ public final class EngineParameters implements Cloneable {
     /** The maximum size of the heap (number of objects). */
     private long maxHeapSize = 1_000_000;
     
+    /** 
+     * The number of steps between two incremental garbage 
+     * collections, or {@code 0} for no periodic collection. 
+     */
+    private int gcInterval = 0;
+    
+    /** 
+     * The maximum number of pending states kept in memory, 
+     * or {@code 0} for no limit. 
+     */
+    private int maxStatesInMemory = 0;
+    
     /** 
      * Whether the classes that are initialized during the
      * pre-initialization phase should be made symbolic, so
@@ -409,6 +429,31 @@ public final class EngineParameters implements Cloneable {
         }
     }
     
+    /**
+     * Sets the {@link BootstrapSnapshot} for the symbolic execution. 
+     * If no starting state is set, the symbolic execution starts 
+     * from a fork of the snapshot, or captures it if it was not
+     * captured yet. The snapshot must be shared only by symbolic 
+     * executions with the same classpath and the same parameters, 
+     * except the method signature.
+     * 
+     * @param bootstrapSnapshot a {@link BootstrapSnapshot}, or {@code null}
+     *        to bootstrap the JVM from scratch (default).
+     */
+    public void setBootstrapSnapshot(BootstrapSnapshot bootstrapSnapshot) {
+        this.bootstrapSnapshot = bootstrapSnapshot;
+    }
+    
+    /**
+     * Gets the {@link BootstrapSnapshot} for the symbolic execution.
+     * 
+     * @return the {@link BootstrapSnapshot} set by the last call to 
+     *         {@link #setBootstrapSnapshot(BootstrapSnapshot)} (possibly {@code null}).
+     */
+    public BootstrapSnapshot getBootstrapSnapshot() {
+        return this.bootstrapSnapshot;
+    }
+    
     /**
      * Sets whether the bootstrap classloader should also be used to 
      * load the classes defined by the extensions and application classloaders.
@@ -1107,6 +1152,67 @@ public final class EngineParameters implements Cloneable {
         return this.maxHeapSize;
     }
     
+    /**
+     * Sets the number of steps between two garbage 
+     * collections. If it is positive, the heap of the 
+     * current state is incrementally collected every
+     * {@code gcInterval} steps after the initial state 
+     * (not during the bootstrap), and at the initial state
+     * the collection only traces what changed since the 
+     * last one. By default it is {@code 0}, i.e., the heap
+     * is (fully) collected only at the initial state.
+     * 
+     * @param gcInterval an {@code int}.
+     * @throws IllegalArgumentException if {@code gcInterval < 0}.
+     */
+    public void setGcInterval(int gcInterval) {
+        if (gcInterval < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.gcInterval = gcInterval;
+    }
+    
+    /**
+     * Returns the number of steps between two
+     * garbage collections.
+     * 
+     * @return an {@code int}, {@code 0} if the heap
+     *         is only collected at the initial state.
+     */
+    public int getGcInterval() {
+        return this.gcInterval;
+    }
+    
+    /**
+     * Sets the maximum number of pending states, i.e., 
+     * the states at the branches that must still be
+     * explored, that are kept in memory. The exceeding
+     * states, those that will be explored last, are 
+     * stored in a temporary file and read back upon 
+     * backtracking. By default it is {@code 0}, i.e., 
+     * all the pending states are kept in memory.
+     * 
+     * @param maxStatesInMemory an {@code int}.
+     * @throws IllegalArgumentException if {@code maxStatesInMemory < 0}.
+     */
+    public void setMaxStatesInMemory(int maxStatesInMemory) {
+        if (maxStatesInMemory < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxStatesInMemory = maxStatesInMemory;
+    }
+    
+    /**
+     * Returns the maximum number of pending states 
+     * kept in memory.
+     * 
+     * @return an {@code int}, {@code 0} if there
+     *         is no limit.
+     */
+    public int getMaxStatesInMemory() {
+        return this.maxStatesInMemory;
+    }
+    
     /**
      * Sets whether the classes created during
      * the pre-initialization phase shall be (pedantically)
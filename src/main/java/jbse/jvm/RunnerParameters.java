@@ -10,6 +10,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+import jbse.algo.BootstrapSnapshot;
 import jbse.bc.Classpath;
 import jbse.bc.Signature;
 import jbse.dec.DecisionProcedureAlgorithms;
@@ -220,6 +221,31 @@ public final class RunnerParameters implements Cloneable {
     public State getStartingState() {
         return this.engineParameters.getStartingState();
     }
+    
+    /**
+     * Sets the {@link BootstrapSnapshot} for the symbolic execution. 
+     * If no starting state is set, the symbolic execution starts 
+     * from a fork of the snapshot, or captures it if it was not
+     * captured yet. The snapshot must be shared only by symbolic 
+     * executions with the same classpath and the same parameters, 
+     * except the method signature.
+     * 
+     * @param bootstrapSnapshot a {@link BootstrapSnapshot}, or {@code null}
+     *        to bootstrap the JVM from scratch (default).
+     */
+    public void setBootstrapSnapshot(BootstrapSnapshot bootstrapSnapshot) {
+        this.engineParameters.setBootstrapSnapshot(bootstrapSnapshot);
+    }
+    
+    /**
+     * Gets the {@link BootstrapSnapshot} for the symbolic execution.
+     * 
+     * @return the {@link BootstrapSnapshot} set by the last call to 
+     *         {@link #setBootstrapSnapshot(BootstrapSnapshot)} (possibly {@code null}).
+     */
+    public BootstrapSnapshot getBootstrapSnapshot() {
+        return this.engineParameters.getBootstrapSnapshot();
+    }
 
     /**
      * Sets whether the bootstrap classloader should also be used to 
@@ -796,6 +822,50 @@ public final class RunnerParameters implements Cloneable {
         return this.engineParameters.getMaxHeapSize();
     }
     
+    /**
+     * Sets the number of steps between two garbage 
+     * collections.
+     * 
+     * @param gcInterval an {@code int}.
+     * @throws IllegalArgumentException if {@code gcInterval < 0}.
+     * @see EngineParameters#setGcInterval(int)
+     */
+    public void setGcInterval(int gcInterval) {
+        this.engineParameters.setGcInterval(gcInterval);
+    }
+    
+    /**
+     * Returns the number of steps between two
+     * garbage collections.
+     * 
+     * @return an {@code int}.
+     */
+    public int getGcInterval() {
+        return this.engineParameters.getGcInterval();
+    }
+    
+    /**
+     * Sets the maximum number of pending states 
+     * kept in memory.
+     * 
+     * @param maxStatesInMemory an {@code int}.
+     * @throws IllegalArgumentException if {@code maxStatesInMemory < 0}.
+     * @see EngineParameters#setMaxStatesInMemory(int)
+     */
+    public void setMaxStatesInMemory(int maxStatesInMemory) {
+        this.engineParameters.setMaxStatesInMemory(maxStatesInMemory);
+    }
+    
+    /**
+     * Returns the maximum number of pending states 
+     * kept in memory.
+     * 
+     * @return an {@code int}.
+     */
+    public int getMaxStatesInMemory() {
+        return this.engineParameters.getMaxStatesInMemory();
+    }
+    
     /**
      * Sets whether the classes created during
      * the pre-initialization phase shall be (pedantically)
@@ -2,6 +2,7 @@ package jbse.mem;
 
 import static jbse.bc.Opcodes.OP_INVOKEDYNAMIC;
 
+import java.io.Serializable;
 import java.util.HashMap;
 
 import jbse.bc.ClassFile;
@@ -20,14 +21,18 @@ import jbse.val.ReferenceConcrete;
  * @author Pietro Braione
  *
  */
-final class AdapterMethodLinker implements Cloneable {
+final class AdapterMethodLinker implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
+
     /**
      * Class used as key for the call sites link maps
      * .
      * @author Pietro Braione
      *
      */
-    private static final class CSKey {
+    private static final class CSKey implements Serializable {
+    	private static final long serialVersionUID = 1L;
+
     	final ClassFile containerClass;
     	final String descriptor;
     	final String name;
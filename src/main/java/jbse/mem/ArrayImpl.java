@@ -8,6 +8,7 @@ import static jbse.common.Type.getArrayMemberType;
 import static jbse.common.Type.isPrimitive;
 import static jbse.common.Type.toPrimitiveOrVoidInternalName;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -43,6 +44,8 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public final class ArrayImpl extends HeapObjektImpl implements Array {
+    private static final long serialVersionUID = 1L;
+
     /*Fields*/
 
     /** The conventional term used for indicating the array's index. */
@@ -73,7 +76,9 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
      */ 
     private boolean simpleRep;
 
-    public abstract class AccessOutcomeImpl implements AccessOutcome {
+    public abstract class AccessOutcomeImpl implements AccessOutcome, Serializable {
+        private static final long serialVersionUID = 1L;
+
         /** 
          * An {@link Expression} denoting the condition over 
          * the array index yielding this {@link AccessOutcome}. 
@@ -164,6 +169,8 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
     }
 
     public abstract class AccessOutcomeInImpl extends AccessOutcomeImpl implements AccessOutcomeIn { 
+        private static final long serialVersionUID = 1L;
+
         /**
          * Constructor (outcome returned by a concrete get).
          */
@@ -194,6 +201,8 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
     }
 
     public final class AccessOutcomeInInitialArrayImpl extends AccessOutcomeInImpl implements AccessOutcomeInInitialArray {
+        private static final long serialVersionUID = 1L;
+
         /**
          * A reference to the other (symbolic) {@link ArrayImpl} that backs 
          * this array.
@@ -254,6 +263,8 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
     }
 
     public final class AccessOutcomeInValueImpl extends AccessOutcomeInImpl implements AccessOutcomeInValue {
+        private static final long serialVersionUID = 1L;
+
         /**
          * A {@link Value} denoting the value returned  
          * by the array access. It can be either a 
@@ -322,6 +333,8 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
     }
 
     public final class AccessOutcomeOutImpl extends AccessOutcomeImpl implements AccessOutcomeOut { 
+        private static final long serialVersionUID = 1L;
+
         /**
          * Constructor (outcome returned by a concrete get).
          */
@@ -430,7 +443,7 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
             //this should never happen
             throw new UnexpectedInternalException(e);
         }
-        this.fields.get(this.lengthSignature).setValue(otherArray.getLength());
+        setFieldValue(this.lengthSignature, otherArray.getLength());
         try {
             final Expression indexGreaterEqualZero = (Expression) calc.push(this.indexFormal).ge(calc.valInt(0)).pop();
             final Expression indexLessThanLength = (Expression) calc.push(this.indexFormal).lt(getLength()).pop();
@@ -956,6 +969,20 @@ public final class ArrayImpl extends HeapObjektImpl implements Array {
     	return str;
     }
 
+    /**
+     * Returns the number of entries of this array.
+     * 
+     * @return a nonnegative {@code int}.
+     */
+    int numOfEntries() {
+        return this.entries.size();
+    }
+
+    @Override
+    long footprint() {
+        return super.footprint() + StateFootprint.ARRAY_ENTRY_BYTES * this.entries.size();
+    }
+
     @Override
     public ArrayImpl clone() {
     	final ArrayImpl o = (ArrayImpl) super.clone();
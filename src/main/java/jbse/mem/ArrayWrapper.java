@@ -22,6 +22,8 @@ import jbse.val.exc.InvalidTypeException;
  * copy-on-write.
  */
 final class ArrayWrapper extends HeapObjektWrapper<ArrayImpl> implements Array {
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructor.
      * 
@@ -14,6 +14,8 @@ import jbse.val.Simplex;
  *
  */
 public class ClauseAssume implements Clause {
+	private static final long serialVersionUID = 1L;
+
 	private final Primitive p;
 	
 	/**
@@ -12,6 +12,8 @@ import jbse.val.ReferenceSymbolic;
  *
  */
 public class ClauseAssumeAliases extends ClauseAssumeReferenceSymbolic {
+	private static final long serialVersionUID = 1L;
+
 	private final long heapPosition;
 	private final HeapObjekt object;
 	
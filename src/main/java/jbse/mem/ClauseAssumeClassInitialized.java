@@ -12,6 +12,8 @@ import jbse.common.exc.InvalidInputException;
  *
  */
 public class ClauseAssumeClassInitialized implements Clause {
+    private static final long serialVersionUID = 1L;
+
     private final ClassFile classFile;
     private final Klass k;
 
@@ -12,6 +12,8 @@ import jbse.val.ReferenceSymbolic;
  *
  */
 public class ClauseAssumeNull extends ClauseAssumeReferenceSymbolic {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Constructor.
 	 * 
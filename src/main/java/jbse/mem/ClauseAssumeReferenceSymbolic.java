@@ -11,6 +11,8 @@ import jbse.val.ReferenceSymbolic;
  *
  */
 public abstract class ClauseAssumeReferenceSymbolic implements Clause {
+	private static final long serialVersionUID = 1L;
+
 	private final ReferenceSymbolic referenceSymbolic;
 
 	/**
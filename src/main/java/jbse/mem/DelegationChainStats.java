@@ -0,0 +1,66 @@
+package jbse.mem;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide statistics on the delegation chains of the lazily
+ * cloned static method areas, i.e., on how deep the chains grow and
+ * on how often, and how much, they are compacted. This class is 
+ * thread-safe.
+ */
+public final class DelegationChainStats {
+    /** The only instance of this class. */
+    private static final DelegationChainStats INSTANCE = new DelegationChainStats();
+
+    /**
+     * Returns the (only) instance of this class.
+     *
+     * @return a {@link DelegationChainStats}.
+     */
+    public static DelegationChainStats instance() {
+        return INSTANCE;
+    }
+
+    /** The maximum depth reached by a chain. */
+    private final AtomicLong maxDepth = new AtomicLong();
+
+    /** The number of compactions. */
+    private final AtomicLong compactions = new AtomicLong();
+
+    /** The total number of layers dropped by the compactions. */
+    private final AtomicLong layersDropped = new AtomicLong();
+
+    /** The total number of {@link Klass}es copied in the flattened layers. */
+    private final AtomicLong klassesFlattened = new AtomicLong();
+
+    /** Do not instantiate! */
+    private DelegationChainStats() {
+        //nothing to do
+    }
+
+    void chainGrown(int depth) {
+        this.maxDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    void chainCompacted(int layersDropped, int klassesFlattened) {
+        this.compactions.incrementAndGet();
+        this.layersDropped.addAndGet(layersDropped);
+        this.klassesFlattened.addAndGet(klassesFlattened);
+    }
+
+    public long getMaxDepth() {
+        return this.maxDepth.get();
+    }
+
+    public long getCompactions() {
+        return this.compactions.get();
+    }
+
+    public long getLayersDropped() {
+        return this.layersDropped.get();
+    }
+
+    public long getKlassesFlattened() {
+        return this.klassesFlattened.get();
+    }
+}
@@ -0,0 +1,105 @@
+package jbse.mem;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import jbse.bc.ClassFile;
+import jbse.bc.Signature;
+
+/**
+ * The layout of the fields of an {@link ObjektImpl}, that maps
+ * the signatures of the fields it stores to the slots of the
+ * array of their values. The layout of the objects of a class
+ * never changes, thus it is calculated once per {@link ClassFile}
+ * and shared by all its objects and by their clones. Immutable.
+ */
+final class FieldLayout {
+    /**
+     * Caches the layouts of the instances and arrays of the
+     * classes; the layouts of the {@link Klass}es are not
+     * cached, since there is one per class.
+     */
+    private static final Map<ClassFile, FieldLayout> CACHE =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * All the signatures of the fields known to the object,
+     * as for {@link ObjektImpl}'s constructor.
+     */
+    final Signature[] fieldSignatures;
+
+    /** The number of static fields. */
+    final int numOfStaticFields;
+
+    /** The position in {@link #fieldSignatures} of the first stored field. */
+    final int firstStored;
+
+    /** The number of stored fields. */
+    final int numStored;
+
+    /** Maps the signatures of the stored fields to their slots. */
+    private final HashMap<Signature, Integer> slots;
+
+    private FieldLayout(boolean staticFields, int numOfStaticFields, Signature[] fieldSignatures) {
+        this.fieldSignatures = fieldSignatures.clone(); //safety copy
+        this.numOfStaticFields = numOfStaticFields;
+        this.firstStored = (staticFields ? 0 : numOfStaticFields);
+        this.numStored = (staticFields ? numOfStaticFields : fieldSignatures.length - numOfStaticFields);
+        this.slots = new HashMap<>();
+        for (int slot = 0; slot < this.numStored; ++slot) {
+            this.slots.put(this.fieldSignatures[this.firstStored + slot], slot);
+        }
+    }
+
+    /**
+     * Returns the layout of an object.
+     *
+     * @param classFile the {@link ClassFile} of the object, or
+     *        {@code null} if the object is a {@link Klass}.
+     * @param staticFields {@code true} if the object stores
+     *        the static fields, {@code false} if it stores
+     *        the object (nonstatic) fields.
+     * @param numOfStaticFields an {@code int}, the number of static fields.
+     * @param fieldSignatures a {@link Signature}{@code []}, all the
+     *        fields the object knows.
+     * @return a {@link FieldLayout}.
+     */
+    static FieldLayout of(ClassFile classFile, boolean staticFields, int numOfStaticFields, Signature[] fieldSignatures) {
+        if (classFile == null || staticFields) {
+            return new FieldLayout(staticFields, numOfStaticFields, fieldSignatures);
+        }
+        final FieldLayout cached = CACHE.get(classFile);
+        if (cached != null && cached.numOfStaticFields == numOfStaticFields &&
+            cached.fieldSignatures.length == fieldSignatures.length) {
+            return cached;
+        }
+        final FieldLayout retVal = new FieldLayout(staticFields, numOfStaticFields, fieldSignatures);
+        CACHE.put(classFile, retVal);
+        return retVal;
+    }
+
+    /**
+     * Returns the slot of a stored field.
+     *
+     * @param fieldSignature a {@link Signature}.
+     * @return the slot of the field with signature {@code fieldSignature},
+     *         or {@code -1} if the object does not store it.
+     */
+    int slot(Signature fieldSignature) {
+        final Integer slot = this.slots.get(fieldSignature);
+        return (slot == null ? -1 : slot.intValue());
+    }
+
+    /**
+     * Returns the signature of a stored field.
+     *
+     * @param slot an {@code int}, a slot between {@code 0} and
+     *        {@link #numStored}{@code - 1}.
+     * @return the {@link Signature} of the field stored at {@code slot}.
+     */
+    Signature signature(int slot) {
+        return this.fieldSignatures[this.firstStored + slot];
+    }
+}
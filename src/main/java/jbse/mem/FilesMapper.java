@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.Map;
@@ -23,7 +24,9 @@ import jbse.common.exc.UnexpectedInternalException;
  * 
  * @author Pietro Braione
  */
-final class FilesMapper implements Cloneable {
+final class FilesMapper implements Cloneable, Serializable {
+	private static final long serialVersionUID = 1L;
+
 	private static final String NULL_FILE_POSIX = "/dev/null";
 	private static final String NULL_FILE_WINDOWS = "NUL";
 	
@@ -96,7 +99,9 @@ final class FilesMapper implements Cloneable {
      * @author Pietro Braione
      *
      */
-    private static final class RandomAccessFileWrapper {
+    private static final class RandomAccessFileWrapper implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         final RandomAccessFile raf;
         final String modeString;
         
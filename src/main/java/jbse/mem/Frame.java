@@ -1,5 +1,6 @@
 package jbse.mem;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.SortedMap;
 
@@ -14,7 +15,9 @@ import jbse.val.Value;
  * Abstract class representing the activation context of 
  * a bytecode sequence.
  */
-public abstract class Frame implements Cloneable {
+public abstract class Frame implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
+
     /** 
      * The value for the return program counter of 
      * the topmost (current) frame.
@@ -200,6 +203,17 @@ public abstract class Frame implements Cloneable {
      */
     public abstract SortedMap<Integer, Variable> localVariables();
 
+    /**
+     * Returns a read-only view of the values in the local variable 
+     * area. Unlike {@link #localVariables()} it builds no 
+     * {@link Variable}s and no map.
+     * 
+     * @return a {@link Collection}{@code <}{@link Value}{@code >} 
+     *         with the same values as {@link #localVariables()}{@code .values()},
+     *         in the same order.
+     */
+    public abstract Collection<Value> localVariableValues();
+
     /**
      * Returns the name of a local variable as declared in 
      * the debug information of the class.
@@ -282,6 +296,20 @@ public abstract class Frame implements Cloneable {
      */
     public abstract Value top() throws InvalidNumberOfOperandsException;
 
+    /**
+     * Returns an element in the operand stack, without removing it
+     * and without copying the stack. Equivalent to 
+     * {@link #operands}{@code (depth + 1)[0]}.
+     * 
+     * @param depth a nonnegative {@code int}, the depth of the 
+     *        element: {@code 0} is the topmost one.
+     * @return a {@link Value}.
+     * @throws InvalidNumberOfOperandsException if the operand stack 
+     *         does not contain at least {@code depth + 1} elements, 
+     *         or if {@code depth} is negative. 
+     */
+    public abstract Value operand(int depth) throws InvalidNumberOfOperandsException;
+
     /**
      * Returns the topmost {@code num} elements in the operand stack,
      * without removing them.
@@ -297,6 +325,25 @@ public abstract class Frame implements Cloneable {
      */
     public abstract Value[] operands(int num) throws InvalidNumberOfOperandsException;
 
+    /**
+     * Returns the topmost {@code num} elements in the operand stack,
+     * without removing them, possibly without allocating an array.
+     * 
+     * @param num a nonnegative {@code int}.
+     * @param buffer a {@link Value}{@code []}; if its length is 
+     *        {@code num} the elements are copied into it, otherwise 
+     *        a new array is allocated. It can be {@code null}.
+     * @return a {@link Value}{@code []}, either {@code buffer} or 
+     *         a new array, containing the first {@code num}
+     *         elements of the operand stack in reverse depth order 
+     *         (the topmost value in the operand stack will be the last
+     *         value in the return value).
+     * @throws InvalidNumberOfOperandsException if the operand stack 
+     *         does not contain at least {@code num} elements, 
+     *         or if {@code num} is negative. 
+     */
+    public abstract Value[] operands(int num, Value[] buffer) throws InvalidNumberOfOperandsException;
+
     /**
      * Clears the operand stack.
      */
@@ -327,6 +374,18 @@ public abstract class Frame implements Cloneable {
      *         incompatible with their respective slots types.
      */
     public abstract void setArgs(Value... args) throws InvalidSlotException;
+    
+    /**
+     * Returns an estimate of the memory occupied by this 
+     * frame. The bytecode, that is shared with the class
+     * file, is not counted.
+     * 
+     * @return a {@code long}, in bytes.
+     * @see StateFootprint
+     */
+    long footprint() {
+        return StateFootprint.FRAME_BYTES;
+    }
 
     @Override
     public Frame clone() {
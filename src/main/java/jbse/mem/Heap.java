@@ -1,22 +1,50 @@
 package jbse.mem;
 
-import java.util.Map;
+import java.io.Serializable;
+import java.util.BitSet;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
-import java.util.TreeSet;
 
+import jbse.common.PersistentLongMap;
 import jbse.common.exc.UnexpectedInternalException;
 import jbse.mem.exc.HeapMemoryExhaustedException;
 
 /**
- * Class that implements the heap in the JVM's memory.
+ * Class that implements the heap in the JVM's memory. The objects
+ * are stored in a {@link PersistentLongMap}, that a lazy clone shares
+ * with the heap it is cloned from; The objects that a heap inherits
+ * from the heap it is lazily cloned from are wrapped upon access
+ * so they are copied on write.<p>
+ * 
+ * After a generational collection the heap also tracks the objects 
+ * that are allocated (the young generation) and the older objects 
+ * that are accessed, thus possibly written, since the collection 
+ * (the dirty objects), so that the next collection can trace only 
+ * what changed.<p>
+ * 
+ * The heap also maintains an estimate of the memory occupied by its 
+ * objects. Since the objects are updated in place, the estimate of
+ * an object is taken out of the footprint when the object is handed 
+ * out, and it is added back with the object's current estimate when 
+ * the heap footprint is queried, so that each query only measures 
+ * the objects handed out since the previous one.
  */
-final class Heap implements Cloneable {
+final class Heap implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final long maxHeapSize;
-	private Heap delegate; //nonfinal to allow cloning
-    private TreeMap<Long, HeapObjekt> objects; //nonfinal to allow cloning
+    private PersistentLongMap<HeapObjekt> objects; //nonfinal to allow cloning
+    private PersistentLongMap<HeapObjekt> inherited; //nonfinal to allow cloning
+    private Object edit; //nonfinal to allow cloning
     private long nextIndex;
+    private boolean generational;
+    private PersistentLongMap<Boolean> young; //nonfinal to allow cloning
+    private PersistentLongMap<Boolean> dirty; //nonfinal to allow cloning
+    private long footprintBytes;
+    private long footprintEntries;
+    private long footprintBytesAtClone;
+    private BitSet handedOut; //nonfinal to allow cloning
     
     /**
      * Constructor.
@@ -25,10 +53,18 @@ final class Heap implements Cloneable {
      *        of objects this heap can store.
      */
     Heap(long maxHeapSize) {
-    	this.delegate = null;
         this.maxHeapSize = maxHeapSize;
-        this.objects = new TreeMap<>();
+        this.objects = PersistentLongMap.empty();
+        this.inherited = PersistentLongMap.empty();
+        this.edit = new Object();
         this.nextIndex = Util.POS_ROOT;
+        this.generational = false;
+        this.young = PersistentLongMap.empty();
+        this.dirty = PersistentLongMap.empty();
+        this.footprintBytes = 0;
+        this.footprintEntries = 0;
+        this.footprintBytesAtClone = 0;
+        this.handedOut = new BitSet();
     }
 
     /**
@@ -59,7 +95,7 @@ final class Heap implements Cloneable {
      *         where {@code item} is stored.
      */
     long addNewSurely(HeapObjektImpl item) {
-        this.objects.put(this.nextIndex, item);
+        set(this.nextIndex, item);
         long retVal = this.nextIndex;
         while (existsAt(this.nextIndex)) {
             if (this.nextIndex == Long.MAX_VALUE) {
@@ -77,11 +113,7 @@ final class Heap implements Cloneable {
      * @return {@code true} iff there is an object at position {@code index}.
      */
     boolean existsAt(long index) {
-    	if (this.objects.containsKey(index)) {
-    		return (this.objects.get(index) != null);
-    	} else {
-    		return (this.delegate != null && this.delegate.existsAt(index));
-    	}
+        return this.objects.containsKey(index);
     }
 
     /**
@@ -92,7 +124,108 @@ final class Heap implements Cloneable {
      * @param item the {@link HeapObjekt} to stored at {@code pos}.
      */
     void set(long pos, HeapObjekt item) {
-        this.objects.put(pos, item);
+        final HeapObjekt old = this.objects.get(pos);
+        if (this.generational) {
+            if (old != null) {
+                markDirty(pos);
+            } else {
+                this.young = this.young.put(pos, Boolean.TRUE, this.edit);
+            }
+        }
+        if (old != null) {
+            uncount(pos, old);
+        }
+        count(item);
+        this.objects = this.objects.put(pos, item, this.edit);
+    }
+    
+    /**
+     * Adds the estimate of an object to the footprint.
+     * 
+     * @param item a {@link HeapObjekt}.
+     */
+    private void count(HeapObjekt item) {
+        final HeapObjektImpl real = getTheRealThing(item);
+        this.footprintBytes += real.footprint();
+        this.footprintEntries += numOfEntries(real);
+    }
+    
+    /**
+     * Subtracts the estimate of an object from the footprint.
+     * 
+     * @param pos a {@code long}, the position of the object.
+     * @param item the {@link HeapObjekt} at position {@code pos}.
+     */
+    private void uncount(long pos, HeapObjekt item) {
+        if (this.handedOut.get(index(pos))) {
+            //already taken out of the footprint
+            this.handedOut.clear(index(pos));
+        } else {
+            final HeapObjektImpl real = getTheRealThing(item);
+            this.footprintBytes -= real.footprint();
+            this.footprintEntries -= numOfEntries(real);
+        }
+    }
+    
+    /**
+     * Takes the estimate of an object that is handed 
+     * out, and thus may be modified, out of the footprint.
+     * 
+     * @param pos a {@code long}, the position of the object.
+     * @param item the {@link HeapObjekt} at position {@code pos}.
+     */
+    private void markHandedOut(long pos, HeapObjekt item) {
+        if (!this.handedOut.get(index(pos))) {
+            this.handedOut.set(index(pos));
+            final HeapObjektImpl real = getTheRealThing(item);
+            this.footprintBytes -= real.footprint();
+            this.footprintEntries -= numOfEntries(real);
+        }
+    }
+    
+    /**
+     * Updates the footprint with the current estimates
+     * of the objects handed out.
+     */
+    private void updateFootprint() {
+        for (int i = this.handedOut.nextSetBit(0); i >= 0; i = this.handedOut.nextSetBit(i + 1)) {
+            final HeapObjektImpl real = getTheRealThing(this.objects.get(i));
+            this.footprintBytes += real.footprint();
+            this.footprintEntries += numOfEntries(real);
+        }
+        this.handedOut.clear();
+    }
+    
+    /**
+     * Converts a heap position to an index in {@link #handedOut}.
+     * The positions are allocated densely from {@link Util#POS_ROOT},
+     * so they fit an {@code int} long before the heap fits the 
+     * memory.
+     * 
+     * @param pos a {@code long}, the position of an object.
+     * @return an {@code int}.
+     */
+    private static int index(long pos) {
+        return (int) pos;
+    }
+    
+    private static long numOfEntries(HeapObjektImpl real) {
+        return (real instanceof ArrayImpl ? ((ArrayImpl) real).numOfEntries() : 0);
+    }
+    
+    /**
+     * Records that the object at some position might 
+     * have been modified since the last collection. This is the 
+     * write barrier of the generational collection: Since the objects
+     * are updated in place, it must be invoked whenever an object 
+     * is handed out.
+     * 
+     * @param pos a {@code long}, the position of an existing object.
+     */
+    private void markDirty(long pos) {
+        if (!this.young.containsKey(pos) && !this.dirty.containsKey(pos)) {
+            this.dirty = this.dirty.put(pos, Boolean.TRUE, this.edit);
+        }
     }
 
     /**
@@ -104,63 +237,44 @@ final class Heap implements Cloneable {
      *         {@code null} if nothing is stored at {@code pos}.
      */
     HeapObjekt getObject(long pos) {
-    	if (existsAt(pos)) {
-    		final HeapObjekt localObjekt = this.objects.get(pos);
-    		if (localObjekt == null) {
-    			final HeapObjektImpl trueObjekt = getTheRealThing(pos);
-    			final HeapObjektWrapper<?> delegateObjekt = trueObjekt.makeWrapper(this, pos);
-    			set(pos, delegateObjekt);
-    			return delegateObjekt;
-    		} else {
-    			return localObjekt;
-    		}
-    	} else {
-    		return null;
-    	}
+        final HeapObjekt objekt = this.objects.get(pos);
+        if (objekt == null) {
+            return null;
+        }
+        if (objekt != this.inherited.get(pos)) {
+            if (this.generational) {
+                markDirty(pos);
+            }
+            markHandedOut(pos, objekt);
+            return objekt;
+        }
+        
+        //the object is inherited: wraps it
+        final HeapObjektWrapper<?> delegateObjekt = getTheRealThing(objekt).makeWrapper(this, pos);
+        set(pos, delegateObjekt);
+        markHandedOut(pos, delegateObjekt);
+        return delegateObjekt;
     }
     
     /**
      * Gets the real {@link ObjektImpl} that is stored
-     * at some position.
+     * in the heap.
      * 
-     * @param pos a {@code long}. It must be 
-     * {@link #existsAt(long) existsObjectAt}{@code (pos) == true}.
-     * @return the {@link ObjektImpl} stored at {@code pos}, obtained
-     * by walking through the delegation chain until either an {@link ObjektImpl}
-     * or an {@link ObjektWrapper} is found (in the latter case, the wrapped
-     * object is returned).
+     * @param objekt a {@link HeapObjekt} stored in the heap. 
+     * @return {@code objekt} if it is an {@link ObjektImpl}, 
+     * otherwise the {@link ObjektImpl} wrapped by {@code objekt}. 
      */
-    private HeapObjektImpl getTheRealThing(long pos) {
-		final HeapObjekt localObjekt = this.objects.get(pos);
-		if (localObjekt == null) {
-			return this.delegate.getTheRealThing(pos);
-		} else if (localObjekt instanceof ObjektWrapper<?>) {
-			return ((HeapObjektWrapper<?>) localObjekt).getDelegate();
-		} else {
-			return (HeapObjektImpl) localObjekt;
-		}
-    }
-    
-    private TreeSet<Long> filledPositions() {
-    	final TreeSet<Long> retVal = new TreeSet<>();
-    	for (long pos : this.objects.keySet()) {
-    		if (this.objects.get(pos) != null) {
-    			retVal.add(pos);
-    		}
-    	}
-    	if (this.delegate != null) {
-    		retVal.addAll(this.delegate.filledPositions());
-    	}
-    	return retVal;
+    private static HeapObjektImpl getTheRealThing(HeapObjekt objekt) {
+        if (objekt instanceof ObjektWrapper<?>) {
+            return ((HeapObjektWrapper<?>) objekt).getDelegate();
+        } else {
+            return (HeapObjektImpl) objekt;
+        }
     }
     
     private void makeAllWrappers() {
-        for (long pos : filledPositions()) {
-            if (!this.objects.containsKey(pos)) {
-            	final HeapObjektImpl trueObjekt = getTheRealThing(pos);
-            	final HeapObjektWrapper<?> delegateObjekt = trueObjekt.makeWrapper(this, pos);
-            	this.objects.put(pos, delegateObjekt);
-            }
+        for (long pos : this.objects.keys()) {
+            getObject(pos);
         }
     }
 
@@ -173,8 +287,10 @@ final class Heap implements Cloneable {
      * at them.
      */
     SortedMap<Long, Objekt> getObjects() {
-    	makeAllWrappers();
-        return new TreeMap<>(this.objects);
+        makeAllWrappers();
+        final TreeMap<Long, Objekt> retVal = new TreeMap<>();
+        this.objects.forEach(retVal::put);
+        return retVal;
     }    
 
     /**
@@ -183,7 +299,42 @@ final class Heap implements Cloneable {
      * @return a positive {@code int}.
      */
     int getSize() {
-        return filledPositions().size();
+        return this.objects.size();
+    }
+    
+    /**
+     * Returns an estimate of the memory occupied by
+     * the objects in the heap.
+     * 
+     * @return a {@code long}, in bytes.
+     * @see StateFootprint
+     */
+    long getFootprintBytes() {
+        updateFootprint();
+        return this.footprintBytes;
+    }
+    
+    /**
+     * Returns the total number of entries of the 
+     * arrays in the heap.
+     * 
+     * @return a {@code long}.
+     */
+    long getFootprintEntries() {
+        updateFootprint();
+        return this.footprintEntries;
+    }
+    
+    /**
+     * Returns how much the estimate of the memory 
+     * occupied by the objects in the heap changed 
+     * since this heap was lazily cloned. 
+     * 
+     * @return a {@code long}, in bytes.
+     */
+    long getFootprintBytesSinceClone() {
+        updateFootprint();
+        return this.footprintBytes - this.footprintBytesAtClone;
     }
     
     /**
@@ -195,12 +346,92 @@ final class Heap implements Cloneable {
      *        will.
      */
     void disposeExcept(Set<Long> exceptPos) {
-        for (long pos : filledPositions()) {
+        for (long pos : this.objects.keys()) {
+            if (exceptPos.contains(pos)) {
+                continue;
+            }
+            this.objects = this.objects.remove(pos, this.edit);
+        }
+        resetGenerations();
+        
+        //the collection already visited all the objects, 
+        //so recounts the remaining ones from scratch
+        this.handedOut.clear();
+        this.footprintBytes = 0;
+        this.footprintEntries = 0;
+        this.objects.forEach((pos, item) -> count(item));
+    }
+    
+    /**
+     * Deletes young objects from this heap, i.e., objects
+     * allocated since the last collection, and starts a new
+     * generation.
+     * 
+     * @param exceptPos a {@link Set}{@code <}{@link Long}{@code >}.
+     *        The young objects at positions in {@code except}
+     *        will not be deleted, all the remaining young
+     *        objects will.
+     * @throws IllegalStateException if this heap is not 
+     *         generational.
+     */
+    void disposeYoungExcept(Set<Long> exceptPos) {
+        if (!this.generational) {
+            throw new IllegalStateException("Cannot collect the young generation of a nongenerational heap.");
+        }
+        for (long pos : this.young.keys()) {
             if (exceptPos.contains(pos)) {
                 continue;
             }
-            this.objects.put(pos, null);
+            uncount(pos, this.objects.get(pos));
+            this.objects = this.objects.remove(pos, this.edit);
         }
+        resetGenerations();
+    }
+    
+    /**
+     * Makes this heap generational, i.e., makes it 
+     * track the young and dirty objects from now on.
+     */
+    void setGenerational() {
+        this.generational = true;
+    }
+    
+    /**
+     * Checks whether this heap is generational.
+     * 
+     * @return {@code true} iff this heap tracks the young 
+     *         and dirty objects.
+     */
+    boolean isGenerational() {
+        return this.generational;
+    }
+    
+    /**
+     * Checks whether an object is young, i.e., whether it was
+     * allocated after the last collection. 
+     * 
+     * @param pos a {@code long}, the position of an object.
+     * @return {@code true} iff this heap is generational and
+     *         the object at position {@code pos} is young.
+     */
+    boolean isYoung(long pos) {
+        return this.young.containsKey(pos);
+    }
+    
+    /**
+     * Returns the positions of the dirty objects, i.e., of the 
+     * objects that are not young and that were handed out 
+     * since the last collection.
+     * 
+     * @return a {@code long[]}.
+     */
+    long[] getDirty() {
+        return this.dirty.keys();
+    }
+    
+    private void resetGenerations() {
+        this.young = PersistentLongMap.empty();
+        this.dirty = PersistentLongMap.empty();
     }
 
     Heap lazyClone() {
@@ -211,8 +442,14 @@ final class Heap implements Cloneable {
             throw new InternalError(e);
         }
 
-        h.delegate = this;
-        h.objects = new TreeMap<>();
+        //from now on the objects are shared, so 
+        //neither heap may update them in place
+        this.edit = new Object();
+        h.edit = new Object();
+        h.inherited = this.objects;
+        h.handedOut = (BitSet) this.handedOut.clone();
+        h.updateFootprint();
+        h.footprintBytesAtClone = h.footprintBytes;
         
         return h;
     }
@@ -222,7 +459,7 @@ final class Heap implements Cloneable {
         final StringBuilder buf = new StringBuilder();
         buf.append("[");
         boolean isFirst = true;
-        for (long pos : filledPositions()) {
+        for (long pos : this.objects.keys()) {
             if (isFirst) {
                 isFirst = false;
             } else {
@@ -245,13 +482,19 @@ final class Heap implements Cloneable {
             throw new InternalError(e);
         }
 
-        h.delegate = null;
-        final TreeMap<Long, HeapObjekt> objectsClone = new TreeMap<>();
-        for (long pos : filledPositions()) {
-            objectsClone.put(pos, getTheRealThing(pos).clone());
+        //the generations are shared, so neither
+        //heap may update them in place
+        this.edit = new Object();
+        h.edit = new Object();
+        h.inherited = PersistentLongMap.empty();
+        PersistentLongMap<HeapObjekt> objectsClone = PersistentLongMap.empty();
+        for (long pos : this.objects.keys()) {
+            objectsClone = objectsClone.put(pos, getTheRealThing(this.objects.get(pos)).clone(), h.edit);
         }
         h.objects = objectsClone;
+        h.handedOut = (BitSet) this.handedOut.clone();
+        h.updateFootprint();
         
         return h;
     }
-}
\ No newline at end of file
+}
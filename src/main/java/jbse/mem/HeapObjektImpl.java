@@ -10,6 +10,8 @@ import jbse.val.ReferenceSymbolic;
  * Base class for all classes that implement {@link HeapObjekt}s.
  */
 public abstract class HeapObjektImpl extends ObjektImpl implements HeapObjekt {
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructor.
      * 
@@ -6,6 +6,8 @@ import jbse.common.exc.InvalidInputException;
  * Abstract superclass of all the wrapper classes for objects that go in the heap.
  */
 abstract class HeapObjektWrapper<T extends HeapObjektImpl> extends ObjektWrapper<T> implements HeapObjekt {
+	private static final long serialVersionUID = 1L;
+
 	private final Heap destinationHeap;
 	private final long destinationPosition;
 	
@@ -14,6 +14,8 @@ import jbse.val.exc.InvalidTypeException;
  * Abstract superclass for the implementation of all kind of {@link Instance}s.
  */
 public abstract class InstanceImpl extends HeapObjektImpl implements Instance {
+	private static final long serialVersionUID = 1L;
+
 	private boolean initial;
 	
     /**
@@ -67,7 +69,7 @@ public abstract class InstanceImpl extends HeapObjektImpl implements Instance {
         buf.append(this.classFile);
         buf.append(", Fields:{");
         boolean isFirst = true;
-        for (Map.Entry<Signature, Variable> e : this.fields.entrySet()) {
+        for (Map.Entry<Signature, Variable> e : fields().entrySet()) {
             if (isFirst) {
                 isFirst = false;
             } else {
@@ -82,7 +84,7 @@ public abstract class InstanceImpl extends HeapObjektImpl implements Instance {
     @Override
     public InstanceImpl clone() {
         final InstanceImpl o = (InstanceImpl) super.clone();
-        o.fields = fieldsDeepCopy();
+        o.fields = fieldsCopy();
         
         return o;
     }
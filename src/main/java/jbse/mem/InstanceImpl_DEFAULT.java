@@ -12,6 +12,8 @@ import jbse.val.exc.InvalidTypeException;
  * special treatment.
  */
 public final class InstanceImpl_DEFAULT extends InstanceImpl {
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructor.
      * 
@@ -45,7 +47,7 @@ public final class InstanceImpl_DEFAULT extends InstanceImpl {
     @Override
     public InstanceImpl_DEFAULT clone() {
         final InstanceImpl_DEFAULT o = (InstanceImpl_DEFAULT) super.clone();
-        o.fields = fieldsDeepCopy();
+        o.fields = fieldsCopy();
         
         return o;
     }
@@ -12,6 +12,8 @@ import jbse.val.exc.InvalidTypeException;
  * Class that implements {@link Instance_JAVA_CLASSLOADER}. 
  */
 public final class InstanceImpl_JAVA_CLASSLOADER extends InstanceImpl implements Instance_JAVA_CLASSLOADER {
+    private static final long serialVersionUID = 1L;
+
     /** The identifier of this classloader. It must be >= 1. */
     private final int classLoaderIdentifier;
     
@@ -12,6 +12,8 @@ import jbse.val.exc.InvalidTypeException;
  * Class that implements {@link Instance_JAVA_THREAD}. 
  */
 public final class InstanceImpl_JAVA_THREAD extends InstanceImpl implements Instance_JAVA_THREAD {
+    private static final long serialVersionUID = 1L;
+
     /** The interruption state of the thread. */
     private boolean interrupted;
     
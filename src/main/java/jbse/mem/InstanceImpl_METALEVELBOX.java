@@ -25,6 +25,8 @@ import jbse.val.exc.InvalidTypeException;
  * Class that implements {@link Instance_METALEVELBOX}. 
  */
 public final class InstanceImpl_METALEVELBOX extends InstanceImpl implements Instance_METALEVELBOX {
+	private static final long serialVersionUID = 1L;
+
 	/** The encapsulated object. */
 	private final Object it;
 
@@ -352,6 +354,12 @@ public final class InstanceImpl_METALEVELBOX extends InstanceImpl implements Ins
 			throw new MethodNotFoundException(methodSignature.toString());
 		}
 
+		@Override
+		public int getMaxStack(Signature methodSignature)
+		throws MethodNotFoundException, MethodCodeNotFoundException {
+			throw new MethodNotFoundException(methodSignature.toString());
+		}
+
 		@Override
 		public int getCodeLength(Signature methodSignature)
 		throws MethodNotFoundException, MethodCodeNotFoundException {
@@ -4,6 +4,8 @@ package jbse.mem;
  * Abstract superclass of all the wrapper classes for instances.
  */
 abstract class InstanceWrapper<T extends InstanceImpl> extends HeapObjektWrapper<T> implements Instance {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Constructor.
 	 * 
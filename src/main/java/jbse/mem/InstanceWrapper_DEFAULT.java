@@ -9,6 +9,8 @@ import jbse.val.ReferenceSymbolic;
  * copy-on-write.
  */
 final class InstanceWrapper_DEFAULT extends InstanceWrapper<InstanceImpl_DEFAULT> implements Instance {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Constructor.
 	 * 
@@ -11,6 +11,8 @@ import jbse.val.ReferenceSymbolic;
  * in the heap, implementing copy-on-write.
  */
 final class InstanceWrapper_JAVA_CLASS extends InstanceWrapper<InstanceImpl_JAVA_CLASS> implements Instance_JAVA_CLASS {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Constructor.
 	 * 
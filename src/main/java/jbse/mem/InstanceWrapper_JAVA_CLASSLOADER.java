@@ -9,6 +9,8 @@ import jbse.val.ReferenceSymbolic;
  * or subclass in the heap, implementing copy-on-write.
  */
 final class InstanceWrapper_JAVA_CLASSLOADER extends InstanceWrapper<InstanceImpl_JAVA_CLASSLOADER> implements Instance_JAVA_CLASSLOADER {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * Constructor.
 	 * 
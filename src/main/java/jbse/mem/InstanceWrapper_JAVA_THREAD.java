@@ -10,6 +10,8 @@ import jbse.val.ReferenceSymbolic;
  * or subclass in the heap, implementing copy-on-write.
  */
 final class InstanceWrapper_JAVA_THREAD extends InstanceWrapper<InstanceImpl_JAVA_THREAD> implements Instance_JAVA_THREAD {
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructor.
      * 
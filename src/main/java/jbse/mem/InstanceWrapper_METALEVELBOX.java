@@ -9,6 +9,8 @@ import jbse.val.ReferenceSymbolic;
  * in the heap, implementing copy-on-write.
  */
 final class InstanceWrapper_METALEVELBOX extends InstanceWrapper<InstanceImpl_METALEVELBOX> implements Instance_METALEVELBOX {
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructor.
      * 
@@ -11,6 +11,8 @@ import jbse.val.KlassPseudoReference;
  * in the static method area, i.e., its static fields.
  */
 public final class KlassImpl extends ObjektImpl implements Klass {
+    private static final long serialVersionUID = 1L;
+
     private boolean initializationStarted;
     private boolean initializationCompleted;
 
@@ -62,7 +64,7 @@ public final class KlassImpl extends ObjektImpl implements Klass {
     @Override
     public KlassImpl clone() {
         final KlassImpl o = (KlassImpl) super.clone();
-        o.fields = fieldsDeepCopy();
+        o.fields = fieldsCopy();
 
         return o;
     }
@@ -12,6 +12,8 @@ import java.util.Collection;
  * Abstract superclass of all the wrapper classes for objects that go in the heap.
  */
 final class KlassWrapper extends ObjektWrapper<KlassImpl> implements Klass {
+	private static final long serialVersionUID = 1L;
+
 	private final StaticMethodArea destinationStaticArea;
 	private final ClassFile classFile;
 	
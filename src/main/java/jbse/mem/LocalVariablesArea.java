@@ -13,9 +13,11 @@ import static jbse.common.Type.REFERENCE;
 import static jbse.common.Type.TYPEEND;
 import static jbse.common.Type.UNKNOWN;
 
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import jbse.bc.LocalVariableTable;
 import jbse.bc.LocalVariableTable.Row;
@@ -24,14 +26,22 @@ import jbse.val.DefaultValue;
 import jbse.val.Value;
 
 /**
- * Class representing a local variable memory area.
+ * Class representing a local variable memory area. The values
+ * are stored in an array with as many elements as the slots 
+ * of the method's local variable table.
  */
-class LocalVariablesArea implements Cloneable {
+class LocalVariablesArea implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
+
     /** The local variable table for the method. */
     private final LocalVariableTable lvt;
 
-    /** Values in the memory area, accessible by slot. */
-    private TreeMap<Integer, Value> values = new TreeMap<>();
+    /** 
+     * Values in the memory area, accessible by slot; 
+     * {@code null} for the slots not written. Not final
+     * because of clone().
+     */
+    private Value[] values;
 
     /**
      * Constructor.
@@ -40,6 +50,7 @@ class LocalVariablesArea implements Cloneable {
      */
     LocalVariablesArea(LocalVariableTable lvt) {
         this.lvt = lvt;
+        this.values = new Value[lvt.getSlots()];
         //initializes all the local variables by using args
         //until exhaustion, then DefaultValue
     }
@@ -94,11 +105,11 @@ class LocalVariablesArea implements Cloneable {
         }
 
         if (nslots == 2) {
-            this.values.remove(slot + 1);
+            this.values[slot + 1] = null;
         }
 
         //stores val at slot
-        this.values.put(slot, val);
+        this.values[slot] = val;
     }
     
     private static final String REFERENCE_JAVA_OBJECT       = "" + REFERENCE + JAVA_OBJECT + TYPEEND;
@@ -146,7 +157,7 @@ class LocalVariablesArea implements Cloneable {
      * @throws InvalidSlotException if {@code slot} is not a valid slot number.
      */
     Value get(int slot) throws InvalidSlotException {
-        Value retVal = this.values.get(slot);
+        final Value retVal = (slot < 0 || slot >= this.values.length ? null : this.values[slot]);
 
         //the next case denotes, e.g., we wrote a cat2 value at slot x
         //and we try to read at slot x+1. 
@@ -173,14 +184,89 @@ class LocalVariablesArea implements Cloneable {
     }
 
     /**
-     * Returns all the slots of the local variable area.
+     * Returns the value of a local variable.
      * 
-     * @return a {@link Set}{@code <}{@link Integer}{@code >} 
-     *         containing all the valid slot numbers of this local variable
-     *         area.
+     * @param name a {@link String}, the name of the local variable
+     *        as from the debug information, or {@code __LOCAL[slot]}
+     *        if there is none (see {@link #buildLocalVariable(int, int)}).
+     * @param currentProgramCounter the current program counter.
+     * @return a {@link Value}, the one stored in the local variable, 
+     *         or {@code null} if no written slot has that name.
      */
-    Set<Integer> slots() {
-        return this.values.keySet();
+    Value get(String name, int currentProgramCounter) {
+        for (int slot = 0; slot < this.values.length; ++slot) {
+            if (this.values[slot] == null) {
+                continue;
+            }
+            final LocalVariableTable.Row r = this.lvt.row(slot, currentProgramCounter);
+            if (r == null ? name.equals("__LOCAL[" + slot + "]") : name.equals(r.name)) {
+                return this.values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a slot was written.
+     * 
+     * @param slot an {@code int}.
+     * @return {@code true} iff {@code slot} is a valid slot 
+     *         number of this local variable area.
+     */
+    boolean isWritten(int slot) {
+        return (slot >= 0 && slot < this.values.length && this.values[slot] != null);
+    }
+
+    /**
+     * Returns an unmodifiable view of the values in the 
+     * local variable area.
+     * 
+     * @return a {@link Collection}{@code <}{@link Value}{@code >}
+     *         that iterates the values of the written slots 
+     *         by increasing slot number.
+     */
+    Collection<Value> values() {
+        return new AbstractCollection<Value>() {
+            @Override
+            public Iterator<Value> iterator() {
+                return new Iterator<Value>() {
+                    private int next = skip(0);
+
+                    private int skip(int slot) {
+                        while (slot < LocalVariablesArea.this.values.length && LocalVariablesArea.this.values[slot] == null) {
+                            ++slot;
+                        }
+                        return slot;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.next < LocalVariablesArea.this.values.length;
+                    }
+
+                    @Override
+                    public Value next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Value retVal = LocalVariablesArea.this.values[this.next];
+                        this.next = skip(this.next + 1);
+                        return retVal;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int retVal = 0;
+                for (Value value : LocalVariablesArea.this.values) {
+                    if (value != null) {
+                        ++retVal;
+                    }
+                }
+                return retVal;
+            }
+        };
     }
 
     /**
@@ -222,6 +308,16 @@ class LocalVariablesArea implements Cloneable {
         }
         return retVal;
     }
+    
+    /**
+     * Returns the number of slots of this local 
+     * variables area.
+     * 
+     * @return a nonnegative {@code int}.
+     */
+    int numOfSlots() {
+        return this.values.length;
+    }
 
     @Override
     public LocalVariablesArea clone() {
@@ -232,8 +328,7 @@ class LocalVariablesArea implements Cloneable {
             throw new InternalError(e);
         }
 
-        final TreeMap<Integer, Value> valuesCopy = new TreeMap<>(this.values);        
-        o.values = valuesCopy;
+        o.values = this.values.clone();
         return o;
     }
 
@@ -241,15 +336,19 @@ class LocalVariablesArea implements Cloneable {
     public String toString() {
         final StringBuilder buf = new StringBuilder();
         buf.append("[");
-        int j = 0;
-        for (Map.Entry<Integer, Value> e : this.values.entrySet()) {
-            buf.append(e.getKey());
-            buf.append(":");
-            buf.append(e.getValue());
-            if (j < this.values.size() - 1) {
+        boolean isFirst = true;
+        for (int slot = 0; slot < this.values.length; ++slot) {
+            if (this.values[slot] == null) {
+                continue;
+            }
+            if (isFirst) {
+                isFirst = false;
+            } else {
                 buf.append(", ");
             }
-            ++j;
+            buf.append(slot);
+            buf.append(":");
+            buf.append(this.values[slot]);
         }
         buf.append("]");
         return buf.toString();
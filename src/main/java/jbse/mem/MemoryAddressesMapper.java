@@ -2,6 +2,7 @@ package jbse.mem;
 
 import static jbse.common.Util.unsafe;
 
+import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.HashMap;
@@ -18,7 +19,9 @@ import jbse.common.exc.UnexpectedInternalException;
  * @author Pietro Braione
  *
  */
-final class MemoryAddressesMapper implements Cloneable {
+final class MemoryAddressesMapper implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
+
     /**
      * Class that stores the information about a raw memory
      * block allocated to support {@link sun.misc.Unsafe}
@@ -26,7 +29,9 @@ final class MemoryAddressesMapper implements Cloneable {
      * 
      * @author Pietro Braione
      */
-	private static final class MemoryBlock {
+	private static final class MemoryBlock implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         /** The base address of the memory block. */
         final long address;
         
@@ -46,7 +51,9 @@ final class MemoryAddressesMapper implements Cloneable {
      * 
      * @author Pietro Braione
      */
-    private static final class ZipFile {
+    private static final class ZipFile implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         /** 
          * The address of a jzfile C data structure for the
          * entry. 
@@ -81,7 +88,9 @@ final class MemoryAddressesMapper implements Cloneable {
      * 
      * @author Pietro Braione
      */
-    private static final class ZipFileEntry {
+    private static final class ZipFileEntry implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         /** 
          * The address of a jzentry C data structure for the
          * entry. 
@@ -104,7 +113,9 @@ final class MemoryAddressesMapper implements Cloneable {
         }
     }
     
-    private static final class Inflater {
+    private static final class Inflater implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         final long address;
         
         final boolean nowrap;
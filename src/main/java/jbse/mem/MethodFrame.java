@@ -18,6 +18,8 @@ import jbse.val.Value;
  * Class representing the activation {@link Frame} of a method invocation.
  */
 public final class MethodFrame extends Frame implements Cloneable {
+    private static final long serialVersionUID = 1L;
+
     /** The signature of the frame's method. */
     private final Signature methodSignature;
 
@@ -48,7 +50,7 @@ public final class MethodFrame extends Frame implements Cloneable {
         this.methodSignature = methodSignature;
         this.lnt = classMethodImpl.getLineNumberTable(methodSignature);
         this.localVariables = new LocalVariablesArea(classMethodImpl.getLocalVariableTable(methodSignature));
-        this.operandStack = new OperandStack();
+        this.operandStack = new OperandStack(classMethodImpl.getMaxStack(methodSignature));
     }
 
     @Override
@@ -76,16 +78,23 @@ public final class MethodFrame extends Frame implements Cloneable {
     @Override
     public SortedMap<Integer, Variable> localVariables() {
         final TreeMap<Integer, Variable> retVal = new TreeMap<>();
-        for (int slot : this.localVariables.slots()) {
-            try {
-                retVal.put(slot, this.localVariables.buildLocalVariable(slot, getProgramCounter()));
-            } catch (InvalidSlotException e) {
-                throw new UnexpectedInternalException(e);
+        for (int slot = 0; slot < this.localVariables.numOfSlots(); ++slot) {
+            if (this.localVariables.isWritten(slot)) {
+                try {
+                    retVal.put(slot, this.localVariables.buildLocalVariable(slot, getProgramCounter()));
+                } catch (InvalidSlotException e) {
+                    throw new UnexpectedInternalException(e);
+                }
             }
         }
         return retVal;
     }
 
+    @Override
+    public Collection<Value> localVariableValues() {
+        return this.localVariables.values();
+    }
+
     @Override
     public String getLocalVariableDeclaredName(int slot) {
         return this.localVariables.getLocalVariableDeclaredName(slot, getProgramCounter());
@@ -98,12 +107,7 @@ public final class MethodFrame extends Frame implements Cloneable {
 
     @Override
     public Value getLocalVariableValue(String name) {
-        for (Variable v : localVariables().values()) {
-            if (v.getName().equals(name)) {
-                return v.getValue();
-            }
-        }
-        return null;
+        return this.localVariables.get(name, getProgramCounter());
     }
 
     @Override
@@ -132,11 +136,21 @@ public final class MethodFrame extends Frame implements Cloneable {
         return this.operandStack.top();
     }
 
+    @Override
+    public Value operand(int depth) throws InvalidNumberOfOperandsException {
+        return this.operandStack.operand(depth);
+    }
+
     @Override
     public Value[] operands(int num) throws InvalidNumberOfOperandsException {
         return this.operandStack.operands(num);
     }
 
+    @Override
+    public Value[] operands(int num, Value[] buffer) throws InvalidNumberOfOperandsException {
+        return this.operandStack.operands(num, buffer);
+    }
+
     @Override
     public void clear() {
         this.operandStack.clear();
@@ -147,6 +161,11 @@ public final class MethodFrame extends Frame implements Cloneable {
         this.localVariables.setArgs(args);
     }
 
+    @Override
+    long footprint() {
+        return super.footprint() + StateFootprint.SLOT_BYTES * (this.localVariables.numOfSlots() + this.operandStack.capacity());
+    }
+
     @Override
     public MethodFrame clone() {
         final MethodFrame o = (MethodFrame) super.clone();
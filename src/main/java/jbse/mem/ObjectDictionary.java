@@ -1,5 +1,6 @@
 package jbse.mem;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -12,13 +13,17 @@ import jbse.bc.ClassFile;
 import jbse.common.exc.InvalidInputException;
 import jbse.val.ReferenceConcrete;
 
-final class ObjectDictionary implements Cloneable {
+final class ObjectDictionary implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
+
     /**
      * Class used as key for the method handles cache.
      * 
      * @author Pietro Braione
      */
-    private static final class MHKey {
+    private static final class MHKey implements Serializable {
+    	private static final long serialVersionUID = 1L;
+
     	private final int refKind; 
     	private final ClassFile container;
     	private final List<ClassFile> descriptorResolved;
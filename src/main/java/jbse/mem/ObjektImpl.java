@@ -1,11 +1,15 @@
 package jbse.mem;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import jbse.bc.ClassFile;
 import jbse.bc.Signature;
@@ -20,6 +24,8 @@ import jbse.val.Value;
  * Base class for all classes that implement {@link Objekt}s.
  */
 public abstract class ObjektImpl implements Objekt {
+    private static final long serialVersionUID = 1L;
+
     /** ClassFile for this object's class. Immutable. */
     protected final ClassFile classFile;
 
@@ -52,6 +58,12 @@ public abstract class ObjektImpl implements Objekt {
      * the field's offset number, as used by sun.misc.Unsafe 
      * methods. Immutable. */
     private final List<Signature> fieldSignatures;
+    
+    /** 
+     * The layout of the stored fields, shared with all the
+     * objects of the same class. Immutable. 
+     */
+    private final FieldLayout layout;
 
     /** 
      * The identity hash code of this {@link ObjektImpl}. Mutable only
@@ -61,13 +73,11 @@ public abstract class ObjektImpl implements Objekt {
     private Primitive identityHashCode;
 
     /** 
-     * The fields as a map of signatures (as strings) to variables.
-     * Immutable for arrays, but mutable otherwise (the map
-     * is by itself immutable but the stored Variables may be 
-     * mutable). 
+     * The values of the stored fields, indexed by their
+     * slot in {@link #layout}. Shared by the clones of
+     * arrays, where it is immutable, but mutable otherwise. 
      */
-    protected HashMap<Signature, Variable> fields;
-    //TODO once fields was a map from String (the signature toString()) to variables; in old comment it was said it was necessary because type erasure didn't play well. Investigate whether the issue still holds.
+    protected Value[] fields;
     
     /**
      * Constructor.
@@ -92,17 +102,13 @@ public abstract class ObjektImpl implements Objekt {
     protected ObjektImpl(Calculator calc, boolean symbolic, ClassFile classFile, ReferenceSymbolic origin, HistoryPoint epoch, boolean staticFields, int numOfStaticFields, Signature... fieldSignatures) {
     	//TODO (null-)check parameters, throw exceptions
         this.symbolic = symbolic;
-        this.fields = new HashMap<>();
         this.staticFields = staticFields;
         this.numOfStaticFields = numOfStaticFields;
-        this.fieldSignatures = Arrays.asList(fieldSignatures.clone()); //safety copy
-        int curSlot = 0;
-        for (Signature fieldSignature : this.fieldSignatures) {
-            if ((staticFields && curSlot < numOfStaticFields) ||
-                (!staticFields && curSlot >= numOfStaticFields)) {
-                this.fields.put(fieldSignature, new Variable(calc, fieldSignature.getDescriptor(), fieldSignature.getName()));
-            }
-            ++curSlot;
+        this.layout = FieldLayout.of(classFile, staticFields, numOfStaticFields, fieldSignatures);
+        this.fieldSignatures = Collections.unmodifiableList(Arrays.asList(this.layout.fieldSignatures));
+        this.fields = new Value[this.layout.numStored];
+        for (int slot = 0; slot < this.fields.length; ++slot) {
+            this.fields[slot] = calc.valDefault(this.layout.signature(slot).getDescriptor().charAt(0));
         }
         this.classFile = classFile;
         this.origin = origin;
@@ -181,11 +187,8 @@ public abstract class ObjektImpl implements Objekt {
 
     @Override
     public final Value getFieldValue(Signature sig) {
-        try {
-            return this.fields.get(sig).getValue();
-        } catch (Exception e) {
-            return null;
-        }
+        final int slot = this.layout.slot(sig);
+        return (slot < 0 ? null : this.fields[slot]);
     }
 
     @Override
@@ -200,16 +203,17 @@ public abstract class ObjektImpl implements Objekt {
 
     @Override
     public final Value getFieldValue(int ofst) {
-        try {
-            return getFieldValue(this.fieldSignatures.get(ofstToPos(ofst)));
-        } catch (IndexOutOfBoundsException e) {
-            return null;
-        }
+        final int slot = ofstToPos(ofst) - this.layout.firstStored;
+        return (0 <= slot && slot < this.fields.length ? this.fields[slot] : null);
     }
 
     @Override
     public final void setFieldValue(Signature field, Value item) {
-        this.fields.get(field).setValue(item);
+        final int slot = this.layout.slot(field);
+        if (slot < 0) {
+            throw new NullPointerException("Field " + field + " is not stored in this object.");
+        }
+        this.fields[slot] = item;
     }
 
     @Override
@@ -219,16 +223,115 @@ public abstract class ObjektImpl implements Objekt {
 
     @Override
     public final Map<Signature, Variable> fields() {
-        return Collections.unmodifiableMap(this.fields);
+        return new FieldsView();
     }
 
-    protected final HashMap<Signature, Variable> fieldsDeepCopy() {
-        final HashMap<Signature, Variable> retVal = new HashMap<>();
-        for (Signature key : this.fields.keySet()) {
-            final Variable variableClone = this.fields.get(key).clone();
-            retVal.put(key, variableClone);
+    protected final Value[] fieldsCopy() {
+        return this.fields.clone();
+    }
+    
+    /**
+     * Returns an estimate of the memory occupied by this object.
+     * 
+     * @return a {@code long}, in bytes.
+     * @see StateFootprint
+     */
+    long footprint() {
+        return StateFootprint.OBJEKT_BYTES + StateFootprint.SLOT_BYTES * this.fields.length;
+    }
+    
+    /**
+     * A {@link Variable} that is a view of a field of this
+     * object, i.e., it reads and writes the field's slot.
+     */
+    private final class FieldVariable extends Variable {
+        private static final long serialVersionUID = 1L;
+
+        private final int slot;
+        
+        FieldVariable(int slot) {
+            super(ObjektImpl.this.layout.signature(slot).getDescriptor(), ObjektImpl.this.layout.signature(slot).getName(), null);
+            this.slot = slot;
+        }
+        
+        @Override
+        public Value getValue() {
+            return ObjektImpl.this.fields[this.slot];
+        }
+        
+        @Override
+        public void setValue(Value value) {
+            ObjektImpl.this.fields[this.slot] = value;
+        }
+        
+        @Override
+        public Variable clone() {
+            //detaches the clone from this object
+            return new Variable(getType(), getName(), getValue());
+        }
+        
+        @Override
+        public String toString() {
+            final Value value = getValue();
+            final String tmp = (value == null) ? "<UNASSIGNED>" : value.toString();
+            return "[Name:" + getName() + ", Type:" + getType() + ", Value:" + tmp + "]";
+        }
+    }
+    
+    /**
+     * An unmodifiable {@link Map} view of the fields of this 
+     * object, whose {@link Variable}s are views of the fields.
+     */
+    private final class FieldsView extends AbstractMap<Signature, Variable> {
+        @Override
+        public Variable get(Object key) {
+            if (!(key instanceof Signature)) {
+                return null;
+            }
+            final int slot = ObjektImpl.this.layout.slot((Signature) key);
+            return (slot < 0 ? null : new FieldVariable(slot));
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return (key instanceof Signature && ObjektImpl.this.layout.slot((Signature) key) >= 0);
+        }
+        
+        @Override
+        public int size() {
+            return ObjektImpl.this.fields.length;
+        }
+        
+        @Override
+        public Set<Map.Entry<Signature, Variable>> entrySet() {
+            return new AbstractSet<Map.Entry<Signature, Variable>>() {
+                @Override
+                public Iterator<Map.Entry<Signature, Variable>> iterator() {
+                    return new Iterator<Map.Entry<Signature, Variable>>() {
+                        private int next = 0;
+                        
+                        @Override
+                        public boolean hasNext() {
+                            return this.next < ObjektImpl.this.fields.length;
+                        }
+                        
+                        @Override
+                        public Map.Entry<Signature, Variable> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            final int slot = this.next++;
+                            return new AbstractMap.SimpleImmutableEntry<>(ObjektImpl.this.layout.signature(slot), new FieldVariable(slot));
+                        }
+                    };
+                }
+                
+                @Override
+                public int size() {
+                    return ObjektImpl.this.fields.length;
+                }
+            };
         }
-        return retVal;
     }
 
     @Override
@@ -240,7 +343,7 @@ public abstract class ObjektImpl implements Objekt {
         }
         //note that we do not clone this.fields because
         //it is immutable for arrays and mutable for instances
-        //so the two subclasses may either deep-copy it or share;
+        //so the two subclasses may either copy it or share;
         //note also that the clone will have same
         //hash code as the original.
     }
@@ -20,6 +20,8 @@ import jbse.val.Value;
  * @param <T> the type of the wrapped {@link ObjektImpl}.
  */
 abstract class ObjektWrapper<T extends ObjektImpl> implements Objekt {
+	private static final long serialVersionUID = 1L;
+
 	private T delegate;
 	private boolean isDelegateAClone;
 
@@ -1,26 +1,55 @@
 package jbse.mem;
 
-import java.util.ArrayDeque;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import jbse.mem.exc.InvalidNumberOfOperandsException;
 import jbse.val.Value;
 
 /**
- * Class that represent the JVM's operand stack.
+ * Class that represent the JVM's operand stack. The values 
+ * are stored in an array that is sized after the maximum
+ * depth of the operand stack of the method, and that 
+ * grows only if the maximum depth is not known or 
+ * is exceeded.
  */
 //TODO manage stack maps and possibly raise unexpected internal error
-final class OperandStack implements Cloneable {
-    /** Not final because of clone(). */
-    private ArrayDeque<Value> valueStack;
+final class OperandStack implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** The initial capacity when the maximum depth is unknown. */
+    private static final int DEFAULT_CAPACITY = 8;
+    
+    /** 
+     * The values in the operand stack, from the bottom to 
+     * the top. Not final because of clone(). 
+     */
+    private Value[] valueStack;
+    
+    /** The number of values in the operand stack. */
+    private int size;
     
     /**
      * Constructor of empty operand stack.
      * 
      */
     OperandStack() {
-        this.valueStack = new ArrayDeque<Value>();
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructor of empty operand stack.
+     * 
+     * @param maxStack an {@code int}, the maximum depth
+     *        of the operand stack.
+     */
+    OperandStack(int maxStack) {
+        this.valueStack = new Value[Math.max(maxStack, 1)];
+        this.size = 0;
     }
     
     /**
@@ -29,7 +58,10 @@ final class OperandStack implements Cloneable {
      *             of the operand stack.
      */
     void push(Value item) {
-        this.valueStack.push(item);
+        if (this.size == this.valueStack.length) {
+            this.valueStack = Arrays.copyOf(this.valueStack, 2 * this.size);
+        }
+        this.valueStack[this.size++] = item;
     }
     
     /**
@@ -39,10 +71,12 @@ final class OperandStack implements Cloneable {
      * @throws InvalidNumberOfOperandsException if the operand stack is empty.
      */
     Value pop() throws InvalidNumberOfOperandsException {
-    	if (this.valueStack.isEmpty()) {
+    	if (this.size == 0) {
     		throw new InvalidNumberOfOperandsException();
     	}
-    	return this.valueStack.pop();
+    	final Value retVal = this.valueStack[--this.size];
+    	this.valueStack[this.size] = null;
+    	return retVal;
     }
 
     /**
@@ -54,12 +88,11 @@ final class OperandStack implements Cloneable {
      *         if {@code num} is negative.
      */
     void pop(int num) throws InvalidNumberOfOperandsException {
-        if (num < 0 || this.valueStack.size() < num) {
+        if (num < 0 || this.size < num) {
             throw new InvalidNumberOfOperandsException();
         }
-        for (int i = 1; i <= num; ++i) {
-            this.valueStack.pop();
-        }
+        Arrays.fill(this.valueStack, this.size - num, this.size, null);
+        this.size -= num;
     }
     
     /**
@@ -69,10 +102,27 @@ final class OperandStack implements Cloneable {
      * @throws InvalidNumberOfOperandsException if the operand stack is empty.
      */
     Value top() throws InvalidNumberOfOperandsException {
-    	if (this.valueStack.isEmpty()) {
+    	if (this.size == 0) {
     		throw new InvalidNumberOfOperandsException();
     	}
-        return(this.valueStack.peek());
+        return this.valueStack[this.size - 1];
+    }
+
+    /**
+     * Returns an element without removing it.
+     * 
+     * @param depth a nonnegative {@code int}, the depth of the 
+     *        element: {@code 0} is the topmost one.
+     * @return the {@link Value} at {@code depth}.
+     * @throws InvalidNumberOfOperandsException if the operand stack 
+     *         does not contain at least {@code depth + 1} elements, 
+     *         or if {@code depth} is negative. 
+     */
+    Value operand(int depth) throws InvalidNumberOfOperandsException {
+        if (depth < 0 || this.size <= depth) {
+            throw new InvalidNumberOfOperandsException();
+        }
+        return this.valueStack[this.size - 1 - depth];
     }
 
     /**
@@ -88,27 +138,74 @@ final class OperandStack implements Cloneable {
      *         or if {@code num} is negative. 
      */
     Value[] operands(int num) throws InvalidNumberOfOperandsException {
-        if (num < 0 || this.valueStack.size() < num) {
+        return operands(num, null);
+    }
+
+    /**
+     * Returns the topmost {@code num} elements without removing them,
+     * possibly reusing an array.
+     * 
+     * @param num a nonnegative {@code int}.
+     * @param buffer a {@link Value}{@code []}; if its length is 
+     *        {@code num} the elements are copied into it, otherwise 
+     *        a new array is allocated. It can be {@code null}.
+     * @return a {@link Value}{@code []}, either {@code buffer} or
+     *         a new array, containing the first {@code num}
+     *         elements of the operand stack in reverse depth order 
+     *         (the topmost value in the operand stack will be the last
+     *         value in the return value).
+     * @throws InvalidNumberOfOperandsException if the operand stack 
+     *         does not contain at least {@code num} elements, 
+     *         or if {@code num} is negative. 
+     */
+    Value[] operands(int num, Value[] buffer) throws InvalidNumberOfOperandsException {
+        if (num < 0 || this.size < num) {
             throw new InvalidNumberOfOperandsException();
         }
-        final Value[] retVal = new Value[num];
-        int i = num - 1;
-        for (Value v : this.valueStack) {
-            if (i < 0) {
-                break;
-            }
-            retVal[i] = v;
-            --i;
-        }
+        final Value[] retVal = (buffer != null && buffer.length == num ? buffer : new Value[num]);
+        System.arraycopy(this.valueStack, this.size - num, retVal, 0, num);
         return retVal;
     }
     
     void clear() {
-    	this.valueStack.clear();
+        Arrays.fill(this.valueStack, 0, this.size, null);
+        this.size = 0;
     }
     
+    /**
+     * Returns an unmodifiable view of the operand stack.
+     * 
+     * @return a {@link Collection}{@code <}{@link Value}{@code >}
+     *         that iterates the values from the top to the bottom
+     *         of the operand stack.
+     */
     Collection<Value> values() {
-    	return Collections.unmodifiableCollection(this.valueStack);
+    	return new AbstractCollection<Value>() {
+            @Override
+            public Iterator<Value> iterator() {
+                return new Iterator<Value>() {
+                    private int next = OperandStack.this.size - 1;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.next >= 0;
+                    }
+
+                    @Override
+                    public Value next() {
+                        if (this.next < 0) {
+                            throw new NoSuchElementException();
+                        }
+                        return OperandStack.this.valueStack[this.next--];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return OperandStack.this.size;
+            }
+        };
     }
     
     /**
@@ -118,18 +215,28 @@ final class OperandStack implements Cloneable {
         final StringBuilder buf = new StringBuilder();
         buf.append("{");
         boolean isFirst = true;
-        for (Value v : this.valueStack) {
+        for (int i = this.size - 1; i >= 0; --i) {
             if (isFirst) {
                 isFirst = false;
             } else {
                 buf.append(", ");
             }
-            buf.append(v.toString());
+            buf.append(this.valueStack[i].toString());
         }
         buf.append("}");
         return buf.toString();
     }
     
+    /**
+     * Returns the number of slots this operand stack
+     * can store without growing.
+     * 
+     * @return a positive {@code int}.
+     */
+    int capacity() {
+        return this.valueStack.length;
+    }
+    
     @Override
     public OperandStack clone() {
         final OperandStack o;
@@ -138,9 +245,7 @@ final class OperandStack implements Cloneable {
         } catch (CloneNotSupportedException e) {
             throw new InternalError(e);
         }        
-        o.valueStack = new ArrayDeque<Value>(this.valueStack);
+        o.valueStack = this.valueStack.clone();
         return o;
     }
 }
-
-
@@ -1,13 +1,14 @@
 package jbse.mem;
 
-import java.util.ArrayList;
+import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 
 import jbse.bc.ClassFile;
+import jbse.common.PersistentHashMap;
+import jbse.common.PersistentLongMap;
 import jbse.common.exc.InvalidInputException;
 import jbse.mem.exc.ContradictionException;
 import jbse.val.Expression;
@@ -19,30 +20,49 @@ import jbse.val.Simplex;
  * A path condition. It retains all the clauses gathered at the 
  * different branch points traversed during execution as a 
  * suitable {@link Collection}{@code <}{@link Clause}{@code >}. 
+ * The clauses and the caches are stored in persistent maps, so
+ * a clone shares them with the path condition it is cloned from
+ * and only stores the clauses added afterwards.
  */
-final class PathCondition implements Cloneable {
-    /** {@link ArrayList} of all the {@link Clause}s forming the path condition. */
-    private ArrayList<Clause> clauses;
+final class PathCondition implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** 
+     * All the {@link Clause}s forming the path condition, 
+     * indexed by their position. Not final because of clone().
+     */
+    private PersistentLongMap<Clause> clauses;
+
+    /** 
+     * The edit token for appending clauses in place, dropped
+     * upon cloning. Not final because of clone().
+     */
+    private Object edit;
 
     /** 
      * Maps symbolic references to their respective heap positions.
      * It is just a cache of information already contained in {@code clauses}.
      */
-    private HashMap<ReferenceSymbolic, Long> referenceResolutionMap;
+    private PersistentHashMap<ReferenceSymbolic, Long> referenceResolutionMap;
 
     /**
      * Maps each class with the number of assumed objects in it. 
      * It is just a cache of information already contained in {@code clauses}.
      */
-    private HashMap<String, Integer> objectCounters;
+    private PersistentHashMap<String, Integer> objectCounters;
 
     /**
      * Constructor.
      */
     PathCondition() {
-        this.clauses = new ArrayList<>();
-        this.referenceResolutionMap = new HashMap<>();
-        this.objectCounters = new HashMap<>();
+        this.clauses = PersistentLongMap.empty();
+        this.edit = new Object();
+        this.referenceResolutionMap = PersistentHashMap.empty();
+        this.objectCounters = PersistentHashMap.empty();
+    }
+    
+    private void add(Clause clause) {
+        this.clauses = this.clauses.put(this.clauses.size(), clause, this.edit);
     }
 
     /**
@@ -65,7 +85,7 @@ final class PathCondition implements Cloneable {
     	if (condition.surelyFalse()) {
     		throw new ContradictionException("Attempted to invoke " + getClass().getName() + ".addClauseAssume with a surely false condition.");
     	}
-        this.clauses.add(clause);
+        add(clause);
     }
 
     /**
@@ -95,15 +115,12 @@ final class PathCondition implements Cloneable {
         		throw new ContradictionException("Attempted to invoke " + getClass().getName() + ".addClauseAssumeExpands with an referenceSymbolic resolved to a heap position different to " + heapPosition + ".");
         	}
         }
-        this.clauses.add(clause);
-        this.referenceResolutionMap.put(referenceSymbolic, heapPosition);
+        add(clause);
+        this.referenceResolutionMap = this.referenceResolutionMap.put(referenceSymbolic, heapPosition);
 
         //increments objectCounters
-        if (!this.objectCounters.containsKey(object.getType().getClassName())) {
-            this.objectCounters.put(object.getType().getClassName(), 0);
-        }
-        final int nobjects = this.objectCounters.get(object.getType().getClassName());
-        this.objectCounters.put(object.getType().getClassName(), nobjects + 1);
+        final String className = object.getType().getClassName();
+        this.objectCounters = this.objectCounters.put(className, getNumAssumed(className) + 1);
     }
 
     /**
@@ -133,8 +150,8 @@ final class PathCondition implements Cloneable {
         		throw new ContradictionException("Attempted to invoke " + getClass().getName() + ".addClauseAssumeAliases with an referenceSymbolic resolved to a heap position different to " + heapPosition + ".");
         	}
         }
-        this.clauses.add(clause);
-        this.referenceResolutionMap.put(referenceSymbolic, heapPosition);
+        add(clause);
+        this.referenceResolutionMap = this.referenceResolutionMap.put(referenceSymbolic, heapPosition);
     }
 
     /**
@@ -156,8 +173,8 @@ final class PathCondition implements Cloneable {
         		throw new ContradictionException("Attempted to invoke " + getClass().getName() + ".addClauseAssumeNull with a referenceSymbolic that is already resolved but not to null.");
         	}
         }
-        this.clauses.add(clause);
-        this.referenceResolutionMap.put(referenceSymbolic, Util.POS_NULL);
+        add(clause);
+        this.referenceResolutionMap = this.referenceResolutionMap.put(referenceSymbolic, Util.POS_NULL);
     }
 
     /**
@@ -171,7 +188,7 @@ final class PathCondition implements Cloneable {
      * @throws InvalidInputException if {@code classFile == null || klass == null}.
      */
     void addClauseAssumeClassInitialized(ClassFile classFile, Klass klass) throws InvalidInputException {
-        this.clauses.add(new ClauseAssumeClassInitialized(classFile, klass));
+        add(new ClauseAssumeClassInitialized(classFile, klass));
     }
 
     /**
@@ -181,7 +198,7 @@ final class PathCondition implements Cloneable {
      * @param classFile a {@link ClassFile}.
      */
     void addClauseAssumeClassNotInitialized(ClassFile classFile) {
-        this.clauses.add(new ClauseAssumeClassNotInitialized(classFile));
+        add(new ClauseAssumeClassNotInitialized(classFile));
     }
 
     /**
@@ -221,8 +238,8 @@ final class PathCondition implements Cloneable {
      *         {@code pathCondition} returns {@code null}.
      */
     Iterator<Clause> refines(PathCondition pathCondition) {
-        final Iterator<Clause> i = this.clauses.iterator();
-        for (Clause c : pathCondition.clauses) {
+        final Iterator<Clause> i = getClauses().iterator();
+        for (Clause c : pathCondition.getClauses()) {
             if (!i.hasNext()) {
                 return null;
             }
@@ -242,10 +259,8 @@ final class PathCondition implements Cloneable {
      * assumed by this path condition.
      */
     int getNumAssumed(String className) {
-        if (this.objectCounters.containsKey(className)) {
-            return this.objectCounters.get(className);
-        }
-        return 0;
+        final Integer retVal = this.objectCounters.get(className);
+        return (retVal == null ? 0 : retVal.intValue());
     }
 
     /**
@@ -253,17 +268,56 @@ final class PathCondition implements Cloneable {
      *  
      * @return a read-only {@link List}{@code <}{@link Clause}{@code >} 
      * representing all the {@link Clause}s cumulated in {@code this}. 
-     * It is valid until {@code this} is modified.
+     * It is a snapshot, i.e., it does not change when {@code this} 
+     * is modified.
      */
     List<Clause> getClauses() {
-        return Collections.unmodifiableList(this.clauses);
+        return getClauses(0);
+    }
+    
+    /**
+     * Returns the {@link Clause}s of the path condition
+     * starting from a given position, e.g., the clauses 
+     * added after some previous inspection of it.
+     *  
+     * @param fromIndex an {@code int}, the position of the first
+     *        returned clause. It must be between {@code 0} and
+     *        the number of clauses of the path condition.
+     * @return a read-only {@link List}{@code <}{@link Clause}{@code >} 
+     * representing the {@link Clause}s cumulated in {@code this} from 
+     * position {@code fromIndex} on. It is a snapshot, i.e., it does 
+     * not change when {@code this} is modified.
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is not 
+     *         a valid position.
+     */
+    List<Clause> getClauses(int fromIndex) {
+        final PersistentLongMap<Clause> snapshot = this.clauses;
+        if (fromIndex < 0 || fromIndex > snapshot.size()) {
+            throw new IndexOutOfBoundsException("Index: " + fromIndex + ", Size: " + snapshot.size());
+        }
+        //note that the in place appends do not alter the
+        //entries of the snapshot, that are all below its size
+        return new AbstractList<Clause>() {
+            @Override
+            public Clause get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+                }
+                return snapshot.get(fromIndex + index);
+            }
+
+            @Override
+            public int size() {
+                return snapshot.size() - fromIndex;
+            }
+        };
     }
     
     @Override
     public String toString() {
         final StringBuilder buf = new StringBuilder();
         boolean isFirst = true;
-        for (Clause c : this.clauses) {
+        for (Clause c : getClauses()) {
             if (isFirst) {
                 isFirst = false;
             } else {
@@ -289,10 +343,10 @@ final class PathCondition implements Cloneable {
             throw new InternalError(e);
         }
 
-        //does a deep copy
-        o.clauses = new ArrayList<>(this.clauses);
-        o.referenceResolutionMap = new HashMap<>(this.referenceResolutionMap);
-        o.objectCounters = new HashMap<>(this.objectCounters);
+        //the persistent maps are shared, but from now on 
+        //no path condition may append clauses in place
+        this.edit = new Object();
+        o.edit = new Object();
 
         return o;
     }
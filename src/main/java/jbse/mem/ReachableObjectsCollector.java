@@ -3,7 +3,6 @@ package jbse.mem;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
 
 import jbse.bc.ClassFile;
 import jbse.bc.Signature;
@@ -134,9 +133,7 @@ public final class ReachableObjectsCollector {
         //visits the stack
         for (Frame f : s.getStack()) {
             //variables
-            final SortedMap<Integer, Variable> vars = f.localVariables();
-            for (Variable var : vars.values()) {
-                final Value v = var.getValue();
+            for (Value v : f.localVariableValues()) {
                 addIfReference(reachable, s, v);
             }
             
@@ -206,6 +203,143 @@ public final class ReachableObjectsCollector {
         return reachable;
     }
     
+    /**
+     * Returns the heap positions of the young objects, i.e., of the
+     * objects allocated after the last incremental collection, that
+     * are reachable from the roots of a {@link State}. Since the 
+     * objects that are not young are not collected, the only roots
+     * that may refer to young objects are the thread stack, the 
+     * objects in the object dictionary, the path condition clauses
+     * added since the last collection, and the objects and classes
+     * accessed since the last collection.
+     * 
+     * @param s a {@link State}. It must not be {@code null}, and it 
+     *        must track the young objects.
+     * @param fromClause an {@code int}, the number of path condition
+     *        clauses at the last collection.
+     * @return a {@link Set}{@code <}{@link Long}{@code >}
+     *         containing the heap positions of the young objects
+     *         reachable from the collection roots.
+     * @throws FrozenStateException if {@code s} is frozen.
+     */
+    Set<Long> reachableYoung(State s, int fromClause) throws FrozenStateException {
+        if (s == null) {
+            throw new NullPointerException();
+        }
+        
+        final HashSet<Long> reachable = new HashSet<>();
+        HashSet<Long> toVisit = new HashSet<>();
+        
+        //if the state is stuck, possibly adds the return
+        //value and/or the thrown exception
+        if (s.isStuck()) {
+            addIfYoungAndMarkNext(reachable, toVisit, s, s.getStuckException());
+            addIfYoungAndMarkNext(reachable, toVisit, s, s.getStuckReturn());
+        }
+        
+        //possibly adds the root object
+        if (!s.getStack().isEmpty()) {
+            try {
+                addIfYoungAndMarkNext(reachable, toVisit, s, s.getRootObjectReference());
+            } catch (ThreadStackEmptyException e) {
+                throw new UnexpectedInternalException(e);
+            }
+        }
+        
+        //visits the path condition clauses added since the last collection
+        for (Clause c : s.getPathCondition(fromClause)) {
+            if (c instanceof ClauseAssumeReferenceSymbolic) {
+                final ReferenceSymbolic r = ((ClauseAssumeReferenceSymbolic) c).getReference();
+                addIfYoungAndMarkNext(reachable, toVisit, s, r);
+            }
+        }
+        
+        //visits the stack
+        for (Frame f : s.getStack()) {
+            for (Value v : f.localVariableValues()) {
+                addIfYoungAndMarkNext(reachable, toVisit, s, v);
+            }
+            for (Value v : f.operands()) {
+                addIfYoungAndMarkNext(reachable, toVisit, s, v);
+            }
+        }
+        
+        //visits the classes accessed since the last collection
+        for (ClassFile cf : s.getAccessedKlasses()) {
+            final Klass k = s.getKlass(cf);
+            for (Variable var : k.fields().values()) {
+                addIfYoungAndMarkNext(reachable, toVisit, s, var.getValue());
+            }
+        }
+        
+        //visits the objects accessed since the last collection
+        for (long pos : s.getDirtyObjects()) {
+            final Objekt o = s.getObject(new ReferenceConcrete(pos));
+            if (o != null) {
+                visitYoung(reachable, toVisit, s, o);
+            }
+        }
+        
+        //adds the young objects in the state's object dictionary,
+        //and the main thread and thread group
+        for (ReferenceConcrete r : s.getObjectsInDictionary()) {
+            addIfYoungAndMarkNext(reachable, toVisit, s, r);
+        }
+        addIfYoungAndMarkNext(reachable, toVisit, s, s.getMainThread());
+        addIfYoungAndMarkNext(reachable, toVisit, s, s.getMainThreadGroup());
+        
+        //closes reachable
+        while (!toVisit.isEmpty()) {
+            final HashSet<Long> toVisitNext = new HashSet<>();
+            for (long nextObject : toVisit) {
+                visitYoung(reachable, toVisitNext, s, s.getObject(new ReferenceConcrete(nextObject)));
+            }
+            toVisit = toVisitNext;
+        }
+        
+        return reachable;
+    }
+    
+    private void visitYoung(Set<Long> reachable, Set<Long> next, State s, Objekt o) {
+        for (Variable var : o.fields().values()) {
+            addIfYoungAndMarkNext(reachable, next, s, var.getValue());
+        }
+        if (o instanceof Array) {
+            final Array a = (Array) o;
+            for (Array.AccessOutcomeIn entry : a.values()) {
+                final Value v;
+                if (entry instanceof Array.AccessOutcomeInInitialArray) {
+                    v = ((Array.AccessOutcomeInInitialArray) entry).getInitialArray();
+                } else { //(entry instanceof Array.AccessOutcomeInValue) 
+                    v = ((Array.AccessOutcomeInValue) entry).getValue();
+                }
+                addIfYoungAndMarkNext(reachable, next, s, v);
+            }
+        }
+    }
+    
+    private void addIfYoungAndMarkNext(Set<Long> reachable, Set<Long> next, State s, Value v) {
+        if (v instanceof Reference) {
+            final Reference ref = (Reference) v;
+            if (s.isNull(ref)) {
+                return;
+            }
+            final long heapPosition;
+            if (ref instanceof ReferenceConcrete) {
+                heapPosition = ((ReferenceConcrete) ref).getHeapPosition();                
+            } else if (ref instanceof ReferenceArrayImmaterial) {
+                return; //the reference does not refer (yet) to any object
+            } else if (s.resolved((ReferenceSymbolic) ref)) {
+                heapPosition = s.getResolution((ReferenceSymbolic) ref);
+            } else {
+                return;
+            }
+            if (s.isYoungObject(heapPosition) && reachable.add(heapPosition)) {
+                next.add(heapPosition);
+            }
+        }
+    }
+    
     private void addIfReference(Set<Long> set, State s, Value v) {
         if (v instanceof Reference) {
             final Reference ref = (Reference) v;
@@ -2,6 +2,7 @@ package jbse.mem;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -19,6 +20,8 @@ import jbse.val.Value;
  * local variables initialized with the snippet's args.
  */
 public final class SnippetFrameNoWrap extends Frame implements Cloneable {
+    private static final long serialVersionUID = 1L;
+
     /** The frame's operand stack. */ 
     private OperandStack operandStack; //not final because of clone
 
@@ -67,6 +70,17 @@ public final class SnippetFrameNoWrap extends Frame implements Cloneable {
         return new TreeMap<>();
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * A {@link SnippetFrameNoWrap} will always return 
+     * an empty collection.
+     */
+    @Override
+    public Collection<Value> localVariableValues() {
+        return Collections.emptyList();
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -129,11 +143,21 @@ public final class SnippetFrameNoWrap extends Frame implements Cloneable {
         return this.operandStack.top();
     }
 
+    @Override
+    public Value operand(int depth) throws InvalidNumberOfOperandsException {
+        return this.operandStack.operand(depth);
+    }
+
     @Override
     public Value[] operands(int num) throws InvalidNumberOfOperandsException {
         return this.operandStack.operands(num);
     }
 
+    @Override
+    public Value[] operands(int num, Value[] buffer) throws InvalidNumberOfOperandsException {
+        return this.operandStack.operands(num, buffer);
+    }
+
     @Override
     public void clear() {
         this.operandStack.clear();
@@ -144,6 +168,11 @@ public final class SnippetFrameNoWrap extends Frame implements Cloneable {
         throw new InvalidSlotException("Cannot set the args of a " + getClass().getName() + " by invoking setArgs. Use the constructor instead.");
     }
     
+    @Override
+    long footprint() {
+        return super.footprint() + StateFootprint.SLOT_BYTES * (this.localVariablesValues.size() + this.operandStack.capacity());
+    }
+    
     @Override
     public SnippetFrameNoWrap clone() {
         final SnippetFrameNoWrap o = (SnippetFrameNoWrap) super.clone();
@@ -17,6 +17,8 @@ import jbse.val.Value;
  * and the operand stack.
  */
 public final class SnippetFrameWrap extends Frame implements Cloneable {
+    private static final long serialVersionUID = 1L;
+
     /** The {@link Frame} context this {@link SnippetFrame} must execute. */ 
     private MethodFrame contextFrame; //not final only because it must be cloneable
     
@@ -64,6 +66,11 @@ public final class SnippetFrameWrap extends Frame implements Cloneable {
         return this.contextFrame.localVariables();
     }
 
+    @Override
+    public Collection<Value> localVariableValues() {
+        return this.contextFrame.localVariableValues();
+    }
+
     @Override
     public String getLocalVariableDeclaredName(int slot) {
         return this.contextFrame.getLocalVariableDeclaredName(slot);
@@ -105,11 +112,21 @@ public final class SnippetFrameWrap extends Frame implements Cloneable {
         return this.contextFrame.top();
     }
 
+    @Override
+    public Value operand(int depth) throws InvalidNumberOfOperandsException {
+        return this.contextFrame.operand(depth);
+    }
+
     @Override
     public Value[] operands(int num) throws InvalidNumberOfOperandsException {
         return this.contextFrame.operands(num);
     }
 
+    @Override
+    public Value[] operands(int num, Value[] buffer) throws InvalidNumberOfOperandsException {
+        return this.contextFrame.operands(num, buffer);
+    }
+
     @Override
     public void clear() {
         this.contextFrame.clear();
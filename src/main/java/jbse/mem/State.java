@@ -19,13 +19,13 @@ import static jbse.mem.Util.forAllInitialObjects;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.RandomAccessFile;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -86,7 +86,9 @@ import jbse.val.exc.InvalidTypeException;
 /**
  * Class that represents the state of the execution.
  */
-public final class State implements Cloneable {
+public final class State implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
+
     /**
      * The phase types of the symbolic execution.
      * 
@@ -106,6 +108,12 @@ public final class State implements Cloneable {
     /** The slot number of the "this" (method receiver) object. */
     private static final int ROOT_THIS_SLOT = 0;
     
+    /** 
+     * The maximum number of consecutive young collections
+     * performed by {@link #gcIncremental()}. 
+     */
+    public static final int MAX_YOUNG_COLLECTIONS = 8;
+    
     /** 
      * {@code true} iff the bootstrap classloader should also load classes defined by the
      * extensions and application classloaders. 
@@ -158,6 +166,15 @@ public final class State implements Cloneable {
 
     /** The JVM heap. */
     private Heap heap;
+    
+    /** 
+     * The number of path condition clauses at the last 
+     * generational collection. 
+     */
+    private int gcPathConditionSize = 0;
+    
+    /** The number of young collections since the last full collection. */
+    private int gcYoungCollections = 0;
 
     /** 
      * The object that fetches classfiles from the classpath, stores them, 
@@ -2639,7 +2656,7 @@ public final class State implements Cloneable {
     /**
      * Removes the current {@link Frame} from the thread stack.
      * 
-     * @return the popped {@link Frame}.
+     * @return the popped {@link Frame}. It must not be modified.
      * @throws ThreadStackEmptyException if the thread stack is empty.
      * @throws FrozenStateException if the state is frozen.
      */
@@ -2693,7 +2710,9 @@ public final class State implements Cloneable {
     }
 
     /**
-     * Returns an immutable view of the thread stack.
+     * Returns an immutable view of the thread stack. The
+     * frames in the view must not be modified, since they
+     * might be shared with the clones of this state. 
      * 
      * @return a {@link List}{@code <}{@link Frame}{@code >} 
      *         of the method activation frames in the thread stack, 
@@ -2717,6 +2736,20 @@ public final class State implements Cloneable {
         return this.stack.frames().size();
     }
 
+    /**
+     * Returns an estimate of the memory occupied by this state.
+     * The estimates of the heap and of the thread stack are 
+     * maintained incrementally, so this method only measures 
+     * the heap objects accessed since its previous invocation.
+     *
+     * @return a {@link StateFootprint}.
+     */
+    public StateFootprint getFootprint() {
+        return new StateFootprint(this.heap.getSize(), this.heap.getFootprintEntries(), this.heap.getFootprintBytes(),
+                                  this.heap.getFootprintBytesSinceClone(), this.pathCondition.getClauses().size(),
+                                  this.stack.size(), this.stack.getFootprintBytes());
+    }
+
     /**
      * Returns a copy of the state's heap.
      * 
@@ -3174,6 +3207,25 @@ public final class State implements Cloneable {
         return this.pathCondition.getClauses();
     }
 
+    /**
+     * Returns the state's path condition clauses starting from
+     * a given position. Useful to process only the clauses added 
+     * after a previous inspection of the path condition.
+     * 
+     * @param fromIndex an {@code int}, the position of the first
+     *        returned clause, between {@code 0} and 
+     *        {@link #getPathCondition()}{@code .size()}.
+     * @return a read-only {@link List}{@code <}{@link Clause}{@code >} 
+     * representing the {@link Clause}s cumulated in {@code this}
+     * from position {@code fromIndex} on. 
+     * It is valid until {@code this} is modified.
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is not 
+     *         a valid position.
+     */
+    public List<Clause> getPathCondition(int fromIndex) {
+        return this.pathCondition.getClauses(fromIndex);
+    }
+
     /**
      * Returns the path condition clauses that have been pushed since
      * the last call of {@link #resetLastPathConditionClauses()}. Used to determine
@@ -3186,12 +3238,8 @@ public final class State implements Cloneable {
      */
     public Iterable<Clause> getLastPathConditionPushedClauses() {
         return () -> {
-            final ListIterator<Clause> it = this.pathCondition.getClauses().listIterator();
             final int fwdEnd = this.pathCondition.getClauses().size() - this.nPushedClauses;
-            for (int i = 1; i <= fwdEnd; ++i) {
-                it.next();
-            }
-            return it;
+            return this.pathCondition.getClauses(fwdEnd).iterator();
         };
     }
     
@@ -3865,6 +3913,73 @@ public final class State implements Cloneable {
     public void gc() throws FrozenStateException {
         final Set<Long> doNotDispose = new ReachableObjectsCollector().reachable(this, true);
         this.heap.disposeExcept(doNotDispose);
+        if (this.heap.isGenerational()) {
+            startGeneration();
+            this.gcYoungCollections = 0;
+        }
+    }
+    
+    /**
+     * Collects and disposes the unreachable heap objects, 
+     * incrementally. The first invocation performs a full 
+     * collection and makes the state track the objects allocated
+     * and the objects and classes accessed from then on; the 
+     * subsequent invocations only collect the objects allocated
+     * since the previous collection, tracing only from the roots
+     * that might refer to them. Every {@link #MAX_YOUNG_COLLECTIONS}
+     * collections a full collection is performed to dispose the 
+     * older unreachable objects.
+     * 
+     * @throws FrozenStateException if the state is frozen.
+     */
+    public void gcIncremental() throws FrozenStateException {
+        if (!this.heap.isGenerational() || this.gcYoungCollections >= MAX_YOUNG_COLLECTIONS) {
+            this.heap.setGenerational();
+            gc();
+        } else {
+            final Set<Long> doNotDispose = new ReachableObjectsCollector().reachableYoung(this, this.gcPathConditionSize);
+            this.heap.disposeYoungExcept(doNotDispose);
+            startGeneration();
+            ++this.gcYoungCollections;
+        }
+    }
+    
+    private void startGeneration() {
+        this.staticMethodArea.resetAccessed();
+        this.gcPathConditionSize = this.pathCondition.getClauses().size();
+    }
+    
+    /**
+     * Getter for garbage collection.
+     * 
+     * @param pos a {@code long}, a heap position.
+     * @return {@code true} iff the object at position {@code pos} 
+     *         was allocated after the last incremental collection.
+     */
+    boolean isYoungObject(long pos) {
+        return this.heap.isYoung(pos);
+    }
+    
+    /**
+     * Getter for garbage collection.
+     * 
+     * @return a {@code long[]}, the positions of the objects that 
+     *         were allocated before the last incremental collection, 
+     *         and that were accessed after it.
+     */
+    long[] getDirtyObjects() {
+        return this.heap.getDirty();
+    }
+    
+    /**
+     * Getter for garbage collection.
+     * 
+     * @return a {@link List}{@code <}{@link ClassFile}{@code >}, the 
+     *         classes whose {@link Klass}es were accessed after the 
+     *         last incremental collection.
+     */
+    List<ClassFile> getAccessedKlasses() {
+        return new ArrayList<>(this.staticMethodArea.getAccessed());
     }
     
     /**
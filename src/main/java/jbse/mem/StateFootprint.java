@@ -0,0 +1,146 @@
+package jbse.mem;
+
+/**
+ * An estimate of the memory occupied by a {@link State}, broken
+ * down by its components: the heap objects (including the entries
+ * of the arrays), the clauses of the path condition, and the frames
+ * of the thread stack. The estimate counts the objects that are
+ * owned by the state, but not the values stored in them, that are
+ * immutable and mostly shared with other states, nor the class
+ * files and the other objects that are global to the symbolic
+ * execution. The estimates of the single components are rough
+ * figures for a 64-bit JVM, that are meant to compare states
+ * rather than to measure them exactly. Immutable.
+ */
+public final class StateFootprint {
+    /** The estimated bytes of a heap object, but its fields. */
+    static final long OBJEKT_BYTES = 64;
+
+    /** The estimated bytes of a field of an object, or of a slot of a frame. */
+    static final long SLOT_BYTES = 8;
+
+    /** The estimated bytes of an entry of an array. */
+    static final long ARRAY_ENTRY_BYTES = 48;
+
+    /** The estimated bytes of a clause of the path condition. */
+    static final long CLAUSE_BYTES = 40;
+
+    /** The estimated bytes of a frame, but its slots. */
+    static final long FRAME_BYTES = 80;
+
+    private final int numOfObjects;
+    private final long numOfArrayEntries;
+    private final long heapBytes;
+    private final long heapBytesSinceClone;
+    private final int numOfClauses;
+    private final int numOfFrames;
+    private final long stackBytes;
+
+    StateFootprint(int numOfObjects, long numOfArrayEntries, long heapBytes, long heapBytesSinceClone,
+                   int numOfClauses, int numOfFrames, long stackBytes) {
+        this.numOfObjects = numOfObjects;
+        this.numOfArrayEntries = numOfArrayEntries;
+        this.heapBytes = heapBytes;
+        this.heapBytesSinceClone = heapBytesSinceClone;
+        this.numOfClauses = numOfClauses;
+        this.numOfFrames = numOfFrames;
+        this.stackBytes = stackBytes;
+    }
+
+    /**
+     * Returns the number of objects in the heap.
+     *
+     * @return a nonnegative {@code int}.
+     */
+    public int getNumOfObjects() {
+        return this.numOfObjects;
+    }
+
+    /**
+     * Returns the total number of entries of the arrays in the heap.
+     *
+     * @return a nonnegative {@code long}.
+     */
+    public long getNumOfArrayEntries() {
+        return this.numOfArrayEntries;
+    }
+
+    /**
+     * Returns the estimated size of the heap objects,
+     * including the entries of the arrays.
+     *
+     * @return a nonnegative {@code long}, in bytes.
+     */
+    public long getHeapBytes() {
+        return this.heapBytes;
+    }
+
+    /**
+     * Returns how much the estimated size of the heap
+     * objects changed since the state was lazily cloned,
+     * i.e., how much the state adds to the state it was
+     * cloned from.
+     *
+     * @return a {@code long}, in bytes. It is negative
+     *         if the heap shrank, e.g., after a garbage
+     *         collection.
+     */
+    public long getHeapBytesSinceClone() {
+        return this.heapBytesSinceClone;
+    }
+
+    /**
+     * Returns the number of clauses of the path condition.
+     *
+     * @return a nonnegative {@code int}.
+     */
+    public int getNumOfClauses() {
+        return this.numOfClauses;
+    }
+
+    /**
+     * Returns the estimated size of the path condition.
+     *
+     * @return a nonnegative {@code long}, in bytes.
+     */
+    public long getPathConditionBytes() {
+        return this.numOfClauses * CLAUSE_BYTES;
+    }
+
+    /**
+     * Returns the number of frames in the thread stack.
+     *
+     * @return a nonnegative {@code int}.
+     */
+    public int getNumOfFrames() {
+        return this.numOfFrames;
+    }
+
+    /**
+     * Returns the estimated size of the thread stack.
+     *
+     * @return a nonnegative {@code long}, in bytes.
+     */
+    public long getStackBytes() {
+        return this.stackBytes;
+    }
+
+    /**
+     * Returns the estimated size of the state.
+     *
+     * @return a nonnegative {@code long}, in bytes, the sum of
+     *         {@link #getHeapBytes()}, {@link #getPathConditionBytes()}
+     *         and {@link #getStackBytes()}.
+     */
+    public long getBytes() {
+        return this.heapBytes + getPathConditionBytes() + this.stackBytes;
+    }
+
+    @Override
+    public String toString() {
+        return getBytes() + " bytes (heap: " + this.numOfObjects + " objects, " + this.numOfArrayEntries +
+               " array entries, " + this.heapBytes + " bytes, " + this.heapBytesSinceClone + " since clone; path condition: " +
+               this.numOfClauses + " clauses, " + getPathConditionBytes() + " bytes; stack: " + this.numOfFrames +
+               " frames, " + this.stackBytes + " bytes)";
+    }
+}
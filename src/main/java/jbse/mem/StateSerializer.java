@@ -0,0 +1,156 @@
+package jbse.mem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassHierarchy;
+import jbse.bc.LineNumberTable;
+import jbse.bc.LocalVariableTable;
+import jbse.val.Calculator;
+
+/**
+ * Converts {@link State}s to compressed byte arrays and back, so
+ * they can be stored out of the Java heap. The objects that are
+ * immutable or global to the symbolic execution, i.e., the
+ * {@link ClassFile}s, the {@link ClassHierarchy}, the {@link Calculator},
+ * the {@link FieldLayout}s, the line number and local variable tables,
+ * the edit tokens and the meta-level open files, are not serialized:
+ * they are stored by reference in a list that must be passed back
+ * upon deserialization, so the deserialized state shares them as
+ * the original state did.
+ */
+public final class StateSerializer {
+    /**
+     * Serializes a {@link State}.
+     *
+     * @param state the {@link State} to serialize.
+     * @param shared a {@link List}{@code <}{@link Object}{@code >}, where
+     *        the objects stored by reference are appended.
+     * @return a {@code byte[]}, the compressed serialized {@code state}.
+     * @throws IOException if some object reachable from {@code state}
+     *         is not serializable (in this case a
+     *         {@link java.io.NotSerializableException} is thrown).
+     */
+    public static byte[] serialize(State state, List<Object> shared) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (final SharingOutputStream out = new SharingOutputStream(new DeflaterOutputStream(bytes, deflater), shared)) {
+            out.writeObject(state);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializes a {@link State}.
+     *
+     * @param bytes a {@code byte[]} returned by {@link #serialize(State, List)}.
+     * @param shared the {@link List}{@code <}{@link Object}{@code >} filled
+     *        by {@link #serialize(State, List)} when it returned {@code bytes}.
+     * @return a {@link State}, equivalent to the serialized one.
+     * @throws IOException if {@code bytes} is corrupted.
+     */
+    public static State deserialize(byte[] bytes, List<Object> shared) throws IOException {
+        try (final SharingInputStream in = new SharingInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)), shared)) {
+            return (State) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new InvalidObjectException(e.toString());
+        }
+    }
+
+    /**
+     * Checks whether an object must be stored by reference.
+     *
+     * @param o an {@link Object}.
+     * @return {@code true} iff {@code o} is immutable or global
+     *         to the symbolic execution, or is a meta-level resource.
+     */
+    private static boolean isShared(Object o) {
+        return o.getClass() == Object.class || //edit tokens
+               o instanceof ClassFile ||
+               o instanceof ClassHierarchy ||
+               o instanceof Calculator ||
+               o instanceof FieldLayout ||
+               o instanceof LineNumberTable ||
+               o instanceof LocalVariableTable ||
+               o instanceof Closeable; //meta-level open files
+    }
+
+    /**
+     * The placeholder for an object stored by reference.
+     */
+    private static final class SharedRef implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final int index;
+
+        SharedRef(int index) {
+            this.index = index;
+        }
+    }
+
+    private static final class SharingOutputStream extends ObjectOutputStream {
+        private final List<Object> shared;
+        private final IdentityHashMap<Object, SharedRef> refs = new IdentityHashMap<>();
+
+        SharingOutputStream(OutputStream out, List<Object> shared) throws IOException {
+            super(out);
+            this.shared = shared;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object o) {
+            if (!isShared(o)) {
+                return o;
+            }
+            SharedRef ref = this.refs.get(o);
+            if (ref == null) {
+                ref = new SharedRef(this.shared.size());
+                this.shared.add(o);
+                this.refs.put(o, ref);
+            }
+            return ref;
+        }
+    }
+
+    private static final class SharingInputStream extends ObjectInputStream {
+        private final List<Object> shared;
+
+        SharingInputStream(InputStream in, List<Object> shared) throws IOException {
+            super(in);
+            this.shared = shared;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object o) {
+            if (o instanceof SharedRef) {
+                return this.shared.get(((SharedRef) o).index);
+            }
+            return o;
+        }
+    }
+
+    /**
+     * Do not instantiate!
+     */
+    private StateSerializer() {
+        throw new AssertionError();
+    }
+}
@@ -1,5 +1,6 @@
 package jbse.mem;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -14,55 +15,141 @@ import jbse.bc.ClassFile;
  * @author Pietro Braione
  *
  */
-final class StaticMethodArea implements Cloneable {
+final class StaticMethodArea implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** 
+     * The maximum number of layers in the delegation chain; when 
+     * a layer that has this many layers below it is lazily cloned,
+     * the chain is compacted. 
+     */
+    private static final int MAX_CHAIN_DEPTH = 16;
+    
+    /**
+     * The maximum number of lookups that a layer may resolve by 
+     * walking the delegation chain; when a layer exceeds it, the 
+     * chain is compacted.
+     */
+    private static final int MAX_CHAIN_LOOKUPS = 256;
+    
     private StaticMethodArea delegate;
     private HashMap<ClassFile, Klass> objects;
+    
+    /** The number of layers in the delegation chain, i.e., below this. */
+    private int depth;
+    
+    /** The number of lookups resolved by walking the delegation chain since the last compaction. */
+    private int chainLookups;
+    
+    /** 
+     * The classes whose {@link Klass}es were handed out since the 
+     * last collection, or {@code null} if they are not tracked. 
+     */
+    private HashSet<ClassFile> accessed;
 
     StaticMethodArea() {
     	this.delegate = null;
         this.objects = new HashMap<>();
+        this.depth = 0;
+        this.chainLookups = 0;
+        this.accessed = null;
     }
 
     boolean contains(ClassFile classFile) { 
-        return (this.objects.containsKey(classFile) || (this.delegate != null && this.delegate.contains(classFile))); 
+        return (this.objects.containsKey(classFile) || (this.delegate != null && lookupChain(classFile) != null)); 
     }
 
     void set(ClassFile classFile, Klass k) {
         this.objects.put(classFile, k);
+        if (this.accessed != null) {
+            this.accessed.add(classFile);
+        }
     }
 
     Klass get(ClassFile classFile) {
-    	if (contains(classFile)) {
-    		final Klass localKlass = this.objects.get(classFile);
-    		if (localKlass == null) {
-    			final KlassImpl trueKlass = getTheRealThing(classFile);
-    			final KlassWrapper delegateKlass = trueKlass.makeWrapper(this, classFile);
-    			set(classFile, delegateKlass);
-    			return delegateKlass;
-    		} else {
-    			return localKlass;
+    	final Klass localKlass = this.objects.get(classFile);
+    	if (localKlass != null) {
+    		if (this.accessed != null) {
+    			this.accessed.add(classFile);
     		}
-    	} else {
+    		return localKlass;
+    	}
+    	if (this.delegate == null) {
+    		return null;
+    	}
+    	final Klass ancestorKlass = lookupChain(classFile);
+    	if (ancestorKlass == null) {
     		return null;
     	}
+    	final KlassWrapper delegateKlass = realThing(ancestorKlass).makeWrapper(this, classFile);
+    	set(classFile, delegateKlass);
+    	return delegateKlass;
+    }
+    
+    /**
+     * Looks up a {@link Klass} in the delegation chain, compacting
+     * the chain if this layer walked it too many times.
+     * 
+     * @param classFile a {@link ClassFile}.
+     * @return the {@link Klass} for {@code classFile} stored in the 
+     *         nearest layer below this, or {@code null} if there is none.
+     */
+    private Klass lookupChain(ClassFile classFile) {
+    	if (++this.chainLookups > MAX_CHAIN_LOOKUPS && this.depth > 1) {
+    		compact();
+    	}
+    	for (StaticMethodArea a = this.delegate; a != null; a = a.delegate) {
+    		final Klass k = a.objects.get(classFile);
+    		if (k != null) {
+    			return k;
+    		}
+    	}
+    	return null;
+    }
+    
+    private static KlassImpl realThing(Klass k) {
+    	if (k instanceof KlassWrapper) {
+    		return ((KlassWrapper) k).getDelegate();
+    	} else {
+    		return (KlassImpl) k;
+    	}
     }
     
     private KlassImpl getTheRealThing(ClassFile classFile) {
     	final Klass localKlass = this.objects.get(classFile);
-		if (localKlass == null) {
-			return this.delegate.getTheRealThing(classFile);
-		} else 	if (localKlass instanceof KlassWrapper) {
-    		return ((KlassWrapper) localKlass).getDelegate();
-    	} else {
-    		return (KlassImpl) localKlass;
+    	return realThing(localKlass == null ? lookupChain(classFile) : localKlass);
+    }
+    
+    /**
+     * Replaces the delegation chain of this layer with a single 
+     * layer, that stores the real things of all the {@link Klass}es
+     * that this layer inherits. The flattened layer is never 
+     * modified, since it is only reachable as a delegate, and the 
+     * {@link KlassImpl}s it stores are the same (frozen) ones that
+     * the chain stores, so compaction does not change what this layer,
+     * or the layers that delegate to it, see. The dropped layers
+     * are garbage collected as soon as no other (e.g., pending) 
+     * state refers to them.
+     */
+    private void compact() {
+    	final HashMap<ClassFile, Klass> flattened = new HashMap<>();
+    	for (StaticMethodArea a = this.delegate; a != null; a = a.delegate) {
+    		for (Map.Entry<ClassFile, Klass> e : a.objects.entrySet()) {
+    			flattened.putIfAbsent(e.getKey(), realThing(e.getValue()));
+    		}
     	}
+    	final StaticMethodArea base = new StaticMethodArea();
+    	base.objects = flattened;
+    	DelegationChainStats.instance().chainCompacted(this.depth - 1, flattened.size());
+    	this.delegate = base;
+    	this.depth = 1;
+    	this.chainLookups = 0;
     }
     
     private HashSet<ClassFile> filledPositions() {
     	final HashSet<ClassFile> retVal = new HashSet<>();
-    	retVal.addAll(this.objects.keySet());
-    	if (this.delegate != null) {
-    		retVal.addAll(this.delegate.filledPositions());
+    	for (StaticMethodArea a = this; a != null; a = a.delegate) {
+    		retVal.addAll(a.objects.keySet());
     	}
     	return retVal;
     }
@@ -79,10 +166,37 @@ final class StaticMethodArea implements Cloneable {
 
     Map<ClassFile, Klass> getObjects() {
     	makeAllWrappers();
+    	if (this.accessed != null) {
+    		this.accessed.addAll(this.objects.keySet());
+    	}
         return this.objects;
     }
     
+    /**
+     * Starts tracking the classes whose {@link Klass}es are 
+     * handed out, thus possibly modified, from now on.
+     */
+    void resetAccessed() {
+    	this.accessed = new HashSet<>();
+    }
+    
+    /**
+     * Returns the classes whose {@link Klass}es were handed 
+     * out since the last invocation of {@link #resetAccessed()}.
+     * 
+     * @return a {@link Set}{@code <}{@link ClassFile}{@code >}, or
+     *         {@code null} if {@link #resetAccessed()} was never 
+     *         invoked.
+     */
+    Set<ClassFile> getAccessed() {
+    	return this.accessed;
+    }
+    
     StaticMethodArea lazyClone() {
+    	if (this.depth >= MAX_CHAIN_DEPTH) {
+    		compact();
+    	}
+    	
     	final StaticMethodArea a;
     	try {
     		a = (StaticMethodArea) super.clone();
@@ -92,6 +206,12 @@ final class StaticMethodArea implements Cloneable {
     	
     	a.delegate = this;
     	a.objects = new HashMap<>();
+    	a.depth = this.depth + 1;
+    	a.chainLookups = 0;
+    	if (this.accessed != null) {
+    		a.accessed = new HashSet<>(this.accessed);
+    	}
+    	DelegationChainStats.instance().chainGrown(a.depth);
     	
     	return a;
     }
@@ -134,6 +254,12 @@ final class StaticMethodArea implements Cloneable {
             objectsClone.put(pos, getTheRealThing(pos).clone());
         }
         o.objects = objectsClone;
+        o.delegate = null;
+        o.depth = 0;
+        o.chainLookups = 0;
+        if (this.accessed != null) {
+            o.accessed = new HashSet<>(this.accessed);
+        }
 
         return o;
     }
@@ -1,26 +1,52 @@
 package jbse.mem;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 
 import jbse.mem.exc.ThreadStackEmptyException;
 
 /**
- * Class representing JVM thread stacks.
+ * Class representing JVM thread stacks. Cloning a thread stack
+ * does not clone its frames, that are shared by the clones and
+ * copied by each clone the first time it accesses them for 
+ * modification.
  */
-class ThreadStack implements Cloneable {
+class ThreadStack implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
+
     /** The stack position of the root frame. */
     private static final int ROOT_FRAME = 0;
 
     /** The actual stack of {@link Frame}s. */
     private ArrayList<Frame> frameStack;
 
+    /** 
+     * The positions in {@link #frameStack} of the frames that
+     * are not shared with other stacks.
+     */
+    private BitSet owned; //not final because of clone
+    
+    /** 
+     * The estimates of the memory occupied by the frames 
+     * in {@link #frameStack}, taken when they were pushed.
+     */
+    private long[] frameBytes; //not final because of clone
+    
+    /** The sum of {@link #frameBytes}. */
+    private long footprintBytes;
+
     /**
      * Constructor of stack.
      */
     ThreadStack() {
         this.frameStack = new ArrayList<Frame>();
+        this.owned = new BitSet();
+        this.frameBytes = new long[16];
+        this.footprintBytes = 0;
     }
 
     /**
@@ -31,6 +57,13 @@ class ThreadStack implements Cloneable {
      *        current frame.
      */
     void push(Frame item) {
+        final int i = this.frameStack.size();
+        if (i == this.frameBytes.length) {
+            this.frameBytes = Arrays.copyOf(this.frameBytes, 2 * i);
+        }
+        this.frameBytes[i] = item.footprint();
+        this.footprintBytes += this.frameBytes[i];
+        this.owned.set(i);
         this.frameStack.add(item);
     }
 
@@ -39,14 +72,18 @@ class ThreadStack implements Cloneable {
      * from the stack.
      * 
      * @return the current (topmost) {@link Frame} 
-     *         before the call.
+     *         before the call. It might be shared with 
+     *         other stacks, so it must not be modified.
      * @throws ThreadStackEmptyException 
      */
     Frame pop() throws ThreadStackEmptyException {
         if (isEmpty()) {
             throw new ThreadStackEmptyException();
         }
-        return this.frameStack.remove(this.frameStack.size() - 1);
+        final int i = this.frameStack.size() - 1;
+        this.footprintBytes -= this.frameBytes[i];
+        this.owned.clear(i);
+        return this.frameStack.remove(i);
     }
 
     /**
@@ -63,6 +100,8 @@ class ThreadStack implements Cloneable {
      */
     void clear() {
         this.frameStack.clear();
+        this.owned.clear();
+        this.footprintBytes = 0;
     }
 
     /**
@@ -77,7 +116,7 @@ class ThreadStack implements Cloneable {
         if (isEmpty()) {
             throw new ThreadStackEmptyException();
         }
-        return this.frameStack.get(this.frameStack.size() - 1);
+        return ownedFrame(this.frameStack.size() - 1);
     }
 
     /**
@@ -92,12 +131,31 @@ class ThreadStack implements Cloneable {
         if (isEmpty()) {
             throw new ThreadStackEmptyException();
         }
-        return this.frameStack.get(ROOT_FRAME);
+        return ownedFrame(ROOT_FRAME);
+    }
+    
+    /**
+     * Returns a frame, copying it first if it is
+     * shared with other stacks.
+     * 
+     * @param i an {@code int}, the position of 
+     *        the frame in the stack.
+     * @return the {@link Frame} at position {@code i}.
+     */
+    private Frame ownedFrame(int i) {
+        if (!this.owned.get(i)) {
+            this.frameStack.set(i, this.frameStack.get(i).clone());
+            this.owned.set(i);
+        }
+        return this.frameStack.get(i);
     }
 
     /**
      * Returns an unmodifiable list of all the frames
-     * in the stack.
+     * in the stack. The frames might be shared with
+     * other stacks, so they must not be modified: Use
+     * {@link #currentFrame()} or {@link #rootFrame()}
+     * to get a modifiable frame.
      * 
      * @return a {@link List}{@code <}{@link Frame}{@code >} 
      *         of the frames in the stack, in their push order.
@@ -105,6 +163,27 @@ class ThreadStack implements Cloneable {
     List<Frame> frames() {
         return Collections.unmodifiableList(this.frameStack);
     }
+    
+    /**
+     * Returns the number of frames in the stack.
+     * 
+     * @return a nonnegative {@code int}.
+     */
+    int size() {
+        return this.frameStack.size();
+    }
+    
+    /**
+     * Returns an estimate of the memory occupied by
+     * the frames in the stack. The estimate of a frame 
+     * is taken when the frame is pushed.
+     * 
+     * @return a {@code long}, in bytes.
+     * @see StateFootprint
+     */
+    long getFootprintBytes() {
+        return this.footprintBytes;
+    }
 
     @Override
     public String toString() {
@@ -134,11 +213,12 @@ class ThreadStack implements Cloneable {
             throw new InternalError(e);
         }
 
-        final ArrayList<Frame> frameStackClone = new ArrayList<Frame>();
-        for (int i = 0; i < this.frameStack.size(); ++i) {
-            frameStackClone.add(this.frameStack.get(i).clone());
-        }
-        o.frameStack = frameStackClone;
+        //the frames are now shared, so both stacks
+        //must copy them before modifying them
+        o.frameStack = new ArrayList<Frame>(this.frameStack);
+        o.frameBytes = this.frameBytes.clone();
+        o.owned = new BitSet();
+        this.owned.clear();
         return o;
     }   
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package jbse.mem;
 
+import java.io.Serializable;
+
 import jbse.val.Calculator;
 import jbse.val.Value;
 
@@ -7,7 +9,9 @@ import jbse.val.Value;
  * Class representing a variable into the memory. It gathers the name, 
  * the declaration type and the runtime value of the variable. 
  */
-public class Variable implements Cloneable {
+public class Variable implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
+
     /** Type of the variable. */
     private final String type;
 
@@ -0,0 +1,219 @@
+package jbse.tree;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import jbse.common.exc.UnexpectedInternalException;
+import jbse.mem.State;
+import jbse.mem.StateSerializer;
+
+/**
+ * The part of the buffer of a {@link StateTree} that is stored
+ * out of the Java heap, in a temporary file. It is a sequence
+ * of states that supports insertion at the front and removal
+ * at both ends, as the tail of the buffer does. The states
+ * that cannot be serialized are kept in memory in their
+ * position of the sequence. The file is created on the first
+ * insertion and is truncated whenever the sequence empties,
+ * so the space of the removed states is reclaimed as soon as
+ * the execution backtracks to the in-memory part of the buffer.
+ */
+final class StateSpill {
+    /**
+     * An element of the sequence. Either it stores the
+     * position of the serialized state in the file, or
+     * the state itself if it could not be serialized.
+     */
+    private static final class Entry {
+        final long offset;
+        final int length;
+        final List<Object> shared;
+        final State state;
+
+        Entry(long offset, int length, List<Object> shared) {
+            this.offset = offset;
+            this.length = length;
+            this.shared = shared;
+            this.state = null;
+        }
+
+        Entry(State state) {
+            this.offset = 0;
+            this.length = 0;
+            this.shared = null;
+            this.state = state;
+        }
+    }
+
+    /** The elements of the sequence. */
+    private final LinkedList<Entry> entries = new LinkedList<>();
+
+    /** The temporary file, or {@code null} if not yet created. */
+    private File path;
+
+    /** The opened temporary file, or {@code null} if not yet created. */
+    private RandomAccessFile file;
+
+    /** The size of the used part of the file. */
+    private long end = 0;
+
+    /** The number of states written to the file. */
+    private long statesWritten = 0;
+
+    /** The number of states read from the file. */
+    private long statesRead = 0;
+
+    /** The total number of bytes written to the file. */
+    private long bytesWritten = 0;
+
+    /** The number of states that could not be serialized. */
+    private long failures = 0;
+
+    /**
+     * Returns the number of states in the sequence.
+     *
+     * @return a nonnegative {@code int}.
+     */
+    int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Checks whether the sequence is empty.
+     *
+     * @return {@code true} iff {@link #size()}{@code == 0}.
+     */
+    boolean isEmpty() {
+        return this.entries.isEmpty();
+    }
+
+    /**
+     * Inserts a state at the front of the sequence. If
+     * the state cannot be serialized or written, it is
+     * kept in memory.
+     *
+     * @param s the {@link State} to insert.
+     */
+    void addFirst(State s) {
+        final List<Object> shared = new ArrayList<>();
+        try {
+            final byte[] bytes = StateSerializer.serialize(s, shared);
+            if (this.file == null) {
+                this.path = File.createTempFile("jbse-states", ".bin");
+                this.path.deleteOnExit();
+                this.file = new RandomAccessFile(this.path, "rw");
+            }
+            this.file.seek(this.end);
+            this.file.write(bytes);
+            this.entries.addFirst(new Entry(this.end, bytes.length, shared));
+            this.end += bytes.length;
+            this.bytesWritten += bytes.length;
+            ++this.statesWritten;
+        } catch (IOException e) {
+            //the state (e.g., a meta-level object in its heap)
+            //is not serializable, or the file is not writable
+            this.entries.addFirst(new Entry(s));
+            ++this.failures;
+        }
+    }
+
+    /**
+     * Removes the state at the front of the sequence.
+     *
+     * @return the removed {@link State}.
+     * @throws NoSuchElementException if the sequence is empty.
+     */
+    State removeFirst() {
+        final State retVal = read(this.entries.removeFirst());
+        truncateIfEmpty();
+        return retVal;
+    }
+
+    /**
+     * Removes the state at the end of the sequence,
+     * without reading it.
+     *
+     * @throws NoSuchElementException if the sequence is empty.
+     */
+    void removeLast() {
+        this.entries.removeLast();
+        truncateIfEmpty();
+    }
+
+    /**
+     * Returns a state in the sequence.
+     *
+     * @param index an {@code int}, the position of the state.
+     * @return a {@link State}. If it was serialized, it is a
+     *         copy of the inserted state that is discarded
+     *         after use, thus it must not be modified.
+     */
+    State get(int index) {
+        return read(this.entries.get(index));
+    }
+
+    private State read(Entry e) {
+        if (e.state != null) {
+            return e.state;
+        }
+        try {
+            final byte[] bytes = new byte[e.length];
+            this.file.seek(e.offset);
+            this.file.readFully(bytes);
+            ++this.statesRead;
+            return StateSerializer.deserialize(bytes, e.shared);
+        } catch (IOException exc) {
+            //this should never happen
+            throw new UnexpectedInternalException(exc);
+        }
+    }
+
+    private void truncateIfEmpty() {
+        if (this.entries.isEmpty() && this.file != null && this.end > 0) {
+            try {
+                this.file.setLength(0);
+            } catch (IOException e) {
+                //no problem, the file will be overwritten
+            }
+            this.end = 0;
+        }
+    }
+
+    long getStatesWritten() {
+        return this.statesWritten;
+    }
+
+    long getStatesRead() {
+        return this.statesRead;
+    }
+
+    long getBytesWritten() {
+        return this.bytesWritten;
+    }
+
+    long getFailures() {
+        return this.failures;
+    }
+
+    /**
+     * Empties the sequence and deletes the temporary file.
+     */
+    void close() {
+        this.entries.clear();
+        this.end = 0;
+        if (this.file != null) {
+            try {
+                this.file.close();
+            } catch (IOException e) {
+                //nothing to do
+            }
+            this.path.delete();
+            this.file = null;
+            this.path = null;
+        }
+    }
+}
@@ -139,8 +139,27 @@ public class StateTree {
     /** Breadth mode, after switching to post-initial phase. */
     private final BreadthMode breadthModePostInitial;
 
-    /** Buffer of the inserted {@link State}s. */
+    /** 
+     * Buffer of the inserted {@link State}s, or its first part 
+     * if {@link #spill} is not empty. 
+     */
     private final LinkedList<State> stateBuffer = new LinkedList<State>();
+    
+    /** 
+     * The last part of the buffer of the inserted {@link State}s,
+     * i.e., the states that will be emitted last, stored out of 
+     * the Java heap.
+     */
+    private final StateSpill spill = new StateSpill();
+    
+    /** 
+     * The maximum number of states in {@link #stateBuffer}, 
+     * or {@code 0} for no limit.
+     */
+    private int maxStatesInMemory = 0;
+    
+    /** The maximum number of states ever stored. */
+    private int maxNumOfStates = 0;
 
     /** Buffer of the inserted {@link BranchInfo}s. */
     private final LinkedList<BranchInfo> branchList = new LinkedList<BranchInfo>();
@@ -169,6 +188,25 @@ public class StateTree {
     }
     
     
+    /**
+     * Sets the maximum number of states that are kept 
+     * in memory. When the states to be emitted exceed 
+     * it, the ones that will be emitted last are 
+     * serialized to a temporary file, and are read back
+     * when the execution backtracks to them.
+     * 
+     * @param maxStatesInMemory an {@code int}, the maximum
+     *        number of states in memory, or {@code 0} for
+     *        no limit (never spill states to disk).
+     * @throws InvalidInputException if {@code maxStatesInMemory < 0}.
+     */
+    public void setMaxStatesInMemory(int maxStatesInMemory) throws InvalidInputException {
+        if (maxStatesInMemory < 0) {
+            throw new InvalidInputException("Invoked " + StateTree.class.getName() + ".setMaxStatesInMemory() with a negative argument.");
+        }
+        this.maxStatesInMemory = maxStatesInMemory;
+    }
+    
     /**
      * Switches the breadth mode to the 
      * one specified with the class constructor.
@@ -273,7 +311,106 @@ public class StateTree {
      *              to emit.
      */
     public boolean hasStates() {
-        return !this.stateBuffer.isEmpty();
+        return !this.stateBuffer.isEmpty() || !this.spill.isEmpty();
+    }
+    
+    /**
+     * Returns the number of states that remain to be 
+     * emitted.
+     * 
+     * @return a nonnegative {@code int}.
+     */
+    public int getNumOfStates() {
+        return this.stateBuffer.size() + this.spill.size();
+    }
+    
+    /**
+     * Returns the maximum number of states that 
+     * remained to be emitted at some time.
+     * 
+     * @return a nonnegative {@code int}.
+     */
+    public int getMaxNumOfStates() {
+        return this.maxNumOfStates;
+    }
+    
+    /**
+     * Returns the number of states that remain to be 
+     * emitted and are stored out of memory.
+     * 
+     * @return a nonnegative {@code int}.
+     */
+    public int getNumOfStatesSpilled() {
+        return this.spill.size();
+    }
+    
+    /**
+     * Returns the number of states that were written 
+     * to disk.
+     * 
+     * @return a nonnegative {@code long}.
+     */
+    public long getTotalStatesSpilled() {
+        return this.spill.getStatesWritten();
+    }
+    
+    /**
+     * Returns the number of states that were read 
+     * back from disk.
+     * 
+     * @return a nonnegative {@code long}.
+     */
+    public long getTotalStatesReloaded() {
+        return this.spill.getStatesRead();
+    }
+    
+    /**
+     * Returns the number of bytes written to disk.
+     * 
+     * @return a nonnegative {@code long}.
+     */
+    public long getTotalBytesSpilled() {
+        return this.spill.getBytesWritten();
+    }
+    
+    /**
+     * Returns the number of states that should have 
+     * been written to disk, but were kept in memory
+     * because they could not be serialized.
+     * 
+     * @return a nonnegative {@code long}.
+     */
+    public long getTotalSpillFailures() {
+        return this.spill.getFailures();
+    }
+    
+    /**
+     * Drops the states that would be emitted last, i.e., the
+     * states at the branches nearest to the root of the tree, 
+     * so that they are not explored and their memory can be 
+     * reclaimed. The states that are not dropped are emitted 
+     * as if no state were dropped. 
+     * 
+     * @param keep an {@code int}, the number of states to 
+     *        keep.
+     * @return the number of dropped states.
+     */
+    public int dropStates(int keep) {
+        int dropped = 0;
+        while (getNumOfStates() > Math.max(keep, 0)) {
+            if (this.spill.isEmpty()) {
+                this.stateBuffer.removeLast();
+            } else {
+                this.spill.removeLast();
+            }
+            final BranchInfo b = this.branchList.getLast();
+            --b.totalStates;
+            if (b.emittedStates == b.totalStates) {
+                this.branchList.removeLast();
+            }
+            ++dropped;
+        }
+        return dropped;
     }
     
     /**
@@ -299,7 +436,9 @@ public class StateTree {
      * @param bp a {@link BranchPoint}.
      * @param index an {@code int}. It must be between 0 and {@link #getNumOfStatesAtBranch(BranchPoint) getNumOfStatesAtBranch}{@code (bp) - 1}.
      * @return the {@link State} at the branch identified by {@code bp} 
-     *         that is the next {@code index}-th to be emitted.
+     *         that is the next {@code index}-th to be emitted. If it is
+     *         stored out of memory, a copy of it is returned, that 
+     *         must not be modified.
      * @throws InvalidInputException if {@code index < 0 || index >= }{@link #getNumOfStatesAtBranch(BranchPoint) getNumOfStatesAtBranch}{@code (bp)}.
      */
     public State getStateAtBranch(BranchPoint bp, int index) throws InvalidInputException {
@@ -316,7 +455,8 @@ public class StateTree {
     		position += info.totalStates - info.emittedStates;
     	}
     	if (found) {
-    		return this.stateBuffer.get(position + index);
+    		final int inMemory = this.stateBuffer.size();
+    		return (position + index < inMemory ? this.stateBuffer.get(position + index) : this.spill.get(position + index - inMemory));
     	} else {
     		throw new InvalidInputException("Tried to get state at branch " + bp + " but no state seems to exist at branch.");
     	}
@@ -330,6 +470,10 @@ public class StateTree {
      * @throws NoSuchElementException if {@link #hasStates()} {@code == false}.
      */
     public State nextState() throws FrozenStateException {
+        if (this.stateBuffer.isEmpty() && !this.spill.isEmpty()) {
+            //backtracks to the spilled states
+            this.stateBuffer.addFirst(this.spill.removeFirst());
+        }
         final State s = this.stateBuffer.removeFirst();
         final BranchInfo b = this.branchList.getFirst();
         ++b.emittedStates;
@@ -439,5 +583,19 @@ public class StateTree {
     private void add(State s) {
         this.stateBuffer.addFirst(s);
         ++(this.branchList.getFirst().totalStates);
+        if (this.maxStatesInMemory > 0 && this.stateBuffer.size() > this.maxStatesInMemory) {
+            this.spill.addFirst(this.stateBuffer.removeLast());
+        }
+        this.maxNumOfStates = Math.max(this.maxNumOfStates, getNumOfStates());
+    }
+    
+    /**
+     * Drops all the states that are stored out of memory
+     * and deletes the temporary file where they were 
+     * stored. Must be invoked when the tree is no longer
+     * used.
+     */
+    public void close() {
+        this.spill.close();
     }
 }
@@ -16,6 +16,8 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public final class Any extends PrimitiveSymbolic {
+	private static final long serialVersionUID = 1L;
+
 	private static final Any THE_ANY;
 	static {
         try {
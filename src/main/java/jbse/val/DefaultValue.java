@@ -10,6 +10,8 @@ import jbse.common.Type;
  * @author Pietro Braione
  */
 public final class DefaultValue extends Value {
+    private static final long serialVersionUID = 1L;
+
     private static DefaultValue instance = new DefaultValue();
 
     private DefaultValue() { 
@@ -20,6 +22,13 @@ public final class DefaultValue extends Value {
         return instance;
     }
 
+    /**
+     * Preserves the singleton property upon deserialization.
+     */
+    private Object readResolve() {
+        return instance;
+    }
+
     @Override
     public boolean isSymbolic() {
         return true;
@@ -14,6 +14,8 @@ import jbse.val.exc.InvalidTypeException;
  * by applying a unary or binary {@link Operator} to arguments.
  */
 public final class Expression extends PrimitiveSymbolicComputed {
+    private static final long serialVersionUID = 1L;
+
     /** The operator. */
     private final Operator operator;
 
@@ -1,5 +1,6 @@
 package jbse.val;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 
 /**
@@ -11,7 +12,9 @@ import java.util.ArrayList;
  * @author Pietro Braione
  *
  */
-public final class HistoryPoint {
+public final class HistoryPoint implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     public static final String BRANCH_IDENTIFIER_SEPARATOR_COMPACT = ".";
     public static final String BRANCH_IDENTIFIER_DEFAULT_COMPACT = "1";
     public static final String BRANCH_IDENTIFIER_SEPARATOR_LONG = "|";
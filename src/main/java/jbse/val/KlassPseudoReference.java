@@ -10,6 +10,8 @@ import jbse.mem.Klass;
  * origin to {@link Klass} objects.
  */
 public final class KlassPseudoReference extends ReferenceSymbolic {
+    private static final long serialVersionUID = 1L;
+
     private final ClassFile classFile;
     
     /**
@@ -15,6 +15,8 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public final class NarrowingConversion extends PrimitiveSymbolicComputed {
+    private static final long serialVersionUID = 1L;
+
     private final Primitive arg;
     private final String toString;
     private final String asOriginString;
@@ -9,6 +9,8 @@ import jbse.mem.Util;
  * @author Pietro Braione
  */
 public final class Null extends ReferenceConcrete {
+	private static final long serialVersionUID = 1L;
+
 	private static Null instance = new Null();
     
     /**
@@ -21,6 +23,13 @@ public final class Null extends ReferenceConcrete {
     public static Null getInstance() {
         return instance;
     }
+
+    /**
+     * Preserves the singleton property upon deserialization.
+     */
+    private Object readResolve() {
+        return instance;
+    }
     
     /**
      * Returns the value
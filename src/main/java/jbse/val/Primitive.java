@@ -8,6 +8,8 @@ import jbse.val.exc.InvalidTypeException;
  * Class that represent a primitive type value of any kind.
  */
 public abstract class Primitive extends Value implements Cloneable {
+    private static final long serialVersionUID = 1L;
+
     /**
      * Constructor. 
      * 
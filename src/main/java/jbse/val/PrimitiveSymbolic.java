@@ -8,6 +8,8 @@ import jbse.val.exc.InvalidTypeException;
  * (except terms). 
  */
 public abstract class PrimitiveSymbolic extends Primitive implements Symbolic {
+    private static final long serialVersionUID = 1L;
+
     /** The creation history point of this symbol. */
     private final HistoryPoint historyPoint;
 
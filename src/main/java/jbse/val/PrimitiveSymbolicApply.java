@@ -34,6 +34,8 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public final class PrimitiveSymbolicApply extends PrimitiveSymbolicComputed implements SymbolicApply {
+    private static final long serialVersionUID = 1L;
+
     //pure functions implemented in java.lang.StrictMath 
     
     /** Absolute value (double) */
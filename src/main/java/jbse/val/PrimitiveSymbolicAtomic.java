@@ -8,6 +8,8 @@ import jbse.val.exc.InvalidTypeException;
  * (non computed) value. 
  */
 public abstract class PrimitiveSymbolicAtomic extends PrimitiveSymbolic implements SymbolicAtomic {    
+    private static final long serialVersionUID = 1L;
+
     /** The string representation of this object. */
     private final String toString;
     
@@ -10,6 +10,8 @@ import jbse.val.exc.InvalidTypeException;
  * the hash code of an object. 
  */
 public final class PrimitiveSymbolicHashCode extends PrimitiveSymbolicAtomic {
+	private static final long serialVersionUID = 1L;
+
 	//note that this class is not a superclass of PrimitiveSymbolicMember because 
 	//its object can have container == null, a thing that is forbidden by PrimitiveSymbolicMember.
 	
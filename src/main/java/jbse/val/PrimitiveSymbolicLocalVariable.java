@@ -8,6 +8,8 @@ import jbse.val.exc.InvalidTypeException;
  * local variable in the root frame. 
  */
 public final class PrimitiveSymbolicLocalVariable extends PrimitiveSymbolicAtomic implements SymbolicLocalVariable {   
+    private static final long serialVersionUID = 1L;
+
     /** The name of the local variable where this symbol originates from. */
     private final String variableName;
     
@@ -8,6 +8,8 @@ import jbse.val.exc.InvalidTypeException;
  * in an array. 
  */
 public final class PrimitiveSymbolicMemberArray extends PrimitiveSymbolicMember implements SymbolicMemberArray {
+    private static final long serialVersionUID = 1L;
+
     private final Primitive index;
     private final String originString;
     private final int hashCode;
@@ -10,6 +10,8 @@ import jbse.val.exc.InvalidTypeException;
  * length of an array.
  */
 public final class PrimitiveSymbolicMemberArrayLength extends PrimitiveSymbolicMember {
+	private static final long serialVersionUID = 1L;
+
 	private final String originString;
 	private final int hashCode;
 	
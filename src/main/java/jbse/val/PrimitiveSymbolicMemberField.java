@@ -8,6 +8,8 @@ import jbse.val.exc.InvalidTypeException;
  * in an object (non array). 
  */
 public final class PrimitiveSymbolicMemberField extends PrimitiveSymbolicMember implements SymbolicMemberField {
+    private static final long serialVersionUID = 1L;
+
     private final String fieldName;
     private final String fieldClass;
     private final String asOriginString;
@@ -6,6 +6,8 @@ import jbse.common.Type;
  * Class for references to heap objects (instances and arrays).
  */
 public abstract class Reference extends Value {
+    private static final long serialVersionUID = 1L;
+
     protected Reference(char type) {
         super(type);
     }
@@ -21,6 +21,8 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public final class ReferenceArrayImmaterial extends Reference {
+    private static final long serialVersionUID = 1L;
+
     /** The type of the array. */
     private final ClassFile arrayType;
 
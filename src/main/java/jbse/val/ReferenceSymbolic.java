@@ -11,6 +11,8 @@ import jbse.mem.Klass;
  * @author Pietro Braione
  */
 public abstract class ReferenceSymbolic extends Reference implements Symbolic {
+    private static final long serialVersionUID = 1L;
+
     /** The creation history point of this symbol. */
     private final HistoryPoint historyPoint;
 
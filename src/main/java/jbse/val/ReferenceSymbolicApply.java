@@ -16,6 +16,8 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public final class ReferenceSymbolicApply extends ReferenceSymbolic implements SymbolicApply {
+    private static final long serialVersionUID = 1L;
+
     //pure functions 
     //TODO move them elsewhere? should make an enum? (no special advantage in both)
     
@@ -13,6 +13,8 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public abstract class ReferenceSymbolicAtomic extends ReferenceSymbolic implements SymbolicAtomic {
+    private static final long serialVersionUID = 1L;
+
     /** The String representation of this object. */
     private final String toString;
 
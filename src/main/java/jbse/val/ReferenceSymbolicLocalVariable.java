@@ -8,6 +8,8 @@ import jbse.val.exc.InvalidTypeException;
  * local variable in the root frame. 
  */
 public final class ReferenceSymbolicLocalVariable extends ReferenceSymbolicAtomic implements SymbolicLocalVariable {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The name of the local variable in the root 
 	 * frame this symbol originates from.	 
@@ -8,6 +8,8 @@ import jbse.val.exc.InvalidTypeException;
  * in an array. 
  */
 public final class ReferenceSymbolicMemberArray extends ReferenceSymbolicMember implements SymbolicMemberArray {
+	private static final long serialVersionUID = 1L;
+
 	/** The index of the slot in the container array this symbol originates from. */
     private final Primitive index;
     
@@ -8,6 +8,8 @@ import jbse.val.exc.InvalidTypeException;
  * in an object (non array). 
  */
 public final class ReferenceSymbolicMemberField extends ReferenceSymbolicMember implements SymbolicMemberField {
+	private static final long serialVersionUID = 1L;
+
 	/** 
 	 * The name of the field in the container object 
 	 * this symbol originates from.
@@ -13,6 +13,8 @@ import jbse.val.exc.InvalidTypeException;
  * in a map (key slot). 
  */
 public final class ReferenceSymbolicMemberMapKey extends ReferenceSymbolicMember {
+	private static final long serialVersionUID = 1L;
+
 	/** The key origin specifier. */
 	private final String keyOriginSpecifier;
 	
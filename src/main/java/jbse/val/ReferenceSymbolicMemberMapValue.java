@@ -13,6 +13,8 @@ import jbse.val.exc.InvalidTypeException;
  * in a map (value slot). 
  */
 public final class ReferenceSymbolicMemberMapValue extends ReferenceSymbolicMember {
+	private static final long serialVersionUID = 1L;
+
 	/** The {@link Reference} to the key object associated to the value. */
     private final Reference key;
     
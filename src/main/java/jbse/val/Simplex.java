@@ -14,6 +14,8 @@ import jbse.val.exc.InvalidTypeException;
  * @author unknown
  */
 public final class Simplex extends Primitive implements Cloneable {	
+    private static final long serialVersionUID = 1L;
+
     /** The primitive value this object represents. */
     private final Object value;
 
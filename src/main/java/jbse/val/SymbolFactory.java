@@ -1,5 +1,7 @@
 package jbse.val;
 
+import java.io.Serializable;
+
 import jbse.bc.ClassFile;
 import jbse.common.exc.InvalidInputException;
 import jbse.common.exc.UnexpectedInternalException;
@@ -13,7 +15,9 @@ import jbse.val.exc.InvalidTypeException;
  * 
  * @author Pietro Braione
  */
-public final class SymbolFactory implements Cloneable {
+public final class SymbolFactory implements Cloneable, Serializable {
+    private static final long serialVersionUID = 1L;
+
     /** The next available identifier for a new reference-typed symbolic value. */
     private int nextIdRefSym;
 
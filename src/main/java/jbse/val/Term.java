@@ -21,6 +21,8 @@ import jbse.val.exc.InvalidTypeException;
  * @author Pietro Braione
  */
 public final class Term extends Primitive implements Symbolic {
+    private static final long serialVersionUID = 1L;
+
     /** The conventional value of the {@link Term}, a {@link String}. */
     private final String value;
 
@@ -1,12 +1,16 @@
 package jbse.val;
 
+import java.io.Serializable;
+
 /**
  * Class for representing all Java values.
  * 
  * @author unknown
  * @author Pietro Braione
  */
-public abstract class Value {
+public abstract class Value implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     /** The type of this {@link Value}. */
     private final char type;
 
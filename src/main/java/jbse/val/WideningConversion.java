@@ -16,6 +16,8 @@ import jbse.val.exc.InvalidTypeException;
  *
  */
 public final class WideningConversion extends PrimitiveSymbolicComputed {
+    private static final long serialVersionUID = 1L;
+
     private final Primitive arg;
     private final String toString;
     private final String asOriginString;
@@ -11,6 +11,15 @@
 % 7 PathCondition,
 % 8 Callee,
 % 9 Parameters)
+% PathCondition is either the list of clauses of the path condition, or,
+% if path conditions are normalized, an identifier pc(TestProgram,N) of a
+% path_condition/2 fact.
+
+% path_condition/2 semantics
+% path_condition(
+% 1 pc(TestProgram,N),
+% 2 Clauses)
+:- dynamic path_condition/2.
 
 %% SIMILARITY RELATION ---------------------------------------------------------
 % MODE: sub_set_of_invoked_methods(+TP1,+TP2)
@@ -242,6 +251,17 @@ invokes_component(I,callee,Callee) :-
 invokes_component(I,parameters,Parameters) :-
   I = invokes(_,_,_,_,_,_,_,_,Parameters).
 
+% MODE: invokes_path_condition(+I,-Clauses)
+% SEMANTICS: Clauses is the list of clauses of the path condition of the
+% invokes I, whether it is inlined or normalized.
+invokes_path_condition(I,Clauses) :-
+  invokes_component(I,pathCondition,PathCondition),
+  ( PathCondition = pc(_,_) ->
+    path_condition(PathCondition,Clauses)
+  ;
+    Clauses = PathCondition
+  ).
+
 % utility predicates to get the components of endpoint
 endpoint_component(E,testProgram,TestProgram) :-
   E = endpoint(TestProgram,_,_,_).
@@ -650,15 +670,21 @@ select_common_set([E1|L1],L2,[E1|C]) :-
 select_common_set([_|L1],L2,C) :-
   select_common_set(L1,L2,C).
 
-% MODE: select_common_seq(+L1,+L2,-C)
-% SEMANTICS: C is a sequence of elements common to L1 and L2.
-select_common_seq([],_,[]).
-select_common_seq([E1|L1],L2,[E1|C]) :-
-  append(_,[E2|T2],L2),
-  matching(_EType,E1,E2),
-  select_common_seq(L1,T2,C).
-select_common_seq([_|L1],L2,C) :-
-  select_common_seq(L1,L2,C).
+% MODE: common_seq_length(+L1,+L2,-N)
+% SEMANTICS: N is the length of the longest sequence of elements common to L1
+% and L2, computed by dynamic programming one row of the table at a time.
+common_seq_length(L1,L2,N) :-
+  length(L2,N2), M is N2+1,
+  length(Row0,M), maplist(=(0),Row0),
+  foldl(common_seq_row(L2),L1,Row0,Row),
+  last(Row,N).
+% Row is the row of the table for E1 following the row PrevRow
+common_seq_row(L2,E1,[Diag|PrevRow],[0|Row]) :-
+  common_seq_row(L2,E1,Diag,PrevRow,0,Row).
+common_seq_row([],_,_,[],_,[]).
+common_seq_row([E2|L2],E1,Diag,[Up|PrevRow],Left,[N|Row]) :-
+  ( matching(_EType,E1,E2) -> N is Diag+1 ; N is max(Up,Left) ),
+  common_seq_row(L2,E1,Up,PrevRow,N,Row).
 
 % MODE: similarity_score(+SimCr,+Es1,+Es2,Score)
 % SEMANTICS: Score is
@@ -688,8 +714,6 @@ similarity_score(nonemptySubSeq,Es1,Es2,Score) :-
 similarity_score(nonemptyCommonSeq,Es1,Es2,Score) :-
   length(Es1,N1),
   length(Es2,N2),
-  % sequences are computed in decreasing length order
-  select_common_seq(Es1,Es2,C), !,
-  length(C,N),
+  common_seq_length(Es1,Es2,N),
   M is min(N1,N2),
   Score is N/M.
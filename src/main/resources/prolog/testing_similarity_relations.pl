@@ -7,6 +7,7 @@ setting(endpoints_set(false)).
 %% Checking similarity of test programs
 check(Src) :-
   retractall(invokes(_,_,_,_,_,_,_,_,_)),
+  retractall(path_condition(_,_)),
   consult(Src),
   %%
   tell('testing_similarity_relations.out.txt'),
@@ -117,6 +118,7 @@ similarity_from_invokes_file(File,T,TSrc,SimCr) :-
   retractall(endpointLst_fact(_,_,_)),
   retractall(invokesLst_fact(_,_,_)),
   retractall(invokes(_,_,_,_,_,_,_,_,_)),
+  retractall(path_condition(_,_)),
   write('Consulting invokes/9 facts.'), nl,
   consult(File),
   retractall(counter(_)), assert(counter(1)),
@@ -176,7 +178,7 @@ generate_and_assert_elems(invokes,iseq,CallerBLst,CalleeBLst) :-
   retract(counter(N)), M is N+1, assert(counter(M)),
   write(N), write(' '), flush_output,
   filtered_invokes(ISeqI,CallerBLst,CalleeBLst,ISeqO),
-  assert_elem(invokesLst_fact(trace,TP,ISeqO)),
+  assert_elem(invokesLst_fact(iseq,TP,ISeqO)),
   fail.
 generate_and_assert_elems(endpoint,iseq,_,_) :-
   testPrograms(TPs),
@@ -272,6 +274,7 @@ partition_invokes(InvokesFile) :-
   atom_concat(InvokesFile,'-partition',PartitionDir),
   make_directory(PartitionDir),
   retractall(invokes(_,_,_,_,_,_,_,_,_)),
+  retractall(path_condition(_,_)),
   consult(InvokesFile),
   testPrograms(TPs),
   member(TP,TPs),
@@ -284,7 +287,12 @@ partition_invokes(InvokesFile) :-
   fail.
 partition_invokes(_InvokesFile).
 
-% SEMANTICS: generate a file invokes__TP.pl including the invokes facts of TP.
+% SEMANTICS: generate a file invokes__TP.pl including the invokes facts of TP,
+% preceded by the path_condition facts of TP, if any.
+partition_invokes_testProgram(TP) :-
+  path_condition(pc(TP,N),Clauses),
+  write_term(path_condition(pc(TP,N),Clauses),[quoted(true)]), write('.'), nl,
+  fail.
 partition_invokes_testProgram(TP) :-
   invokes_component(Invokes,testProgram,TP),
   Invokes,
@@ -324,9 +332,15 @@ write_endpoints :-
   fail.
 write_endpoints.
 
-% TODO: pass actual lists
-compute_similarity_from_java(TP1,TP2,Score,T,TSrc,SimCr,BLst) :-
+% MODE: compute_similarity_from_java(-TP1,-TP2,-Score,+T,+TSrc,+SimCr,+BLPrefix)
+% SEMANTICS: TP1 and TP2 are similar with score Score according to SimCr,
+% ignoring the invokes whose caller or callee starts with BLPrefix
+% (no invokes is ignored if BLPrefix = '').
+compute_similarity_from_java(TP1,TP2,Score,T,TSrc,SimCr,BLPrefix) :-
+  ( BLPrefix == '' -> BLst = [] ; BLst = [BLPrefix] ),
+  retractall(endpointLst_fact(_,_,_)),
+  retractall(invokesLst_fact(_,_,_)),
   retractall(counter(_)), assert(counter(1)),
-  generate_and_assert_elems(T,TSrc,[BLst],[BLst]), !,
+  generate_and_assert_elems(T,TSrc,BLst,BLst), !,
   similar_tp(T,TSrc,SimCr,TP1,TP2,Es1,Es2),
   similarity_score(SimCr,Es1,Es2,Score).
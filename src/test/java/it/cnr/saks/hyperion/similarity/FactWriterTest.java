@@ -0,0 +1,136 @@
+package it.cnr.saks.hyperion.similarity;
+
+import it.cnr.saks.hyperion.similarity.store.FactStoreReader;
+import it.cnr.saks.hyperion.similarity.store.PrologFactPrinter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FactWriterTest {
+    private File prolog;
+    private File store;
+
+    @BeforeEach
+    void createFiles() throws IOException {
+        this.prolog = File.createTempFile("hyperion-test", ".pl");
+        this.store = File.createTempFile("hyperion-test", ".hypf");
+    }
+
+    @AfterEach
+    void deleteFiles() {
+        this.prolog.delete();
+        this.store.delete();
+    }
+
+    @Test
+    void stagedTestProgramsReachTheStoreInOrder() throws IOException {
+        final FactWriter factWriter = new FactWriter(this.prolog.getPath(), this.store.getPath());
+        factWriter.start();
+
+        // The second test program completes first, so its facts are staged
+        factWriter.submitPartial(1, testInformation("B", 0));
+        factWriter.submit(1, testInformation("B", 1));
+        factWriter.submit(0, testInformation("A", 0));
+        factWriter.close();
+
+        final String text = new String(Files.readAllBytes(this.prolog.toPath()), StandardCharsets.UTF_8);
+        assertTrue(text.indexOf("'Test:A'") < text.indexOf("'Test:B'"), text);
+        assertEquals(text, printStore());
+    }
+
+    @Test
+    void parametersWithLineBreaksDoNotAbandonTheStore() throws IOException {
+        final FactWriter factWriter = new FactWriter(this.prolog.getPath(), this.store.getPath());
+        factWriter.start();
+
+        // A parameter rendered without escaping its line break spans two lines of text
+        final TestInformation staged = testInformation("B", 0);
+        staged.getMethodCalls().get(0).getParameterSet().addParameter("'first line\nsecond line'");
+        factWriter.submit(1, staged);
+        factWriter.submit(0, testInformation("A", 0));
+        factWriter.close();
+
+        final String text = new String(Files.readAllBytes(this.prolog.toPath()), StandardCharsets.UTF_8);
+        assertTrue(text.contains("'Test:B'"), text);
+        assertEquals(text, printStore());
+    }
+
+    @Test
+    void nonAsciiParametersAreWrittenAsInTheStore() throws IOException {
+        final FactWriter factWriter = new FactWriter(this.prolog.getPath(), this.store.getPath());
+        factWriter.start();
+
+        final TestInformation testInformation = testInformation("A", 0);
+        testInformation.getMethodCalls().get(0).getParameterSet().addParameter(PrologFactPrinter.quote("caf\u00e9 \u2603"));
+        factWriter.submit(0, testInformation);
+        factWriter.close();
+
+        final String text = new String(Files.readAllBytes(this.prolog.toPath()), StandardCharsets.UTF_8);
+        assertTrue(text.contains("'caf\u00e9 \u2603'"), text);
+        assertEquals(text, printStore());
+    }
+
+    @Test
+    void batchesAreWrittenByTheSubmittersIfTheWriterIsNotRunning() throws IOException {
+        final FactWriter factWriter = new FactWriter(this.prolog.getPath(), this.store.getPath());
+
+        // More batches than the queue can hold
+        for(int ordinal = 0; ordinal < 100; ordinal++)
+            factWriter.submit(ordinal, testInformation("T" + ordinal, 0));
+        factWriter.close();
+
+        final String text = new String(Files.readAllBytes(this.prolog.toPath()), StandardCharsets.UTF_8);
+        assertTrue(text.indexOf("'Test:T0'") < text.indexOf("'Test:T99'"), text);
+        assertEquals(text, printStore());
+    }
+
+    @Test
+    void aFailedWriterDoesNotBlockTheAnalyzers() throws IOException {
+        final FactWriter factWriter = new FactWriter(this.prolog.getPath(), null);
+        factWriter.start();
+
+        // A batch the writer cannot render makes it fail
+        final TestInformation broken = testInformation("A", 0);
+        broken.getMethodCalls().get(0).setParameterSet(null);
+        factWriter.submit(0, broken);
+
+        for(int ordinal = 1; ordinal <= 100; ordinal++)
+            factWriter.submit(ordinal, testInformation("T" + ordinal, 0));
+        factWriter.close();
+        factWriter.submit(101, testInformation("Late", 0));
+
+        final String text = new String(Files.readAllBytes(this.prolog.toPath()), StandardCharsets.UTF_8);
+        assertTrue(text.contains("'Test:T1'"), text);
+        assertTrue(text.contains("'Test:T100'"), text);
+        assertFalse(text.contains("'Test:Late'"), text);
+    }
+
+    private static TestInformation testInformation(String testMethod, int sequenceNumber) {
+        final TestInformation testInformation = new TestInformation("Test", testMethod);
+        testInformation.addPathCondition("pc('Test:" + testMethod + "', " + sequenceNumber + ")", "[]");
+        final TestInformation.MethodCall methodCall = testInformation.addMethodCall("m", 1, "(Ljava/lang/String;)V", "Callee", new int[] { 1 },
+                                                                                    sequenceNumber, "Test:" + testMethod + ":()V", 2,
+                                                                                    "pc('Test:" + testMethod + "', " + sequenceNumber + ")");
+        methodCall.getParameterSet().addParameter(PrologFactPrinter.quote("it's a \\path\\"));
+        testInformation.addExceptionThrown("java/lang/Error");
+        return testInformation;
+    }
+
+    private String printStore() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(FactStoreReader reader = new FactStoreReader(this.store);
+            PrintStream out = new PrintStream(bytes, true, "UTF-8")) {
+            reader.read(new PrologFactPrinter(out));
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,132 @@
+package it.cnr.saks.hyperion.similarity;
+
+import it.cnr.saks.hyperion.discovery.DiscoveryConfiguration;
+import jbse.bc.ClassFile;
+import jbse.bc.Signature;
+import jbse.common.Type;
+import jbse.mem.State;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static jbse.mem.TestStates.CALC;
+import static jbse.mem.TestStates.newState;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InformationLoggerTest {
+    private File prolog;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        this.prolog = File.createTempFile("hyperion-test", ".pl");
+    }
+
+    @AfterEach
+    void deleteFile() {
+        this.prolog.delete();
+    }
+
+    private static InformationLogger newLogger(FactWriter factWriter, int factBatchSize, boolean normalizePathConditions) throws Exception {
+        final File json = File.createTempFile("hyperion-test", ".json");
+        final DiscoveryConfiguration discoveryConfiguration;
+        try {
+            Files.write(json.toPath(), ("{ \"testPrograms\": [], \"sut\": [], \"additionalClasspath\": [], \"excludeTracedPackages\": [], " +
+                                        "\"factBatchSize\": " + factBatchSize + ", \"normalizePathConditions\": " + normalizePathConditions + " }")
+                                       .getBytes(StandardCharsets.UTF_8));
+            discoveryConfiguration = DiscoveryConfiguration.loadConfiguration(json);
+        } finally {
+            json.delete();
+        }
+        final InformationLogger informationLogger = new InformationLogger(discoveryConfiguration, factWriter);
+        informationLogger.prepareForNewTestProgram(0, "p.T", "t");
+        return informationLogger;
+    }
+
+    /**
+     * Records an invocation of {@code callee} in the state, as {@link InformationLogger#onMethodCall(State)}
+     * does for the current method, and submits the facts if the batch is full.
+     */
+    private static void methodCall(InformationLogger informationLogger, State s, int sequenceNumber, String callee) throws Exception {
+        final Method inspectMethodCall = InformationLogger.class.getDeclaredMethod("inspectMethodCall", State.class, String.class, Signature.class,
+                                                                                   ClassFile.class, int[].class, int.class, String.class, int.class);
+        final Method submitIfFull = InformationLogger.class.getDeclaredMethod("submitIfFull");
+        inspectMethodCall.setAccessible(true);
+        submitIfFull.setAccessible(true);
+        try {
+            inspectMethodCall.invoke(informationLogger, s, callee, new Signature("p/C", "()V", callee), s.getCurrentClass(),
+                                     new int[] { 1 }, sequenceNumber, "p/T:t:()V", 0);
+            submitIfFull.invoke(informationLogger);
+        } catch (InvocationTargetException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private List<String> facts(String functor) throws IOException {
+        final ArrayList<String> ret = new ArrayList<>();
+        for(String line: Files.readAllLines(this.prolog.toPath(), StandardCharsets.UTF_8)) {
+            if(line.startsWith(functor + "("))
+                ret.add(line);
+        }
+        return ret;
+    }
+
+    @Test
+    void eachDistinctPathConditionIsEmittedOnceAcrossBatches() throws Exception {
+        final FactWriter factWriter = new FactWriter(this.prolog.getPath());
+        // A batch per fact, so that every invocation is submitted in a batch of its own
+        final InformationLogger informationLogger = newLogger(factWriter, 1, true);
+        final State s = newState(1);
+        methodCall(informationLogger, s, 1, "a");
+        methodCall(informationLogger, s, 2, "b");
+        s.assume(CALC.push(CALC.valTerm(Type.INT, "y")).lt(CALC.valInt(0)).pop());
+        methodCall(informationLogger, s, 3, "c");
+        informationLogger.emitDatalog();
+        factWriter.close();
+
+        final List<String> pathConditions = facts("path_condition");
+        assertEquals(2, pathConditions.size(), pathConditions.toString());
+        assertTrue(pathConditions.get(0).startsWith("path_condition(pc('p.T:t', 0), ["), pathConditions.get(0));
+        assertTrue(pathConditions.get(1).startsWith("path_condition(pc('p.T:t', 1), ["), pathConditions.get(1));
+        // The second path condition extends the first one
+        final String clauses0 = pathConditions.get(0).substring(pathConditions.get(0).indexOf('[') + 1, pathConditions.get(0).lastIndexOf(']'));
+        assertTrue(pathConditions.get(1).contains("[" + clauses0 + ", "), pathConditions.toString());
+
+        final List<String> invokes = facts("invokes");
+        assertEquals(3, invokes.size(), invokes.toString());
+        assertTrue(invokes.get(0).contains(", pc('p.T:t', 0), ") && invokes.get(0).contains(":a:()V'"), invokes.get(0));
+        assertTrue(invokes.get(1).contains(", pc('p.T:t', 0), ") && invokes.get(1).contains(":b:()V'"), invokes.get(1));
+        assertTrue(invokes.get(2).contains(", pc('p.T:t', 1), ") && invokes.get(2).contains(":c:()V'"), invokes.get(2));
+        // Each path condition precedes the first invocation that refers to it
+        final List<String> lines = Files.readAllLines(this.prolog.toPath(), StandardCharsets.UTF_8);
+        assertTrue(lines.indexOf(pathConditions.get(1)) < lines.indexOf(invokes.get(2)), lines.toString());
+    }
+
+    @Test
+    void pathConditionsAreInlinedIfNotNormalized() throws Exception {
+        final FactWriter factWriter = new FactWriter(this.prolog.getPath());
+        final InformationLogger informationLogger = newLogger(factWriter, 1, false);
+        final State s = newState(1);
+        methodCall(informationLogger, s, 1, "a");
+        methodCall(informationLogger, s, 2, "b");
+        informationLogger.emitDatalog();
+        factWriter.close();
+
+        assertEquals(Collections.emptyList(), facts("path_condition"));
+        final List<String> invokes = facts("invokes");
+        assertEquals(2, invokes.size(), invokes.toString());
+        for(String invoke: invokes) {
+            assertFalse(invoke.contains("pc("), invoke);
+            assertTrue(invoke.contains(", [constr("), invoke);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package it.cnr.saks.hyperion.similarity.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommonSequenceTest {
+    private static final int LISTS = 40;
+
+    @Test
+    void equalElementsMatchAsInTheDynamicProgrammingTable() {
+        for(int alphabet: new int[] { 2, 4, 20 }) {
+            final FactBase factBase = randomFactBase(new Random(alphabet), alphabet);
+            checkAgainstReference(factBase, new InvokesDomain(factBase, null));
+        }
+    }
+
+    @Test
+    void similarElementsMatchAsInTheDynamicProgrammingTable() {
+        for(int alphabet: new int[] { 4, 20 }) {
+            final FactBase factBase = randomFactBase(new Random(100 + alphabet), alphabet);
+            checkAgainstReference(factBase, new ModuloDomain(factBase));
+        }
+    }
+
+    @Test
+    void lengthsAtWordBoundaries() {
+        final FactBase factBase = new FactBase();
+        for(int length: new int[] { 63, 64, 65, 128, 129 }) {
+            for(int i = 0; i < length; i++)
+                addInvoke(factBase, "same:" + length, "c" + (i % 3));
+        }
+        final Domain domain = new InvokesDomain(factBase, null);
+        for(String testProgram: factBase.invokesByTestProgram().keySet()) {
+            final ElementList list = list(factBase, domain, testProgram);
+            assertEquals(list.length(), CommonSequence.length(domain, list, list));
+        }
+    }
+
+    private static void checkAgainstReference(FactBase factBase, Domain domain) {
+        for(String testProgram1: factBase.invokesByTestProgram().keySet()) {
+            for(String testProgram2: factBase.invokesByTestProgram().keySet()) {
+                final ElementList list1 = list(factBase, domain, testProgram1);
+                final ElementList list2 = list(factBase, domain, testProgram2);
+                assertEquals(referenceLength(domain, list1, list2), CommonSequence.length(domain, list1, list2),
+                             testProgram1 + " vs " + testProgram2);
+            }
+        }
+    }
+
+    /**
+     * Builds test programs whose lengths span several words of the bit-parallel algorithm.
+     */
+    private static FactBase randomFactBase(Random random, int alphabet) {
+        final FactBase factBase = new FactBase();
+        for(int tp = 0; tp < LISTS; tp++) {
+            final int length = 1 + random.nextInt(tp % 4 == 0 ? 64 : 300);
+            for(int i = 0; i < length; i++)
+                addInvoke(factBase, String.format("tp%02d", tp), "c" + random.nextInt(alphabet));
+        }
+        return factBase;
+    }
+
+    private static void addInvoke(FactBase factBase, String testProgram, String callee) {
+        final List<String> noParameters = Collections.emptyList();
+        factBase.invokes(testProgram, new int[0], 0, "caller", 0, 0, "[]", callee, noParameters);
+    }
+
+    private static ElementList list(FactBase factBase, Domain domain, String testProgram) {
+        final List<Invoke> invokes = factBase.invokesByTestProgram().get(testProgram);
+        return ElementList.of(testProgram, invokes.toArray(new Invoke[invokes.size()]), domain);
+    }
+
+    private static int referenceLength(Domain domain, ElementList list1, ElementList list2) {
+        final int[] a = list1.elements;
+        final int[] b = list2.elements;
+        final int[][] table = new int[a.length + 1][b.length + 1];
+        for(int i = 1; i <= a.length; i++) {
+            for(int j = 1; j <= b.length; j++) {
+                if(domain.matches(a[i - 1], b[j - 1]))
+                    table[i][j] = table[i - 1][j - 1] + 1;
+                else
+                    table[i][j] = Math.max(table[i - 1][j], table[i][j - 1]);
+            }
+        }
+        return table[a.length][b.length];
+    }
+
+    /**
+     * A domain whose elements match if their identifiers are congruent modulo 3, so that
+     * the match masks are not just the positions of the elements.
+     */
+    private static final class ModuloDomain extends Domain {
+        ModuloDomain(FactBase factBase) {
+            mapInvokes(factBase);
+        }
+
+        @Override
+        int computeElement(Invoke invoke) {
+            return invoke.callee;
+        }
+
+        @Override
+        boolean matches(int element1, int element2) {
+            return element1 % 3 == element2 % 3;
+        }
+
+        @Override
+        int key(int element) {
+            return element % 3;
+        }
+
+        @Override
+        boolean isIdentity() {
+            return false;
+        }
+    }
+}
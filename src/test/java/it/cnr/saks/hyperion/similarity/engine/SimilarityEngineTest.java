@@ -0,0 +1,141 @@
+package it.cnr.saks.hyperion.similarity.engine;
+
+import it.cnr.saks.hyperion.similarity.SimilarTests;
+import it.cnr.saks.hyperion.similarity.SimilarityException;
+import it.cnr.saks.hyperion.similarity.store.FactStoreConverter;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the answers of the engine on {@code similarity/engine-invokes.pl} against the ones
+ * that follow from the definitions of {@code similar_tp/7} and {@code similarity_score/4}.
+ */
+public class SimilarityEngineTest {
+    private static final String BLACK_LIST = "org/springframework/test";
+    private static final double TWO_THIRDS = 2.0 / 3;
+    private static final double ONE_THIRD = 1.0 / 3;
+
+    static File invokesFile() throws URISyntaxException {
+        return new File(SimilarityEngineTest.class.getResource("/similarity/engine-invokes.pl").toURI());
+    }
+
+    private static FactBase factBase(File file) throws Exception {
+        final FactBase factBase = new FactBase();
+        factBase.load(file);
+        return factBase;
+    }
+
+    private static List<String> answers(FactBase factBase, String metric, String source, String blackList) throws SimilarityException {
+        final ArrayList<String> ret = new ArrayList<>();
+        for(SimilarTests similarTests: new SimilarityEngine(factBase, 2).computeSimilarity(metric, "invokes", source, blackList))
+            ret.add(answer(similarTests.getTP1(), similarTests.getTP2(), similarTests.getScore()));
+        return ret;
+    }
+
+    private static String answer(String testProgram1, String testProgram2, double score) {
+        return testProgram1.substring("p.T:".length()) + " " + testProgram2.substring("p.T:".length()) + " " + String.format("%.4f", score);
+    }
+
+    private static List<String> expected(Object... answers) {
+        final ArrayList<String> ret = new ArrayList<>();
+        for(int i = 0; i < answers.length; i += 3)
+            ret.add(answer("p.T:" + answers[i], "p.T:" + answers[i + 1], (Double) answers[i + 2]));
+        return ret;
+    }
+
+    @Test
+    void setCriteria() throws Exception {
+        final FactBase factBase = factBase(invokesFile());
+        assertEquals(expected("a", "d", 1.0, "d", "a", 1.0),
+                     answers(factBase, "nonemptyEqSet", "trace", null));
+        assertEquals(expected("a", "d", 1.0, "c", "a", TWO_THIRDS, "c", "b", TWO_THIRDS, "c", "d", TWO_THIRDS, "d", "a", 1.0),
+                     answers(factBase, "nonemptySubSet", "trace", null));
+        assertEquals(expected("a", "b", TWO_THIRDS, "a", "c", 1.0, "a", "d", 1.0,
+                              "b", "a", TWO_THIRDS, "b", "c", 1.0, "b", "d", TWO_THIRDS,
+                              "c", "a", 1.0, "c", "b", 1.0, "c", "d", 1.0,
+                              "d", "a", 1.0, "d", "b", TWO_THIRDS, "d", "c", 1.0),
+                     answers(factBase, "nonemptyIntersection", "trace", null));
+    }
+
+    @Test
+    void sequenceCriteria() throws Exception {
+        final FactBase factBase = factBase(invokesFile());
+        assertEquals(Collections.emptyList(), answers(factBase, "nonemptyEqSeq", "trace", null));
+        assertEquals(expected("c", "d", TWO_THIRDS), answers(factBase, "nonemptySubSeq", "trace", null));
+        assertEquals(expected("a", "b", TWO_THIRDS, "a", "c", 0.5, "a", "d", ONE_THIRD,
+                              "b", "a", TWO_THIRDS, "b", "c", 0.5, "b", "d", ONE_THIRD,
+                              "c", "a", 0.5, "c", "b", 0.5, "c", "d", 1.0,
+                              "d", "a", ONE_THIRD, "d", "b", ONE_THIRD, "d", "c", 1.0),
+                     answers(factBase, "nonemptyCommonSeq", "trace", null));
+    }
+
+    @Test
+    void blackListedCallersAndCalleesAreIgnored() throws Exception {
+        final FactBase factBase = factBase(invokesFile());
+        assertEquals(expected("a", "c", 1.0, "a", "d", 1.0, "c", "a", 1.0, "c", "d", 1.0, "d", "a", 1.0, "d", "c", 1.0),
+                     answers(factBase, "nonemptyEqSet", "trace", BLACK_LIST));
+        assertEquals(expected("c", "d", 1.0, "d", "c", 1.0),
+                     answers(factBase, "nonemptyEqSeq", "trace", BLACK_LIST));
+        // An empty black list ignores nothing
+        assertEquals(answers(factBase, "nonemptyEqSet", "trace", null), answers(factBase, "nonemptyEqSet", "trace", ""));
+    }
+
+    @Test
+    void invokeSequencesOnlyHaveTheDirectInvocationsOfTheEntryPoint() throws Exception {
+        final FactBase factBase = new FactBase();
+        addInvoke(factBase, "p.T:e", new int[] { 1 }, 1, "p/T:e:()V", "x:f");
+        addInvoke(factBase, "p.T:e", new int[] { 1 }, 2, "x:f", "y:n");
+        addInvoke(factBase, "p.T:e", new int[] { 1 }, 3, "p/T:e:()V", "x:g");
+        addInvoke(factBase, "p.T:f", new int[] { 1 }, 1, "p/T:f:()V", "x:f");
+        addInvoke(factBase, "p.T:f", new int[] { 1 }, 2, "p/T:f:()V", "x:g");
+        assertEquals(Collections.emptyList(), answers(factBase, "nonemptyEqSeq", "trace", null));
+        assertEquals(expected("e", "f", 1.0, "f", "e", 1.0), answers(factBase, "nonemptyEqSeq", "iseq", null));
+    }
+
+    @Test
+    void prologFilesAndFactStoresGiveTheSameAnswers() throws Exception {
+        final File store = File.createTempFile("hyperion-test", ".hypf");
+        try {
+            FactStoreConverter.toFactStore(invokesFile(), store);
+            final FactBase fromProlog = factBase(invokesFile());
+            final FactBase fromStore = factBase(store);
+            for(String metric: Arrays.asList("nonemptySubSet", "nonemptyCommonSeq"))
+                assertEquals(answers(fromProlog, metric, "trace", null), answers(fromStore, metric, "trace", null));
+        } finally {
+            store.delete();
+        }
+    }
+
+    @Test
+    void theAnswersDoNotDependOnTheParallelism() throws Exception {
+        final FactBase factBase = factBase(invokesFile());
+        final SimilarTests[] sequential = new SimilarityEngine(factBase, 1).computeSimilarity("nonemptyIntersection", "invokes", "trace", null);
+        final SimilarTests[] parallel = new SimilarityEngine(factBase, 8).computeSimilarity("nonemptyIntersection", "invokes", "trace", null);
+        assertEquals(sequential.length, parallel.length);
+        for(int i = 0; i < sequential.length; i++) {
+            assertEquals(sequential[i].getTP1(), parallel[i].getTP1());
+            assertEquals(sequential[i].getTP2(), parallel[i].getTP2());
+            assertEquals(sequential[i].getScore(), parallel[i].getScore());
+        }
+    }
+
+    @Test
+    void unknownParametersAreRejected() throws Exception {
+        final SimilarityEngine engine = new SimilarityEngine(factBase(invokesFile()), 1);
+        assertThrows(SimilarityException.class, () -> engine.computeSimilarity("nonemptySuperSet", "invokes", "trace", null));
+        assertThrows(SimilarityException.class, () -> engine.computeSimilarity("nonemptySubSet", "callees", "trace", null));
+        assertThrows(SimilarityException.class, () -> engine.computeSimilarity("nonemptySubSet", "invokes", "path", null));
+    }
+
+    private static void addInvoke(FactBase factBase, String testProgram, int[] branchPoints, int sequenceNumber, String caller, String callee) {
+        factBase.invokes(testProgram, branchPoints, sequenceNumber, caller, 0, 0, "[]", callee, Collections.emptyList());
+    }
+}
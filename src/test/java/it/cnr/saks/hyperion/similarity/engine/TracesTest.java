@@ -0,0 +1,69 @@
+package it.cnr.saks.hyperion.similarity.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TracesTest {
+    private static final String ENTRY_POINT = "p/T:t:()V";
+
+    /**
+     * The entry point invokes a, which invokes n, then the execution branches
+     * and the entry point invokes either b, then c, or d.
+     */
+    private static FactBase branchingFactBase() {
+        final FactBase factBase = new FactBase();
+        addInvoke(factBase, new int[] { 1 }, 1, ENTRY_POINT, "a");
+        addInvoke(factBase, new int[] { 1 }, 2, "a", "n");
+        addInvoke(factBase, new int[] { 1, 1 }, 5, ENTRY_POINT, "b");
+        addInvoke(factBase, new int[] { 1, 1, 1 }, 7, ENTRY_POINT, "c");
+        addInvoke(factBase, new int[] { 1, 2 }, 5, ENTRY_POINT, "d");
+        return factBase;
+    }
+
+    private static void addInvoke(FactBase factBase, int[] branchPoints, int sequenceNumber, String caller, String callee) {
+        factBase.invokes("p.T:t", branchPoints, sequenceNumber, caller, 0, 0, "[]", callee, Collections.emptyList());
+    }
+
+    private static List<String> callees(FactBase factBase, List<Invoke[]> sequences) {
+        final ArrayList<String> ret = new ArrayList<>();
+        for(Invoke[] sequence: sequences) {
+            final StringBuilder callees = new StringBuilder();
+            for(Invoke invoke: sequence)
+                callees.append(factBase.name(invoke.callee));
+            ret.add(callees.toString());
+        }
+        return ret;
+    }
+
+    @Test
+    void tracesFollowEveryBranch() {
+        final FactBase factBase = branchingFactBase();
+        final List<Invoke> invokes = factBase.invokesByTestProgram().get("p.T:t");
+        assertEquals(Arrays.asList("anbc", "and"), callees(factBase, Traces.traces(invokes, factBase.id(ENTRY_POINT))));
+    }
+
+    @Test
+    void invokeSequencesOnlyHaveTheInvocationsOfTheCaller() {
+        final FactBase factBase = branchingFactBase();
+        final List<Invoke> invokes = factBase.invokesByTestProgram().get("p.T:t");
+        assertEquals(Arrays.asList("abc", "ad"), callees(factBase, Traces.invokeSequences(invokes, factBase.id(ENTRY_POINT))));
+        // A single invocation is not a sequence
+        assertEquals(Collections.emptyList(), Traces.invokeSequences(invokes, factBase.id("a")));
+    }
+
+    @Test
+    void invocationsAreOrderedBySequenceNumberWithinABranch() {
+        final FactBase factBase = new FactBase();
+        addInvoke(factBase, new int[] { 1 }, 9, ENTRY_POINT, "c");
+        addInvoke(factBase, new int[] { 1 }, 1, ENTRY_POINT, "a");
+        addInvoke(factBase, new int[] { 1 }, 4, ENTRY_POINT, "b");
+        final List<Invoke> invokes = factBase.invokesByTestProgram().get("p.T:t");
+        assertEquals(Collections.singletonList("abc"), callees(factBase, Traces.traces(invokes, factBase.id(ENTRY_POINT))));
+    }
+}
@@ -0,0 +1,59 @@
+package it.cnr.saks.hyperion.similarity.prolog;
+
+import org.jpl7.Query;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that {@code invokes_path_condition/2} gives the clauses of the path conditions
+ * both when they are inlined in the invokes facts and when they are normalized. It needs
+ * SWI-Prolog, located as {@link PrologQueryHelper#init()} does, and is skipped otherwise.
+ */
+public class PathConditionRelationsTest {
+    private static final String[] FACTS = {
+        "path_condition(pc('p.T:n', 0), [constr('x > 0')]).",
+        "path_condition(pc('p.T:n', 1), [constr('x > 0'), constr('y < 0')]).",
+        "invokes('p.T:n', [1], 1, 'p/T:n:()V', 0, 0, pc('p.T:n', 0), 'p/C:a:()V', []).",
+        "invokes('p.T:n', [1], 2, 'p/T:n:()V', 0, 0, pc('p.T:n', 0), 'p/C:b:()V', []).",
+        "invokes('p.T:n', [1], 3, 'p/T:n:()V', 0, 0, pc('p.T:n', 1), 'p/C:c:()V', []).",
+        "invokes('p.T:i', [1], 1, 'p/T:i:()V', 0, 0, [constr('x > 0')], 'p/C:a:()V', []).",
+        "invokes('p.T:i', [1], 2, 'p/T:i:()V', 0, 0, [constr('x > 0'), constr('y < 0')], 'p/C:c:()V', []).",
+    };
+
+    private static boolean pathConditionIs(String testProgram, int sequenceNumber, String clauses) {
+        return new Query("I = invokes('" + testProgram + "',_," + sequenceNumber + ",_,_,_,_,_,_), call(I), " +
+                         "invokes_path_condition(I, Clauses), Clauses == " + clauses).hasSolution();
+    }
+
+    @Test
+    void normalizedAndInlinedPathConditionsGiveTheSameClauses() throws Exception {
+        assumeTrue(System.getenv("SWI_HOME_DIR") != null || System.getenv("SWI_EXEC_FILE") != null || System.getenv("SWIPL_BOOT_FILE") != null,
+                   "SWI-Prolog is not configured");
+
+        final File invokes = File.createTempFile("hyperion-test", ".pl");
+        final File noRegexes = File.createTempFile("hyperion-test", ".pl");
+        try {
+            Files.write(invokes.toPath(), Arrays.asList(FACTS), StandardCharsets.UTF_8);
+            final SimilarityAnalysis prolog = new SimilarityAnalysis();
+            prolog.loadPrologDataset(noRegexes.getPath(), Collections.singletonList(invokes.getPath()));
+
+            assertTrue(pathConditionIs("p.T:n", 1, "[constr('x > 0')]"));
+            assertTrue(pathConditionIs("p.T:n", 2, "[constr('x > 0')]"));
+            assertTrue(pathConditionIs("p.T:n", 3, "[constr('x > 0'), constr('y < 0')]"));
+            assertTrue(pathConditionIs("p.T:i", 1, "[constr('x > 0')]"));
+            assertTrue(pathConditionIs("p.T:i", 2, "[constr('x > 0'), constr('y < 0')]"));
+            assertFalse(pathConditionIs("p.T:n", 3, "[constr('x > 0')]"));
+        } finally {
+            invokes.delete();
+            noRegexes.delete();
+        }
+    }
+}
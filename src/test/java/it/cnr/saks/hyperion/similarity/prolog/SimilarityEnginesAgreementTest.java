@@ -0,0 +1,65 @@
+package it.cnr.saks.hyperion.similarity.prolog;
+
+import it.cnr.saks.hyperion.similarity.SimilarTests;
+import it.cnr.saks.hyperion.similarity.engine.FactBase;
+import it.cnr.saks.hyperion.similarity.engine.SimilarityEngine;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the Prolog and the Java engines on the same facts and compares their answers. It needs
+ * SWI-Prolog, located as {@link PrologQueryHelper#init()} does, and is skipped otherwise.
+ */
+public class SimilarityEnginesAgreementTest {
+    private static final String[] METRICS = { "nonemptyEqSet", "nonemptySubSet", "nonemptyIntersection",
+                                              "nonemptyEqSeq", "nonemptySubSeq", "nonemptyCommonSeq" };
+    private static final String[] SOURCES = { "trace", "iseq" };
+    private static final String[] BLACK_LISTS = { "", "org/springframework/test" };
+
+    /**
+     * The distinct answers, in the order they are first given: Prolog gives some
+     * answers of {@code nonemptySubSeq} more than once.
+     */
+    private static List<String> answers(SimilarTests[] similarTests) {
+        final LinkedHashSet<String> ret = new LinkedHashSet<>();
+        for(SimilarTests s: similarTests)
+            ret.add(s.getTP1() + " " + s.getTP2() + " " + String.format("%.6f", s.getScore()));
+        return new ArrayList<>(ret);
+    }
+
+    @Test
+    void bothEnginesGiveTheSameAnswers() throws Exception {
+        assumeTrue(System.getenv("SWI_HOME_DIR") != null || System.getenv("SWI_EXEC_FILE") != null || System.getenv("SWIPL_BOOT_FILE") != null,
+                   "SWI-Prolog is not configured");
+
+        final File invokes = new File(SimilarityEnginesAgreementTest.class.getResource("/similarity/engine-invokes.pl").toURI());
+        final File noRegexes = File.createTempFile("hyperion-test", ".pl");
+        try {
+            final SimilarityAnalysis prolog = new SimilarityAnalysis();
+            prolog.loadPrologDataset(noRegexes.getPath(), Collections.singletonList(invokes.getPath()));
+            final FactBase factBase = new FactBase();
+            factBase.load(invokes);
+            final SimilarityEngine java = new SimilarityEngine(factBase, 2);
+
+            for(String metric: METRICS) {
+                for(String source: SOURCES) {
+                    for(String blackList: BLACK_LISTS) {
+                        assertEquals(answers(prolog.computeSimilarity(metric, "invokes", source, blackList)),
+                                     answers(java.computeSimilarity(metric, "invokes", source, blackList)),
+                                     metric + " on " + source + " with black list '" + blackList + "'");
+                    }
+                }
+            }
+        } finally {
+            noRegexes.delete();
+        }
+    }
+}
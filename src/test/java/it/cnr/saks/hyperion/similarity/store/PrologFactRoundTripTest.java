@@ -0,0 +1,159 @@
+package it.cnr.saks.hyperion.similarity.store;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrologFactRoundTripTest {
+    private static final String TRICKY = "it's a \\path\\ with\na line break,\ta tab, \u0001 and [brackets]";
+
+    private File prolog;
+    private File store;
+
+    @BeforeEach
+    void createFiles() throws IOException {
+        this.prolog = File.createTempFile("hyperion-test", ".pl");
+        this.store = File.createTempFile("hyperion-test", ".hypf");
+    }
+
+    @AfterEach
+    void deleteFiles() {
+        this.prolog.delete();
+        this.store.delete();
+    }
+
+    @Test
+    void quoteEscapesQuotesBackslashesAndControlCharacters() {
+        assertEquals("'it''s'", PrologFactPrinter.quote("it's"));
+        assertEquals("'a\\\\b'", PrologFactPrinter.quote("a\\b"));
+        assertEquals("'a\\nb\\rc\\td'", PrologFactPrinter.quote("a\nb\rc\td"));
+        assertEquals("'\\x1\\'", PrologFactPrinter.quote("\u0001"));
+        assertFalse(PrologFactPrinter.quote(TRICKY).contains("\n"));
+    }
+
+    @Test
+    void unquoteInvertsQuote() {
+        assertEquals(TRICKY, PrologFactParser.unquote(PrologFactPrinter.quote(TRICKY)));
+        assertEquals("", PrologFactParser.unquote("''"));
+        assertEquals("unquoted", PrologFactParser.unquote("unquoted"));
+        // Escape sequences written by Prolog rather than by the printer
+        assertEquals("it's \"A\"", PrologFactParser.unquote("'it\\'s \\\"\\x41\\\"'"));
+        assertEquals("\u0007", PrologFactParser.unquote("'\\7\\'"));
+    }
+
+    @Test
+    void unquoteRejectsMalformedEscapes() {
+        assertThrows(IllegalArgumentException.class, () -> PrologFactParser.unquote("'\\x41'"));
+        assertThrows(IllegalArgumentException.class, () -> PrologFactParser.unquote("'\\'"));
+    }
+
+    @Test
+    void printerParserAndStoreRoundTrip() throws IOException {
+        final Recorder expected = new Recorder();
+        writeFacts(expected);
+
+        // Printer to Prolog text, one fact per line
+        final String text = print(this::writeFacts);
+        Files.write(this.prolog.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        assertEquals(6, text.split("\n").length);
+
+        // Prolog text to store, and back
+        FactStoreConverter.toFactStore(this.prolog, this.store);
+        assertTrue(FactStore.isFactStore(this.store));
+        final Recorder fromStore = new Recorder();
+        try(FactStoreReader reader = new FactStoreReader(this.store)) {
+            reader.read(fromStore);
+        }
+        assertEquals(expected.facts, fromStore.facts);
+        assertEquals(text, print(sink -> {
+            try(FactStoreReader reader = new FactStoreReader(this.store)) {
+                reader.read(sink);
+            }
+        }));
+    }
+
+    @Test
+    void parserAcceptsLineBreaksInQuotedAtoms() throws IOException {
+        Files.write(this.prolog.toPath(), Arrays.asList(
+                ":- dynamic skipped/2.",
+                "% A comment with a quote: '",
+                "skipped('A:test', 'first line",
+                "second line').",
+                "exception('A:test', 'java/lang/Error')."), StandardCharsets.UTF_8);
+
+        final Recorder recorder = new Recorder();
+        PrologFactParser.parse(this.prolog, recorder);
+        assertEquals(Arrays.asList("skipped|A:test|first line\nsecond line", "exception|A:test|java/lang/Error"), recorder.facts);
+    }
+
+    @Test
+    void parserReportsTheLineOfMalformedFacts() throws IOException {
+        Files.write(this.prolog.toPath(), Arrays.asList("exception('A:test', 'java/lang/Error').", "exception('A:test')."), StandardCharsets.UTF_8);
+        final IOException e = assertThrows(IOException.class, () -> PrologFactParser.parse(this.prolog, new Recorder()));
+        assertTrue(e.getMessage().contains(":2:"), e.getMessage());
+    }
+
+    private void writeFacts(FactSink sink) throws IOException {
+        sink.pathCondition("pc('A:test', 0)", "[constr('{R0} == \\'x\\'')]");
+        sink.invokes("A:test", new int[] { 1, 2 }, 3, "A:test()V", 4, 5, "pc('A:test', 0)", "B:m:(Ljava/lang/String;)V",
+                     Arrays.asList(PrologFactPrinter.quote(TRICKY), "'null'"));
+        sink.invokes("A:test", new int[0], 0, TRICKY, 0, 1, "[]", "B:n:()V", new ArrayList<>());
+        sink.invokes("A:test", new int[] { 1 }, 1, "A:test()V", 6, 1, "[]", "B:m:(Ljava/lang/String;)V",
+                     Arrays.asList(PrologFactPrinter.quote(TRICKY), "'null'"));
+        sink.exception("A:test", "java/lang/Error");
+        sink.skipped("A:test", TRICKY);
+    }
+
+    private interface Writer {
+        void write(FactSink sink) throws IOException;
+    }
+
+    private static String print(Writer writer) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(PrintStream out = new PrintStream(bytes, true, "UTF-8")) {
+            writer.write(new PrologFactPrinter(out));
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Records the facts it receives as strings.
+     */
+    static class Recorder implements FactSink {
+        final List<String> facts = new ArrayList<>();
+
+        @Override
+        public void invokes(String testProgram, int[] branchPoints, int sequenceNumber, String caller, int callerPC, int frameEpoch,
+                            String pathCondition, String callee, List<String> parameters) {
+            this.facts.add("invokes|" + testProgram + "|" + Arrays.toString(branchPoints) + "|" + sequenceNumber + "|" + caller + "|" +
+                           callerPC + "|" + frameEpoch + "|" + pathCondition + "|" + callee + "|" + parameters);
+        }
+
+        @Override
+        public void exception(String testProgram, String exceptionClass) {
+            this.facts.add("exception|" + testProgram + "|" + exceptionClass);
+        }
+
+        @Override
+        public void pathCondition(String id, String clauses) {
+            this.facts.add("path_condition|" + id + "|" + clauses);
+        }
+
+        @Override
+        public void skipped(String testProgram, String reason) {
+            this.facts.add("skipped|" + testProgram + "|" + reason);
+        }
+    }
+}
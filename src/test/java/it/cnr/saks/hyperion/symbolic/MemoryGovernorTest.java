@@ -0,0 +1,45 @@
+package it.cnr.saks.hyperion.symbolic;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryGovernorTest {
+    private static Map<String, Long> thresholds() {
+        final Map<String, Long> thresholds = new HashMap<>();
+        for(MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()) {
+            if(pool.getType() != MemoryType.HEAP)
+                continue;
+            if(pool.isUsageThresholdSupported())
+                thresholds.put(pool.getName() + "/usage", pool.getUsageThreshold());
+            if(pool.isCollectionUsageThresholdSupported())
+                thresholds.put(pool.getName() + "/collection", pool.getCollectionUsageThreshold());
+        }
+        return thresholds;
+    }
+
+    @Test
+    void closeRestoresThePreviousThresholds() {
+        final Map<String, Long> before = thresholds();
+        final MemoryGovernor governor = new MemoryGovernor();
+        assertNotEquals(before, thresholds());
+        governor.close();
+        assertEquals(before, thresholds());
+    }
+
+    @Test
+    void thereIsNoPressureOnAnIdleHeap() {
+        try(final MemoryGovernor governor = new MemoryGovernor()) {
+            final long collections = governor.getCollectionCount();
+            System.gc();
+            assertTrue(governor.getCollectionCount() > collections);
+            assertFalse(governor.isUnderPressure());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package it.cnr.saks.hyperion.symbolic;
+
+import com.sun.jdi.PrimitiveValue;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymbolicApplyMemoTest {
+    private static final int THREADS = 8;
+
+    private static PrimitiveValue value() {
+        return (PrimitiveValue) Proxy.newProxyInstance(SymbolicApplyMemoTest.class.getClassLoader(), new Class<?>[] { PrimitiveValue.class },
+                (proxy, method, args) -> {
+                    if(method.getName().equals("equals"))
+                        return proxy == args[0];
+                    if(method.getName().equals("hashCode"))
+                        return System.identityHashCode(proxy);
+                    throw new UnsupportedOperationException();
+                });
+    }
+
+    @Test
+    void concurrentAnalysesKeepTheFirstResult() throws Exception {
+        final SymbolicApplyMemo memo = new SymbolicApplyMemo();
+        final ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final ArrayList<Future<PrimitiveValue>> futures = new ArrayList<>();
+            for(int i = 0; i < THREADS; i++) {
+                futures.add(threads.submit(() -> {
+                    start.await();
+                    if(memo.get("f(1)") == null)
+                        memo.put("f(1)", value());
+                    return memo.get("f(1)");
+                }));
+            }
+            start.countDown();
+            final HashSet<PrimitiveValue> results = new HashSet<>();
+            for(Future<PrimitiveValue> future: futures)
+                results.add(future.get());
+            assertEquals(1, results.size());
+        } finally {
+            threads.shutdown();
+        }
+        assertEquals(1, memo.size());
+        assertEquals(2 * THREADS, memo.getHits() + memo.getMisses());
+    }
+}
@@ -0,0 +1,121 @@
+package jbse.bc;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.Reference;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jbse.mem.TestStates.NoClassFileFactory;
+
+import static jbse.mem.TestStates.field;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassFileCacheTest {
+    private static final int THREADS = 8;
+    private static final byte[] BYTECODE = { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE };
+
+    /**
+     * Runs {@code task} on {@link #THREADS} threads at once.
+     */
+    private static <T> List<T> concurrently(Callable<T> task) throws Exception {
+        final ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final ArrayList<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; ++i) {
+                futures.add(threads.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            final ArrayList<T> retVal = new ArrayList<>();
+            for (Future<T> future : futures) {
+                retVal.add(future.get());
+            }
+            return retVal;
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentAnalysesShareTheFirstCachedClassFile() throws Exception {
+        final ClassFileCache cache = ClassFileCache.instance();
+        final ClassFileFactory f = new NoClassFileFactory();
+        final Path loadedFrom = Paths.get("concurrent-" + System.nanoTime() + ".jar");
+
+        //every thread creates its own dummy, and all of them get the same one
+        final List<ClassFile> dummies = concurrently(() -> cache.putDummy(f, loadedFrom, 1, "p/C", BYTECODE.clone(), new ClassFileInteger()));
+        assertEquals(1, new HashSet<>(dummies).size());
+        assertSame(dummies.get(0), cache.getDummy(f, loadedFrom, 1, "p/C", BYTECODE.clone()));
+
+        //the same for the complete class file
+        concurrently(() -> {
+            cache.putComplete(f, loadedFrom, 1, "p/C", BYTECODE.clone(), new ClassFileInteger());
+            return null;
+        });
+        final List<ClassFile> completes = concurrently(() -> cache.getComplete(f, loadedFrom, 1, "p/C", BYTECODE.clone(), null, new ClassFile[0]));
+        assertEquals(1, new HashSet<>(completes).size());
+        assertNotNull(completes.get(0));
+    }
+
+    @Test
+    void differentClasspathEntriesAreCachedApart() throws Exception {
+        final ClassFileCache cache = ClassFileCache.instance();
+        final ClassFileFactory f = new NoClassFileFactory();
+        final ClassFile dummy1 = new ClassFileInteger();
+        final ClassFile dummy2 = new ClassFileInteger();
+        final long nanos = System.nanoTime();
+        assertSame(dummy1, cache.putDummy(f, Paths.get("a-" + nanos + ".jar"), 1, "p/C", BYTECODE, dummy1));
+        assertSame(dummy2, cache.putDummy(f, Paths.get("b-" + nanos + ".jar"), 1, "p/C", BYTECODE, dummy2));
+        assertNull(cache.getDummy(f, Paths.get("a-" + nanos + ".jar"), 2, "p/C", BYTECODE));
+    }
+
+    @Test
+    void reclaimedClassFilesAreReplacedAndTheirEntriesRemoved() throws Exception {
+        final ClassFileCache cache = ClassFileCache.instance();
+        final ClassFileFactory f = new NoClassFileFactory();
+        final Path loadedFrom = Paths.get("reclaimed-" + System.nanoTime() + ".jar");
+        final ClassFile dummy = new ClassFileInteger();
+        assertSame(dummy, cache.putDummy(f, loadedFrom, 1, "p/C", BYTECODE, dummy));
+        final int size = cache.size();
+
+        //simulates the garbage collector reclaiming the class files
+        final Map<?, ?> entries = (Map<?, ?>) field(cache, "entries");
+        for (Object entry : entries.values()) {
+            final Reference<?> reference = (Reference<?>) entry;
+            if (reference.get() != null && field(reference.get(), "dummy") == dummy) {
+                reference.clear();
+                reference.enqueue();
+            }
+        }
+        assertNull(cache.getDummy(f, loadedFrom, 1, "p/C", BYTECODE));
+        assertEquals(size - 1, cache.size());
+
+        final ClassFile other = new ClassFileInteger();
+        assertSame(other, cache.putDummy(f, loadedFrom, 1, "p/C", BYTECODE, other));
+        assertSame(other, cache.getDummy(f, loadedFrom, 1, "p/C", BYTECODE));
+    }
+
+    @Test
+    void clearEmptiesTheCache() throws Exception {
+        final ClassFileCache cache = ClassFileCache.instance();
+        final ClassFileFactory f = new NoClassFileFactory();
+        final Path loadedFrom = Paths.get("cleared-" + System.nanoTime() + ".jar");
+        cache.putDummy(f, loadedFrom, 1, "p/C", BYTECODE, new ClassFileInteger());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.getDummy(f, loadedFrom, 1, "p/C", BYTECODE));
+    }
+}
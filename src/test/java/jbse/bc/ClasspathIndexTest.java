@@ -0,0 +1,74 @@
+package jbse.bc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static jbse.mem.TestStates.field;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClasspathIndexTest {
+    private static final byte[] BYTECODE = { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE };
+
+    private static void delete(Path path) throws Exception {
+        try (final Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    void directoriesAreListedOnceUntilTheIndexIsClosed() throws Exception {
+        final ClasspathIndex index = ClasspathIndex.instance();
+        final Path dir = Files.createTempDirectory("jbse-test");
+        try {
+            Files.createDirectories(dir.resolve("p"));
+            Files.write(dir.resolve("p/C.class"), BYTECODE);
+            assertArrayEquals(BYTECODE, index.findClassFile(dir, "p/C"));
+            assertNull(index.findClassFile(dir, "p/D"));
+
+            //a class added after the directory was listed is found after closing
+            Files.write(dir.resolve("p/D.class"), BYTECODE);
+            assertNull(index.findClassFile(dir, "p/D"));
+            index.close();
+            assertArrayEquals(BYTECODE, index.findClassFile(dir, "p/D"));
+        } finally {
+            index.close();
+            delete(dir);
+        }
+    }
+
+    @Test
+    void closingTheIndexClosesTheJarFiles() throws Exception {
+        final ClasspathIndex index = ClasspathIndex.instance();
+        final Path jar = Files.createTempFile("jbse-test", ".jar");
+        try {
+            try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar.toFile()))) {
+                out.putNextEntry(new ZipEntry("p/C.class"));
+                out.write(BYTECODE);
+                out.closeEntry();
+            }
+            assertArrayEquals(BYTECODE, index.findClassFile(jar, "p/C"));
+            assertNull(index.findClassFile(jar, "p/D"));
+
+            final Object entry = ((Map<?, ?>) field(index, "entries")).get(jar);
+            final ZipFile jarFile = (ZipFile) field(entry, "jarFile");
+            index.close();
+            assertTrue(((Map<?, ?>) field(index, "entries")).isEmpty());
+            assertThrows(IllegalStateException.class, jarFile::size);
+
+            //the jar file is opened again when searched
+            assertArrayEquals(BYTECODE, index.findClassFile(jar, "p/C"));
+        } finally {
+            index.close();
+            Files.delete(jar);
+        }
+    }
+}
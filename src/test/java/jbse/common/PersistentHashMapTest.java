@@ -0,0 +1,79 @@
+package jbse.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentHashMapTest {
+    @Test
+    void updatesDoNotChangeTheOriginalMap() {
+        final PersistentHashMap<String, Integer> m0 = PersistentHashMap.<String, Integer>empty().put("a", 1).put("b", 2);
+        final PersistentHashMap<String, Integer> m1 = m0.put("a", 10).put("c", 3);
+
+        assertEquals(2, m0.size());
+        assertEquals(Integer.valueOf(1), m0.get("a"));
+        assertFalse(m0.containsKey("c"));
+
+        assertEquals(3, m1.size());
+        assertEquals(Integer.valueOf(10), m1.get("a"));
+        assertEquals(Integer.valueOf(2), m1.get("b"));
+        assertEquals(Integer.valueOf(3), m1.get("c"));
+    }
+
+    @Test
+    void collidingKeysShareABucket() {
+        //"Aa" and "BB" have the same hash code
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        final PersistentHashMap<String, String> m0 = PersistentHashMap.<String, String>empty().put("Aa", "x");
+        final PersistentHashMap<String, String> m1 = m0.put("BB", "y");
+        final PersistentHashMap<String, String> m2 = m1.put("Aa", "z");
+
+        assertEquals(1, m0.size());
+        assertNull(m0.get("BB"));
+        assertEquals(2, m1.size());
+        assertEquals("x", m1.get("Aa"));
+        assertEquals("y", m1.get("BB"));
+        assertEquals(2, m2.size());
+        assertEquals("z", m2.get("Aa"));
+        assertEquals("y", m2.get("BB"));
+    }
+
+    @Test
+    void redundantUpdatesReturnTheSameMap() {
+        final Integer one = 1;
+        final PersistentHashMap<String, Integer> m = PersistentHashMap.<String, Integer>empty().put("a", one);
+        assertSame(m, m.put("a", one));
+        assertThrows(NullPointerException.class, () -> m.put("b", null));
+    }
+
+    @Test
+    void randomUpdatesMatchAHashMap() {
+        final Random random = new Random(5);
+        PersistentHashMap<Integer, Integer> m = PersistentHashMap.empty();
+        final HashMap<Integer, Integer> reference = new HashMap<>();
+        PersistentHashMap<Integer, Integer> snapshot = null;
+        HashMap<Integer, Integer> snapshotReference = null;
+        for (int i = 0; i < 4000; ++i) {
+            final int key = random.nextInt(1000) - 500;
+            m = m.put(key, i);
+            reference.put(key, i);
+            if (i == 2000) {
+                snapshot = m;
+                snapshotReference = new HashMap<>(reference);
+            }
+        }
+        assertMatches(reference, m);
+        assertMatches(snapshotReference, snapshot);
+    }
+
+    private static void assertMatches(Map<Integer, Integer> expected, PersistentHashMap<Integer, Integer> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue(), actual.get(e.getKey()));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package jbse.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentLongMapTest {
+    @Test
+    void emptyMapHasNoEntries() {
+        final PersistentLongMap<String> m = PersistentLongMap.empty();
+        assertEquals(0, m.size());
+        assertTrue(m.isEmpty());
+        assertNull(m.get(0L));
+        assertFalse(m.containsKey(42L));
+        assertEquals(0, m.keys().length);
+    }
+
+    @Test
+    void updatesDoNotChangeTheOriginalMap() {
+        final PersistentLongMap<String> m0 = PersistentLongMap.<String>empty().put(1L, "a").put(70L, "b").put(5000L, "c");
+        final PersistentLongMap<String> m1 = m0.put(70L, "B").put(71L, "d");
+        final PersistentLongMap<String> m2 = m0.remove(1L);
+
+        assertEquals(3, m0.size());
+        assertEquals("a", m0.get(1L));
+        assertEquals("b", m0.get(70L));
+        assertNull(m0.get(71L));
+
+        assertEquals(4, m1.size());
+        assertEquals("B", m1.get(70L));
+        assertEquals("d", m1.get(71L));
+
+        assertEquals(2, m2.size());
+        assertNull(m2.get(1L));
+        assertEquals("c", m2.get(5000L));
+    }
+
+    @Test
+    void keysAreVisitedInUnsignedOrder() {
+        final PersistentLongMap<String> m = PersistentLongMap.<String>empty().put(-1L, "max").put(64L, "b").put(0L, "a").put(Long.MIN_VALUE, "min");
+        assertArrayEquals(new long[] { 0L, 64L, Long.MIN_VALUE, -1L }, m.keys());
+        final StringBuilder sb = new StringBuilder();
+        m.forEach((key, value) -> sb.append(value).append(' '));
+        assertEquals("a b min max ", sb.toString());
+    }
+
+    @Test
+    void redundantUpdatesReturnTheSameMap() {
+        final String a = "a";
+        final PersistentLongMap<String> m = PersistentLongMap.<String>empty().put(3L, a);
+        assertSame(m, m.put(3L, a));
+        assertSame(m, m.remove(4L));
+        assertSame(PersistentLongMap.empty(), m.remove(3L));
+        assertThrows(NullPointerException.class, () -> m.put(4L, null));
+    }
+
+    @Test
+    void randomUpdatesMatchATreeMap() {
+        final Random random = new Random(17);
+        final ArrayList<PersistentLongMap<Integer>> snapshots = new ArrayList<>();
+        final ArrayList<TreeMap<Long, Integer>> expected = new ArrayList<>();
+        PersistentLongMap<Integer> m = PersistentLongMap.empty();
+        final TreeMap<Long, Integer> reference = new TreeMap<>(Long::compareUnsigned);
+        for (int i = 0; i < 5000; ++i) {
+            final long key = randomKey(random);
+            if (random.nextInt(4) == 0) {
+                m = m.remove(key);
+                reference.remove(key);
+            } else {
+                m = m.put(key, i);
+                reference.put(key, i);
+            }
+            if (i % 500 == 0) {
+                snapshots.add(m);
+                expected.add(new TreeMap<>(reference));
+            }
+        }
+        assertMatches(reference, m);
+        for (int i = 0; i < snapshots.size(); ++i) {
+            assertMatches(expected.get(i), snapshots.get(i));
+        }
+    }
+
+    @Test
+    void updatesWithAnEditTokenModifyItsNodesInPlace() {
+        final Object edit = new Object();
+        final PersistentLongMap<String> m0 = PersistentLongMap.<String>empty().put(1L, "a", edit);
+        final PersistentLongMap<String> m1 = m0.put(1L, "b", edit);
+        assertEquals("b", m1.get(1L));
+        
+        //m0 was not dropped before the update, and observes it
+        assertEquals("b", m0.get(1L));
+    }
+
+    @Test
+    void updatesWithAnotherTokenDoNotChangeTheOriginalMap() {
+        final Object edit = new Object();
+        PersistentLongMap<String> m0 = PersistentLongMap.empty();
+        for (long key = 0; key < 1000; key += 7) {
+            m0 = m0.put(key, "a", edit);
+        }
+
+        //the owner of m0 shares it, and goes on with a fresh token
+        final Object otherEdit = new Object();
+        PersistentLongMap<String> m1 = m0;
+        for (long key = 0; key < 1000; key += 7) {
+            m1 = (key % 2 == 0 ? m1.put(key, "b", otherEdit) : m1.remove(key, otherEdit));
+        }
+        for (long key = 0; key < 1000; key += 7) {
+            assertEquals("a", m0.get(key));
+            assertEquals(key % 2 == 0 ? "b" : null, m1.get(key));
+        }
+        assertEquals(143, m0.size());
+        assertEquals(72, m1.size());
+    }
+
+    @Test
+    void transientAndPersistentUpdatesBuildEqualMaps() {
+        final Random random = new Random(42);
+        final Object edit = new Object();
+        PersistentLongMap<Integer> persistent = PersistentLongMap.empty();
+        PersistentLongMap<Integer> transientMap = PersistentLongMap.empty();
+        for (int i = 0; i < 3000; ++i) {
+            final long key = randomKey(random);
+            if (random.nextInt(3) == 0) {
+                persistent = persistent.remove(key);
+                transientMap = transientMap.remove(key, edit);
+            } else {
+                persistent = persistent.put(key, i);
+                transientMap = transientMap.put(key, i, edit);
+            }
+        }
+        assertEquals(persistent.size(), transientMap.size());
+        assertArrayEquals(persistent.keys(), transientMap.keys());
+        for (long key : persistent.keys()) {
+            assertEquals(persistent.get(key), transientMap.get(key));
+        }
+    }
+
+    private static long randomKey(Random random) {
+        switch (random.nextInt(3)) {
+        case 0:
+            return random.nextInt(100);
+        case 1:
+            return random.nextInt(100000);
+        default:
+            return random.nextLong();
+        }
+    }
+
+    private static void assertMatches(TreeMap<Long, Integer> expected, PersistentLongMap<Integer> actual) {
+        assertEquals(expected.size(), actual.size());
+        final long[] keys = actual.keys();
+        int i = 0;
+        for (Map.Entry<Long, Integer> e : expected.entrySet()) {
+            assertEquals((long) e.getKey(), keys[i++]);
+            assertEquals(e.getValue(), actual.get(e.getKey()));
+        }
+    }
+}
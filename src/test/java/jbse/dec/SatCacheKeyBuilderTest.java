@@ -0,0 +1,119 @@
+package jbse.dec;
+
+import jbse.mem.Clause;
+import jbse.mem.ClauseAssume;
+import jbse.mem.ClauseVisitor;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Primitive;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SatCacheKeyBuilderTest {
+    private final CalculatorRewriting calc = new CalculatorRewriting();
+
+    @Test
+    void symbolsAreRenamedAfterTheirFirstAppearance() throws Exception {
+        final SatCacheKeyBuilder b1 = new SatCacheKeyBuilder();
+        b1.push(assume(gt("x", 0)));
+        final SatCacheKeyBuilder b2 = new SatCacheKeyBuilder();
+        b2.push(assume(gt("y", 0)));
+        assertNotNull(b1.key(lt("x", 10)));
+        assertArrayEquals(b1.key(lt("x", 10)), b2.key(lt("y", 10)));
+
+        //the same query on a different symbol is a different query
+        assertFalse(Arrays.equals(b1.key(lt("x", 10)), b2.key(lt("z", 10))));
+        assertFalse(Arrays.equals(b1.key(lt("x", 10)), b1.key(lt("x", 11))));
+    }
+
+    @Test
+    void queriesDoNotRenameTheSymbolsOfLaterQueries() throws Exception {
+        final SatCacheKeyBuilder b = new SatCacheKeyBuilder();
+        b.push(assume(gt("x", 0)));
+        final byte[] first = b.key(lt("y", 10));
+        b.key(lt("z", 10));
+        assertArrayEquals(first, b.key(lt("y", 10)));
+        assertArrayEquals(first, b.key(lt("z", 10)));
+    }
+
+    @Test
+    void popAndClearMirrorTheClauseStack() throws Exception {
+        final SatCacheKeyBuilder reference = new SatCacheKeyBuilder();
+        reference.push(assume(gt("x", 0)));
+        final byte[] expected = reference.key(lt("y", 10));
+        assertNotNull(expected);
+
+        final SatCacheKeyBuilder b = new SatCacheKeyBuilder();
+        b.push(assume(gt("x", 0)));
+        b.push(assume(gt("w", 5)));
+        b.pop();
+        assertArrayEquals(expected, b.key(lt("y", 10)));
+
+        b.push(assume(gt("w", 5)));
+        b.push(assume(lt("v", 3)));
+        b.clear();
+        b.push(assume(gt("x", 0)));
+        assertArrayEquals(expected, b.key(lt("y", 10)));
+    }
+
+    @Test
+    void onlyAssumptionsContributeToTheKey() throws Exception {
+        final byte[] expected = new SatCacheKeyBuilder().key(lt("x", 10));
+        final SatCacheKeyBuilder b = new SatCacheKeyBuilder();
+        b.push(new OtherClause());
+        assertArrayEquals(expected, b.key(lt("x", 10)));
+    }
+
+    @Test
+    void queriesAreNotCacheableAboveAnUncacheableAssumption() throws Exception {
+        final byte[] expected = new SatCacheKeyBuilder().key(lt("x", 10));
+        final Primitive uncacheable = this.calc.push(this.calc.valAny()).lt(this.calc.valInt(1)).pop();
+
+        final SatCacheKeyBuilder b = new SatCacheKeyBuilder();
+        assertNull(b.key(uncacheable));
+        b.push(assume(uncacheable));
+        assertNull(b.key(lt("x", 10)));
+        b.push(assume(gt("y", 0)));
+        b.push(new OtherClause());
+        assertNull(b.key(lt("x", 10)));
+        b.pop();
+        b.pop();
+        assertNull(b.key(lt("x", 10)));
+
+        //popping the uncacheable assumption makes the queries cacheable again
+        b.pop();
+        assertArrayEquals(expected, b.key(lt("x", 10)));
+
+        b.push(assume(uncacheable));
+        b.clear();
+        assertArrayEquals(expected, b.key(lt("x", 10)));
+    }
+
+    private Primitive gt(String symbol, int value) throws Exception {
+        return this.calc.push(this.calc.valTerm('I', symbol)).gt(this.calc.valInt(value)).pop();
+    }
+
+    private Primitive lt(String symbol, int value) throws Exception {
+        return this.calc.push(this.calc.valTerm('I', symbol)).lt(this.calc.valInt(value)).pop();
+    }
+
+    private static ClauseAssume assume(Primitive condition) throws Exception {
+        return new ClauseAssume(condition);
+    }
+
+    /**
+     * A clause outside the theory of the external decision procedure.
+     */
+    private static final class OtherClause implements Clause {
+        @Override
+        public Clause clone() {
+            return this;
+        }
+
+        @Override
+        public void accept(ClauseVisitor v) {
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package jbse.dec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolverProcessPoolTest {
+    //a process that writes an incomplete line and then hangs
+    private static final List<String> HANGING = Arrays.asList("sh", "-c", "printf partial; sleep 60");
+
+    @Test
+    void destroyDoesNotWaitForAnIncompleteLine() throws Exception {
+        final SolverProcess process = new SolverProcess(HANGING);
+        Thread.sleep(200); //lets the process write
+        final long start = System.currentTimeMillis();
+        process.destroy();
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertFalse(process.isAlive());
+    }
+
+    @Test
+    void deadProcessesAreDiscardedAndTheIdleOnesAreBounded() throws Exception {
+        final SolverProcessPool pool = new SolverProcessPool(1);
+        final SolverProcess dead = new SolverProcess(HANGING);
+        final SolverProcess alive = new SolverProcess(HANGING);
+        final SolverProcess exceeding = new SolverProcess(HANGING);
+        try {
+            assertTrue(pool.release(dead));
+            assertFalse(pool.release(exceeding));
+            dead.process.destroyForcibly().waitFor();
+            assertNull(pool.lease(HANGING));
+            assertEquals(1, pool.getDiscarded());
+
+            assertTrue(pool.release(alive));
+            assertSame(alive, pool.lease(HANGING));
+            assertNull(pool.lease(HANGING));
+
+            assertTrue(pool.release(alive));
+            pool.close();
+            assertFalse(alive.isAlive());
+            assertFalse(pool.release(exceeding));
+        } finally {
+            dead.destroy();
+            alive.destroy();
+            exceeding.destroy();
+        }
+    }
+}
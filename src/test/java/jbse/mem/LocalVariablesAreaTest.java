@@ -0,0 +1,52 @@
+package jbse.mem;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import jbse.bc.LocalVariableTable;
+import jbse.val.Value;
+
+import static jbse.mem.TestStates.CALC;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalVariablesAreaTest {
+    /** Slot 0 is named x, slot 1 has no debug information, slots 2-3 hold a long named y. */
+    private static LocalVariablesArea newArea() throws Exception {
+        final LocalVariableTable lvt = new LocalVariableTable(5);
+        lvt.addRow(0, "I", "x", 0, 10);
+        lvt.addRow(2, "J", "y", 0, 10);
+        final LocalVariablesArea area = new LocalVariablesArea(lvt);
+        area.set(0, 0, CALC.valInt(1));
+        area.set(1, 0, CALC.valInt(2));
+        area.set(2, 0, CALC.valLong(3));
+        return area;
+    }
+
+    @Test
+    void theValuesAreTheWrittenSlotsInSlotOrder() throws Exception {
+        final LocalVariablesArea area = newArea();
+        assertEquals(Arrays.<Value>asList(CALC.valInt(1), CALC.valInt(2), CALC.valLong(3)), new ArrayList<>(area.values()));
+        assertEquals(3, area.values().size());
+        assertTrue(area.isWritten(2));
+        assertFalse(area.isWritten(3));
+        assertFalse(area.isWritten(5));
+        assertEquals(Collections.emptyList(), new ArrayList<>(new LocalVariablesArea(new LocalVariableTable(2)).values()));
+    }
+
+    @Test
+    void theValuesAreLookedUpByTheNamesOfTheirVariables() throws Exception {
+        final LocalVariablesArea area = newArea();
+        for (int slot = 0; slot < 3; ++slot) {
+            final Variable v = area.buildLocalVariable(slot, 0);
+            assertEquals(v.getValue(), area.get(v.getName(), 0));
+        }
+        assertEquals(CALC.valLong(3), area.get("y", 0));
+        assertNull(area.get("z", 0));
+        //out of the scope of x the slot has no name from the debug information
+        assertNull(area.get("x", 10));
+        assertEquals(CALC.valInt(1), area.get("__LOCAL[0]", 10));
+    }
+}
@@ -0,0 +1,34 @@
+package jbse.mem;
+
+import org.junit.jupiter.api.Test;
+
+import jbse.mem.exc.InvalidNumberOfOperandsException;
+
+import static jbse.mem.TestStates.CALC;
+import static jbse.mem.TestStates.newFrame;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OperandStackTest {
+    @Test
+    void anOperandIsTheOneAtItsDepth() throws Exception {
+        final OperandStack stack = new OperandStack();
+        for (int i = 0; i < 3; ++i) {
+            stack.push(CALC.valInt(i));
+        }
+        final Object[] operands = stack.operands(3);
+        for (int depth = 0; depth < 3; ++depth) {
+            assertSame(operands[2 - depth], stack.operand(depth));
+        }
+        assertSame(stack.top(), stack.operand(0));
+        assertThrows(InvalidNumberOfOperandsException.class, () -> stack.operand(3));
+        assertThrows(InvalidNumberOfOperandsException.class, () -> stack.operand(-1));
+    }
+
+    @Test
+    void framesGiveTheOperandsOfTheirStack() throws Exception {
+        final Frame frame = newFrame(0, 0, 2);
+        assertEquals(CALC.valInt(1), frame.operand(0));
+        assertEquals(CALC.valInt(0), frame.operand(1));
+        assertThrows(InvalidNumberOfOperandsException.class, () -> frame.operand(2));
+    }
+}
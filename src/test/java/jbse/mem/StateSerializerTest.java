@@ -0,0 +1,97 @@
+package jbse.mem;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+
+import jbse.common.Type;
+import jbse.val.DefaultValue;
+import jbse.val.Null;
+
+import static jbse.mem.TestStates.CALC;
+import static jbse.mem.TestStates.FIELD;
+import static jbse.mem.TestStates.field;
+import static jbse.mem.TestStates.newState;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateSerializerTest {
+    private static State roundTrip(State s) throws IOException {
+        final List<Object> shared = new ArrayList<>();
+        final byte[] bytes = StateSerializer.serialize(s, shared);
+        return StateSerializer.deserialize(bytes, shared);
+    }
+
+    private static Object javaRoundTrip(Object o) throws IOException, ClassNotFoundException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(o);
+        }
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+
+    @Test
+    void theDeserializedStateHasTheSamePathConditionHeapAndStack() throws Exception {
+        final State s = newState(3);
+        final State t = roundTrip(s);
+
+        assertNotSame(s, t);
+        assertEquals(s.getPathCondition(), t.getPathCondition());
+
+        final SortedMap<Long, Objekt> heapS = s.getHeap();
+        final SortedMap<Long, Objekt> heapT = t.getHeap();
+        assertEquals(heapS.keySet(), heapT.keySet());
+        final Objekt oS = heapS.get(heapS.firstKey());
+        final Objekt oT = heapT.get(heapT.firstKey());
+        assertNotSame(oS, oT);
+        assertSame(oS.getType(), oT.getType());
+        assertEquals(oS.getFieldValue(FIELD, oS.getType().getClassName()), oT.getFieldValue(FIELD, oT.getType().getClassName()));
+
+        assertEquals(s.getStackSize(), t.getStackSize());
+        assertSame(s.getCurrentFrame().getMethodClass(), t.getCurrentFrame().getMethodClass());
+        assertEquals(s.topOperand(), t.topOperand());
+    }
+
+    @Test
+    void theEditTokensAreSharedAndTheCopyIsIndependent() throws Exception {
+        final State s = newState(3);
+        final State t = roundTrip(s);
+
+        final Object pcS = field(s, "pathCondition");
+        final Object pcT = field(t, "pathCondition");
+        assertNotSame(pcS, pcT);
+        assertSame(field(pcS, "edit"), field(pcT, "edit"));
+        final Object heapS = field(s, "heap");
+        final Object heapT = field(t, "heap");
+        assertNotSame(heapS, heapT);
+        assertSame(field(heapS, "edit"), field(heapT, "edit"));
+
+        //the copy has its own nodes, so editing it in place
+        //with the shared token does not change the original
+        t.assume(CALC.push(CALC.valTerm(Type.INT, "y")).gt(CALC.valInt(0)).pop());
+        assertEquals(1, s.getPathCondition().size());
+        assertEquals(2, t.getPathCondition().size());
+    }
+
+    @Test
+    void nullAndDefaultValueAreSingletonsAfterDeserialization() throws Exception {
+        assertSame(Null.getInstance(), javaRoundTrip(Null.getInstance()));
+        assertSame(DefaultValue.getInstance(), javaRoundTrip(DefaultValue.getInstance()));
+    }
+
+    @Test
+    void aStateWithANonSerializableObjectIsRejected() throws Exception {
+        final State s = newState(3);
+        TestStates.addClauseNotSerializable(s);
+        assertThrows(NotSerializableException.class, () -> StateSerializer.serialize(s, new ArrayList<>()));
+    }
+}
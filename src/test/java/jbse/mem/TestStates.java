@@ -0,0 +1,144 @@
+package jbse.mem;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+
+import jbse.bc.ClassFile;
+import jbse.bc.ClassFileFactory;
+import jbse.bc.Classpath;
+import jbse.bc.Signature;
+import jbse.bc.SnippetFactory;
+import jbse.common.Type;
+import jbse.rewr.CalculatorRewriting;
+import jbse.val.Calculator;
+import jbse.val.HistoryPoint;
+import jbse.val.SymbolFactory;
+
+/**
+ * Builds small {@link State}s for the tests, without loading any
+ * class: they have a path condition, a snippet frame with an
+ * operand and an object in the heap.
+ */
+public final class TestStates {
+    /** The name of the field of the object in the heap. */
+    public static final String FIELD = "f";
+
+    /** A factory for states that never load classes. */
+    public static final class NoClassFileFactory extends ClassFileFactory {
+        @Override
+        protected ClassFile newClassFileClass(int definingClassLoader, String className, byte[] bytecode, ClassFile superClass, ClassFile[] superInterfaces) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected ClassFile newClassFileAnonymous(ClassFile hostClass, byte[] bytecode, ClassFile superClass, ClassFile[] superInterfaces, Object[] cpPatches) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** A clause that cannot be serialized. */
+    private static final class ClauseNotSerializable implements Clause {
+        private static final long serialVersionUID = 1L;
+
+        @SuppressWarnings("unused")
+        private final Object notSerializable = new Object() { };
+
+        @Override
+        public void accept(ClauseVisitor v) { }
+
+        @Override
+        public ClauseNotSerializable clone() {
+            return this;
+        }
+    }
+
+    public static final Calculator CALC = new CalculatorRewriting();
+
+    /**
+     * Creates a state. States created with different {@code id}s
+     * have different path conditions, operands and field values.
+     *
+     * @param id an {@code int}.
+     * @return a {@link State} whose path condition is {@code x > id},
+     *         whose stack has a frame with the operand {@code id}
+     *         and whose heap has an object with field {@link #FIELD}
+     *         set to {@code id}.
+     * @throws Exception if the state cannot be created.
+     */
+    public static State newState(int id) throws Exception {
+        final Classpath cp = new Classpath(Paths.get("."), Paths.get(System.getProperty("java.home")), Collections.emptyList(), Collections.emptyList());
+        final State s = new State(false, HistoryPoint.startingPreInitial(true), 10, 1000, cp, NoClassFileFactory.class, new HashMap<>(), new HashMap<>(), new SymbolFactory());
+        s.assume(CALC.push(CALC.valTerm(Type.INT, "x")).gt(CALC.valInt(id)).pop());
+
+        final ClassFile host = s.getClassHierarchy().getClassFilePrimitiveOrVoid("int");
+        final SnippetFrameNoWrap frame = new SnippetFrameNoWrap(new SnippetFactory().op_return().mk(), host, "$SNIPPET$" + id);
+        final ThreadStack stack = (ThreadStack) field(s, "stack");
+        stack.push(frame);
+        s.pushOperand(CALC.valInt(id));
+
+        final ClassFile cf = frame.getMethodClass();
+        final Signature f = new Signature(cf.getClassName(), "" + Type.INT, FIELD);
+        final InstanceImpl_DEFAULT o = new InstanceImpl_DEFAULT(CALC, false, cf, null, s.getHistoryPoint(), 0, f);
+        o.setFieldValue(f, CALC.valInt(id));
+        ((Heap) field(s, "heap")).addNew(o);
+        return s;
+    }
+
+    /**
+     * Creates a frame.
+     *
+     * @param id an {@code int}, that distinguishes the frame.
+     * @param locals an {@code int}, the number of local variables.
+     * @param operands an {@code int}, the number of operands.
+     * @return a {@link Frame} whose local variables and operands
+     *         are {@code int}s.
+     * @throws Exception if the frame cannot be created.
+     */
+    public static Frame newFrame(int id, int locals, int operands) throws Exception {
+        final ClassFile host = newState(id).getClassHierarchy().getClassFilePrimitiveOrVoid("int");
+        final SnippetFactory snippetFactory = new SnippetFactory();
+        for (int i = 0; i < locals; ++i) {
+            snippetFactory.addArg(CALC.valInt(i));
+        }
+        final SnippetFrameNoWrap frame = new SnippetFrameNoWrap(snippetFactory.op_return().mk(), host, "$SNIPPET$" + id);
+        for (int i = 0; i < operands; ++i) {
+            frame.push(CALC.valInt(i));
+        }
+        return frame;
+    }
+
+    /**
+     * Adds to the path condition of a state a clause
+     * that cannot be serialized.
+     *
+     * @param s a {@link State}.
+     * @throws Exception if the clause cannot be added.
+     */
+    public static void addClauseNotSerializable(State s) throws Exception {
+        final Object pathCondition = field(s, "pathCondition");
+        final Method add = PathCondition.class.getDeclaredMethod("add", Clause.class);
+        add.setAccessible(true);
+        add.invoke(pathCondition, new ClauseNotSerializable());
+    }
+
+    /**
+     * Reads a private field.
+     *
+     * @param o an {@link Object}.
+     * @param name the name of a field declared by the class of {@code o}.
+     * @return the value of the field.
+     * @throws ReflectiveOperationException if the field does not exist.
+     */
+    public static Object field(Object o, String name) throws ReflectiveOperationException {
+        final Field f = o.getClass().getDeclaredField(name);
+        f.setAccessible(true);
+        return f.get(o);
+    }
+
+    private TestStates() {
+        //do not instantiate!
+    }
+}
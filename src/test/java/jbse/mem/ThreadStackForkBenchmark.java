@@ -0,0 +1,77 @@
+package jbse.mem;
+
+import java.util.ArrayList;
+
+import static jbse.mem.TestStates.CALC;
+import static jbse.mem.TestStates.newFrame;
+
+/**
+ * Measures the cost of forking a thread stack, as a state does when
+ * the symbolic execution branches, and of modifying the top frame of
+ * the fork afterwards. It compares cloning the stack, that shares the
+ * frames, with cloning the stack and all its frames. It is not a test:
+ * run it with {@code java -cp <test and main classes> jbse.mem.ThreadStackForkBenchmark [depth...]}.
+ */
+public final class ThreadStackForkBenchmark {
+    private static final int LOCALS = 12;
+    private static final int OPERANDS = 4;
+    private static final int WARMUP = 20000;
+    private static final int FORKS = 200000;
+
+    /** Keeps the forks reachable, so that they are not optimized away. */
+    private static Object sink;
+
+    private static ThreadStack newStack(int depth) throws Exception {
+        final ThreadStack stack = new ThreadStack();
+        for (int i = 0; i < depth; ++i) {
+            stack.push(newFrame(i, LOCALS, OPERANDS));
+        }
+        return stack;
+    }
+
+    private static ThreadStack forkSharing(ThreadStack stack) throws Exception {
+        final ThreadStack fork = stack.clone();
+        fork.currentFrame().push(CALC.valInt(0));
+        return fork;
+    }
+
+    private static Object forkCopying(ThreadStack stack) throws Exception {
+        final ArrayList<Frame> frames = new ArrayList<>();
+        for (Frame f : stack.frames()) {
+            frames.add(f.clone());
+        }
+        frames.get(frames.size() - 1).push(CALC.valInt(0));
+        return frames;
+    }
+
+    private static double nanosPerFork(ThreadStack stack, boolean sharing, int forks) throws Exception {
+        final long start = System.nanoTime();
+        for (int i = 0; i < forks; ++i) {
+            sink = (sharing ? forkSharing(stack) : forkCopying(stack));
+        }
+        return (double) (System.nanoTime() - start) / forks;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final int[] depths;
+        if (args.length == 0) {
+            depths = new int[] { 1, 4, 16, 64, 256 };
+        } else {
+            depths = new int[args.length];
+            for (int i = 0; i < args.length; ++i) {
+                depths[i] = Integer.parseInt(args[i]);
+            }
+        }
+        System.out.println("depth   copying   sharing   (ns per fork)");
+        for (int depth : depths) {
+            final ThreadStack stack = newStack(depth);
+            nanosPerFork(stack, false, WARMUP);
+            nanosPerFork(stack, true, WARMUP);
+            final int forks = Math.max(1, FORKS / depth);
+            System.out.printf("%5d %9.0f %9.0f%n", depth, nanosPerFork(stack, false, forks), nanosPerFork(stack, true, forks));
+        }
+        if (sink == null) {
+            System.out.println();
+        }
+    }
+}
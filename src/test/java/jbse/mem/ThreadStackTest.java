@@ -0,0 +1,61 @@
+package jbse.mem;
+
+import org.junit.jupiter.api.Test;
+
+import jbse.val.Simplex;
+
+import static jbse.mem.TestStates.CALC;
+import static jbse.mem.TestStates.newFrame;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThreadStackTest {
+    private static ThreadStack newStack(int depth) throws Exception {
+        final ThreadStack stack = new ThreadStack();
+        for (int i = 0; i < depth; ++i) {
+            stack.push(newFrame(i, 2, 1));
+        }
+        return stack;
+    }
+
+    private static int top(Frame f) throws Exception {
+        return (Integer) ((Simplex) f.top()).getActualValue();
+    }
+
+    @Test
+    void aCloneSharesTheFramesUntilItModifiesThem() throws Exception {
+        final ThreadStack stack = newStack(3);
+        final ThreadStack clone = stack.clone();
+        for (int i = 0; i < 3; ++i) {
+            assertSame(stack.frames().get(i), clone.frames().get(i));
+        }
+
+        //the clone copies the current frame before modifying it
+        clone.currentFrame().push(CALC.valInt(42));
+        assertNotSame(stack.frames().get(2), clone.frames().get(2));
+        assertSame(stack.frames().get(1), clone.frames().get(1));
+        assertEquals(42, top(clone.currentFrame()));
+        assertEquals(0, top(stack.currentFrame()));
+
+        //so does the original, which no longer owns its frames either
+        final Frame rootBefore = stack.frames().get(0);
+        stack.rootFrame().push(CALC.valInt(7));
+        assertNotSame(rootBefore, stack.frames().get(0));
+        assertSame(rootBefore, clone.frames().get(0));
+        assertEquals(0, top(clone.rootFrame()));
+    }
+
+    @Test
+    void aFrameIsCopiedOnlyOnceAfterAFork() throws Exception {
+        final ThreadStack stack = newStack(2);
+        final ThreadStack clone = stack.clone();
+        final Frame copy = clone.currentFrame();
+        assertSame(copy, clone.currentFrame());
+
+        //the frames pushed after the fork are owned
+        final Frame pushed = newFrame(9, 2, 1);
+        clone.push(pushed);
+        assertSame(pushed, clone.currentFrame());
+        assertSame(pushed, clone.pop());
+        assertSame(copy, clone.currentFrame());
+    }
+}
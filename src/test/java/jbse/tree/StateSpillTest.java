@@ -0,0 +1,139 @@
+package jbse.tree;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.RandomAccessFile;
+
+import jbse.mem.State;
+import jbse.mem.TestStates;
+import jbse.tree.StateTree.BreadthMode;
+import jbse.tree.StateTree.StateIdentificationMode;
+import jbse.val.Simplex;
+
+import static jbse.mem.TestStates.field;
+import static jbse.mem.TestStates.newState;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateSpillTest {
+    private static int id(State s) throws Exception {
+        return (Integer) ((Simplex) s.topOperand()).getActualValue();
+    }
+
+    private static long fileLength(StateSpill spill) throws Exception {
+        return ((RandomAccessFile) field(spill, "file")).length();
+    }
+
+    @Test
+    void statesAreReadBackInSequenceOrder() throws Exception {
+        final StateSpill spill = new StateSpill();
+        try {
+            for (int i = 0; i < 5; ++i) {
+                spill.addFirst(newState(i));
+            }
+            assertEquals(5, spill.size());
+            assertEquals(5, spill.getStatesWritten());
+            assertEquals(0, spill.getFailures());
+            for (int i = 0; i < 5; ++i) {
+                assertEquals(4 - i, id(spill.get(i)));
+            }
+
+            spill.removeLast();
+            assertEquals(4, spill.size());
+            for (int i = 4; i > 0; --i) {
+                final State s = spill.removeFirst();
+                assertEquals(i, id(s));
+                assertEquals(1, s.getPathCondition().size());
+                assertEquals(1, s.getHeap().size());
+            }
+            assertTrue(spill.isEmpty());
+            assertEquals(5 + 4, spill.getStatesRead());
+        } finally {
+            spill.close();
+        }
+    }
+
+    @Test
+    void theFileIsTruncatedWhenTheSequenceEmpties() throws Exception {
+        final StateSpill spill = new StateSpill();
+        try {
+            spill.addFirst(newState(0));
+            spill.addFirst(newState(1));
+            spill.addFirst(newState(2));
+            assertEquals(spill.getBytesWritten(), fileLength(spill));
+            assertEquals(spill.getBytesWritten(), field(spill, "end"));
+
+            spill.removeFirst();
+            spill.removeLast();
+            assertEquals(spill.getBytesWritten(), fileLength(spill));
+            spill.removeFirst();
+            assertEquals(0, fileLength(spill));
+            assertEquals(0L, field(spill, "end"));
+
+            //the next state is written from the start of the file
+            final long before = spill.getBytesWritten();
+            spill.addFirst(newState(3));
+            assertEquals(spill.getBytesWritten() - before, fileLength(spill));
+            assertEquals(3, id(spill.removeFirst()));
+        } finally {
+            spill.close();
+        }
+    }
+
+    @Test
+    void aStateThatCannotBeSerializedStaysInMemory() throws Exception {
+        final StateSpill spill = new StateSpill();
+        try {
+            final State unserializable = newState(1);
+            TestStates.addClauseNotSerializable(unserializable);
+            spill.addFirst(newState(0));
+            spill.addFirst(unserializable);
+            spill.addFirst(newState(2));
+            assertEquals(3, spill.size());
+            assertEquals(2, spill.getStatesWritten());
+            assertEquals(1, spill.getFailures());
+
+            assertEquals(2, id(spill.removeFirst()));
+            assertSame(unserializable, spill.removeFirst());
+            assertEquals(0, id(spill.removeFirst()));
+            assertEquals(0, fileLength(spill));
+        } finally {
+            spill.close();
+        }
+    }
+
+    @Test
+    void theStateTreeSpillsTheLastStatesAndReloadsThemInOrder() throws Exception {
+        final StateTree tree = new StateTree(StateIdentificationMode.LONG, BreadthMode.MORE_THAN_ONE);
+        try {
+            tree.setMaxStatesInMemory(2);
+            tree.addStateStart(newState(-1), false);
+            assertEquals(-1, id(tree.nextState()));
+
+            final State[] states = new State[5];
+            tree.possiblyAddBranchPoint(true, false, false, false);
+            for (int i = 0; i < states.length; ++i) {
+                states[i] = newState(i);
+                states[i].setPhasePostInitial();
+                tree.addState(states[i], i + 1, "b" + i);
+            }
+            assertEquals(5, tree.getNumOfStates());
+            assertEquals(3, tree.getNumOfStatesSpilled());
+            assertEquals(3, tree.getTotalStatesSpilled());
+
+            //the last added states are emitted first, from memory
+            assertSame(states[4], tree.nextState());
+            assertSame(states[3], tree.nextState());
+            for (int i = 2; i >= 0; --i) {
+                final State s = tree.nextState();
+                assertNotSame(states[i], s);
+                assertEquals(i, id(s));
+                assertEquals(states[i].getHistoryPoint().toString(), s.getHistoryPoint().toString());
+            }
+            assertFalse(tree.hasStates());
+            assertEquals(3, tree.getTotalStatesReloaded());
+            assertEquals(0, tree.getTotalSpillFailures());
+        } finally {
+            tree.close();
+        }
+    }
+}
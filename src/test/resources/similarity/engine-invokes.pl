@@ -0,0 +1,22 @@
+% Facts for the similarity engine tests. Every test program performs a
+% single trace, made of the direct invocations of its entry point:
+%
+%   p.T:a  x:f x:g org/springframework/test:h
+%   p.T:b  x:f x:g x:k
+%   p.T:c  x:g x:f
+%   p.T:d  org/springframework/test:h x:g x:f
+%
+% With the invokesBlackList org/springframework/test the invocations of h
+% are ignored.
+
+invokes('p.T:a', [1], 1, 'p/T:a:()V', 1, 1, [], 'x:f', []).
+invokes('p.T:a', [1], 2, 'p/T:a:()V', 2, 1, [], 'x:g', []).
+invokes('p.T:a', [1], 3, 'p/T:a:()V', 3, 1, [], 'org/springframework/test:h', []).
+invokes('p.T:b', [1], 1, 'p/T:b:()V', 1, 1, [], 'x:f', []).
+invokes('p.T:b', [1], 2, 'p/T:b:()V', 2, 1, [], 'x:g', []).
+invokes('p.T:b', [1], 3, 'p/T:b:()V', 3, 1, [], 'x:k', []).
+invokes('p.T:c', [1], 1, 'p/T:c:()V', 1, 1, [], 'x:g', []).
+invokes('p.T:c', [1], 2, 'p/T:c:()V', 2, 1, [], 'x:f', []).
+invokes('p.T:d', [1], 1, 'p/T:d:()V', 1, 1, [], 'org/springframework/test:h', []).
+invokes('p.T:d', [1], 2, 'p/T:d:()V', 2, 1, [], 'x:g', []).
+invokes('p.T:d', [1], 3, 'p/T:d:()V', 3, 1, [], 'x:f', []).